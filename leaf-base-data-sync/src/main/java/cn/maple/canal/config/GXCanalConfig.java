@@ -2,6 +2,9 @@ package cn.maple.canal.config;
 
 import cn.maple.canal.properties.GXCanalProperties;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -26,4 +29,34 @@ public class GXCanalConfig {
     public Queue canalQueue() {
         return new Queue(canalProperties.getCanalQueueName());
     }
+
+    /**
+     * 批量消费时处理失败的消息转发到该队列
+     *
+     * @return Queue
+     */
+    @Bean
+    public Queue canalDeadLetterQueue() {
+        return new Queue(canalProperties.getDeadLetterQueueName());
+    }
+
+    /**
+     * 批量消费canal消息的监听容器
+     * 先应用spring.rabbitmq.listener.simple.*的配置(确认模式、重试、消息转换器等), 再设置批量消费相关的参数
+     *
+     * @param configurer        Spring Boot的监听容器配置器
+     * @param connectionFactory 连接工厂
+     * @return SimpleRabbitListenerContainerFactory
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory canalBatchRabbitListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(canalProperties.getBatchSize());
+        factory.setPrefetchCount(Math.max(canalProperties.getPrefetchCount(), canalProperties.getBatchSize()));
+        factory.setReceiveTimeout(canalProperties.getBatchReceiveTimeout());
+        return factory;
+    }
 }
@@ -1,16 +1,25 @@
 package cn.maple.canal.listener;
 
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.lang.Dict;
+import cn.maple.canal.properties.GXCanalProperties;
 import cn.maple.canal.service.GXCanalMessageParseService;
+import cn.maple.rabbitmq.util.GXRabbitMQMessageUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.Exchange;
 import org.springframework.amqp.rabbit.annotation.Queue;
 import org.springframework.amqp.rabbit.annotation.QueueBinding;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -19,13 +28,32 @@ public class GXCanalRabbitMQListener {
     @Resource
     private GXCanalMessageParseService canalMessageParseService;
 
+    @Resource
+    private GXCanalProperties canalProperties;
+
+    @Resource
+    private RabbitTemplate rabbitTemplate;
+
     @RabbitListener(bindings = {@QueueBinding(
             value = @Queue(value = "#{T(cn.maple.core.framework.util.GXSpELToolUtils).callBeanMethodSpELExpression(Class.forName('cn.maple.canal.properties.GXCanalProperties'), 'getCanalQueueName', Class.forName('java.lang.String'), new Class[0])}", durable = "true"),
             exchange = @Exchange(value = "#{T(cn.maple.core.framework.util.GXSpELToolUtils).callBeanMethodSpELExpression(Class.forName('cn.maple.canal.properties.GXCanalProperties'), 'getExchangeName', Class.forName('java.lang.String'), new Class[0])}", type = ExchangeTypes.FANOUT),
             key = "#{T(cn.maple.core.framework.util.GXSpELToolUtils).callBeanMethodSpELExpression(Class.forName('cn.maple.canal.properties.GXCanalProperties'), 'getRoutingKey', Class.forName('java.lang.String'), new Class[0])}")
     },
-            concurrency = "#{T(cn.maple.core.framework.util.GXSpELToolUtils).callBeanMethodSpELExpression(Class.forName('cn.maple.canal.properties.GXCanalProperties'), 'getConcurrencyCount', Class.forName('java.lang.String'), new Class[0])}")
-    public void listener(String message) {
-        canalMessageParseService.parseMessage(message);
+            concurrency = "#{T(cn.maple.core.framework.util.GXSpELToolUtils).callBeanMethodSpELExpression(Class.forName('cn.maple.canal.properties.GXCanalProperties'), 'getConcurrencyCount', Class.forName('java.lang.String'), new Class[0])}",
+            containerFactory = "canalBatchRabbitListenerContainerFactory")
+    public void listener(List<Message> messages) {
+        List<String> messageList = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            messageList.add(new String(GXRabbitMQMessageUtils.getBody(message), StandardCharsets.UTF_8));
+        }
+        Dict result = canalMessageParseService.parseMessages(messageList);
+        // 没有处理的消息按照原来的顺序转发到死信队列, 转发失败时抛出异常由RabbitMQ重新投递整批消息
+        List<Integer> failedIndexes = Convert.toList(Integer.class, result.get("failedIndexes"));
+        for (Integer index : failedIndexes) {
+            rabbitTemplate.send("", canalProperties.getDeadLetterQueueName(), messages.get(index));
+        }
+        if (!failedIndexes.isEmpty()) {
+            log.warn("canal批量消息中{}条消息转发到死信队列{}", failedIndexes.size(), canalProperties.getDeadLetterQueueName());
+        }
     }
 }
\ No newline at end of file
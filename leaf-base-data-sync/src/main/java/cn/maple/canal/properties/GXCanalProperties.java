@@ -27,4 +27,31 @@ public class GXCanalProperties {
      * 对应 conf/example/instance.properties文件里面配置的  canal.mq.topic = canal.example.exchange.routingkey
      */
     protected String routingKey = "canal.example.exchange.routingkey";
+
+    /**
+     * 每次批量消费的最大消息数量
+     */
+    protected Integer batchSize = 100;
+
+    /**
+     * 每个消费者的预取数量 不能小于batchSize
+     */
+    protected Integer prefetchCount = 250;
+
+    /**
+     * 凑不满一批消息时的最长等待时间(毫秒)
+     */
+    protected Long batchReceiveTimeout = 1000L;
+
+    /**
+     * 批量消息的并行处理数量
+     * 同一张表的消息始终由同一个分片按顺序处理, 保证同一主键的变更顺序
+     */
+    protected Integer parallelism = 4;
+
+    /**
+     * 死信队列的名字
+     * 批量消费时处理失败的消息(以及同一张表在它之后的消息)按照原来的顺序转发到该队列, 不再重新投递整批消息
+     */
+    protected String deadLetterQueueName = "canalDeadLetterQueue";
 }
@@ -2,6 +2,8 @@ package cn.maple.canal.service;
 
 import cn.hutool.core.lang.Dict;
 
+import java.util.List;
+
 public interface GXCanalMessageParseService {
     /**
      * 解析RabbitMQ中canal的消息信息
@@ -10,4 +12,21 @@ public interface GXCanalMessageParseService {
      * @return Dict
      */
     Dict parseMessage(String message);
+
+    /**
+     * 批量解析RabbitMQ中canal的消息信息
+     * 不同的表并行处理, 同一张表的消息按照顺序处理
+     * 某张表的消息处理失败时只影响该表在本批次中的后续消息, 其他表的消息正常处理
+     *
+     * @param messages 消息列表
+     * @return 本批次的处理结果统计, failedIndexes为没有处理的消息(处理失败的消息以及同一张表在它之后的消息)在列表中的位置
+     */
+    Dict parseMessages(List<String> messages);
+
+    /**
+     * 获取消费的统计信息(吞吐量以及延迟)
+     *
+     * @return Dict
+     */
+    Dict getStats();
 }
@@ -4,18 +4,93 @@ import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.json.JSONUtil;
 import cn.maple.canal.dto.GXCanalDataDto;
+import cn.maple.canal.properties.GXCanalProperties;
 import cn.maple.canal.service.GXCanalMessageParseService;
 import cn.maple.canal.service.GXProcessCanalDataService;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.util.GXExecutorUtils;
 import cn.maple.core.framework.util.GXSpringContextUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 public class GXCanalMessageParseServiceImpl implements GXCanalMessageParseService {
+    /**
+     * 默认的数据处理服务
+     */
+    private static final String DEFAULT_PROCESS_SERVICE_NAME = "defaultProcessCanalDataService";
+
+    /**
+     * 批量处理使用的线程池名字
+     */
+    private static final String EXECUTOR_NAME = "canal-sync";
+
+    private static final String OPERATOR = "operator";
+
+    /**
+     * database.table -> 数据处理服务
+     */
+    private final Map<String, Optional<GXProcessCanalDataService>> routeTable = new ConcurrentHashMap<>();
+
+    private final AtomicLong processedCount = new AtomicLong();
+
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private final AtomicLong invalidCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 最近一条消息的延迟(毫秒) binlog的执行时间到开始处理的时间
+     */
+    private final AtomicLong lastLagMillis = new AtomicLong();
+
+    /**
+     * 最近一个批次的吞吐量(条/秒)
+     */
+    private final AtomicLong lastBatchThroughput = new AtomicLong();
+
+    /**
+     * database.table -> 延迟的Timer
+     */
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+
+    /**
+     * database.table.type -> 处理数量的Counter
+     */
+    private final Map<String, Counter> processedCounters = new ConcurrentHashMap<>();
+
+    @Resource
+    private GXCanalProperties canalProperties;
+
+    /**
+     * 容器中所有的数据处理服务
+     */
+    private volatile Map<String, GXProcessCanalDataService> processServices;
+
+    /**
+     * 监控指标的注册中心 容器中不存在时为null
+     */
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * 是否已经查找过MeterRegistry
+     */
+    private volatile boolean meterRegistryResolved;
+
     /**
      * 解析RabbitMQ中canal的消息信息
      *
@@ -24,41 +99,251 @@ public class GXCanalMessageParseServiceImpl implements GXCanalMessageParseServic
      */
     @Override
     public Dict parseMessage(String message) {
-        String operator = "operator";
-        Dict dict = Dict.create();
-        if (!JSONUtil.isTypeJSON(message)) {
-            log.error("请传递JSON字符串");
-            return dict;
+        GXCanalDataDto canalDataDto = convertMessage(message);
+        if (Objects.isNull(canalDataDto)) {
+            return Dict.create();
         }
-        final GXCanalDataDto canalDataDto = JSONUtil.toBean(message, GXCanalDataDto.class);
-        final String serviceName = CharSequenceUtil.toCamelCase(CharSequenceUtil.format("{}_{}_Service", canalDataDto.getDatabase(), canalDataDto.getTable()));
-        Object bean = GXSpringContextUtils.getBean(serviceName);
-        if (Objects.isNull(bean)) {
-            bean = GXSpringContextUtils.getBean("defaultProcessCanalDataService");
-            if (Objects.isNull(bean)) {
-                log.debug("{}不存在,请提供实现了{}接口的类型", serviceName, GXProcessCanalDataService.class.getSimpleName());
-                return dict;
+        return process(canalDataDto);
+    }
+
+    /**
+     * 批量解析RabbitMQ中canal的消息信息
+     * 消息按照database.table分片, 不同分片并行处理, 同一分片内按照消息的到达顺序处理,
+     * 某张表的消息处理失败时该表在本批次中后续的消息不再处理, 这些消息的位置通过failedIndexes返回,
+     * 由调用方转发到死信队列, 同一分片中其他表的消息继续处理, 已经处理成功的消息不会被重新处理
+     *
+     * @param messages 消息列表
+     * @return 本批次的处理结果统计
+     */
+    @Override
+    public Dict parseMessages(List<String> messages) {
+        long start = System.nanoTime();
+        int parallelism = Math.max(canalProperties.getParallelism(), 1);
+        Map<Integer, List<Integer>> shards = new LinkedHashMap<>();
+        List<GXCanalDataDto> canalDataDtos = new ArrayList<>(messages.size());
+        int invalid = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            GXCanalDataDto canalDataDto = convertMessage(messages.get(i));
+            canalDataDtos.add(canalDataDto);
+            if (Objects.isNull(canalDataDto)) {
+                invalid++;
+                continue;
+            }
+            int shard = Math.floorMod(Objects.hash(canalDataDto.getDatabase(), canalDataDto.getTable()), parallelism);
+            shards.computeIfAbsent(shard, k -> new ArrayList<>()).add(i);
+        }
+        List<Integer> failedIndexes = new ArrayList<>();
+        if (shards.size() == 1) {
+            failedIndexes.addAll(processShard(canalDataDtos, shards.values().iterator().next()));
+        } else if (!shards.isEmpty()) {
+            ExecutorService executor = GXExecutorUtils.getExecutor(EXECUTOR_NAME, parallelism, parallelism, parallelism * 64);
+            List<CompletableFuture<List<Integer>>> futures = shards.values().stream()
+                    .map(shard -> CompletableFuture.supplyAsync(() -> processShard(canalDataDtos, shard), executor))
+                    .toList();
+            try {
+                futures.forEach(future -> failedIndexes.addAll(future.join()));
+            } catch (CompletionException e) {
+                throw new GXBusinessException("canal批量消息处理失败", Objects.isNull(e.getCause()) ? e : e.getCause());
+            }
+            Collections.sort(failedIndexes);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        int processed = messages.size() - invalid - failedIndexes.size();
+        batchCount.incrementAndGet();
+        lastBatchThroughput.set(processed * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1));
+        return Dict.create()
+                .set("total", messages.size())
+                .set("invalid", invalid)
+                .set("shards", shards.size())
+                .set("failedIndexes", failedIndexes)
+                .set("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * 获取消费的统计信息(吞吐量以及延迟)
+     *
+     * @return Dict
+     */
+    @Override
+    public Dict getStats() {
+        return Dict.create()
+                .set("processed", processedCount.get())
+                .set("failed", failedCount.get())
+                .set("invalid", invalidCount.get())
+                .set("batches", batchCount.get())
+                .set("lastLagMillis", lastLagMillis.get())
+                .set("lastBatchThroughput", lastBatchThroughput.get())
+                .set("routes", routeTable.size());
+    }
+
+    /**
+     * 按顺序处理同一个分片中的消息
+     * 某条消息处理失败时记录它所属的database.table, 该表后续的消息不再处理, 保证同一张表的变更顺序,
+     * 分片中其他表的消息继续处理
+     *
+     * @param canalDataDtos 本批次所有的消息
+     * @param shard         分片中的消息在批次中的位置
+     * @return 没有处理的消息在批次中的位置
+     */
+    private List<Integer> processShard(List<GXCanalDataDto> canalDataDtos, List<Integer> shard) {
+        List<Integer> failedIndexes = new ArrayList<>();
+        Set<String> failedTables = new HashSet<>();
+        for (Integer index : shard) {
+            GXCanalDataDto canalDataDto = canalDataDtos.get(index);
+            String tableKey = canalDataDto.getDatabase() + "." + canalDataDto.getTable();
+            if (failedTables.contains(tableKey)) {
+                failedIndexes.add(index);
+                continue;
+            }
+            try {
+                process(canalDataDto);
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                failedTables.add(tableKey);
+                failedIndexes.add(index);
+                log.error("canal消息处理失败 {} , 该表在本批次中后续的消息不再处理 : {}", tableKey, e.getMessage(), e);
             }
         }
-        if (!(bean instanceof GXProcessCanalDataService)) {
-            log.debug("{}必须是{}的子类", serviceName, GXProcessCanalDataService.class.getSimpleName());
+        return failedIndexes;
+    }
+
+    /**
+     * 将消息分发给对应的数据处理服务
+     *
+     * @param canalDataDto canal解析出来的数据
+     * @return Dict
+     */
+    private Dict process(GXCanalDataDto canalDataDto) {
+        Dict dict = Dict.create();
+        recordLag(canalDataDto);
+        Optional<GXProcessCanalDataService> processService = resolveProcessService(canalDataDto.getDatabase(), canalDataDto.getTable());
+        if (processService.isEmpty()) {
             return dict;
         }
         String type = Optional.ofNullable(canalDataDto.getType()).orElse("");
         switch (type) {
             case "UPDATE":
-                dict = ((GXProcessCanalDataService) bean).processUpdate(canalDataDto, Dict.create().set(operator, "update"));
+                dict = processService.get().processUpdate(canalDataDto, Dict.create().set(OPERATOR, "update"));
                 break;
             case "INSERT":
-                ((GXProcessCanalDataService) bean).processInsert(canalDataDto, Dict.create().set(operator, "insert"));
+                processService.get().processInsert(canalDataDto, Dict.create().set(OPERATOR, "insert"));
                 break;
             case "DELETE":
-                ((GXProcessCanalDataService) bean).processDelete(canalDataDto, Dict.create().set(operator, "delete"));
+                processService.get().processDelete(canalDataDto, Dict.create().set(OPERATOR, "delete"));
                 break;
             default:
                 log.debug("RabbitMQ监听的canal没有对应的操作");
                 break;
         }
+        processedCount.incrementAndGet();
+        recordProcessed(canalDataDto, type);
         return dict;
     }
+
+    /**
+     * 将消息转换为GXCanalDataDto
+     *
+     * @param message 消息
+     * @return 消息不是JSON时返回null
+     */
+    private GXCanalDataDto convertMessage(String message) {
+        if (!JSONUtil.isTypeJSON(message)) {
+            invalidCount.incrementAndGet();
+            log.error("请传递JSON字符串");
+            return null;
+        }
+        return JSONUtil.toBean(message, GXCanalDataDto.class);
+    }
+
+    /**
+     * 获取数据表对应的数据处理服务
+     * 服务名字为 {database}{Table}Service 的驼峰形式, 不存在时使用defaultProcessCanalDataService
+     * 解析结果按照database.table缓存, 后续消息不再查找Bean
+     *
+     * @param database 数据库名字
+     * @param table    数据表名字
+     * @return 数据处理服务
+     */
+    private Optional<GXProcessCanalDataService> resolveProcessService(String database, String table) {
+        return routeTable.computeIfAbsent(database + "." + table, key -> {
+            final String serviceName = CharSequenceUtil.toCamelCase(CharSequenceUtil.format("{}_{}_Service", database, table));
+            Map<String, GXProcessCanalDataService> services = getProcessServices();
+            GXProcessCanalDataService service = services.get(serviceName);
+            if (Objects.isNull(service) && GXSpringContextUtils.containsBean(serviceName)) {
+                log.debug("{}必须是{}的子类", serviceName, GXProcessCanalDataService.class.getSimpleName());
+                return Optional.empty();
+            }
+            if (Objects.isNull(service)) {
+                service = services.get(DEFAULT_PROCESS_SERVICE_NAME);
+            }
+            if (Objects.isNull(service)) {
+                log.debug("{}不存在,请提供实现了{}接口的类型", serviceName, GXProcessCanalDataService.class.getSimpleName());
+            }
+            return Optional.ofNullable(service);
+        });
+    }
+
+    private Map<String, GXProcessCanalDataService> getProcessServices() {
+        if (Objects.isNull(processServices)) {
+            processServices = Map.copyOf(GXSpringContextUtils.getBeans(GXProcessCanalDataService.class));
+        }
+        return processServices;
+    }
+
+    private MeterRegistry getMeterRegistry() {
+        if (!meterRegistryResolved) {
+            meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+            meterRegistryResolved = true;
+        }
+        return meterRegistry;
+    }
+
+    /**
+     * 记录消息的延迟
+     *
+     * @param canalDataDto canal解析出来的数据
+     */
+    private void recordLag(GXCanalDataDto canalDataDto) {
+        if (Objects.isNull(canalDataDto.getEs())) {
+            return;
+        }
+        long lag = Math.max(System.currentTimeMillis() - canalDataDto.getEs(), 0);
+        lastLagMillis.set(lag);
+        try {
+            MeterRegistry meterRegistry = getMeterRegistry();
+            if (Objects.nonNull(meterRegistry)) {
+                String database = CharSequenceUtil.nullToEmpty(canalDataDto.getDatabase());
+                String table = CharSequenceUtil.nullToEmpty(canalDataDto.getTable());
+                lagTimers.computeIfAbsent(database + "." + table, key -> Timer.builder("maple.canal.lag")
+                        .tag("database", database)
+                        .tag("table", table)
+                        .register(meterRegistry)).record(lag, TimeUnit.MILLISECONDS);
+            }
+        } catch (RuntimeException e) {
+            log.debug("canal消息记录延迟失败 : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 记录处理的消息数量
+     *
+     * @param canalDataDto canal解析出来的数据
+     * @param type         操作类型
+     */
+    private void recordProcessed(GXCanalDataDto canalDataDto, String type) {
+        try {
+            MeterRegistry meterRegistry = getMeterRegistry();
+            if (Objects.nonNull(meterRegistry)) {
+                String database = CharSequenceUtil.nullToEmpty(canalDataDto.getDatabase());
+                String table = CharSequenceUtil.nullToEmpty(canalDataDto.getTable());
+                processedCounters.computeIfAbsent(database + "." + table + "." + type, key -> Counter.builder("maple.canal.events")
+                        .tag("database", database)
+                        .tag("table", table)
+                        .tag("type", type)
+                        .register(meterRegistry)).increment();
+            }
+        } catch (RuntimeException e) {
+            log.debug("canal消息记录数量失败 : {}", e.getMessage());
+        }
+    }
 }
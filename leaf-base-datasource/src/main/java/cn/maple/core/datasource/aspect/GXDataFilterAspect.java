@@ -54,11 +54,10 @@ public class GXDataFilterAspect {
 
         // 否则进行数据过滤
         try {
-            String sqlFilter = getSqlFilter(point);
-            if (CharSequenceUtil.isEmpty(sqlFilter)) {
+            GXDataFilterInnerDto dataScope = getDataFilterInnerDto(point);
+            if (Objects.isNull(dataScope)) {
                 return;
             }
-            GXDataFilterInnerDto dataScope = new GXDataFilterInnerDto(sqlFilter);
             GXDataFilterThreadLocalUtils.setDataFilterInnerDto(dataScope);
         } catch (Exception e) {
             throw new GXBusinessException(e.getMessage(), e);
@@ -66,14 +65,18 @@ public class GXDataFilterAspect {
     }
 
     /**
-     * 获取数据过滤的SQL
+     * 获取数据过滤的SQL及其绑定参数
      */
-    private String getSqlFilter(JoinPoint point) throws Exception {
+    private GXDataFilterInnerDto getDataFilterInnerDto(JoinPoint point) throws Exception {
         MethodSignature signature = (MethodSignature) point.getSignature();
         Method method = point.getTarget().getClass().getDeclaredMethod(signature.getName(), signature.getParameterTypes());
         GXDataFilter dataFilter = method.getAnnotation(GXDataFilter.class);
         GXDataScopeService dataScopeService = GXSpringContextUtils.getBean(GXDataScopeService.class);
         assert dataScopeService != null;
-        return dataScopeService.getSqlFilter(dataFilter, point);
+        String sqlFilter = dataScopeService.getSqlFilter(dataFilter, point);
+        if (CharSequenceUtil.isEmpty(sqlFilter)) {
+            return null;
+        }
+        return new GXDataFilterInnerDto(sqlFilter, dataScopeService.getSqlFilterParams(dataFilter, point).toArray());
     }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ import cn.maple.core.framework.dto.inner.field.GXUpdateField;
 import cn.maple.core.framework.dto.inner.op.GXDbJoinOp;
 import cn.maple.core.framework.exception.GXBusinessException;
 import cn.maple.core.framework.exception.GXDBConditionException;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
+import cn.maple.core.framework.sql.GXSqlTemplateCache;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
@@ -34,6 +36,11 @@ import java.util.stream.Collectors;
 public interface GXBaseBuilder {
     Logger LOGGER = LoggerFactory.getLogger(GXBaseBuilder.class);
 
+    /**
+     * 与MyBatis的SQL构造器输出格式一致的SQL模板构造器
+     */
+    GXSqlTemplateCache.GXSqlTemplateBuilder SQL_TEMPLATE_BUILDER = GXBaseBuilder::buildSqlTemplate;
+
     /**
      * 更新实体字段和虚拟字段
      *
@@ -74,29 +81,52 @@ public interface GXBaseBuilder {
      * @return SQL语句
      */
     static String findByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
-        Set<String> columns = dbQueryParamInnerDto.getColumns();
-        String tableName = dbQueryParamInnerDto.getTableName();
-        String tableNameAlias = Optional.ofNullable(dbQueryParamInnerDto.getTableNameAlias()).orElse(tableName);
-        Set<String> groupByField = dbQueryParamInnerDto.getGroupByField();
-        Map<String, String> orderByField = dbQueryParamInnerDto.getOrderByField();
-        Set<String> having = dbQueryParamInnerDto.getHaving();
-        Integer limit = dbQueryParamInnerDto.getLimit();
-        String selectStr = CharSequenceUtil.format("{}.*", tableNameAlias);
-        if (CollUtil.isNotEmpty(columns)) {
-            List<String> columnsCollect = columns.stream().map(CharSequenceUtil::toUnderlineCase).collect(Collectors.toList());
-            selectStr = String.join(",", columnsCollect);
+        return buildFindByCondition(dbQueryParamInnerDto, newParamBinder("", dbQueryParamInnerDto));
+    }
+
+    /**
+     * 创建MyBatis参数绑定器
+     * 未开启绑定参数模式时返回null, 此时条件的值直接拼接到SQL语句中
+     *
+     * @param paramName            mapper方法中查询对象的参数名字
+     * @param dbQueryParamInnerDto 查询对象
+     * @return GXSqlParamBinder
+     */
+    static GXSqlParamBinder newParamBinder(String paramName, GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        if (!GXSqlParamBinder.isBindParameter(dbQueryParamInnerDto)) {
+            return null;
         }
-        SQL sql = new SQL().SELECT(selectStr).FROM(CharSequenceUtil.format("{} {}", tableName, tableNameAlias));
+        return GXSqlParamBinder.myBatis(paramName, dbQueryParamInnerDto);
+    }
+
+    /**
+     * 通过条件获取数据列表
+     * <p>
+     * 注意: MyBatis的Provider方法不能重名, 所以这里不使用findByCondition的重载
+     * SELECT/FROM以及GROUP BY/HAVING/ORDER BY按照查询形状从GXSqlTemplateCache中获取, 每次只拼接JOIN、WHERE与LIMIT,
+     * 生成的SQL与使用MyBatis的SQL构造器时相同
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param binder               参数绑定器(为null时直接拼接条件的值)
+     * @return SQL语句
+     */
+    static String buildFindByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, GXSqlParamBinder binder) {
+        String tableNameAlias = Optional.ofNullable(dbQueryParamInnerDto.getTableNameAlias()).orElse(dbQueryParamInnerDto.getTableName());
+        Integer limit = dbQueryParamInnerDto.getLimit();
+        GXSqlTemplateCache.GXSqlTemplate template = GXSqlTemplateCache.getTemplate(dbQueryParamInnerDto, true, SQL_TEMPLATE_BUILDER);
+        StringBuilder sql = new StringBuilder(template.getSelectFrom().length() + template.getTail().length() + 256);
+        sql.append(template.getSelectFrom());
         // 处理JOIN
         List<GXJoinDto> joins = dbQueryParamInnerDto.getJoins();
         if (Objects.nonNull(joins) && !joins.isEmpty()) {
-            handleSQLJoin(sql, joins);
+            appendSQLJoin(sql, joins);
         }
         List<GXCondition<?>> condition = dbQueryParamInnerDto.getCondition();
         // 处理WHERE
-        handleSQLCondition(sql, condition);
+        List<String> wheres = new ArrayList<>();
+        collectSQLCondition(wheres, condition, binder);
         if (!CollUtil.contains(condition, (c -> GXConditionExclusionDeletedField.class.isAssignableFrom(c.getClass())))) {
-            sql.WHERE(CharSequenceUtil.format("{}.is_deleted = {}", tableNameAlias, 0));
+            wheres.add(CharSequenceUtil.format("{}.is_deleted = {}", tableNameAlias, 0));
         }
         // 处理JOIN表的Where条件
         if (Objects.nonNull(joins) && !joins.isEmpty()) {
@@ -112,29 +142,56 @@ public interface GXBaseBuilder {
                         joinConditions.add(isDeletedCondition);
                     }
                 }
-                handleSQLCondition(sql, joinConditions);
+                collectSQLCondition(wheres, joinConditions, binder);
             });
         }
+        if (!wheres.isEmpty()) {
+            sql.append("\nWHERE (").append(String.join(" AND ", wheres)).append(')');
+        }
+        // 处理分组、HAVING以及排序
+        sql.append(template.getTail());
+        // 处理LIMIT
+        if (Objects.nonNull(limit) && limit > 0) {
+            sql.append(" LIMIT ").append(limit);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 构造SQL模板
+     * 格式与MyBatis的SQL构造器相同
+     *
+     * @param dbQueryParamInnerDto  查询条件
+     * @param tableName             表名
+     * @param tableNameAlias        表别名
+     * @param columnToUnderlineCase 是否将查询字段转换成下划线
+     * @return SQL模板
+     */
+    static GXSqlTemplateCache.GXSqlTemplate buildSqlTemplate(GXBaseQueryParamInnerDto dbQueryParamInnerDto, String tableName, String tableNameAlias, boolean columnToUnderlineCase) {
+        Set<String> columns = dbQueryParamInnerDto.getColumns();
+        Set<String> groupByField = dbQueryParamInnerDto.getGroupByField();
+        Set<String> having = dbQueryParamInnerDto.getHaving();
+        Map<String, String> orderByField = dbQueryParamInnerDto.getOrderByField();
+        String selectStr = CharSequenceUtil.format("{}.*", tableNameAlias);
+        if (CollUtil.isNotEmpty(columns)) {
+            selectStr = columns.stream().map(column -> columnToUnderlineCase ? GXSqlTemplateCache.toUnderlineCase(column) : column).collect(Collectors.joining(","));
+        }
+        String selectFrom = CharSequenceUtil.format("SELECT {}\nFROM {} {}", selectStr, tableName, tableNameAlias);
+        StringBuilder tail = new StringBuilder();
         // 处理分组
         if (CollUtil.isNotEmpty(groupByField)) {
-            sql.GROUP_BY(groupByField.toArray(new String[0]));
+            tail.append("\nGROUP BY ").append(String.join(", ", groupByField));
         }
         // 处理HAVING
         if (CollUtil.isNotEmpty(having)) {
-            sql.HAVING(having.toArray(new String[0]));
+            tail.append("\nHAVING (").append(String.join(" AND ", having)).append(')');
         }
         // 处理排序
         if (Objects.nonNull(orderByField) && !orderByField.isEmpty()) {
-            String[] orderColumns = new String[orderByField.size()];
-            Integer[] idx = new Integer[]{0};
-            orderByField.forEach((k, v) -> orderColumns[idx[0]++] = CharSequenceUtil.format("{} {}", k, v));
-            sql.ORDER_BY(orderColumns);
-        }
-        // 处理LIMIT
-        if (Objects.nonNull(limit) && limit > 0) {
-            sql.LIMIT(limit);
+            String orderStr = orderByField.entrySet().stream().map(e -> CharSequenceUtil.format("{} {}", e.getKey(), e.getValue())).collect(Collectors.joining(", "));
+            tail.append("\nORDER BY ").append(orderStr);
         }
-        return sql.toString();
+        return new GXSqlTemplateCache.GXSqlTemplate(selectFrom, tail.toString());
     }
 
     /**
@@ -145,31 +202,72 @@ public interface GXBaseBuilder {
      */
     static void handleSQLJoin(SQL sql, List<GXJoinDto> joins) {
         joins.forEach(join -> {
-            GXJoinTypeEnums joinType = join.getJoinType();
-            String tableName = join.getJoinTableName();
-            String tableAliasName = join.getJoinTableNameAlias();
-            String masterTableName = join.getMasterTableName();
-            String masterTableNameAlias = join.getMasterTableNameAlias();
-            if (Objects.isNull(masterTableNameAlias)) {
-                masterTableNameAlias = masterTableName;
-            }
-            String andClause = Optional.ofNullable(join.getAnd()).orElse(Collections.emptyList()).stream().map(GXDbJoinOp::opString).collect(Collectors.joining(GXBuilderConstant.AND_OP));
-            String orClause = Optional.ofNullable(join.getOr()).orElse(Collections.emptyList()).stream().map(GXDbJoinOp::opString).collect(Collectors.joining(GXBuilderConstant.AND_OP));
-            String assemblySql = CharSequenceUtil.format("{} {} ON ({})", masterTableName, masterTableNameAlias, andClause);
-            if (CharSequenceUtil.isNotEmpty(orClause)) {
-                assemblySql = assemblySql.replace("ON (", "ON ((");
-                assemblySql = CharSequenceUtil.format("{} {} ({}))", assemblySql, GXBuilderConstant.OR_OP, orClause);
-            }
-            if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.LEFT_JOIN_TYPE, joinType.getJoinType())) {
+            String joinType = join.getJoinType().getJoinType();
+            String assemblySql = buildJoinClause(join);
+            if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.LEFT_JOIN_TYPE, joinType)) {
                 sql.LEFT_OUTER_JOIN(assemblySql);
-            } else if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.RIGHT_JOIN_TYPE, joinType.getJoinType())) {
+            } else if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.RIGHT_JOIN_TYPE, joinType)) {
                 sql.RIGHT_OUTER_JOIN(assemblySql);
-            } else if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.INNER_JOIN_TYPE, joinType.getJoinType())) {
+            } else if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.INNER_JOIN_TYPE, joinType)) {
                 sql.INNER_JOIN(assemblySql);
             }
         });
     }
 
+    /**
+     * 拼接JOIN表
+     * 与MyBatis的SQL构造器一样按照INNER、LEFT、RIGHT的顺序输出
+     *
+     * @param sql   SQL语句
+     * @param joins joins信息
+     */
+    static void appendSQLJoin(StringBuilder sql, List<GXJoinDto> joins) {
+        List<String> innerJoins = new ArrayList<>();
+        List<String> leftJoins = new ArrayList<>();
+        List<String> rightJoins = new ArrayList<>();
+        joins.forEach(join -> {
+            String joinType = join.getJoinType().getJoinType();
+            if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.LEFT_JOIN_TYPE, joinType)) {
+                leftJoins.add(buildJoinClause(join));
+            } else if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.RIGHT_JOIN_TYPE, joinType)) {
+                rightJoins.add(buildJoinClause(join));
+            } else if (CharSequenceUtil.equalsIgnoreCase(GXBuilderConstant.INNER_JOIN_TYPE, joinType)) {
+                innerJoins.add(buildJoinClause(join));
+            }
+        });
+        appendJoinClause(sql, "INNER JOIN", innerJoins);
+        appendJoinClause(sql, "LEFT OUTER JOIN", leftJoins);
+        appendJoinClause(sql, "RIGHT OUTER JOIN", rightJoins);
+    }
+
+    private static void appendJoinClause(StringBuilder sql, String keyword, List<String> clauses) {
+        for (String clause : clauses) {
+            sql.append('\n').append(keyword).append(' ').append(clause);
+        }
+    }
+
+    /**
+     * 构造JOIN表的ON语句
+     *
+     * @param join join信息
+     * @return 表名 别名 ON (...)
+     */
+    static String buildJoinClause(GXJoinDto join) {
+        String masterTableName = join.getMasterTableName();
+        String masterTableNameAlias = join.getMasterTableNameAlias();
+        if (Objects.isNull(masterTableNameAlias)) {
+            masterTableNameAlias = masterTableName;
+        }
+        String andClause = Optional.ofNullable(join.getAnd()).orElse(Collections.emptyList()).stream().map(GXDbJoinOp::opString).collect(Collectors.joining(GXBuilderConstant.AND_OP));
+        String orClause = Optional.ofNullable(join.getOr()).orElse(Collections.emptyList()).stream().map(GXDbJoinOp::opString).collect(Collectors.joining(GXBuilderConstant.AND_OP));
+        String assemblySql = CharSequenceUtil.format("{} {} ON ({})", masterTableName, masterTableNameAlias, andClause);
+        if (CharSequenceUtil.isNotEmpty(orClause)) {
+            assemblySql = assemblySql.replace("ON (", "ON ((");
+            assemblySql = CharSequenceUtil.format("{} {} ({}))", assemblySql, GXBuilderConstant.OR_OP, orClause);
+        }
+        return assemblySql;
+    }
+
     /**
      * 通过条件获取分类数据
      *
@@ -182,9 +280,51 @@ public interface GXBaseBuilder {
         if (CharSequenceUtil.isNotBlank(dbQueryParamInnerDto.getRawSQL())) {
             return dbQueryParamInnerDto.getRawSQL();
         }
+        return buildFindByCondition(dbQueryParamInnerDto, newParamBinder("param2", dbQueryParamInnerDto));
+    }
+
+    /**
+     * 流式读取给定条件的数据
+     * 与findByCondition生成相同的SQL, 单独的Provider方法便于Mapper配置fetchSize
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @return SQL语句
+     */
+    static String streamByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
         return findByCondition(dbQueryParamInnerDto);
     }
 
+    /**
+     * 统计给定条件的记录数
+     * 统计时忽略排序与LIMIT
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @return SQL语句
+     */
+    static String countByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        Integer limit = dbQueryParamInnerDto.getLimit();
+        Map<String, String> orderByField = dbQueryParamInnerDto.getOrderByField();
+        dbQueryParamInnerDto.setLimit(null);
+        dbQueryParamInnerDto.setOrderByField(null);
+        try {
+            return CharSequenceUtil.format("SELECT COUNT(*) FROM ({}) AS TOTAL", findByCondition(dbQueryParamInnerDto));
+        } finally {
+            dbQueryParamInnerDto.setLimit(limit);
+            dbQueryParamInnerDto.setOrderByField(orderByField);
+        }
+    }
+
+    /**
+     * 获取给定条件的执行计划
+     * 用于估算记录数
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @return SQL语句
+     */
+    static String explainByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        return "EXPLAIN " + findByCondition(dbQueryParamInnerDto);
+    }
+
     /**
      * 通过条件获取数据列表
      *
@@ -207,27 +347,49 @@ public interface GXBaseBuilder {
      * @param condition 条件
      */
     static void handleSQLCondition(SQL sql, List<GXCondition<?>> condition) {
+        handleSQLCondition(sql, condition, null);
+    }
+
+    /**
+     * 处理SQL语句的Where条件
+     *
+     * @param sql       SQL对象
+     * @param condition 条件
+     * @param binder    参数绑定器(为null时直接拼接条件的值)
+     */
+    static void handleSQLCondition(SQL sql, List<GXCondition<?>> condition, GXSqlParamBinder binder) {
+        List<String> lastWheres = new ArrayList<>();
+        collectSQLCondition(lastWheres, condition, binder);
+        if (!lastWheres.isEmpty()) {
+            String whereStr = String.join(" AND ", lastWheres);
+            sql.WHERE(whereStr);
+        }
+    }
+
+    /**
+     * 收集SQL语句的Where条件
+     *
+     * @param lastWheres 收集结果
+     * @param condition  条件
+     * @param binder     参数绑定器(为null时直接拼接条件的值)
+     */
+    static void collectSQLCondition(List<String> lastWheres, List<GXCondition<?>> condition, GXSqlParamBinder binder) {
         if (Objects.isNull(condition) || condition.isEmpty()) {
             return;
         }
-        List<String> lastWheres = new ArrayList<>();
         condition.forEach(c -> {
             if (!GXConditionExclusionDeletedField.class.isAssignableFrom(c.getClass())) {
                 if (ObjectUtil.isNull(c.getFieldValue()) && !GXConditionIsNULL.class.isAssignableFrom(c.getClass())) {
                     String msg = CharSequenceUtil.format("数据查询条件错误【查询字段{}.{}的值是null】", c.getTableNameAlias(), c.getFieldExpression());
                     throw new GXDBConditionException(msg);
                 }
-                String str = c.whereString();
+                String str = c.whereString(binder);
                 if (CharSequenceUtil.isNotEmpty(str)) {
                     SqlInjectionUtils.check(str);
                     lastWheres.add(str);
                 }
             }
         });
-        if (!lastWheres.isEmpty()) {
-            String whereStr = String.join(" AND ", lastWheres);
-            sql.WHERE(whereStr);
-        }
     }
 
     /**
@@ -297,6 +459,20 @@ public interface GXBaseBuilder {
      * @return SQL语句
      */
     static String unionFindByCondition(GXBaseQueryParamInnerDto masterQueryParamInnerDto, List<GXBaseQueryParamInnerDto> unionQueryParamInnerDtoLst, GXUnionTypeEnums unionTypeEnums) {
+        return buildUnionFindByCondition(masterQueryParamInnerDto, unionQueryParamInnerDtoLst, unionTypeEnums, newParamBinder("param1", masterQueryParamInnerDto));
+    }
+
+    /**
+     * 构建Union语句 将组合出来的union语句作为from的表名来处理
+     * 绑定参数模式下所有子查询的参数值统一收集到主查询对象中
+     *
+     * @param masterQueryParamInnerDto   外层的主查询条件
+     * @param unionQueryParamInnerDtoLst union查询条件
+     * @param unionTypeEnums             union的类型
+     * @param binder                     参数绑定器(为null时直接拼接条件的值)
+     * @return SQL语句
+     */
+    static String buildUnionFindByCondition(GXBaseQueryParamInnerDto masterQueryParamInnerDto, List<GXBaseQueryParamInnerDto> unionQueryParamInnerDtoLst, GXUnionTypeEnums unionTypeEnums, GXSqlParamBinder binder) {
         List<String> unionSqlLst = new ArrayList<>();
         unionQueryParamInnerDtoLst.forEach(queryParamInnerDto -> {
             String tableName = queryParamInnerDto.getTableName();
@@ -307,7 +483,7 @@ public interface GXBaseBuilder {
             if (CharSequenceUtil.isEmpty(tableNameAlias)) {
                 queryParamInnerDto.setTableNameAlias(queryParamInnerDto.getTableName());
             }
-            String sql = findByCondition(queryParamInnerDto);
+            String sql = buildFindByCondition(queryParamInnerDto, binder);
             unionSqlLst.add("(" + sql + ")");
         });
         String unionSql = String.join("\n " + unionTypeEnums.getUnionType() + " \n", unionSqlLst);
@@ -320,7 +496,7 @@ public interface GXBaseBuilder {
                 }
             });
         }
-        return GXBaseBuilder.findByCondition(masterQueryParamInnerDto);
+        return GXBaseBuilder.buildFindByCondition(masterQueryParamInnerDto, binder);
     }
 
     /**
@@ -362,6 +538,6 @@ public interface GXBaseBuilder {
         if (CharSequenceUtil.isNotBlank(masterQueryParamInnerDto.getRawSQL())) {
             return masterQueryParamInnerDto.getRawSQL();
         }
-        return unionFindByCondition(masterQueryParamInnerDto, unionQueryParamInnerDtoLst, unionTypeEnums);
+        return buildUnionFindByCondition(masterQueryParamInnerDto, unionQueryParamInnerDtoLst, unionTypeEnums, newParamBinder("param2", masterQueryParamInnerDto));
     }
 }
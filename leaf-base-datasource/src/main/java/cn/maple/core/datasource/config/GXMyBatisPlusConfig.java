@@ -22,10 +22,13 @@ import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.LongValue;
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.ApplicationContext;
@@ -35,6 +38,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 
 @Slf4j
 @EnableTransactionManagement
@@ -106,6 +110,24 @@ public class GXMyBatisPlusConfig {
         return GXMyBatisPlusConfig::customize;
     }
 
+    /**
+     * 按照数据库类型区分语句的databaseId
+     * MySQL/MariaDB为mysql, 用于只在MySQL上生效的设置(例如GXBaseMapper#streamByCondition的流式fetchSize),
+     * 其他数据库没有databaseId, 使用通用的语句
+     *
+     * @return DatabaseIdProvider
+     */
+    @Bean
+    @ConditionalOnMissingBean(DatabaseIdProvider.class)
+    public DatabaseIdProvider databaseIdProvider() {
+        Properties properties = new Properties();
+        properties.setProperty("MySQL", "mysql");
+        properties.setProperty("MariaDB", "mysql");
+        VendorDatabaseIdProvider databaseIdProvider = new VendorDatabaseIdProvider();
+        databaseIdProvider.setProperties(properties);
+        return databaseIdProvider;
+    }
+
     /**
      * 自定义多租户插件类
      *
@@ -9,11 +9,14 @@ import cn.maple.core.datasource.mapper.GXBaseMapper;
 import cn.maple.core.datasource.util.GXDBCommonUtils;
 import cn.maple.core.framework.dao.GXBaseDao;
 import cn.maple.core.framework.dto.inner.GXBaseQueryParamInnerDto;
+import cn.maple.core.framework.dto.inner.GXPaginationCountModeEnums;
 import cn.maple.core.framework.dto.inner.GXUnionTypeEnums;
 import cn.maple.core.framework.dto.inner.condition.GXCondition;
 import cn.maple.core.framework.dto.inner.condition.GXConditionEQ;
+import cn.maple.core.framework.dto.inner.condition.GXConditionKeyset;
 import cn.maple.core.framework.dto.inner.condition.GXConditionStrEQ;
 import cn.maple.core.framework.dto.inner.field.GXUpdateField;
+import cn.maple.core.framework.dto.res.GXCursorPaginationResDto;
 import cn.maple.core.framework.dto.res.GXPaginationResDto;
 import cn.maple.core.framework.exception.GXBusinessException;
 import cn.maple.core.framework.model.GXBaseModel;
@@ -23,8 +26,11 @@ import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.SneakyThrows;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +38,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.stream.Collectors;
 
 public class GXMyBatisDao<M extends GXBaseMapper<T>, T extends GXBaseModel, ID extends Serializable> extends ServiceImpl<M, T> implements GXBaseDao<T, ID> {
     /**
@@ -55,9 +62,22 @@ public class GXMyBatisDao<M extends GXBaseMapper<T>, T extends GXBaseModel, ID e
             dbQueryParamInnerDto.setColumns(CollUtil.newHashSet("*"));
         }
         Method mapperMethod = ReflectUtil.getMethod(baseMapper.getClass(), mapperMethodName, IPage.class, dbQueryParamInnerDto.getClass());
+        if (Objects.nonNull(mapperMethod) && CharSequenceUtil.isBlank(dbQueryParamInnerDto.getRawSQL()) && (dbQueryParamInnerDto.isCursorPagination() || CharSequenceUtil.isNotBlank(dbQueryParamInnerDto.getCursor()))) {
+            return cursorPaginate(dbQueryParamInnerDto, (int) iPage.getSize(), mapperMethod);
+        }
+        GXPaginationCountModeEnums countMode = Optional.ofNullable(dbQueryParamInnerDto.getCountMode()).orElse(GXPaginationCountModeEnums.EXACT);
+        if (countMode != GXPaginationCountModeEnums.EXACT && iPage instanceof Page) {
+            ((Page<Dict>) iPage).setSearchCount(false);
+        }
         if (Objects.nonNull(mapperMethod)) {
             final List<Dict> records = ReflectUtil.invoke(baseMapper, mapperMethod, iPage, dbQueryParamInnerDto);
             iPage.setRecords(records);
+            if (countMode == GXPaginationCountModeEnums.SKIP) {
+                return new GXPaginationResDto<>(records, -1, -1, iPage.getSize(), iPage.getCurrent());
+            }
+            if (countMode == GXPaginationCountModeEnums.ESTIMATED) {
+                iPage.setTotal(estimateTotal(dbQueryParamInnerDto));
+            }
             return GXDBCommonUtils.convertPageToPaginationResDto(iPage);
         }
         Class<?>[] interfaces = baseMapper.getClass().getInterfaces();
@@ -68,6 +88,122 @@ public class GXMyBatisDao<M extends GXBaseMapper<T>, T extends GXBaseModel, ID e
         throw new GXBusinessException(CharSequenceUtil.format("请在Mapper类中申明{}方法", mapperMethodName));
     }
 
+    /**
+     * 游标(keyset)分页
+     * <p>
+     * 按照orderByField定位到上一页最后一行之后的数据, 不使用OFFSET, 翻到任意深度的耗时都相同。
+     * 多查询一条数据用于判断是否还有下一页。
+     * 排序字段中没有主键时追加主键作为最后一个排序字段, 保证排序值唯一, 无法追加时拒绝查询。
+     * 总记录数只在第一页(没有游标)时统计, 之后的页面返回-1。
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param pageSize             每页记录数
+     * @param mapperMethod         分页使用的Mapper方法
+     * @return GXCursorPaginationResDto
+     */
+    protected GXCursorPaginationResDto<Dict> cursorPaginate(GXBaseQueryParamInnerDto dbQueryParamInnerDto, int pageSize, Method mapperMethod) {
+        Map<String, String> originalOrderByField = dbQueryParamInnerDto.getOrderByField();
+        if (CollUtil.isEmpty(originalOrderByField)) {
+            throw new GXBusinessException("游标分页需要指定排序字段(orderByField)");
+        }
+        Set<String> directions = originalOrderByField.values().stream().map(v -> CharSequenceUtil.trim(v).toLowerCase()).collect(Collectors.toSet());
+        if (directions.size() > 1) {
+            throw new GXBusinessException("游标分页的排序字段需要使用相同的排序方向");
+        }
+        boolean asc = !directions.contains("desc");
+        Map<String, String> orderByField = appendPrimaryKeyOrder(dbQueryParamInnerDto, originalOrderByField, asc);
+        boolean firstPage = CharSequenceUtil.isBlank(dbQueryParamInnerDto.getCursor());
+        GXPaginationCountModeEnums countMode = Optional.ofNullable(dbQueryParamInnerDto.getCountMode()).orElse(GXPaginationCountModeEnums.EXACT);
+        long total = -1;
+        if (firstPage && countMode == GXPaginationCountModeEnums.EXACT) {
+            total = Optional.ofNullable(baseMapper.countByCondition(dbQueryParamInnerDto)).orElse(0L);
+        } else if (firstPage && countMode == GXPaginationCountModeEnums.ESTIMATED) {
+            total = estimateTotal(dbQueryParamInnerDto);
+        }
+        List<GXCondition<?>> originalCondition = dbQueryParamInnerDto.getCondition();
+        List<GXCondition<?>> condition = new ArrayList<>(Optional.ofNullable(originalCondition).orElse(Collections.emptyList()));
+        if (!firstPage) {
+            List<Object> cursorValues = GXDBCommonUtils.decodeCursor(orderByField, dbQueryParamInnerDto.getCursor());
+            condition.add(new GXConditionKeyset(new ArrayList<>(orderByField.keySet()), cursorValues, asc));
+        }
+        // 由分页插件追加LIMIT pageSize + 1, 不统计总数
+        IPage<Dict> iPage = new Page<>(1, pageSize + 1L, false);
+        List<Dict> records;
+        dbQueryParamInnerDto.setCondition(condition);
+        dbQueryParamInnerDto.setOrderByField(orderByField);
+        try {
+            records = ReflectUtil.invoke(baseMapper, mapperMethod, iPage, dbQueryParamInnerDto);
+        } finally {
+            dbQueryParamInnerDto.setCondition(originalCondition);
+            dbQueryParamInnerDto.setOrderByField(originalOrderByField);
+        }
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = GXDBCommonUtils.encodeCursor(orderByField, records.get(records.size() - 1));
+        }
+        return new GXCursorPaginationResDto<>(records, total, pageSize, nextCursor, hasMore, countMode == GXPaginationCountModeEnums.ESTIMATED);
+    }
+
+    /**
+     * 游标分页的排序字段需要唯一, 排序字段中没有主键时按照相同的排序方向追加主键
+     * 查询的不是当前DAO的表或者有JOIN时无法确定主键所属的表, 需要调用方在排序字段中指定
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param orderByField         排序字段
+     * @param asc                  是否升序
+     * @return 追加主键之后的排序字段
+     */
+    private Map<String, String> appendPrimaryKeyOrder(GXBaseQueryParamInnerDto dbQueryParamInnerDto, Map<String, String> orderByField, boolean asc) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(GXCommonUtils.getGenericClassType(getClass(), 1));
+        String keyColumn = Objects.isNull(tableInfo) ? null : tableInfo.getKeyColumn();
+        if (CharSequenceUtil.isBlank(keyColumn)) {
+            throw new GXBusinessException(CharSequenceUtil.format("{}表没有主键, 不能使用游标分页", getTableName()));
+        }
+        boolean containsKey = orderByField.keySet().stream()
+                .map(field -> CharSequenceUtil.strip(CharSequenceUtil.contains(field, '.') ? CharSequenceUtil.subAfter(field, ".", true) : field, "`"))
+                .anyMatch(column -> CharSequenceUtil.equalsIgnoreCase(column, keyColumn));
+        if (containsKey) {
+            return orderByField;
+        }
+        boolean sameTable = CharSequenceUtil.isBlank(dbQueryParamInnerDto.getTableName()) || CharSequenceUtil.equals(dbQueryParamInnerDto.getTableName(), getTableName());
+        if (!sameTable || CollUtil.isNotEmpty(dbQueryParamInnerDto.getJoins())) {
+            throw new GXBusinessException(CharSequenceUtil.format("游标分页的排序字段需要包含主键{}, 保证排序值唯一", keyColumn));
+        }
+        Map<String, String> uniqueOrderByField = new LinkedHashMap<>(orderByField);
+        uniqueOrderByField.put(keyColumn, asc ? "asc" : "desc");
+        return uniqueOrderByField;
+    }
+
+    /**
+     * 估算给定条件的记录数
+     * 没有查询条件时读取information_schema中的TABLE_ROWS, 否则使用EXPLAIN的rows
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @return 估算的记录数(无法估算时返回-1)
+     */
+    protected long estimateTotal(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        try {
+            if (CollUtil.isEmpty(dbQueryParamInnerDto.getCondition()) && CollUtil.isEmpty(dbQueryParamInnerDto.getJoins())) {
+                Long tableRows = baseMapper.estimateTableRows(dbQueryParamInnerDto.getTableName());
+                if (Objects.nonNull(tableRows)) {
+                    return tableRows;
+                }
+            }
+            List<Dict> plan = baseMapper.explainByCondition(dbQueryParamInnerDto);
+            if (CollUtil.isEmpty(plan)) {
+                return 0;
+            }
+            return Optional.ofNullable(plan.get(0).getLong("rows")).orElse(0L);
+        } catch (RuntimeException e) {
+            LOGGER.warn("估算{}表的记录数失败 : {}", dbQueryParamInnerDto.getTableName(), e.getMessage());
+            return -1;
+        }
+    }
+
     /**
      * 分页  返回实体对象
      *
@@ -200,6 +336,28 @@ public class GXMyBatisDao<M extends GXBaseMapper<T>, T extends GXBaseModel, ID e
         return baseMapper.findByCondition(dbQueryParamInnerDto);
     }
 
+    /**
+     * 流式读取数据
+     * 每读取一行回调一次resultHandler, 不会在内存中保存整个结果集
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param resultHandler        结果处理器
+     */
+    public void streamByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, ResultHandler<Dict> resultHandler) {
+        baseMapper.streamByCondition(dbQueryParamInnerDto, resultHandler);
+    }
+
+    /**
+     * 以游标的方式读取数据
+     * 需要在事务中调用, 并且在事务结束之前读取完毕并关闭游标
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @return 游标
+     */
+    public Cursor<Dict> cursorByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        return baseMapper.cursorByCondition(dbQueryParamInnerDto);
+    }
+
     /**
      * 通过条件获取数据列表
      *
@@ -1,5 +1,10 @@
 package cn.maple.core.datasource.dto;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * 数据范围过滤
  *
@@ -8,8 +13,18 @@ package cn.maple.core.datasource.dto;
 public class GXDataFilterInnerDto {
     private String sqlFilter;
 
+    /**
+     * 过滤语句中?占位符对应的绑定参数
+     */
+    private List<Object> params;
+
     public GXDataFilterInnerDto(String sqlFilter) {
+        this(sqlFilter, (Object[]) null);
+    }
+
+    public GXDataFilterInnerDto(String sqlFilter, Object... params) {
         this.sqlFilter = sqlFilter;
+        this.params = Objects.isNull(params) ? Collections.emptyList() : Arrays.asList(params);
     }
 
     public String getSqlFilter() {
@@ -20,8 +35,16 @@ public class GXDataFilterInnerDto {
         this.sqlFilter = sqlFilter;
     }
 
+    public List<Object> getParams() {
+        return params;
+    }
+
+    public void setParams(List<Object> params) {
+        this.params = Objects.isNull(params) ? Collections.emptyList() : params;
+    }
+
     @Override
     public String toString() {
         return this.sqlFilter;
     }
-}
\ No newline at end of file
+}
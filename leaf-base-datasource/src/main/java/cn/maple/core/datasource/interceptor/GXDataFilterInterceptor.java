@@ -1,47 +1,157 @@
 package cn.maple.core.datasource.interceptor;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.maple.core.datasource.dto.GXDataFilterInnerDto;
 import cn.maple.core.datasource.util.GXDataFilterThreadLocalUtils;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.util.GXCaffeineCacheUtils;
+import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXSpringContextUtils;
 import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
 import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
-import net.sf.jsqlparser.expression.StringValue;
-import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.JdbcParameter;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.ParenthesedSelect;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SetOperationList;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * 数据过滤
+ * <p>
+ * 原始SQL解析一次后缓存为"改写模板"(按SQL文本缓存), 模板记录过滤条件的插入位置以及插入位置之前的?占位符个数
+ * 之后同一条SQL的每次查询只需要把过滤条件拼接到模板中, 不再重复解析SQL
+ * 过滤条件同样按文本解析并缓存, 其中的?占位符会作为绑定参数追加到BoundSql中
+ * UNION等集合查询的每个分支以及带括号的子查询都会追加过滤条件
+ * FROM是派生表(子查询)时过滤条件追加到派生表内部, 因为外层查询不一定能看到被过滤的列;
+ * JOIN中的派生表以及WHERE中的子查询(IN、EXISTS等)通常查询的是其他表, 不追加过滤条件
+ * <p>
+ * SQL无法解析、不是查询语句或者过滤条件无法解析时默认抛出异常(不返回未过滤的数据),
+ * 可以配置 maple.datasource.data-filter.fail-open=true 改为不过滤并记录日志
  *
  * @author 塵渊 britton@126.com
  */
 @Slf4j
 public class GXDataFilterInterceptor implements InnerInterceptor {
+    /**
+     * SQL改写模板缓存的配置KEY
+     */
+    private static final String STATEMENT_CACHE_CONFIG_NAME = "maple.datasource.data-filter.statement.cache";
+
+    /**
+     * 过滤条件缓存的配置KEY
+     */
+    private static final String FILTER_CACHE_CONFIG_NAME = "maple.datasource.data-filter.filter.cache";
+
+    /**
+     * 无法过滤时是否放行的配置KEY
+     */
+    private static final String FAIL_OPEN_CONFIG_NAME = "maple.datasource.data-filter.fail-open";
+
+    /**
+     * 过滤条件在模板中的占位标识
+     */
+    private static final String FILTER_PLACEHOLDER = "GX_DATA_FILTER_PLACEHOLDER";
+
+    /**
+     * 过滤条件绑定参数的名字前缀
+     */
+    private static final String FILTER_PARAM_PREFIX = "__gx_data_filter_param_";
+
+    /**
+     * 改写耗时的监控指标名字
+     */
+    private static final String REWRITE_METRIC_NAME = "maple.datasource.data-filter.rewrite";
+
+    /**
+     * 命中模板缓存时的改写耗时 容器中不存在MeterRegistry时为null
+     */
+    private volatile Timer rewriteHitTimer;
+
+    /**
+     * 没有命中模板缓存时的改写耗时 容器中不存在MeterRegistry时为null
+     */
+    private volatile Timer rewriteMissTimer;
+
+    /**
+     * 是否已经查找过MeterRegistry
+     */
+    private volatile boolean rewriteTimerResolved;
+
     @Override
     public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
         GXDataFilterInnerDto scope = getDataScope();
         // 不进行数据过滤
-        if (Objects.isNull(scope) || CharSequenceUtil.isBlank(scope.getSqlFilter())) {
+        if (Objects.isNull(scope)) {
+            return;
+        }
+        String filterSql = getFilterSql(scope);
+        if (CharSequenceUtil.isBlank(filterSql)) {
             return;
         }
 
-        // 拼接新SQL
-        String buildSql = getSelect(boundSql.getSql(), scope);
+        long start = System.nanoTime();
+        Cache<String, GXDataFilterSqlTemplate> statementCache = GXCaffeineCacheUtils.getCaffeineCache(STATEMENT_CACHE_CONFIG_NAME);
+        GXDataFilterSqlTemplate template = statementCache.getIfPresent(boundSql.getSql());
+        boolean cacheHit = Objects.nonNull(template);
+        if (!cacheHit) {
+            template = buildTemplate(boundSql.getSql());
+            statementCache.put(boundSql.getSql(), template);
+        }
+        if (!template.isRewritable()) {
+            failOrSkip("数据范围SQL无法解析或者不是查询语句 : {}", boundSql.getSql());
+            return;
+        }
+        GXDataFilterExpression filterExpression = getFilterExpression(filterSql);
+        if (Objects.isNull(filterExpression)) {
+            failOrSkip("数据过滤条件无法解析 : {}", filterSql);
+            return;
+        }
+        if (filterExpression.getParamCount() != scope.getParams().size()) {
+            throw new GXBusinessException(CharSequenceUtil.format("数据过滤条件的占位符个数({})与参数个数({})不一致", filterExpression.getParamCount(), scope.getParams().size()));
+        }
 
-        // 重写SQL
-        PluginUtils.mpBoundSql(boundSql).sql(buildSql);
-        log.info("重写数据范围SQL");
+        // 拼接新SQL并追加绑定参数
+        PluginUtils.MPBoundSql mpBoundSql = PluginUtils.mpBoundSql(boundSql);
+        mpBoundSql.sql(template.render(filterExpression.getSql()));
+        if (filterExpression.getParamCount() > 0) {
+            mpBoundSql.parameterMappings(buildParameterMappings(ms.getConfiguration(), boundSql, mpBoundSql.parameterMappings(), template, scope.getParams()));
+        }
+        recordRewrite(cacheHit, System.nanoTime() - start);
+        log.debug("重写数据范围SQL");
+    }
+
+    /**
+     * 获取原始的过滤语句
+     * GXDataFilterInnerDto#getSqlFilter返回的过滤语句两边带有$$'以及'$$标记
+     *
+     * @param scope 数据范围
+     * @return 过滤语句
+     */
+    private static String getFilterSql(GXDataFilterInnerDto scope) {
+        return CharSequenceUtil.removeSuffix(CharSequenceUtil.removePrefix(scope.getSqlFilter(), "$$'"), "'$$");
     }
 
     private GXDataFilterInnerDto getDataScope() {
@@ -54,23 +164,288 @@ public class GXDataFilterInterceptor implements InnerInterceptor {
         return null;
     }
 
-    private String getSelect(String buildSql, GXDataFilterInnerDto scope) {
+    /**
+     * 解析SQL并生成改写模板
+     * 解析失败或者不是查询语句时返回不可改写的模板, 避免后续重复解析
+     *
+     * @param sql 原始SQL
+     * @return 改写模板
+     */
+    static GXDataFilterSqlTemplate buildTemplate(String sql) {
+        try {
+            Statement statement = CCJSqlParserUtil.parse(sql);
+            if (!(statement instanceof Select select) || !appendPlaceholder(select)) {
+                return GXDataFilterSqlTemplate.unsupported(sql);
+            }
+            String[] segments = Pattern.compile(FILTER_PLACEHOLDER, Pattern.LITERAL).split(select.toString(), -1);
+            int[] paramOffsets = new int[segments.length - 1];
+            int paramCount = 0;
+            for (int i = 0; i < paramOffsets.length; i++) {
+                paramCount += countPlaceholders(segments[i]);
+                paramOffsets[i] = paramCount;
+            }
+            return new GXDataFilterSqlTemplate(segments, paramOffsets);
+        } catch (JSQLParserException e) {
+            log.warn("数据范围SQL解析失败 : {}", e.getMessage());
+            return GXDataFilterSqlTemplate.unsupported(sql);
+        }
+    }
+
+    /**
+     * 在查询语句的WHERE中追加过滤条件的占位标识
+     * 集合查询(UNION等)的每个分支以及带括号的子查询都会追加, FROM是派生表时追加到派生表内部
+     *
+     * @param select 查询语句
+     * @return 是否追加成功
+     */
+    private static boolean appendPlaceholder(Select select) throws JSQLParserException {
+        if (select instanceof PlainSelect plainSelect) {
+            if (plainSelect.getFromItem() instanceof ParenthesedSelect derivedTable) {
+                return appendPlaceholder(derivedTable.getSelect());
+            }
+            Expression where = plainSelect.getWhere();
+            String condition = Objects.isNull(where) ? FILTER_PLACEHOLDER : "(" + where + ") AND " + FILTER_PLACEHOLDER;
+            plainSelect.setWhere(CCJSqlParserUtil.parseCondExpression(condition));
+            return true;
+        }
+        if (select instanceof ParenthesedSelect parenthesedSelect) {
+            return appendPlaceholder(parenthesedSelect.getSelect());
+        }
+        if (select instanceof SetOperationList setOperationList) {
+            boolean appended = CollUtil.isNotEmpty(setOperationList.getSelects());
+            for (Select branch : setOperationList.getSelects()) {
+                appended = appendPlaceholder(branch) && appended;
+            }
+            return appended;
+        }
+        return false;
+    }
+
+    /**
+     * 无法追加过滤条件时的处理
+     * 默认抛出异常, 配置了 maple.datasource.data-filter.fail-open=true 时只记录日志
+     *
+     * @param template 错误信息模板
+     * @param params   错误信息参数
+     */
+    private void failOrSkip(String template, Object... params) {
+        String message = CharSequenceUtil.format(template, params);
+        if (Boolean.TRUE.equals(GXCommonUtils.getEnvironmentValue(FAIL_OPEN_CONFIG_NAME, Boolean.class, Boolean.FALSE))) {
+            log.warn("{}, 不进行数据过滤", message);
+            return;
+        }
+        throw new GXBusinessException(message);
+    }
+
+    /**
+     * 获取解析后的过滤条件
+     *
+     * @param filterSql 过滤条件
+     * @return 过滤条件, 解析失败时返回null
+     */
+    private GXDataFilterExpression getFilterExpression(String filterSql) {
+        Cache<String, GXDataFilterExpression> filterCache = GXCaffeineCacheUtils.getCaffeineCache(FILTER_CACHE_CONFIG_NAME);
         try {
-            Select select = (Select) CCJSqlParserUtil.parse(buildSql);
-            PlainSelect plainSelect = (PlainSelect) select.getSelectBody();
+            return filterCache.get(filterSql, key -> {
+                try {
+                    Expression expression = CCJSqlParserUtil.parseCondExpression(key);
+                    int[] paramCount = new int[1];
+                    expression.accept(new ExpressionVisitorAdapter() {
+                        @Override
+                        public void visit(JdbcParameter jdbcParameter) {
+                            paramCount[0]++;
+                        }
+                    });
+                    return new GXDataFilterExpression("(" + expression + ")", paramCount[0]);
+                } catch (JSQLParserException e) {
+                    throw new GXBusinessException("数据过滤条件解析失败", e);
+                }
+            });
+        } catch (GXBusinessException e) {
+            log.warn("数据过滤条件解析失败 : {}", filterSql, e);
+            return null;
+        }
+    }
+
+    /**
+     * 在每个过滤条件的插入位置追加绑定参数
+     *
+     * @param configuration MyBatis配置
+     * @param boundSql      BoundSql
+     * @param mappings      原始的参数映射
+     * @param template      改写模板
+     * @param params        过滤条件的参数
+     * @return 新的参数映射
+     */
+    static List<ParameterMapping> buildParameterMappings(Configuration configuration, BoundSql boundSql, List<ParameterMapping> mappings, GXDataFilterSqlTemplate template, List<Object> params) {
+        List<ParameterMapping> filterMappings = new ArrayList<>(params.size());
+        for (int i = 0; i < params.size(); i++) {
+            String property = FILTER_PARAM_PREFIX + i;
+            boundSql.setAdditionalParameter(property, params.get(i));
+            filterMappings.add(new ParameterMapping.Builder(configuration, property, Object.class).build());
+        }
+        // 原始的参数映射可能被MappedStatement共享, 需要复制后再修改
+        List<ParameterMapping> newMappings = new ArrayList<>(mappings);
+        int[] paramOffsets = template.getParamOffsets();
+        for (int i = paramOffsets.length - 1; i >= 0; i--) {
+            newMappings.addAll(Math.min(paramOffsets[i], newMappings.size()), filterMappings);
+        }
+        return newMappings;
+    }
 
-            Expression expression = plainSelect.getWhere();
-            StringValue stringValue = new StringValue("'" + scope.getSqlFilter() + "'");
-            if (expression == null) {
-                plainSelect.setWhere(stringValue);
+    /**
+     * 统计SQL片段中?占位符的个数
+     * 忽略字符串、带引号的标识符(双引号以及反引号)以及注释中的?
+     *
+     * @param sql SQL片段
+     * @return 个数
+     */
+    static int countPlaceholders(String sql) {
+        int count = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
             } else {
-                AndExpression andExpression = new AndExpression(expression, stringValue);
-                plainSelect.setWhere(andExpression);
+                if (c == '?') {
+                    count++;
+                }
+                i++;
             }
+        }
+        return count;
+    }
 
-            return select.toString().replace("'$$'", "");
-        } catch (JSQLParserException e) {
-            return buildSql;
+    /**
+     * 跳过引号包裹的内容
+     * 支持连续两个引号的转义, 字符串以及双引号中还支持反斜杠转义
+     *
+     * @param sql   SQL片段
+     * @param start 开始引号的位置
+     * @param quote 引号
+     * @return 结束引号之后的位置
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote && i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 记录改写耗时
+     *
+     * @param cacheHit 是否命中模板缓存
+     * @param nanos    耗时
+     */
+    private void recordRewrite(boolean cacheHit, long nanos) {
+        try {
+            resolveRewriteTimers();
+            Timer timer = cacheHit ? rewriteHitTimer : rewriteMissTimer;
+            if (Objects.nonNull(timer)) {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (RuntimeException e) {
+            log.warn("记录数据范围SQL改写指标失败 : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查找MeterRegistry并注册改写耗时的Timer 只在第一次记录时执行
+     */
+    private void resolveRewriteTimers() {
+        if (rewriteTimerResolved) {
+            return;
+        }
+        synchronized (this) {
+            if (rewriteTimerResolved) {
+                return;
+            }
+            MeterRegistry meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+            if (Objects.nonNull(meterRegistry)) {
+                rewriteHitTimer = Timer.builder(REWRITE_METRIC_NAME).tag("cache", "hit").register(meterRegistry);
+                rewriteMissTimer = Timer.builder(REWRITE_METRIC_NAME).tag("cache", "miss").register(meterRegistry);
+            }
+            rewriteTimerResolved = true;
+        }
+    }
+
+    /**
+     * 数据过滤的SQL改写模板
+     */
+    static class GXDataFilterSqlTemplate {
+        /**
+         * 按过滤条件插入位置切分后的SQL片段
+         */
+        private final String[] segments;
+
+        /**
+         * 每个插入位置之前的?占位符个数
+         */
+        private final int[] paramOffsets;
+
+        GXDataFilterSqlTemplate(String[] segments, int[] paramOffsets) {
+            this.segments = segments;
+            this.paramOffsets = paramOffsets;
+        }
+
+        static GXDataFilterSqlTemplate unsupported(String sql) {
+            return new GXDataFilterSqlTemplate(new String[]{sql}, new int[0]);
+        }
+
+        boolean isRewritable() {
+            return paramOffsets.length > 0;
+        }
+
+        int[] getParamOffsets() {
+            return paramOffsets;
+        }
+
+        String render(String filterSql) {
+            StringBuilder sql = new StringBuilder(segments[0]);
+            for (int i = 1; i < segments.length; i++) {
+                sql.append(filterSql).append(segments[i]);
+            }
+            return sql.toString();
+        }
+    }
+
+    /**
+     * 解析后的过滤条件
+     */
+    private static class GXDataFilterExpression {
+        private final String sql;
+
+        private final int paramCount;
+
+        GXDataFilterExpression(String sql, int paramCount) {
+            this.sql = sql;
+            this.paramCount = paramCount;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        int getParamCount() {
+            return paramCount;
         }
     }
-}
\ No newline at end of file
+}
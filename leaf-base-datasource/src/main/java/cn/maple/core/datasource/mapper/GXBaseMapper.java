@@ -11,6 +11,9 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.handlers.JacksonTypeHandler;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -34,6 +37,38 @@ public interface GXBaseMapper<T extends GXBaseModel> extends BaseMapper<T> {
     @Results(@Result(property = "ext", column = "ext", typeHandler = JacksonTypeHandler.class))
     List<Dict> paginate(IPage<Dict> page, GXBaseQueryParamInnerDto dbQueryParamInnerDto);
 
+    /**
+     * 流式读取数据, 每读取一行回调一次ResultHandler
+     * fetchSize为Integer.MIN_VALUE是MySQL驱动的流式读取方式(逐行返回结果, 内存占用与结果集大小无关),
+     * 只在databaseId为mysql时使用(参见GXMyBatisPlusConfig#databaseIdProvider), 其他数据库使用普通的fetchSize
+     */
+    @SelectProvider(type = GXBaseBuilder.class, method = "streamByCondition")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY, databaseId = "mysql")
+    @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ResultType(Dict.class)
+    @Results(@Result(property = "ext", column = "ext", typeHandler = JacksonTypeHandler.class))
+    void streamByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, ResultHandler<Dict> resultHandler);
+
+    /**
+     * 以游标的方式读取数据
+     * 游标需要在事务(SqlSession)关闭之前读取完毕并关闭
+     * fetchSize的设置与streamByCondition相同
+     */
+    @SelectProvider(type = GXBaseBuilder.class, method = "streamByCondition")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY, databaseId = "mysql")
+    @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)
+    @Results(@Result(property = "ext", column = "ext", typeHandler = JacksonTypeHandler.class))
+    Cursor<Dict> cursorByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto);
+
+    @SelectProvider(type = GXBaseBuilder.class, method = "countByCondition")
+    Long countByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto);
+
+    @SelectProvider(type = GXBaseBuilder.class, method = "explainByCondition")
+    List<Dict> explainByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto);
+
+    @Select("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{tableName}")
+    Long estimateTableRows(String tableName);
+
     @UpdateProvider(type = GXBaseBuilder.class, method = "deleteSoftCondition")
     Integer deleteSoftCondition(String tableName, List<GXUpdateField<?>> updateFieldList, List<GXCondition<?>> condition, Dict extraData);
 
@@ -27,6 +27,8 @@ import cn.maple.core.framework.util.GXValidatorUtils;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import jakarta.validation.ConstraintValidatorContext;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -87,6 +89,33 @@ public abstract class GXMyBatisRepository<M extends GXBaseMapper<T>, T extends G
         return baseDao.findByCondition(dbQueryParamInnerDto);
     }
 
+    /**
+     * 流式读取数据
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param resultHandler        结果处理器
+     */
+    public void streamByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, ResultHandler<Dict> resultHandler) {
+        if (CharSequenceUtil.isBlank(dbQueryParamInnerDto.getRawSQL()) && Objects.isNull(dbQueryParamInnerDto.getColumns())) {
+            dbQueryParamInnerDto.setColumns(CollUtil.newHashSet("*"));
+        }
+        baseDao.streamByCondition(dbQueryParamInnerDto, resultHandler);
+    }
+
+    /**
+     * 以游标的方式读取数据
+     * 需要在事务中调用, 并且在事务结束之前读取完毕并关闭游标
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @return 游标
+     */
+    public Cursor<Dict> cursorByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        if (CharSequenceUtil.isBlank(dbQueryParamInnerDto.getRawSQL()) && Objects.isNull(dbQueryParamInnerDto.getColumns())) {
+            dbQueryParamInnerDto.setColumns(CollUtil.newHashSet("*"));
+        }
+        return baseDao.cursorByCondition(dbQueryParamInnerDto);
+    }
+
     /**
      * 根据条件获取所有数据
      *
@@ -115,6 +115,17 @@ public interface GXDataScopeService {
         return sqlFilter.toString();
     }
 
+    /**
+     * 获取SQL Filter语句中?占位符对应的绑定参数
+     * 默认的过滤语句不含占位符, 自定义getSqlFilter使用占位符时需要同时重写该方法
+     *
+     * @param dataFilter 数据过滤
+     * @return 绑定参数(与占位符顺序一致)
+     */
+    default List<Object> getSqlFilterParams(GXDataFilter dataFilter, JoinPoint point) {
+        return CollUtil.newArrayList();
+    }
+
     /**
      * 过滤出有GXBaseQueryParamInnerDto参数的查询
      * 处理参数中是否带有GXIgnoreDataFilterCondition条件,如果带有该条件,这不需要数据权限过滤,并且需要将其从查询条件移除
@@ -25,7 +25,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 业务DB基础Service
@@ -78,6 +80,9 @@ public interface GXMyBatisBaseService<P extends GXMyBatisRepository<M, T, D, ID>
 
     /**
      * 列表或者搜索(分页)
+     * <p>
+     * searchReqDto设置了cursorPagination或者cursor时使用游标(keyset)分页, 返回GXCursorPaginationResDto
+     * searchReqDto的countMode可以跳过或者估算总记录数
      *
      * @param searchReqDto 参数
      * @return GXPagination
@@ -121,6 +126,36 @@ public interface GXMyBatisBaseService<P extends GXMyBatisRepository<M, T, D, ID>
      */
     <E> List<E> findByCondition(GXBaseQueryParamInnerDto queryParamInnerDto, Function<Dict, E> rowMapper);
 
+    /**
+     * 流式读取大结果集
+     * 每读取一行就映射并交给consumer处理, 内存占用与结果集大小无关, 适用于导出、批处理等场景
+     * 逐行读取依赖MySQL驱动的流式结果集(fetchSize=Integer.MIN_VALUE), 其他数据库按照fetchSize=1000分批读取
+     *
+     * @param queryParamInnerDto 查询条件
+     * @param rowMapper          映射函数
+     * @param consumer           数据处理函数
+     */
+    <E> void streamByCondition(GXBaseQueryParamInnerDto queryParamInnerDto, Function<Dict, E> rowMapper, Consumer<E> consumer);
+
+    /**
+     * 流式读取大结果集
+     * <p>
+     * 需要在事务中调用(例如 @Transactional(readOnly = true)), 在事务结束之前消费完毕,
+     * 并且使用 try-with-resources 关闭返回的Stream
+     * 逐行读取依赖MySQL驱动的流式结果集(fetchSize=Integer.MIN_VALUE), 其他数据库按照fetchSize=1000分批读取
+     * <pre>
+     * {@code
+     * try (Stream<R> stream = service.streamByCondition(queryParamInnerDto)) {
+     *     stream.forEach(...);
+     * }
+     * }
+     * </pre>
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return Stream
+     */
+    Stream<R> streamByCondition(GXBaseQueryParamInnerDto queryParamInnerDto);
+
     /**
      * 通过条件查询列表信息
      *
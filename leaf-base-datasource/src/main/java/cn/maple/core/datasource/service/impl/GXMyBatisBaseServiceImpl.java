@@ -4,6 +4,7 @@ import cn.hutool.core.bean.copier.CopyOptions;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.util.ObjectUtil;
@@ -22,6 +23,7 @@ import cn.maple.core.framework.dto.inner.field.GXUpdateNumberField;
 import cn.maple.core.framework.dto.inner.field.GXUpdateStrField;
 import cn.maple.core.framework.dto.req.GXBaseReqDto;
 import cn.maple.core.framework.dto.res.GXBaseDBResDto;
+import cn.maple.core.framework.dto.res.GXCursorPaginationResDto;
 import cn.maple.core.framework.dto.res.GXPaginationResDto;
 import cn.maple.core.framework.exception.GXBusinessException;
 import cn.maple.core.framework.exception.GXDBNotExistsException;
@@ -34,15 +36,20 @@ import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import jakarta.validation.ConstraintValidatorContext;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 业务基础Service
@@ -177,7 +184,11 @@ public class GXMyBatisBaseServiceImpl<P extends GXMyBatisRepository<M, T, D, ID>
             Object extraData = Optional.ofNullable(queryParamReqDto.getExtraData()).orElse(Dict.create());
             return GXCommonUtils.convertSourceToTarget(dict, genericClassType, queryParamReqDto.getMethodName(), copyOptions, extraData);
         }).collect(Collectors.toList());
-        return new GXPaginationResDto<>(lst, paginate.getTotal(), paginate.getPageSize(), paginate.getCurrentPage());
+        if (paginate instanceof GXCursorPaginationResDto) {
+            GXCursorPaginationResDto<Dict> cursorPaginate = (GXCursorPaginationResDto<Dict>) paginate;
+            return new GXCursorPaginationResDto<>(lst, cursorPaginate.getTotal(), cursorPaginate.getPageSize(), cursorPaginate.getNextCursor(), cursorPaginate.isHasMore(), cursorPaginate.isTotalEstimated());
+        }
+        return new GXPaginationResDto<>(lst, paginate.getTotal(), paginate.getPages(), paginate.getPageSize(), paginate.getCurrentPage());
     }
 
     /**
@@ -274,6 +285,45 @@ public class GXMyBatisBaseServiceImpl<P extends GXMyBatisRepository<M, T, D, ID>
         return list.stream().map(rowMapper).collect(Collectors.toList());
     }
 
+    /**
+     * 流式读取大结果集
+     *
+     * @param queryParamInnerDto 查询条件
+     * @param rowMapper          映射函数
+     * @param consumer           数据处理函数
+     */
+    @Override
+    public <E> void streamByCondition(GXBaseQueryParamInnerDto queryParamInnerDto, Function<Dict, E> rowMapper, Consumer<E> consumer) {
+        if (CharSequenceUtil.isBlank(queryParamInnerDto.getTableName())) {
+            queryParamInnerDto.setTableName(repository.getTableName());
+        }
+        repository.streamByCondition(queryParamInnerDto, resultContext -> consumer.accept(rowMapper.apply(resultContext.getResultObject())));
+    }
+
+    /**
+     * 流式读取大结果集
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return Stream
+     */
+    @Override
+    public Stream<R> streamByCondition(GXBaseQueryParamInnerDto queryParamInnerDto) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new GXBusinessException("streamByCondition返回Stream时需要在事务中调用, 否则请使用回调的方式");
+        }
+        if (CharSequenceUtil.isBlank(queryParamInnerDto.getTableName())) {
+            queryParamInnerDto.setTableName(repository.getTableName());
+        }
+        CopyOptions copyOptions = getCopyOptions(queryParamInnerDto);
+        String methodName = Optional.ofNullable(queryParamInnerDto.getMethodName()).orElse(GXCommonConstant.DEFAULT_CUSTOMER_PROCESS_METHOD_NAME);
+        Object extraData = Optional.ofNullable(queryParamInnerDto.getExtraData()).orElse(Dict.create());
+        Class<R> genericClassType = GXCommonUtils.getGenericClassType(getClass(), 4);
+        Cursor<Dict> cursor = repository.cursorByCondition(queryParamInnerDto);
+        return StreamSupport.stream(cursor.spliterator(), false)
+                .map(dict -> GXCommonUtils.convertSourceToTarget(dict, genericClassType, methodName, copyOptions, extraData))
+                .onClose(() -> IoUtil.close(cursor));
+    }
+
     /**
      * 通过条件查询列表信息
      *
@@ -2,9 +2,15 @@ package cn.maple.core.datasource.util;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.util.ReUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
 import cn.maple.core.datasource.builder.GXBaseBuilder;
 import cn.maple.core.framework.constant.GXBuilderConstant;
 import cn.maple.core.framework.constant.GXCommonConstant;
@@ -14,6 +20,7 @@ import cn.maple.core.framework.dto.inner.condition.GXConditionExclusionDeletedFi
 import cn.maple.core.framework.dto.res.GXPaginationResDto;
 import cn.maple.core.framework.exception.GXBusinessException;
 import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXCursorSignUtils;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
@@ -23,9 +30,9 @@ import org.apache.ibatis.jdbc.SQL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @SuppressWarnings({"unused"})
@@ -254,4 +261,82 @@ public class GXDBCommonUtils {
             sql.WHERE(CharSequenceUtil.format(template, column, value));
         });
     }
+
+    /**
+     * 根据最后一行数据生成游标分页的游标
+     * 游标中记录了排序字段的签名, 排序字段变化后旧的游标会失效
+     * 游标通过GXCursorSignUtils签名, 客户端修改过的排序值会被拒绝
+     *
+     * @param orderByField 排序字段
+     * @param lastRow      当前页的最后一行数据
+     * @return 游标
+     */
+    public static String encodeCursor(Map<String, String> orderByField, Dict lastRow) {
+        List<Object> values = new ArrayList<>(orderByField.size());
+        for (String field : orderByField.keySet()) {
+            Object value = getCursorColumnValue(lastRow, field);
+            if (Objects.isNull(value)) {
+                throw new GXBusinessException(CharSequenceUtil.format("游标分页的排序字段{}的值不能为null, 请确认该字段已经被查询并且不允许为null", field));
+            }
+            values.add(value);
+        }
+        JSONObject cursor = JSONUtil.createObj().set("k", cursorSignature(orderByField)).set("v", values);
+        return GXCursorSignUtils.encode(cursor);
+    }
+
+    /**
+     * 解析游标分页的游标
+     *
+     * @param orderByField 排序字段
+     * @param cursor       游标
+     * @return 排序字段对应的值
+     */
+    public static List<Object> decodeCursor(Map<String, String> orderByField, String cursor) {
+        JSONObject jsonObject = GXCursorSignUtils.decode(cursor);
+        JSONArray values = jsonObject.getJSONArray("v");
+        if (!CharSequenceUtil.equals(cursorSignature(orderByField), jsonObject.getStr("k")) || Objects.isNull(values) || values.size() != orderByField.size()) {
+            throw new GXBusinessException("分页游标与当前的排序字段不匹配");
+        }
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * 排序字段的签名
+     *
+     * @param orderByField 排序字段
+     * @return 签名
+     */
+    private static String cursorSignature(Map<String, String> orderByField) {
+        return orderByField.entrySet().stream().map(e -> e.getKey() + " " + CharSequenceUtil.trim(e.getValue()).toLowerCase()).collect(Collectors.joining(","));
+    }
+
+    /**
+     * 从数据行中获取排序字段的值
+     * 日期时间转换成字符串, 以便直接与数据库中的日期时间字段比较
+     *
+     * @param row   数据行
+     * @param field 排序字段(可以带有表别名)
+     * @return 字段的值
+     */
+    private static Object getCursorColumnValue(Dict row, String field) {
+        String column = CharSequenceUtil.subAfter(field, ".", true);
+        if (CharSequenceUtil.isEmpty(column)) {
+            column = field;
+        }
+        column = CharSequenceUtil.strip(column, "`");
+        Object value = row.get(column);
+        if (Objects.isNull(value)) {
+            value = row.get(CharSequenceUtil.toCamelCase(column));
+        }
+        if (value instanceof Date) {
+            return DateUtil.format((Date) value, DatePattern.NORM_DATETIME_MS_PATTERN);
+        }
+        if (value instanceof LocalDateTime) {
+            return LocalDateTimeUtil.format((LocalDateTime) value, DatePattern.NORM_DATETIME_MS_PATTERN);
+        }
+        if (value instanceof LocalDate) {
+            return LocalDateTimeUtil.formatNormal((LocalDate) value);
+        }
+        return value;
+    }
 }
@@ -0,0 +1,77 @@
+package cn.maple.core.datasource.builder;
+
+import cn.hutool.core.lang.Assert;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.dto.inner.GXBaseQueryParamInnerDto;
+import cn.maple.core.framework.dto.inner.GXUnionTypeEnums;
+import cn.maple.core.framework.dto.inner.condition.GXCondition;
+import cn.maple.core.framework.dto.inner.condition.GXConditionEQ;
+import cn.maple.core.framework.util.GXCaffeineCacheUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.apache.ibatis.jdbc.SQL;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.*;
+
+public class GXBaseBuilderTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * 使用模板生成的SQL与MyBatis的SQL构造器生成的SQL相同, 第二次生成时使用缓存的模板
+     */
+    @Test
+    public void testFindByConditionMatchesSqlBuilder() {
+        String expected = new SQL().SELECT("user_name,id").FROM("sys_user u")
+                .WHERE("u.dept_id = 10").WHERE("u.is_deleted = 0")
+                .GROUP_BY("u.dept_id", "u.user_name")
+                .HAVING("COUNT(*) > 1", "MAX(u.id) > 0")
+                .ORDER_BY("u.id desc", "u.user_name asc")
+                .LIMIT(20)
+                .toString();
+        Assert.equals(expected, GXBaseBuilder.findByCondition(queryParam()));
+        Assert.equals(expected, GXBaseBuilder.findByCondition(queryParam()));
+    }
+
+    /**
+     * 非绑定参数模式下union子查询作为表名时包含条件的值, 不进入模板缓存
+     */
+    @Test
+    public void testUnionTableNameNotCached() {
+        Cache<Object, Object> cache = GXCaffeineCacheUtils.getCaffeineCache("maple.framework.sql.template.cache");
+        cache.cleanUp();
+        long before = cache.estimatedSize();
+        for (int i = 0; i < 5; i++) {
+            GXBaseQueryParamInnerDto master = GXBaseQueryParamInnerDto.builder().tableName("sys_user").condition(new ArrayList<>()).build();
+            GXBaseQueryParamInnerDto union = GXBaseQueryParamInnerDto.builder().tableName("sys_user").tableNameAlias("a")
+                    .condition(new ArrayList<>(List.of(new GXConditionEQ("a", "deptId", i)))).build();
+            GXBaseBuilder.unionFindByCondition(master, List.of(union), GXUnionTypeEnums.UNION_ALL);
+        }
+        cache.cleanUp();
+        // 只有union的子查询(sys_user a)使用同一个模板
+        Assert.isTrue(cache.estimatedSize() - before <= 1);
+    }
+
+    private static GXBaseQueryParamInnerDto queryParam() {
+        Map<String, String> orderByField = new LinkedHashMap<>();
+        orderByField.put("u.id", "desc");
+        orderByField.put("u.user_name", "asc");
+        List<GXCondition<?>> condition = new ArrayList<>(List.of(new GXConditionEQ("u", "deptId", 10)));
+        return GXBaseQueryParamInnerDto.builder()
+                .tableName("sys_user")
+                .tableNameAlias("u")
+                .columns(new LinkedHashSet<>(List.of("userName", "id")))
+                .condition(condition)
+                .groupByField(new LinkedHashSet<>(List.of("u.dept_id", "u.user_name")))
+                .having(new LinkedHashSet<>(List.of("COUNT(*) > 1", "MAX(u.id) > 0")))
+                .orderByField(orderByField)
+                .limit(20)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package cn.maple.core.datasource.interceptor;
+
+import cn.hutool.core.lang.Assert;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class GXDataFilterInterceptorTest {
+    private static final String FILTER_SQL = "(dept_id = ?)";
+
+    /**
+     * 字符串、带引号的标识符以及注释中的?不是占位符
+     */
+    @Test
+    public void testCountPlaceholders() {
+        Assert.equals(1, GXDataFilterInterceptor.countPlaceholders("a = ? AND b = '?'"));
+        Assert.equals(1, GXDataFilterInterceptor.countPlaceholders("a = 'it''s ?' AND b = ?"));
+        Assert.equals(1, GXDataFilterInterceptor.countPlaceholders("a = 'x\\' ?' AND b = ?"));
+        Assert.equals(2, GXDataFilterInterceptor.countPlaceholders("`a?` = ? AND \"b?\" = ?"));
+        Assert.equals(2, GXDataFilterInterceptor.countPlaceholders("a = ? -- ?\n AND b = ? /* ? */"));
+    }
+
+    /**
+     * 集合查询的每个分支都追加过滤条件, 插入位置之前的占位符个数正确
+     */
+    @Test
+    public void testUnionTemplate() {
+        GXDataFilterInterceptor.GXDataFilterSqlTemplate template = GXDataFilterInterceptor.buildTemplate("SELECT id FROM sys_user WHERE id = ? UNION ALL SELECT id FROM sys_user WHERE name = ? AND age > ?");
+        Assert.isTrue(template.isRewritable());
+        Assert.isTrue(Arrays.equals(new int[]{1, 3}, template.getParamOffsets()));
+        Assert.equals(5, GXDataFilterInterceptor.countPlaceholders(template.render(FILTER_SQL)));
+    }
+
+    /**
+     * FROM是派生表时过滤条件追加到派生表内部
+     */
+    @Test
+    public void testDerivedTableTemplate() {
+        GXDataFilterInterceptor.GXDataFilterSqlTemplate template = GXDataFilterInterceptor.buildTemplate("SELECT t.id FROM (SELECT id FROM sys_user WHERE id > ?) t WHERE t.id < ?");
+        Assert.isTrue(Arrays.equals(new int[]{1}, template.getParamOffsets()));
+        String sql = template.render(FILTER_SQL);
+        Assert.isTrue(sql.indexOf(FILTER_SQL) < sql.indexOf(") t"));
+    }
+
+    /**
+     * WHERE中的子查询不追加过滤条件
+     */
+    @Test
+    public void testWhereSubqueryTemplate() {
+        GXDataFilterInterceptor.GXDataFilterSqlTemplate template = GXDataFilterInterceptor.buildTemplate("SELECT id FROM sys_user WHERE dept_id IN (SELECT id FROM sys_dept WHERE code = ?) AND id = ?");
+        Assert.isTrue(Arrays.equals(new int[]{2}, template.getParamOffsets()));
+    }
+
+    /**
+     * 无法解析或者不是查询语句时不可改写
+     */
+    @Test
+    public void testUnsupportedTemplate() {
+        Assert.isFalse(GXDataFilterInterceptor.buildTemplate("UPDATE sys_user SET name = ?").isRewritable());
+        Assert.isFalse(GXDataFilterInterceptor.buildTemplate("SELECT FROM WHERE").isRewritable());
+    }
+
+    /**
+     * 过滤条件的绑定参数插入到每个插入位置, 不修改原始的参数映射
+     */
+    @Test
+    public void testBuildParameterMappings() {
+        Configuration configuration = new Configuration();
+        GXDataFilterInterceptor.GXDataFilterSqlTemplate template = GXDataFilterInterceptor.buildTemplate("SELECT id FROM sys_user WHERE id = ? UNION ALL SELECT id FROM sys_user WHERE name = ? AND age > ?");
+        List<ParameterMapping> mappings = List.of(mapping(configuration, "id"), mapping(configuration, "name"), mapping(configuration, "age"));
+        BoundSql boundSql = new BoundSql(configuration, template.render(FILTER_SQL), mappings, null);
+        List<ParameterMapping> newMappings = GXDataFilterInterceptor.buildParameterMappings(configuration, boundSql, mappings, template, List.of(10));
+        List<String> properties = newMappings.stream().map(ParameterMapping::getProperty).toList();
+        Assert.equals(List.of("id", "__gx_data_filter_param_0", "name", "age", "__gx_data_filter_param_0"), properties);
+        Assert.equals(10, boundSql.getAdditionalParameter("__gx_data_filter_param_0"));
+        Assert.equals(3, mappings.size());
+    }
+
+    private static ParameterMapping mapping(Configuration configuration, String property) {
+        return new ParameterMapping.Builder(configuration, property, Object.class).build();
+    }
+}
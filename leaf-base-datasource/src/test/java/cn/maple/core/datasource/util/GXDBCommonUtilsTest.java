@@ -0,0 +1,80 @@
+package cn.maple.core.datasource.util;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.exception.GXBusinessException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GXDBCommonUtilsTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("maple.framework.cursor.sign-key", "test-sign-key")));
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * 排序字段可以带表别名, 数据行中的字段可以是驼峰格式, 日期转换成字符串
+     */
+    @Test
+    public void testCursorRoundTrip() {
+        Dict lastRow = Dict.create().set("createdAt", DateUtil.parse("2024-01-02 03:04:05.678")).set("id", 100L);
+        String cursor = GXDBCommonUtils.encodeCursor(orderByField(), lastRow);
+        List<Object> values = GXDBCommonUtils.decodeCursor(orderByField(), cursor);
+        Assert.equals(2, values.size());
+        Assert.equals("2024-01-02 03:04:05.678", values.get(0));
+        Assert.equals(100L, ((Number) values.get(1)).longValue());
+    }
+
+    /**
+     * 排序字段的值为null时无法生成游标
+     */
+    @Test
+    public void testNullSortValue() {
+        assertRejected(() -> GXDBCommonUtils.encodeCursor(orderByField(), Dict.create().set("id", 1L)));
+    }
+
+    /**
+     * 排序字段变化、内容被修改或者签名被去掉的游标被拒绝
+     */
+    @Test
+    public void testRejectedCursor() {
+        String cursor = GXDBCommonUtils.encodeCursor(orderByField(), Dict.create().set("created_at", "2024-01-01 00:00:00.000").set("id", 100L));
+        Map<String, String> otherOrderByField = new LinkedHashMap<>();
+        otherOrderByField.put("u.id", "asc");
+        assertRejected(() -> GXDBCommonUtils.decodeCursor(otherOrderByField, cursor));
+
+        String payload = Base64.decodeStr(CharSequenceUtil.subBefore(cursor, ".", true));
+        String forged = Base64.encodeUrlSafe(payload.replace("100", "1 OR 1=1")) + "." + CharSequenceUtil.subAfter(cursor, ".", true);
+        assertRejected(() -> GXDBCommonUtils.decodeCursor(orderByField(), forged));
+        assertRejected(() -> GXDBCommonUtils.decodeCursor(orderByField(), Base64.encodeUrlSafe(payload)));
+    }
+
+    private static Map<String, String> orderByField() {
+        Map<String, String> orderByField = new LinkedHashMap<>();
+        orderByField.put("u.created_at", "desc");
+        orderByField.put("u.id", "desc");
+        return orderByField;
+    }
+
+    private static void assertRejected(Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.isTrue(false, "应该抛出GXBusinessException");
+        } catch (GXBusinessException e) {
+            Assert.notNull(e.getMessage());
+        }
+    }
+}
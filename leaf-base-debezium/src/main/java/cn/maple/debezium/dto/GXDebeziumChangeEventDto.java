@@ -0,0 +1,69 @@
+package cn.maple.debezium.dto;
+
+import cn.hutool.core.lang.Dict;
+import cn.maple.core.framework.dto.GXBaseDto;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Debezium解析出来的数据变化事件
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class GXDebeziumChangeEventDto extends GXBaseDto {
+    /**
+     * 引擎的key
+     */
+    private String engineKey;
+
+    /**
+     * 记录的主键(JSON字符串)
+     */
+    private String key;
+
+    /**
+     * 操作类型
+     * c(新增)、u(修改)、d(删除)、r(快照读取)
+     */
+    private String op;
+
+    /**
+     * 数据库名字
+     */
+    private String database;
+
+    /**
+     * 数据表的名字
+     */
+    private String table;
+
+    /**
+     * 变化之前的数据
+     */
+    private Dict before;
+
+    /**
+     * 变化之后的数据
+     */
+    private Dict after;
+
+    /**
+     * 数据源信息(binlog位置等)
+     */
+    private Dict source;
+
+    /**
+     * 数据库中发生变化的时间(毫秒)
+     */
+    private Long sourceTsMs;
+
+    /**
+     * Debezium处理事件的时间(毫秒)
+     */
+    private Long tsMs;
+
+    /**
+     * 完整的payload 与processCaptureDataChange接收到的数据相同
+     */
+    private Dict payload;
+}
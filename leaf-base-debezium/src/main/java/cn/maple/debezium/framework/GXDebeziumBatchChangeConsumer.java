@@ -0,0 +1,185 @@
+package cn.maple.debezium.framework;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import cn.maple.core.framework.util.GXSpringContextUtils;
+import cn.maple.debezium.dto.GXDebeziumChangeEventDto;
+import cn.maple.debezium.services.GXDebeziumService;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量处理Debezium数据变化的消费者
+ * <p>
+ * 引擎每次拉取到的记录按照batchSize拆分后交给GXDebeziumService#processCaptureDataChanges处理,
+ * 每一批处理完成后才标记offset, 全部处理完成后通知引擎提交。
+ * 处理在引擎线程中同步进行, 业务处理变慢时引擎不再拉取新数据, 连接器内部队列(max.queue.size)满了之后会暂停读取binlog, 形成背压。
+ */
+@Slf4j
+public class GXDebeziumBatchChangeConsumer implements DebeziumEngine.ChangeConsumer<ChangeEvent<String, String>> {
+    private final String engineKey;
+
+    private final GXDebeziumService debeziumService;
+
+    /**
+     * 每次交给业务处理的最大事件数量
+     */
+    private final int batchSize;
+
+    private final AtomicLong processedCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 最近一个事件的端到端延迟(毫秒) 数据库发生变化到处理完成的时间
+     */
+    private final AtomicLong lastLagMillis = new AtomicLong();
+
+    private Counter eventCounter;
+
+    private Timer lagTimer;
+
+    private Timer batchTimer;
+
+    public GXDebeziumBatchChangeConsumer(String engineKey, GXDebeziumService debeziumService, int batchSize) {
+        this.engineKey = engineKey;
+        this.debeziumService = debeziumService;
+        this.batchSize = Math.max(batchSize, 1);
+        registerMetrics();
+    }
+
+    @Override
+    public void handleBatch(List<ChangeEvent<String, String>> records, DebeziumEngine.RecordCommitter<ChangeEvent<String, String>> committer) throws InterruptedException {
+        for (int from = 0; from < records.size(); from += batchSize) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException(engineKey + "引擎已经停止");
+            }
+            List<ChangeEvent<String, String>> chunk = records.subList(from, Math.min(from + batchSize, records.size()));
+            List<GXDebeziumChangeEventDto> events = new ArrayList<>(chunk.size());
+            for (ChangeEvent<String, String> record : chunk) {
+                log.debug("监听到数据库数据变化 : {}", record);
+                GXDebeziumChangeEventDto event = decode(record);
+                if (ObjectUtil.isNotNull(event)) {
+                    events.add(event);
+                }
+            }
+            long start = System.nanoTime();
+            if (!events.isEmpty()) {
+                debeziumService.processCaptureDataChanges(engineKey, events);
+            }
+            for (ChangeEvent<String, String> record : chunk) {
+                committer.markProcessed(record);
+            }
+            record(events, System.nanoTime() - start);
+        }
+        committer.markBatchFinished();
+    }
+
+    /**
+     * 获取统计信息
+     *
+     * @return Dict
+     */
+    public Dict getStats() {
+        return Dict.create()
+                .set("processed", processedCount.get())
+                .set("batches", batchCount.get())
+                .set("lastLagMillis", lastLagMillis.get());
+    }
+
+    /**
+     * 将记录解析为数据变化事件
+     * 只解析一次JSON, payload中的数据直接包装为Dict, 不再做二次转换
+     *
+     * @param record 引擎的记录
+     * @return 删除后的墓碑记录等没有数据的记录返回null
+     */
+    private GXDebeziumChangeEventDto decode(ChangeEvent<String, String> record) {
+        String value = record.value();
+        if (ObjectUtil.isNull(value)) {
+            return null;
+        }
+        JSONObject jsonObject = JSONUtil.parseObj(value);
+        Object payloadObj = jsonObject.containsKey("schema") ? jsonObject.get("payload") : jsonObject;
+        if (!(payloadObj instanceof JSONObject)) {
+            return null;
+        }
+        JSONObject payload = (JSONObject) payloadObj;
+        Dict source = toDict(payload.get("source"));
+        GXDebeziumChangeEventDto event = new GXDebeziumChangeEventDto();
+        event.setEngineKey(engineKey);
+        event.setKey(record.key());
+        event.setOp(payload.getStr("op"));
+        event.setBefore(toDict(payload.get("before")));
+        event.setAfter(toDict(payload.get("after")));
+        event.setSource(source);
+        event.setTsMs(payload.getLong("ts_ms"));
+        event.setPayload(new Dict(payload));
+        if (ObjectUtil.isNotNull(source)) {
+            event.setDatabase(source.getStr("db"));
+            event.setTable(source.getStr("table"));
+            event.setSourceTsMs(source.getLong("ts_ms"));
+        }
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Dict toDict(Object value) {
+        if (value instanceof Map) {
+            return new Dict((Map<String, Object>) value);
+        }
+        return null;
+    }
+
+    /**
+     * 记录吞吐量以及延迟
+     *
+     * @param events       本批次的事件
+     * @param elapsedNanos 业务处理耗时
+     */
+    private void record(List<GXDebeziumChangeEventDto> events, long elapsedNanos) {
+        batchCount.incrementAndGet();
+        processedCount.addAndGet(events.size());
+        long now = System.currentTimeMillis();
+        for (GXDebeziumChangeEventDto event : events) {
+            if (ObjectUtil.isNull(event.getSourceTsMs())) {
+                continue;
+            }
+            long lag = Math.max(now - event.getSourceTsMs(), 0);
+            lastLagMillis.set(lag);
+            if (ObjectUtil.isNotNull(lagTimer)) {
+                lagTimer.record(lag, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ObjectUtil.isNotNull(eventCounter)) {
+            eventCounter.increment(events.size());
+            batchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void registerMetrics() {
+        try {
+            MeterRegistry meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+            if (ObjectUtil.isNull(meterRegistry)) {
+                return;
+            }
+            eventCounter = Counter.builder("maple.debezium.events").tag("engine", engineKey).register(meterRegistry);
+            lagTimer = Timer.builder("maple.debezium.lag").tag("engine", engineKey).register(meterRegistry);
+            batchTimer = Timer.builder("maple.debezium.batch").tag("engine", engineKey).register(meterRegistry);
+        } catch (RuntimeException e) {
+            log.warn("Debezium引擎{}注册监控指标失败 : {}", engineKey, e.getMessage());
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package cn.maple.debezium.framework;
 
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.json.JSONUtil;
 import cn.maple.core.framework.service.GXCommandLineRunnerService;
 import cn.maple.core.framework.util.GXCommonUtils;
 import cn.maple.core.framework.util.GXSpringContextUtils;
@@ -17,27 +15,33 @@ import io.debezium.engine.format.Json;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 @Service
 @Order
 @Slf4j
-public class GXDebeziumCommandLineRunnerServiceImpl implements GXCommandLineRunnerService, DisposableBean {
+public class GXDebeziumCommandLineRunnerServiceImpl implements GXCommandLineRunnerService, SmartLifecycle, DisposableBean {
     private final Map<String, DebeziumEngine<ChangeEvent<String, String>>> debeziumEngineMap = new ConcurrentHashMap<>();
 
+    private final Map<String, GXDebeziumBatchChangeConsumer> changeConsumerMap = new ConcurrentHashMap<>();
+
     @Resource
     private GXDebeziumProperties debeziumProperties;
 
     @Resource
-    private ThreadPoolTaskExecutor debeziumExecutor;
+    private ExecutorService debeziumExecutor;
+
+    private volatile boolean running;
 
     @Override
     public void run() {
@@ -46,6 +50,7 @@ public class GXDebeziumCommandLineRunnerServiceImpl implements GXCommandLineRunn
             log.error("请实现GXDebeziumService接口");
             return;
         }
+        int batchSize = GXCommonUtils.getEnvironmentValue("maple.debezium.batch-size", Integer.class, 512);
         debeziumProperties.getConfig().forEach((key, map) -> {
             debeziumService.initialEngineLock(key);
             Properties properties = new Properties();
@@ -53,19 +58,16 @@ public class GXDebeziumCommandLineRunnerServiceImpl implements GXCommandLineRunn
             for (Map.Entry<String, String> entry : entries) {
                 properties.setProperty(entry.getKey(), entry.getValue());
             }
-            try (DebeziumEngine<ChangeEvent<String, String>> engine = DebeziumEngine.create(Json.class)
-                    .using(properties)
-                    .notifying(record -> {
-                        log.debug("监听到数据库数据变化 : {}", record);
-                        String value = record.value();
-                        Dict dbChangeData = JSONUtil.toBean(value, Dict.class);
-                        Dict payload = Convert.convert(Dict.class, dbChangeData.getObj("payload"));
-                        debeziumService.processCaptureDataChange(payload);
-                    }).build()
-            ) {
+            GXDebeziumBatchChangeConsumer changeConsumer = new GXDebeziumBatchChangeConsumer(key, debeziumService, batchSize);
+            try {
+                DebeziumEngine<ChangeEvent<String, String>> engine = DebeziumEngine.create(Json.class)
+                        .using(properties)
+                        .notifying(changeConsumer)
+                        .build();
                 debeziumEngineMap.put(key, engine);
+                changeConsumerMap.put(key, changeConsumer);
                 debeziumExecutor.execute(engine);
-            } catch (IOException e) {
+            } catch (RuntimeException e) {
                 throw new GXDebeziumInitialException(CharSequenceUtil.format("初始化Debezium内嵌引擎{}失败", key), e);
             } finally {
                 debeziumService.initialEngineUnLock(key);
@@ -73,18 +75,61 @@ public class GXDebeziumCommandLineRunnerServiceImpl implements GXCommandLineRunn
         });
     }
 
+    /**
+     * 获取每个引擎的统计信息(吞吐量以及延迟)
+     *
+     * @return key为引擎的key value为统计信息
+     */
+    public Map<String, Dict> getStats() {
+        Map<String, Dict> stats = new LinkedHashMap<>();
+        changeConsumerMap.forEach((key, changeConsumer) -> stats.put(key, changeConsumer.getStats()));
+        return stats;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * 在线程池关闭(GXExecutorShutdownLifecycle)之前关闭引擎, 引擎所在的线程才能正常结束
+     */
+    @Override
+    public void stop() {
+        running = false;
+        closeEngines();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
     @Override
     public void destroy() {
+        closeEngines();
+    }
+
+    /**
+     * 关闭所有的引擎 已经关闭的引擎会从列表中移除
+     * 线程池由GXExecutorUtils统一关闭
+     */
+    private void closeEngines() {
+        if (debeziumEngineMap.isEmpty()) {
+            return;
+        }
         String appName = GXCommonUtils.getEnvironmentValue("spring.application.name", String.class);
-        for (Map.Entry<String, DebeziumEngine<ChangeEvent<String, String>>> entry : debeziumEngineMap.entrySet()) {
+        for (String key : debeziumEngineMap.keySet()) {
+            DebeziumEngine<ChangeEvent<String, String>> engine = debeziumEngineMap.remove(key);
+            if (ObjectUtil.isNull(engine)) {
+                continue;
+            }
             try {
-                DebeziumEngine<ChangeEvent<String, String>> engine = entry.getValue();
                 engine.close();
             } catch (IOException e) {
-                log.error("应用{}关闭{}>>>Debezium引擎失败", appName, entry.getKey(), e);
+                log.error("应用{}关闭{}>>>Debezium引擎失败", appName, key, e);
             }
         }
-        debeziumExecutor.shutdown();
         log.info("~~~~ 应用{}的Debezium引擎关闭完成 , 再见 ~~~~~", appName);
     }
 }
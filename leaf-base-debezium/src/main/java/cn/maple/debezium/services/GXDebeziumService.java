@@ -3,8 +3,11 @@ package cn.maple.debezium.services;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.debezium.dto.GXDebeziumChangeEventDto;
 import cn.maple.redisson.util.GXRedissonUtils;
 
+import java.util.List;
+
 public interface GXDebeziumService {
     /**
      * 自定义业务处理
@@ -13,6 +16,20 @@ public interface GXDebeziumService {
      */
     void processCaptureDataChange(Dict data);
 
+    /**
+     * 批量处理数据变化
+     * 该方法返回后本批次的offset才会提交, 抛出异常时引擎停止, 重启后从未提交的位置重新消费
+     * 默认逐条调用processCaptureDataChange, 需要批量写入时可以重写该方法
+     *
+     * @param engineKey 引擎的key
+     * @param events    数据变化事件
+     */
+    default void processCaptureDataChanges(String engineKey, List<GXDebeziumChangeEventDto> events) {
+        for (GXDebeziumChangeEventDto event : events) {
+            processCaptureDataChange(event.getPayload());
+        }
+    }
+
     /**
      * 在同一个服务部署了多个实例的情况下
      * 只需要有一个服务是正常处理CDC的即可
@@ -0,0 +1,420 @@
+package cn.maple.elasticsearch.builder;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.json.JSONUtil;
+import cn.maple.core.framework.dto.inner.condition.*;
+import cn.maple.core.framework.dto.inner.condition.func.GXConditionFuncJsonContains;
+import cn.maple.core.framework.dto.inner.condition.func.GXConditionFuncJsonOverlaps;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.util.GXCommonUtils;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.*;
+import co.elastic.clients.json.JsonData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 将GXCondition转换为Elasticsearch的查询
+ * <p>
+ * 每一种条件类型对应一个类型化的子句构造器, 条件的值按照原始类型(数字、日期、字符串)直接转换为ES的FieldValue/JsonData,
+ * 不再转换为字符串, 也不再通过反射调用Criteria的方法。
+ * 子句构造器按照条件类型缓存, 子类型第一次解析之后直接命中。
+ * 默认所有的条件都放在bool查询的filter中(不计算相关性得分, 可以被ES缓存), 通过以下配置项修改:
+ * <pre>
+ * maple.elasticsearch.condition.filter-context=true
+ * </pre>
+ * CriteriaQuery不支持的条件(GXConditionRaw、JSON函数条件等)默认忽略(与之前的行为一致), 通过以下配置项改为抛出异常:
+ * <pre>
+ * maple.elasticsearch.condition.criteria-strict=false
+ * </pre>
+ */
+@Slf4j
+public class GXElasticsearchConditionTranslator {
+    /**
+     * 是否使用filter上下文的配置项
+     */
+    private static final String FILTER_CONTEXT_CONFIG_NAME = "maple.elasticsearch.condition.filter-context";
+
+    /**
+     * CriteriaQuery遇到不支持的条件时是否抛出异常的配置项
+     */
+    private static final String CRITERIA_STRICT_CONFIG_NAME = "maple.elasticsearch.condition.criteria-strict";
+
+    /**
+     * 条件类型 -> 子句构造器
+     */
+    private static final Map<Class<?>, GXClauseBuilder> CLAUSE_BUILDERS = new ConcurrentHashMap<>();
+
+    /**
+     * 默认支持的条件类型
+     */
+    private static final Set<Class<?>> DEFAULT_CONDITION_TYPES = new HashSet<>();
+
+    /**
+     * 不参与查询的条件(只用于SQL的标记条件)
+     */
+    private static final GXClauseBuilder SKIP = new GXClauseBuilder(condition -> "", (field, condition) -> null, false);
+
+    static {
+        addFieldClause(GXConditionEQ.class, false, (field, condition) -> term(field, condition.getValue()));
+        addFieldClause(GXConditionStrEQ.class, false, (field, condition) -> term(field, condition.getValue()));
+        addFieldClause(GXConditionNE.class, true, (field, condition) -> term(field, condition.getValue()));
+        addFieldClause(GXConditionStrNE.class, true, (field, condition) -> term(field, condition.getValue()));
+        addFieldClause(GXConditionGT.class, false, (field, condition) -> RangeQuery.of(r -> r.field(field).gt(toJsonData(condition.getValue())))._toQuery());
+        addFieldClause(GXConditionGE.class, false, (field, condition) -> RangeQuery.of(r -> r.field(field).gte(toJsonData(condition.getValue())))._toQuery());
+        addFieldClause(GXConditionLT.class, false, (field, condition) -> RangeQuery.of(r -> r.field(field).lt(toJsonData(condition.getValue())))._toQuery());
+        addFieldClause(GXConditionLE.class, false, (field, condition) -> RangeQuery.of(r -> r.field(field).lte(toJsonData(condition.getValue())))._toQuery());
+        addFieldClause(GXConditionIn.class, false, (field, condition) -> terms(field, (Collection<?>) condition.getValue()));
+        addFieldClause(GXConditionStrIn.class, false, (field, condition) -> terms(field, (Collection<?>) condition.getValue()));
+        addFieldClause(GXConditionNotIn.class, true, (field, condition) -> terms(field, (Collection<?>) condition.getValue()));
+        addFieldClause(GXConditionStrNotIn.class, true, (field, condition) -> terms(field, (Collection<?>) condition.getValue()));
+        addFieldClause(GXConditionLikeFull.class, false, (field, condition) -> wildcard(field, "*" + escapeWildcard(condition.getValue()) + "*"));
+        addFieldClause(GXConditionLikeLeft.class, false, (field, condition) -> wildcard(field, "*" + escapeWildcard(condition.getValue())));
+        addFieldClause(GXConditionLikeRight.class, false, (field, condition) -> wildcard(field, escapeWildcard(condition.getValue()) + "*"));
+        addFieldClause(GXConditionIsNULL.class, true, (field, condition) -> ExistsQuery.of(e -> e.field(field))._toQuery());
+        addClause(GXConditionJsonEQ.class, condition -> {
+            GXConditionJsonEQ jsonEQ = (GXConditionJsonEQ) condition;
+            return jsonEQ.getJsonField() + "." + jsonEQ.getJsonFieldName();
+        }, false, (field, condition) -> {
+            String value = condition.getValue().toString();
+            return term(field, NumberUtil.isNumber(value) ? NumberUtil.parseNumber(value) : value);
+        });
+        addClause(GXConditionFuncJsonContains.class, condition -> {
+            GXConditionFuncJsonContains jsonContains = (GXConditionFuncJsonContains) condition;
+            return jsonFieldPath(jsonContains.getJsonField(), jsonContains.getJsonPath());
+        }, false, (field, condition) -> {
+            // JSON_CONTAINS需要包含所有的值
+            BoolQuery.Builder builder = new BoolQuery.Builder();
+            ((GXConditionFuncJsonContains) condition).getValues().forEach(value -> builder.filter(term(field, value)));
+            return builder.build()._toQuery();
+        });
+        addClause(GXConditionFuncJsonOverlaps.class, condition -> {
+            GXConditionFuncJsonOverlaps jsonOverlaps = (GXConditionFuncJsonOverlaps) condition;
+            return jsonFieldPath(jsonOverlaps.getJsonField(), jsonOverlaps.getJsonPath());
+        }, false, (field, condition) -> terms(field, ((GXConditionFuncJsonOverlaps) condition).getValues()));
+        addFieldClause(GXConditionKeyset.class, false, GXElasticsearchConditionTranslator::keyset);
+        addClause(GXConditionRaw.class, condition -> "", false, (field, condition) -> {
+            String value = condition.getValue().toString();
+            if (JSONUtil.isTypeJSON(value)) {
+                return WrapperQuery.of(w -> w.query(Base64.encode(value)))._toQuery();
+            }
+            return QueryStringQuery.of(q -> q.query(value))._toQuery();
+        });
+        CLAUSE_BUILDERS.put(GXConditionExclusionDeletedField.class, SKIP);
+        CLAUSE_BUILDERS.put(GXIgnoreDataFilterCondition.class, SKIP);
+        DEFAULT_CONDITION_TYPES.addAll(CLAUSE_BUILDERS.keySet());
+    }
+
+    private GXElasticsearchConditionTranslator() {
+    }
+
+    /**
+     * 注册条件类型的子句构造器 字段名为条件的getFieldExpression()
+     * 业务可以通过该方法支持自定义的条件类型或者覆盖默认的转换方式
+     *
+     * @param conditionType 条件类型
+     * @param negated       是否为否定条件(放在must_not中)
+     * @param builder       子句构造器 参数为字段名以及条件
+     */
+    public static void registerFieldClause(Class<?> conditionType, boolean negated, BiFunction<String, GXCondition<?>, Query> builder) {
+        registerClause(conditionType, GXCondition::getFieldExpression, negated, builder);
+    }
+
+    /**
+     * 注册条件类型的子句构造器
+     *
+     * @param conditionType 条件类型
+     * @param fieldResolver 获取ES字段名的函数
+     * @param negated       是否为否定条件(放在must_not中)
+     * @param builder       子句构造器 参数为字段名以及条件
+     */
+    public static void registerClause(Class<?> conditionType, Function<GXCondition<?>, String> fieldResolver, boolean negated, BiFunction<String, GXCondition<?>, Query> builder) {
+        addClause(conditionType, fieldResolver, negated, builder);
+        // 子类型会缓存父类型的子句构造器, 注册后需要重新解析
+        CLAUSE_BUILDERS.keySet().removeIf(type -> type != conditionType && conditionType.isAssignableFrom(type) && !DEFAULT_CONDITION_TYPES.contains(type));
+    }
+
+    private static void addFieldClause(Class<?> conditionType, boolean negated, BiFunction<String, GXCondition<?>, Query> builder) {
+        addClause(conditionType, GXCondition::getFieldExpression, negated, builder);
+    }
+
+    private static void addClause(Class<?> conditionType, Function<GXCondition<?>, String> fieldResolver, boolean negated, BiFunction<String, GXCondition<?>, Query> builder) {
+        CLAUSE_BUILDERS.put(conditionType, new GXClauseBuilder(fieldResolver, builder, negated));
+    }
+
+    /**
+     * 将条件列表转换为ES的查询
+     *
+     * @param conditions 条件列表
+     * @return ES的查询
+     */
+    public static Query translate(List<GXCondition<?>> conditions) {
+        return translate(conditions, GXCommonUtils.getEnvironmentValue(FILTER_CONTEXT_CONFIG_NAME, Boolean.class, Boolean.TRUE));
+    }
+
+    /**
+     * 将条件列表转换为ES的查询
+     *
+     * @param conditions    条件列表
+     * @param filterContext 为true时条件放在filter中(不计算得分, 可以缓存), 否则放在must中
+     * @return ES的查询
+     */
+    public static Query translate(List<GXCondition<?>> conditions, boolean filterContext) {
+        if (Objects.isNull(conditions) || conditions.isEmpty()) {
+            return MatchAllQuery.of(m -> m)._toQuery();
+        }
+        BoolQuery.Builder builder = new BoolQuery.Builder();
+        for (GXCondition<?> condition : conditions) {
+            GXClauseBuilder clauseBuilder = resolveClauseBuilder(condition.getClass());
+            if (clauseBuilder == SKIP) {
+                continue;
+            }
+            Query query = clauseBuilder.builder.apply(clauseBuilder.fieldResolver.apply(condition), condition);
+            if (clauseBuilder.negated) {
+                builder.mustNot(query);
+            } else if (filterContext) {
+                builder.filter(query);
+            } else {
+                builder.must(query);
+            }
+        }
+        return builder.build()._toQuery();
+    }
+
+    /**
+     * 将条件列表转换为Criteria(CriteriaQuery使用)
+     * 条件的值按照原始类型传递给Criteria
+     * 不支持的条件默认忽略, 配置maple.elasticsearch.condition.criteria-strict=true时抛出异常
+     *
+     * @param conditions 条件列表
+     * @return Criteria
+     */
+    public static Criteria toCriteria(List<GXCondition<?>> conditions) {
+        return toCriteria(conditions, GXCommonUtils.getEnvironmentValue(CRITERIA_STRICT_CONFIG_NAME, Boolean.class, Boolean.FALSE));
+    }
+
+    /**
+     * 将条件列表转换为Criteria(CriteriaQuery使用)
+     *
+     * @param conditions 条件列表
+     * @param strict     为true时不支持的条件抛出异常, 否则忽略该条件
+     * @return Criteria
+     */
+    public static Criteria toCriteria(List<GXCondition<?>> conditions, boolean strict) {
+        Criteria criteria = new Criteria();
+        if (Objects.isNull(conditions)) {
+            return criteria;
+        }
+        for (GXCondition<?> condition : conditions) {
+            if (condition instanceof GXConditionExclusionDeletedField || condition instanceof GXIgnoreDataFilterCondition) {
+                continue;
+            }
+            Criteria fieldCriteria = toFieldCriteria(condition);
+            if (Objects.isNull(fieldCriteria)) {
+                if (strict) {
+                    throw new GXBusinessException(CharSequenceUtil.format("CriteriaQuery不支持的查询条件{}, 请使用NativeQuery", condition.getClass().getSimpleName()));
+                }
+                log.debug("CriteriaQuery不支持的查询条件{}, 已忽略", condition.getClass().getSimpleName());
+                continue;
+            }
+            criteria.and(fieldCriteria);
+        }
+        return criteria;
+    }
+
+    /**
+     * 将单个条件转换为Criteria
+     * 不支持的条件(例如没有字段名的GXConditionRaw)返回null
+     *
+     * @param condition 条件
+     * @return Criteria
+     */
+    private static Criteria toFieldCriteria(GXCondition<?> condition) {
+        Object value = condition.getValue();
+        if (condition instanceof GXConditionEQ || condition instanceof GXConditionStrEQ) {
+            return new Criteria(condition.getFieldExpression()).is(value);
+        }
+        if (condition instanceof GXConditionNE || condition instanceof GXConditionStrNE) {
+            return new Criteria(condition.getFieldExpression()).not().is(value);
+        }
+        if (condition instanceof GXConditionGT) {
+            return new Criteria(condition.getFieldExpression()).greaterThan(value);
+        }
+        if (condition instanceof GXConditionGE) {
+            return new Criteria(condition.getFieldExpression()).greaterThanEqual(value);
+        }
+        if (condition instanceof GXConditionLT) {
+            return new Criteria(condition.getFieldExpression()).lessThan(value);
+        }
+        if (condition instanceof GXConditionLE) {
+            return new Criteria(condition.getFieldExpression()).lessThanEqual(value);
+        }
+        if (condition instanceof GXConditionIn || condition instanceof GXConditionStrIn) {
+            return new Criteria(condition.getFieldExpression()).in((Collection<?>) value);
+        }
+        if (condition instanceof GXConditionNotIn || condition instanceof GXConditionStrNotIn) {
+            return new Criteria(condition.getFieldExpression()).notIn((Collection<?>) value);
+        }
+        if (condition instanceof GXConditionLikeFull) {
+            return new Criteria(condition.getFieldExpression()).contains(value.toString());
+        }
+        if (condition instanceof GXConditionLikeLeft) {
+            return new Criteria(condition.getFieldExpression()).endsWith(value.toString());
+        }
+        if (condition instanceof GXConditionLikeRight) {
+            return new Criteria(condition.getFieldExpression()).startsWith(value.toString());
+        }
+        if (condition instanceof GXConditionIsNULL) {
+            return new Criteria(condition.getFieldExpression()).exists().not();
+        }
+        if (condition instanceof GXConditionJsonEQ) {
+            GXConditionJsonEQ jsonEQ = (GXConditionJsonEQ) condition;
+            return new Criteria(jsonEQ.getJsonField() + "." + jsonEQ.getJsonFieldName()).is(value);
+        }
+        return null;
+    }
+
+    /**
+     * 获取条件类型对应的子句构造器 未注册时查找父类型
+     *
+     * @param conditionType 条件类型
+     * @return 子句构造器
+     */
+    private static GXClauseBuilder resolveClauseBuilder(Class<?> conditionType) {
+        for (Class<?> type = conditionType; Objects.nonNull(type); type = type.getSuperclass()) {
+            GXClauseBuilder builder = CLAUSE_BUILDERS.get(type);
+            if (Objects.nonNull(builder)) {
+                if (type != conditionType) {
+                    CLAUSE_BUILDERS.putIfAbsent(conditionType, builder);
+                }
+                return builder;
+            }
+        }
+        throw new GXBusinessException(CharSequenceUtil.format("Elasticsearch不支持的查询条件{}", conditionType.getSimpleName()));
+    }
+
+    /**
+     * 游标条件 (f1, f2) > (v1, v2) 转换为 f1 > v1 OR (f1 = v1 AND f2 > v2)
+     *
+     * @param field     字段表达式 (f1,f2)
+     * @param condition 条件
+     * @return ES的查询
+     */
+    private static Query keyset(String field, GXCondition<?> condition) {
+        List<String> fields = CharSequenceUtil.split(CharSequenceUtil.unWrap(field, '(', ')'), ',', true, true);
+        List<?> values = (List<?>) condition.getValue();
+        boolean asc = CharSequenceUtil.equals(condition.getOp(), ">");
+        BoolQuery.Builder builder = new BoolQuery.Builder().minimumShouldMatch("1");
+        for (int i = 0; i < fields.size(); i++) {
+            BoolQuery.Builder clause = new BoolQuery.Builder();
+            for (int j = 0; j < i; j++) {
+                clause.filter(term(fields.get(j), values.get(j)));
+            }
+            String rangeField = fields.get(i);
+            JsonData rangeValue = toJsonData(values.get(i));
+            clause.filter(RangeQuery.of(r -> asc ? r.field(rangeField).gt(rangeValue) : r.field(rangeField).lt(rangeValue))._toQuery());
+            builder.should(clause.build()._toQuery());
+        }
+        return builder.build()._toQuery();
+    }
+
+    private static Query term(String field, Object value) {
+        return TermQuery.of(t -> t.field(field).value(toFieldValue(value)))._toQuery();
+    }
+
+    private static Query terms(String field, Collection<?> values) {
+        List<FieldValue> fieldValues = new ArrayList<>(values.size());
+        values.forEach(value -> fieldValues.add(toFieldValue(value)));
+        return TermsQuery.of(t -> t.field(field).terms(f -> f.value(fieldValues)))._toQuery();
+    }
+
+    private static Query wildcard(String field, String pattern) {
+        return WildcardQuery.of(w -> w.field(field).value(pattern))._toQuery();
+    }
+
+    private static String escapeWildcard(Object value) {
+        return value.toString().replace("\\", "\\\\").replace("*", "\\*").replace("?", "\\?");
+    }
+
+    private static String jsonFieldPath(String jsonField, String jsonPath) {
+        return CharSequenceUtil.isEmpty(jsonPath) ? jsonField : jsonField + "." + jsonPath;
+    }
+
+    /**
+     * 按照值的原始类型转换为FieldValue
+     *
+     * @param value 值
+     * @return FieldValue
+     */
+    private static FieldValue toFieldValue(Object value) {
+        if (Objects.isNull(value)) {
+            return FieldValue.NULL;
+        }
+        if (value instanceof BigDecimal || value instanceof Double || value instanceof Float) {
+            return FieldValue.of(((Number) value).doubleValue());
+        }
+        if (value instanceof BigInteger) {
+            return FieldValue.of(value.toString());
+        }
+        if (value instanceof Number) {
+            return FieldValue.of(((Number) value).longValue());
+        }
+        if (value instanceof Boolean) {
+            return FieldValue.of((Boolean) value);
+        }
+        if (value instanceof Date) {
+            return FieldValue.of(((Date) value).getTime());
+        }
+        if (value instanceof CharSequence || value instanceof TemporalAccessor || value instanceof Enum) {
+            return FieldValue.of(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+        }
+        return FieldValue.of(JsonData.of(value));
+    }
+
+    /**
+     * 按照值的原始类型转换为JsonData(范围查询使用)
+     * 日期转换为毫秒时间戳, java.time类型转换为ISO格式的字符串
+     *
+     * @param value 值
+     * @return JsonData
+     */
+    private static JsonData toJsonData(Object value) {
+        if (value instanceof Date) {
+            return JsonData.of(((Date) value).getTime());
+        }
+        if (value instanceof TemporalAccessor) {
+            return JsonData.of(value.toString());
+        }
+        return JsonData.of(value);
+    }
+
+    /**
+     * 子句构造器
+     */
+    private static final class GXClauseBuilder {
+        private final Function<GXCondition<?>, String> fieldResolver;
+
+        private final BiFunction<String, GXCondition<?>, Query> builder;
+
+        /**
+         * 是否为否定条件
+         */
+        private final boolean negated;
+
+        GXClauseBuilder(Function<GXCondition<?>, String> fieldResolver, BiFunction<String, GXCondition<?>, Query> builder, boolean negated) {
+            this.fieldResolver = fieldResolver;
+            this.builder = builder;
+            this.negated = negated;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package cn.maple.elasticsearch.bulk;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.ObjectUtil;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXExecutorUtils;
+import cn.maple.core.framework.util.GXSpringContextUtils;
+import cn.maple.elasticsearch.model.GXElasticsearchModel;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.client.elc.RequestConverter;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Elasticsearch批量写入器
+ * <p>
+ * 文档先进入缓冲区, 缓冲的文档数量达到max-actions、大小达到max-bytes或者距离上次发送超过linger-ms时,
+ * 按照索引分组后每个索引发送一个bulk请求(新增以及局部更新在同一个请求中)。同时进行的bulk请求数量不超过concurrency,
+ * 超过时写入线程等待(背压)。bulk响应中的每一项与请求按位置对应(自动生成ID的文档也能对应),
+ * 被ES拒绝(429)的文档按照指数退避重试, 其他失败直接计入失败数量。
+ * 线程池已经关闭时(例如应用关闭过程中)在调用线程中直接写入, 保证close/flush不丢失缓冲区中的文档。
+ * <pre>
+ * 配置前缀 maple.elasticsearch.bulk.
+ * max-actions      : 每次bulk的最大文档数量, 默认1000
+ * max-bytes        : 每次bulk的最大字节数, 默认5MB
+ * linger-ms        : 文档在缓冲区中的最长等待时间, 默认1000毫秒
+ * concurrency      : 同时进行的bulk请求数量, 默认2
+ * max-retries      : 被拒绝文档的最大重试次数, 默认3
+ * retry-backoff-ms : 第一次重试的等待时间, 之后每次翻倍, 默认100毫秒
+ * </pre>
+ */
+@Slf4j
+public class GXElasticsearchBulkWriter implements AutoCloseable {
+    /**
+     * 配置前缀
+     */
+    private static final String CONFIG_PREFIX = "maple.elasticsearch.bulk.";
+
+    /**
+     * 被ES拒绝的HTTP状态码
+     */
+    private static final int REJECTED_STATUS = 429;
+
+    /**
+     * ElasticsearchTemplate的名字 -> 批量写入器
+     */
+    private static final Map<String, GXElasticsearchBulkWriter> WRITER_REGISTRY = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final int maxActions;
+
+    private final long maxBytes;
+
+    private final int concurrency;
+
+    private final int maxRetries;
+
+    private final long retryBackoffMillis;
+
+    /**
+     * 限制同时进行的bulk请求数量
+     */
+    private final Semaphore permits;
+
+    /**
+     * 线程池名字 每次从注册表中获取, 上下文刷新之后使用重新创建的线程池
+     */
+    private final String executorName;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 索引名字 -> 统计信息
+     */
+    private final Map<String, GXIndexStats> indexStats = new ConcurrentHashMap<>();
+
+    private List<GXBulkItem> buffer = new ArrayList<>();
+
+    private long bufferedBytes;
+
+    private volatile boolean closed;
+
+    private MeterRegistry meterRegistry;
+
+    private volatile RequestConverter requestConverter;
+
+    public GXElasticsearchBulkWriter(String name, ElasticsearchTemplate elasticsearchTemplate) {
+        this.name = name;
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.maxActions = Math.max(getConfig("max-actions", Integer.class, 1000), 1);
+        this.maxBytes = getConfig("max-bytes", Long.class, 5L * 1024 * 1024);
+        this.concurrency = Math.max(getConfig("concurrency", Integer.class, 2), 1);
+        this.maxRetries = getConfig("max-retries", Integer.class, 3);
+        this.retryBackoffMillis = getConfig("retry-backoff-ms", Long.class, 100L);
+        this.permits = new Semaphore(concurrency);
+        this.executorName = "es-bulk-" + name;
+        long lingerMillis = Math.max(getConfig("linger-ms", Long.class, 1000L), 1);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(ThreadFactoryBuilder.create().setNamePrefix("gx-es-bulk-linger-").setDaemon(true).build());
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+        this.meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+    }
+
+    /**
+     * 获取ElasticsearchTemplate对应的批量写入器
+     *
+     * @param templateName          ElasticsearchTemplate的名字
+     * @param elasticsearchTemplate ElasticsearchTemplate
+     * @return 批量写入器
+     */
+    public static GXElasticsearchBulkWriter getInstance(String templateName, ElasticsearchTemplate elasticsearchTemplate) {
+        return WRITER_REGISTRY.computeIfAbsent(templateName, name -> new GXElasticsearchBulkWriter(name, elasticsearchTemplate));
+    }
+
+    /**
+     * 关闭所有的批量写入器 关闭前写入缓冲区中剩余的文档
+     */
+    public static void closeAll() {
+        WRITER_REGISTRY.values().forEach(GXElasticsearchBulkWriter::close);
+        WRITER_REGISTRY.clear();
+    }
+
+    /**
+     * 写入(新增或者覆盖)实体 索引为实体上配置的索引
+     *
+     * @param entity 实体
+     */
+    public void add(GXElasticsearchModel entity) {
+        add(entity, null);
+    }
+
+    /**
+     * 写入(新增或者覆盖)实体
+     *
+     * @param entity    实体
+     * @param indexName 索引名字 为空时使用实体上配置的索引
+     */
+    public void add(GXElasticsearchModel entity, String indexName) {
+        ElasticsearchConverter converter = elasticsearchTemplate.getElasticsearchConverter();
+        ElasticsearchPersistentEntity<?> persistentEntity = converter.getMappingContext().getRequiredPersistentEntity(entity.getClass());
+        Object id = persistentEntity.getIdentifierAccessor(entity).getIdentifier();
+        // 只序列化一次, 同时用于计算大小以及发送
+        String source = converter.mapObject(entity).toJson();
+        IndexQueryBuilder indexQueryBuilder = new IndexQueryBuilder().withSource(source);
+        if (ObjectUtil.isNotNull(id)) {
+            indexQueryBuilder.withId(id.toString());
+        }
+        String index = ObjectUtil.isNull(indexName) ? elasticsearchTemplate.getIndexCoordinatesFor(entity.getClass()).getIndexName() : indexName;
+        enqueue(new GXBulkItem(index, indexQueryBuilder.build(), source.length()));
+    }
+
+    /**
+     * 局部更新文档 文档不存在时新增
+     *
+     * @param indexName 索引名字
+     * @param id        文档ID
+     * @param fields    需要更新的字段
+     */
+    public void addUpdate(String indexName, String id, Map<String, Object> fields) {
+        Document document = Document.from(fields);
+        UpdateQuery updateQuery = UpdateQuery.builder(id).withDocument(document).withDocAsUpsert(true).build();
+        enqueue(new GXBulkItem(indexName, updateQuery, document.toJson().length()));
+    }
+
+    /**
+     * 立即写入缓冲区中的文档 并等待所有进行中的bulk请求完成
+     */
+    public void flush() {
+        submit(drainBuffer());
+        try {
+            permits.acquire(concurrency);
+            permits.release(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GXBusinessException("等待Elasticsearch批量写入完成时被中断", e);
+        }
+    }
+
+    /**
+     * 获取每个索引的写入统计信息
+     *
+     * @return key为索引名字 value为统计信息
+     */
+    public Map<String, Dict> getStats() {
+        Map<String, Dict> stats = new LinkedHashMap<>();
+        indexStats.forEach((index, indexStat) -> stats.put(index, indexStat.toDict()));
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void enqueue(GXBulkItem item) {
+        if (closed) {
+            throw new RejectedExecutionException("Elasticsearch批量写入器" + name + "已经关闭");
+        }
+        List<GXBulkItem> batch = null;
+        synchronized (this) {
+            buffer.add(item);
+            bufferedBytes += item.bytes;
+            if (buffer.size() >= maxActions || bufferedBytes >= maxBytes) {
+                batch = drainBuffer();
+            }
+        }
+        submit(batch);
+    }
+
+    private synchronized List<GXBulkItem> drainBuffer() {
+        if (buffer.isEmpty()) {
+            return null;
+        }
+        List<GXBulkItem> batch = buffer;
+        buffer = new ArrayList<>(Math.min(maxActions, 1024));
+        bufferedBytes = 0;
+        return batch;
+    }
+
+    /**
+     * 提交一批文档 同时进行的bulk请求已满时等待
+     * 线程池已经关闭时在调用线程中直接写入
+     *
+     * @param batch 文档
+     */
+    private void submit(List<GXBulkItem> batch) {
+        if (ObjectUtil.isNull(batch)) {
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GXBusinessException("等待Elasticsearch批量写入时被中断", e);
+        }
+        try {
+            GXExecutorUtils.getExecutor(executorName, concurrency, concurrency, concurrency).execute(() -> {
+                try {
+                    write(batch);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Elasticsearch批量写入线程池{}拒绝任务, 在当前线程中写入 : {}", executorName, e.getMessage());
+            try {
+                write(batch);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 按照索引分组写入
+     *
+     * @param batch 文档
+     */
+    private void write(List<GXBulkItem> batch) {
+        Map<String, List<GXBulkItem>> byIndex = new LinkedHashMap<>();
+        for (GXBulkItem item : batch) {
+            byIndex.computeIfAbsent(item.index, k -> new ArrayList<>()).add(item);
+        }
+        byIndex.forEach(this::writeIndex);
+    }
+
+    private void writeIndex(String index, List<GXBulkItem> items) {
+        GXIndexStats stats = indexStats.computeIfAbsent(index, k -> new GXIndexStats());
+        IndexCoordinates indexCoordinates = IndexCoordinates.of(index);
+        List<GXBulkItem> pending = items;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            List<Object> queries = new ArrayList<>(pending.size());
+            pending.forEach(item -> queries.add(item.query));
+            List<BulkResponseItem> responseItems;
+            long start = System.nanoTime();
+            try {
+                responseItems = bulk(queries, indexCoordinates).items();
+            } catch (RuntimeException e) {
+                log.error("Elasticsearch批量写入索引{}失败, 本批{}个文档未写入 : {}", index, pending.size(), e.getMessage(), e);
+                record(stats, index, "failure", pending.size());
+                return;
+            } finally {
+                stats.bulkRequests.incrementAndGet();
+                stats.lastTookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            List<GXBulkItem> rejected = new ArrayList<>();
+            int failed = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                // 响应中的每一项与请求按位置对应, 缺少响应的文档视为失败
+                BulkResponseItem responseItem = i < responseItems.size() ? responseItems.get(i) : null;
+                if (ObjectUtil.isNull(responseItem)) {
+                    failed++;
+                    log.error("Elasticsearch批量写入索引{}的第{}个文档没有响应", index, i);
+                } else if (ObjectUtil.isNull(responseItem.error())) {
+                    continue;
+                } else if (responseItem.status() == REJECTED_STATUS && attempt < maxRetries) {
+                    rejected.add(pending.get(i));
+                } else {
+                    failed++;
+                    log.error("Elasticsearch文档{}/{}写入失败 : {}", index, responseItem.id(), responseItem.error().reason());
+                }
+            }
+            record(stats, index, "success", pending.size() - rejected.size() - failed);
+            record(stats, index, "failure", failed);
+            record(stats, index, "retry", rejected.size());
+            if (!rejected.isEmpty() && !sleepBackoff(attempt)) {
+                record(stats, index, "failure", rejected.size());
+                return;
+            }
+            pending = rejected;
+        }
+    }
+
+    /**
+     * 发送bulk请求 新增以及局部更新按照原始顺序放在同一个请求中
+     *
+     * @param queries          IndexQuery或者UpdateQuery
+     * @param indexCoordinates 索引
+     * @return bulk响应
+     */
+    private BulkResponse bulk(List<Object> queries, IndexCoordinates indexCoordinates) {
+        return elasticsearchTemplate.execute(client -> client.bulk(getRequestConverter(client).documentBulkRequest(queries, BulkOptions.defaultOptions(), indexCoordinates, elasticsearchTemplate.getRefreshPolicy())));
+    }
+
+    private RequestConverter getRequestConverter(ElasticsearchClient client) {
+        if (ObjectUtil.isNull(requestConverter)) {
+            requestConverter = new RequestConverter(elasticsearchTemplate.getElasticsearchConverter(), client._jsonpMapper());
+        }
+        return requestConverter;
+    }
+
+    private boolean sleepBackoff(int attempt) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(retryBackoffMillis << Math.min(attempt, 16));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void record(GXIndexStats stats, String index, String outcome, int count) {
+        if (count <= 0) {
+            return;
+        }
+        switch (outcome) {
+            case "success":
+                stats.success.addAndGet(count);
+                break;
+            case "failure":
+                stats.failure.addAndGet(count);
+                break;
+            default:
+                stats.retried.addAndGet(count);
+        }
+        try {
+            if (ObjectUtil.isNotNull(meterRegistry)) {
+                Counter.builder("maple.es.bulk.docs").tag("index", index).tag("outcome", outcome).register(meterRegistry).increment(count);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Elasticsearch批量写入记录监控指标失败 : {}", e.getMessage());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            submit(drainBuffer());
+        } catch (RuntimeException e) {
+            log.error("Elasticsearch批量写入出错 : {}", e.getMessage(), e);
+        }
+    }
+
+    private static <T> T getConfig(String key, Class<T> clazz, T defaultValue) {
+        return GXCommonUtils.getEnvironmentValue(CONFIG_PREFIX + key, clazz, defaultValue);
+    }
+
+    /**
+     * 待写入的文档
+     */
+    private static final class GXBulkItem {
+        private final String index;
+
+        /**
+         * IndexQuery或者UpdateQuery
+         */
+        private final Object query;
+
+        private final long bytes;
+
+        GXBulkItem(String index, Object query, long bytes) {
+            this.index = index;
+            this.query = query;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * 索引的写入统计信息
+     */
+    private static final class GXIndexStats {
+        private final AtomicLong success = new AtomicLong();
+
+        private final AtomicLong failure = new AtomicLong();
+
+        private final AtomicLong retried = new AtomicLong();
+
+        private final AtomicLong bulkRequests = new AtomicLong();
+
+        private volatile long lastTookMillis;
+
+        Dict toDict() {
+            return Dict.create()
+                    .set("success", success.get())
+                    .set("failure", failure.get())
+                    .set("retried", retried.get())
+                    .set("bulkRequests", bulkRequests.get())
+                    .set("lastTookMillis", lastTookMillis);
+        }
+    }
+}
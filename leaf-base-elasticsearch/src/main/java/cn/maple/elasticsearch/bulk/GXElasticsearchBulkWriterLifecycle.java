@@ -0,0 +1,30 @@
+package cn.maple.elasticsearch.bulk;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * 应用关闭时写入批量写入器缓冲区中剩余的数据
+ * <p>
+ * 使用默认的阶段停止, 早于GXExecutorShutdownLifecycle关闭线程池, 保证剩余的数据还能提交到bulk线程池
+ */
+@Component
+public class GXElasticsearchBulkWriterLifecycle implements SmartLifecycle {
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        GXElasticsearchBulkWriter.closeAll();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -3,6 +3,12 @@ package cn.maple.elasticsearch.constant;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * 查询条件与Criteria方法的映射
+ *
+ * @deprecated 查询条件由{@link cn.maple.elasticsearch.builder.GXElasticsearchConditionTranslator}按照条件类型转换, 不再使用该映射
+ */
+@Deprecated
 public class GXEsCriteriaMethodMappingConstant {
     public static final Map<String, String> METHOD_MAPPING = new HashMap<>();
 
@@ -11,28 +11,40 @@ import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.ReflectUtil;
 import cn.maple.core.framework.constant.GXCommonConstant;
 import cn.maple.core.framework.dto.inner.GXBaseQueryParamInnerDto;
+import cn.maple.core.framework.dto.inner.GXPaginationCountModeEnums;
 import cn.maple.core.framework.dto.inner.condition.GXCondition;
+import cn.maple.core.framework.dto.res.GXCursorPaginationResDto;
 import cn.maple.core.framework.dto.res.GXPaginationResDto;
+import cn.maple.core.framework.exception.GXBusinessException;
 import cn.maple.core.framework.util.GXCommonUtils;
 import cn.maple.core.framework.util.GXSpringContextUtils;
-import cn.maple.elasticsearch.constant.GXEsCriteriaMethodMappingConstant;
+import cn.maple.elasticsearch.builder.GXElasticsearchConditionTranslator;
+import cn.maple.elasticsearch.bulk.GXElasticsearchBulkWriter;
 import cn.maple.elasticsearch.model.GXElasticsearchModel;
+import cn.maple.elasticsearch.util.GXElasticsearchCursorUtils;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
 import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.data.elasticsearch.core.query.*;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 import org.springframework.util.Assert;
 
 import java.io.Serializable;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 基于ES Repository封装的统一基本操作
@@ -52,10 +64,7 @@ public interface GXElasticsearchDao<T extends GXElasticsearchModel, Q extends Ba
      * @return 返回查询到数据列表
      */
     default List<Dict> findByCondition(GXBaseQueryParamInnerDto queryParamInnerDto) {
-        Dict queryData = executeQuery(queryParamInnerDto);
-        List<Dict> lst = Convert.convert(new TypeReference<>() {
-        }, queryData.getObj("records"));
-        return lst.stream().map(d -> Convert.convert(Dict.class, d.getObj("content"))).collect(Collectors.toList());
+        return findByCondition(queryParamInnerDto, Dict.class, getDefaultCopyOptions(queryParamInnerDto));
     }
 
     /**
@@ -65,38 +74,280 @@ public interface GXElasticsearchDao<T extends GXElasticsearchModel, Q extends Ba
      * @return 满足条件的一条数据
      */
     default Dict findOneByCondition(GXBaseQueryParamInnerDto queryParamInnerDto) {
-        queryParamInnerDto.setPage(0);
-        queryParamInnerDto.setPageSize(1);
-        Dict queryData = executeQuery(queryParamInnerDto);
-        List<Dict> lst = Convert.convert(new TypeReference<>() {
-        }, queryData.getObj("records"));
-        Optional<Dict> data = lst.stream().findFirst();
-        return data.map(t -> Convert.convert(Dict.class, t.getObj("content"))).orElse(null);
+        return findOneByCondition(queryParamInnerDto, Dict.class, getDefaultCopyOptions(queryParamInnerDto));
     }
 
     /**
      * 分页查询
+     * 指定了cursorPagination或者cursor时使用游标分页(point in time + search_after), 否则使用from/size分页
      *
      * @param queryParamInnerDto 查询条件
      * @return 分页数据
      */
     default GXPaginationResDto<Dict> paginate(GXBaseQueryParamInnerDto queryParamInnerDto) {
-        Dict queryData = executeQuery(queryParamInnerDto);
-        List<Dict> lst = Convert.convert(new TypeReference<>() {
-        }, queryData.getObj("records"));
-        List<Dict> records = lst.stream().map(d -> {
-            Dict content = Convert.convert(Dict.class, d.getObj("content"), Dict.create());
-            Dict highlightFields = Convert.convert(Dict.class, d.getObj("highlightFields"), Dict.create());
-            if (!highlightFields.isEmpty()) {
-                content.putAll(highlightFields);
+        return paginate(queryParamInnerDto, Dict.class, getDefaultCopyOptions(queryParamInnerDto));
+    }
+
+    /**
+     * 游标分页(point in time + search_after)
+     * <p>
+     * 第一页打开point in time, 之后的每一页在同一个快照上从上一页最后一条数据的排序值之后继续查询,
+     * 不受max_result_window的限制, 翻到任意深度的耗时都相同。
+     * 没有指定排序字段时按照_shard_doc排序, ES会自动追加_shard_doc作为排序的决胜字段, 排序字段不需要组合唯一。
+     * 多查询一条数据用于判断是否还有下一页, 没有下一页时关闭point in time。
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return GXCursorPaginationResDto
+     */
+    default GXCursorPaginationResDto<Dict> cursorPaginate(GXBaseQueryParamInnerDto queryParamInnerDto) {
+        return cursorPaginate(queryParamInnerDto, Dict.class, getDefaultCopyOptions(queryParamInnerDto));
+    }
+
+    /**
+     * 游标分页(point in time + search_after) 数据映射为目标类型
+     *
+     * @param queryParamInnerDto 查询条件
+     * @param targetClass        目标类型
+     * @param copyOptions        实体复制为目标类型时的选项
+     * @param <E>                目标类型
+     * @return GXCursorPaginationResDto
+     */
+    default <E> GXCursorPaginationResDto<E> cursorPaginate(GXBaseQueryParamInnerDto queryParamInnerDto, Class<E> targetClass, CopyOptions copyOptions) {
+        Map<String, String> orderByField = ObjectUtil.defaultIfNull(queryParamInnerDto.getOrderByField(), Collections.emptyMap());
+        int pageSize = Optional.ofNullable(queryParamInnerDto.getPageSize()).orElse(GXCommonConstant.DEFAULT_PAGE_SIZE);
+        Duration keepAlive = Duration.ofMillis(GXCommonUtils.getEnvironmentValue("maple.elasticsearch.pit-keep-alive-ms", Long.class, 60000L));
+        ElasticsearchTemplate elasticsearchTemplate = getElasticsearchTemplate();
+        Class<?> genericClassType = getGenericClassType();
+        Q query = buildQuery(queryParamInnerDto);
+        query = buildOrderBy(query, queryParamInnerDto);
+        if (orderByField.isEmpty()) {
+            query.addSort(Sort.by(Sort.Order.asc("_shard_doc")));
+        }
+        query = buildTrackTotalHits(query, queryParamInnerDto);
+        query = buildSourceFilter(query, queryParamInnerDto);
+        query.setPageable(PageRequest.of(0, pageSize + 1));
+        String pointInTimeId;
+        boolean openedPointInTime = false;
+        if (CharSequenceUtil.isNotBlank(queryParamInnerDto.getCursor())) {
+            Dict cursor = GXElasticsearchCursorUtils.decodeCursor(orderByField, queryParamInnerDto.getCursor());
+            pointInTimeId = cursor.getStr("pointInTimeId");
+            List<Object> searchAfter = Convert.convert(new TypeReference<>() {
+            }, cursor.getObj("searchAfter"));
+            query.setSearchAfter(searchAfter);
+        } else {
+            String indexName = queryParamInnerDto.getTableName();
+            IndexCoordinates indexCoordinates = CharSequenceUtil.isEmpty(indexName) ? elasticsearchTemplate.getIndexCoordinatesFor(genericClassType) : IndexCoordinates.of(indexName);
+            pointInTimeId = elasticsearchTemplate.openPointInTime(indexCoordinates, keepAlive);
+            openedPointInTime = true;
+        }
+        query.setPointInTime(new Query.PointInTime(pointInTimeId, keepAlive));
+        SearchHits<Document> search;
+        try {
+            // 使用point in time时请求中不能指定索引, 这里的索引只用于满足方法签名
+            search = elasticsearchTemplate.search(query, Document.class, elasticsearchTemplate.getIndexCoordinatesFor(genericClassType));
+        } catch (RuntimeException e) {
+            GXBusinessException exception = new GXBusinessException("游标分页查询失败, 游标可能已经过期", e);
+            // 本次打开的point in time不会再返回给调用方, 需要立即关闭而不是等待过期
+            if (openedPointInTime) {
+                try {
+                    elasticsearchTemplate.closePointInTime(pointInTimeId);
+                } catch (RuntimeException closeException) {
+                    exception.addSuppressed(closeException);
+                }
+            }
+            throw exception;
+        }
+        List<SearchHit<Document>> hits = search.getSearchHits();
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) {
+            hits = hits.subList(0, pageSize);
+        }
+        // ES每次查询都可能返回新的point in time ID
+        String nextPointInTimeId = ObjectUtil.defaultIfNull(search.getPointInTimeId(), pointInTimeId);
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = GXElasticsearchCursorUtils.encodeCursor(orderByField, nextPointInTimeId, hits.get(hits.size() - 1).getSortValues());
+        } else {
+            elasticsearchTemplate.closePointInTime(nextPointInTimeId);
+        }
+        List<E> records = mapSearchHits(hits, targetClass, queryParamInnerDto, copyOptions);
+        long total = queryParamInnerDto.getCountMode() == GXPaginationCountModeEnums.SKIP ? -1 : search.getTotalHits();
+        boolean totalEstimated = search.getTotalHitsRelation() == TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+        return new GXCursorPaginationResDto<>(records, total, pageSize, nextCursor, hasMore, totalEstimated);
+    }
+
+    /**
+     * 根据条件查询数据 并映射为目标类型
+     * <p>
+     * _source通过ElasticsearchConverter读取为实体(处理@Field的字段名字、日期格式以及自定义转换器),
+     * 再按照copyOptions复制为目标类型, 不经过Dict中转, 目标类型的属性名字与实体的属性名字对应。
+     * columns不为空时只返回指定的字段, 以"-"开头的字段表示排除该字段。
+     * 高亮内容在读取为实体之前替换_source中对应字段的值。
+     *
+     * @param queryParamInnerDto 查询条件
+     * @param targetClass        目标类型
+     * @param copyOptions        实体复制为目标类型时的选项
+     * @param <E>                目标类型
+     * @return 数据列表
+     */
+    default <E> List<E> findByCondition(GXBaseQueryParamInnerDto queryParamInnerDto, Class<E> targetClass, CopyOptions copyOptions) {
+        SearchHits<Document> search = searchDocuments(queryParamInnerDto);
+        return mapSearchHits(search.getSearchHits(), targetClass, queryParamInnerDto, copyOptions);
+    }
+
+    /**
+     * 根据条件查询一条数据 并映射为目标类型
+     * 只查询第一条数据, 不修改查询条件中的分页参数
+     *
+     * @param queryParamInnerDto 查询条件
+     * @param targetClass        目标类型
+     * @param copyOptions        实体复制为目标类型时的选项
+     * @param <E>                目标类型
+     * @return 满足条件的一条数据
+     */
+    default <E> E findOneByCondition(GXBaseQueryParamInnerDto queryParamInnerDto, Class<E> targetClass, CopyOptions copyOptions) {
+        SearchHits<Document> search = searchDocuments(queryParamInnerDto, PageRequest.of(0, 1));
+        List<E> records = mapSearchHits(search.getSearchHits(), targetClass, queryParamInnerDto, copyOptions);
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * 分页查询 并映射为目标类型
+     *
+     * @param queryParamInnerDto 查询条件
+     * @param targetClass        目标类型
+     * @param copyOptions        实体复制为目标类型时的选项
+     * @param <E>                目标类型
+     * @return 分页数据
+     */
+    default <E> GXPaginationResDto<E> paginate(GXBaseQueryParamInnerDto queryParamInnerDto, Class<E> targetClass, CopyOptions copyOptions) {
+        if (queryParamInnerDto.isCursorPagination() || CharSequenceUtil.isNotBlank(queryParamInnerDto.getCursor())) {
+            return cursorPaginate(queryParamInnerDto, targetClass, copyOptions);
+        }
+        SearchHits<Document> search = searchDocuments(queryParamInnerDto);
+        List<E> records = mapSearchHits(search.getSearchHits(), targetClass, queryParamInnerDto, copyOptions);
+        long currentPage = Optional.ofNullable(queryParamInnerDto.getPage()).orElse(1);
+        long pageSize = Optional.ofNullable(queryParamInnerDto.getPageSize()).orElse(GXCommonConstant.DEFAULT_MAX_PAGE_SIZE);
+        if (queryParamInnerDto.getCountMode() == GXPaginationCountModeEnums.SKIP) {
+            return new GXPaginationResDto<>(records, -1, -1, pageSize, currentPage);
+        }
+        return new GXPaginationResDto<>(records, search.getTotalHits(), pageSize, currentPage);
+    }
+
+    /**
+     * 执行查询 _source以Document的形式返回 不映射为实体
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return 查询结果
+     */
+    default SearchHits<Document> searchDocuments(GXBaseQueryParamInnerDto queryParamInnerDto) {
+        return searchDocuments(queryParamInnerDto, null);
+    }
+
+    /**
+     * 执行查询 _source以Document的形式返回 不映射为实体
+     *
+     * @param queryParamInnerDto 查询条件
+     * @param pageable           分页参数 为null时使用查询条件中的分页参数
+     * @return 查询结果
+     */
+    default SearchHits<Document> searchDocuments(GXBaseQueryParamInnerDto queryParamInnerDto, Pageable pageable) {
+        Q query = buildQuery(queryParamInnerDto);
+        query = buildOrderBy(query, queryParamInnerDto);
+        query = buildPageable(query, queryParamInnerDto);
+        if (ObjectUtil.isNotNull(pageable)) {
+            query.setPageable(pageable);
+        }
+        query = buildTrackTotalHits(query, queryParamInnerDto);
+        query = buildSourceFilter(query, queryParamInnerDto);
+        ElasticsearchTemplate elasticsearchTemplate = getElasticsearchTemplate();
+        String indexName = queryParamInnerDto.getTableName();
+        IndexCoordinates indexCoordinates = CharSequenceUtil.isEmpty(indexName) ? elasticsearchTemplate.getIndexCoordinatesFor(getGenericClassType()) : IndexCoordinates.of(indexName);
+        return elasticsearchTemplate.search(query, Document.class, indexCoordinates);
+    }
+
+    /**
+     * 将查询结果映射为目标类型
+     * 高亮内容(多个片段直接拼接)替换_source中对应字段的值, 然后通过ElasticsearchConverter读取为实体(文档的ID写入实体的ID),
+     * 最后按照copyOptions复制为目标类型
+     *
+     * @param hits               查询结果
+     * @param targetClass        目标类型
+     * @param queryParamInnerDto 查询条件
+     * @param copyOptions        实体复制为目标类型时的选项
+     * @param <E>                目标类型
+     * @return 数据列表
+     */
+    default <E> List<E> mapSearchHits(List<SearchHit<Document>> hits, Class<E> targetClass, GXBaseQueryParamInnerDto queryParamInnerDto, CopyOptions copyOptions) {
+        Function<SearchHit<Document>, E> hitMapper = buildHitMapper(targetClass, queryParamInnerDto, copyOptions);
+        List<E> records = new ArrayList<>(hits.size());
+        for (SearchHit<Document> hit : hits) {
+            records.add(hitMapper.apply(hit));
+        }
+        return records;
+    }
+
+    /**
+     * 构建将查询结果中的一条数据映射为目标类型的函数
+     * 映射规则与mapSearchHits相同
+     *
+     * @param targetClass        目标类型
+     * @param queryParamInnerDto 查询条件
+     * @param copyOptions        实体复制为目标类型时的选项
+     * @param <E>                目标类型
+     * @return 映射函数
+     */
+    @SuppressWarnings("unchecked")
+    default <E> Function<SearchHit<Document>, E> buildHitMapper(Class<E> targetClass, GXBaseQueryParamInnerDto queryParamInnerDto, CopyOptions copyOptions) {
+        String methodName = CharSequenceUtil.isEmpty(queryParamInnerDto.getMethodName()) ? GXCommonConstant.DEFAULT_CUSTOMER_PROCESS_METHOD_NAME : queryParamInnerDto.getMethodName();
+        Object extraData = Optional.ofNullable(queryParamInnerDto.getExtraData()).orElse(Dict.create());
+        ElasticsearchConverter converter = getElasticsearchTemplate().getElasticsearchConverter();
+        Class<T> entityClass = (Class<T>) getGenericClassType();
+        return hit -> {
+            Document source = hit.getContent();
+            if (!source.hasId() && ObjectUtil.isNotNull(hit.getId())) {
+                source.setId(hit.getId());
             }
-            return content;
-        }).collect(Collectors.toList());
-        long totalCount = queryData.getInt("totalHits");
-        long currentPage = queryParamInnerDto.getPage();
-        long pageSize = queryParamInnerDto.getPageSize();
-        long pages = totalCount / pageSize;
-        return new GXPaginationResDto<>(records, totalCount, pages, pageSize, currentPage);
+            hit.getHighlightFields().forEach((field, fragments) -> source.put(field, String.join("", fragments)));
+            T entity = converter.read(entityClass, source);
+            return GXCommonUtils.convertSourceToTarget(entity, targetClass, methodName, copyOptions, extraData);
+        };
+    }
+
+    /**
+     * 获取查询条件中的复制选项 没有指定时使用默认的复制选项
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return 复制选项
+     */
+    default CopyOptions getDefaultCopyOptions(GXBaseQueryParamInnerDto queryParamInnerDto) {
+        return ObjectUtil.defaultIfNull(queryParamInnerDto.getCopyOptions(), GXCommonUtils::getDefaultCopyOptions);
+    }
+
+    /**
+     * 以流的方式读取所有满足条件的数据(用于导出等场景)
+     * <p>
+     * 底层使用scroll按批读取, 每批的数量为pageSize(默认1000), 内存中只保留一批数据。
+     * 与findByCondition一样只返回columns中指定的字段, 数据的映射规则与mapSearchHits相同。
+     * 返回的Stream需要关闭(try-with-resources), 读取完成或者关闭时释放scroll上下文。
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return 数据流
+     */
+    default Stream<Dict> streamByCondition(GXBaseQueryParamInnerDto queryParamInnerDto) {
+        Q query = buildQuery(queryParamInnerDto);
+        query = buildOrderBy(query, queryParamInnerDto);
+        query.setPageable(PageRequest.of(0, Optional.ofNullable(queryParamInnerDto.getPageSize()).orElse(1000)));
+        query.setTrackTotalHits(false);
+        query = buildSourceFilter(query, queryParamInnerDto);
+        ElasticsearchTemplate elasticsearchTemplate = getElasticsearchTemplate();
+        String indexName = queryParamInnerDto.getTableName();
+        IndexCoordinates indexCoordinates = CharSequenceUtil.isEmpty(indexName) ? elasticsearchTemplate.getIndexCoordinatesFor(getGenericClassType()) : IndexCoordinates.of(indexName);
+        SearchHitsIterator<Document> iterator = elasticsearchTemplate.searchForStream(query, Document.class, indexCoordinates);
+        Function<SearchHit<Document>, Dict> hitMapper = buildHitMapper(Dict.class, queryParamInnerDto, getDefaultCopyOptions(queryParamInnerDto));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close)
+                .map(hitMapper);
     }
 
     /**
@@ -115,6 +366,33 @@ public interface GXElasticsearchDao<T extends GXElasticsearchModel, Q extends Ba
         return Convert.convert(retIDClazz, GXCommonUtils.reflectCallObjectMethod(save, methodName));
     }
 
+    /**
+     * 批量新增或者覆盖数据
+     * 数据先进入批量写入器的缓冲区, 由批量写入器按照数量、大小以及等待时间合并为bulk请求写入
+     *
+     * @param entities 需要写入的数据
+     */
+    default void bulkUpdateOrCreate(Collection<T> entities) {
+        GXElasticsearchBulkWriter bulkWriter = getBulkWriter();
+        entities.forEach(bulkWriter::add);
+    }
+
+    /**
+     * 立即写入批量写入器缓冲区中的数据 并等待写入完成
+     */
+    default void flushBulk() {
+        getBulkWriter().flush();
+    }
+
+    /**
+     * 获取当前ElasticsearchTemplate对应的批量写入器
+     *
+     * @return 批量写入器
+     */
+    default GXElasticsearchBulkWriter getBulkWriter() {
+        return GXElasticsearchBulkWriter.getInstance(getElasticsearchTemplateName(), getElasticsearchTemplate());
+    }
+
     /**
      * 删除满足条件的数据
      *
@@ -130,34 +408,6 @@ public interface GXElasticsearchDao<T extends GXElasticsearchModel, Q extends Ba
         return Math.toIntExact(deleteResponse.getDeleted());
     }
 
-    /**
-     * 执行统一查询
-     *
-     * @param queryParamInnerDto 查询条件
-     * @return 查询到的数据
-     */
-    default Dict executeQuery(GXBaseQueryParamInnerDto queryParamInnerDto) {
-        Q query = buildQuery(queryParamInnerDto);
-        query = buildOrderBy(query, queryParamInnerDto);
-        query = buildPageable(query, queryParamInnerDto);
-        ElasticsearchTemplate elasticsearchTemplate = getElasticsearchTemplate();
-        Class<?> genericClassType = GXCommonUtils.getGenericClassType((Class<?>) getClass().getGenericInterfaces()[0], 0);
-        String indexName = queryParamInnerDto.getTableName();
-        SearchHits<?> search = CharSequenceUtil.isEmpty(indexName) ? elasticsearchTemplate.search(query, genericClassType) : elasticsearchTemplate.search(query, genericClassType, IndexCoordinates.of(indexName));
-        String[] methodName = new String[]{queryParamInnerDto.getMethodName()};
-        if (CharSequenceUtil.isEmpty(methodName[0])) {
-            methodName[0] = GXCommonConstant.DEFAULT_CUSTOMER_PROCESS_METHOD_NAME;
-        }
-        CopyOptions copyOptions = ObjectUtil.defaultIfNull(queryParamInnerDto.getCopyOptions(), GXCommonUtils::getDefaultCopyOptions);
-        Function<SearchHit<?>, Dict> rowMapper = obj -> {
-            Object extraData = Optional.ofNullable(queryParamInnerDto.getExtraData()).orElse(Dict.create());
-            return GXCommonUtils.convertSourceToTarget(obj, Dict.class, methodName[0], copyOptions, extraData);
-        };
-        List<Dict> records = search.getSearchHits().stream().map(rowMapper).collect(Collectors.toList());
-        long totalHits = search.getTotalHits();
-        return Dict.create().set("totalHits", totalHits).set("records", records);
-    }
-
     /**
      * 构建查询条件
      *
@@ -207,6 +457,10 @@ public interface GXElasticsearchDao<T extends GXElasticsearchModel, Q extends Ba
             BaseQueryBuilder<Q, B> queryBuilder = ReflectUtil.newInstance(queryBuilderClazz, criteria);
             return (B) queryBuilder;
         }
+        if (queryBuilderClazz.isAssignableFrom(NativeQueryBuilder.class)) {
+            NativeQueryBuilder queryBuilder = new NativeQueryBuilder().withQuery(conditions2Query(queryParamInnerDto));
+            return (B) queryBuilder;
+        }
         BaseQueryBuilder<Q, B> queryBuilder = ReflectUtil.newInstance(queryBuilderClazz);
         return (B) queryBuilder;
     }
@@ -226,6 +480,57 @@ public interface GXElasticsearchDao<T extends GXElasticsearchModel, Q extends Ba
         return query;
     }
 
+    /**
+     * 构建总记录数的统计方式
+     * <pre>
+     * EXACT(默认) : 精确统计总记录数
+     * ESTIMATED   : 最多统计到maple.elasticsearch.track-total-hits-up-to(默认10000)条, 超过时total为下限
+     * SKIP        : 不统计总记录数
+     * </pre>
+     *
+     * @param query              查询对象
+     * @param queryParamInnerDto 查询条件
+     * @return 查询对象
+     */
+    default Q buildTrackTotalHits(Q query, GXBaseQueryParamInnerDto queryParamInnerDto) {
+        GXPaginationCountModeEnums countMode = Optional.ofNullable(queryParamInnerDto.getCountMode()).orElse(GXPaginationCountModeEnums.EXACT);
+        if (countMode == GXPaginationCountModeEnums.SKIP) {
+            query.setTrackTotalHits(false);
+        } else if (countMode == GXPaginationCountModeEnums.ESTIMATED) {
+            query.setTrackTotalHitsUpTo(GXCommonUtils.getEnvironmentValue("maple.elasticsearch.track-total-hits-up-to", Integer.class, 10000));
+        } else {
+            query.setTrackTotalHits(true);
+        }
+        return query;
+    }
+
+    /**
+     * 根据columns构建_source的过滤条件
+     * columns为空或者包含"*"时返回全部字段, 以"-"开头的字段表示排除该字段
+     *
+     * @param query              查询对象
+     * @param queryParamInnerDto 查询条件
+     * @return 查询对象
+     */
+    default Q buildSourceFilter(Q query, GXBaseQueryParamInnerDto queryParamInnerDto) {
+        Set<String> columns = queryParamInnerDto.getColumns();
+        if (CollUtil.isEmpty(columns) || columns.contains("*")) {
+            return query;
+        }
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>();
+        for (String column : columns) {
+            String field = CharSequenceUtil.trim(column);
+            if (CharSequenceUtil.startWith(field, '-')) {
+                excludes.add(field.substring(1));
+            } else if (CharSequenceUtil.isNotEmpty(field)) {
+                includes.add(field);
+            }
+        }
+        query.addSourceFilter(new FetchSourceFilterBuilder().withIncludes(includes.toArray(new String[0])).withExcludes(excludes.toArray(new String[0])).build());
+        return query;
+    }
+
     /**
      * 构建排序字段信息
      *
@@ -270,25 +575,32 @@ public interface GXElasticsearchDao<T extends GXElasticsearchModel, Q extends Ba
      * @return Criteria
      */
     default Criteria conditions2Criteria(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
-        List<GXCondition<?>> conditions = dbQueryParamInnerDto.getCondition();
-        Criteria criteria = new Criteria();
-        Map<String, String> methodMapping = GXEsCriteriaMethodMappingConstant.METHOD_MAPPING;
-        if (CollUtil.isNotEmpty(conditions)) {
-            conditions.forEach(condition -> {
-                String fieldName = condition.getFieldExpression();
-                String value = ObjectUtil.toString(condition.getValue());
-                String op = condition.getOp();
-                String methodName = methodMapping.get(op);
-                if (CharSequenceUtil.isNotEmpty(methodName) && GXCommonUtils.checkMethodExists(Criteria.class, methodName, value)) {
-                    Criteria tmpCriteria = new Criteria(fieldName);
-                    GXCommonUtils.reflectCallObjectMethod(tmpCriteria, methodName, value);
-                    criteria.and(tmpCriteria);
-                }
-            });
-        }
+        Criteria criteria = GXElasticsearchConditionTranslator.toCriteria(dbQueryParamInnerDto.getCondition());
         return buildCriteria(criteria);
     }
 
+    /**
+     * 业务逻辑需要自定义ES原生查询条件
+     * 留着扩展使用
+     *
+     * @param query 由GXCondition列表转换而来的查询
+     * @return ES原生查询
+     */
+    default co.elastic.clients.elasticsearch._types.query_dsl.Query buildNativeQuery(co.elastic.clients.elasticsearch._types.query_dsl.Query query) {
+        return query;
+    }
+
+    /**
+     * 转换GXCondition列表为ES原生查询(NativeQuery使用)
+     * 条件默认放在bool查询的filter上下文中, 参见{@link GXElasticsearchConditionTranslator}
+     *
+     * @param dbQueryParamInnerDto 查询信息
+     * @return ES原生查询
+     */
+    default co.elastic.clients.elasticsearch._types.query_dsl.Query conditions2Query(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        return buildNativeQuery(GXElasticsearchConditionTranslator.translate(dbQueryParamInnerDto.getCondition()));
+    }
+
     /**
      * 获取指定的ElasticsearchTemplate类型对象
      *
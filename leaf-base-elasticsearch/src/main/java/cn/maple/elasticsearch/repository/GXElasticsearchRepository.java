@@ -1,5 +1,6 @@
 package cn.maple.elasticsearch.repository;
 
+import cn.hutool.core.bean.copier.CopyOptions;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.Dict;
@@ -18,10 +19,12 @@ import org.springframework.data.elasticsearch.core.query.BaseQueryBuilder;
 
 import jakarta.validation.ConstraintValidatorContext;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public class GXElasticsearchRepository<T extends GXElasticsearchModel, D extends GXElasticsearchDao<T, Q, B, ID>, Q extends BaseQuery, B extends BaseQueryBuilder<Q, B>, ID extends Serializable> implements GXBaseRepository<T, ID> {
     /**
@@ -54,6 +57,22 @@ public class GXElasticsearchRepository<T extends GXElasticsearchModel, D extends
         return updateOrCreate(entity, Collections.emptyList());
     }
 
+    /**
+     * 批量新增或者覆盖数据
+     *
+     * @param entities 需要写入的数据
+     */
+    public void bulkUpdateOrCreate(Collection<T> entities) {
+        baseDao.bulkUpdateOrCreate(entities);
+    }
+
+    /**
+     * 立即写入批量缓冲区中的数据 并等待写入完成
+     */
+    public void flushBulk() {
+        baseDao.flushBulk();
+    }
+
     /**
      * 根据条件获取所有数据
      *
@@ -164,6 +183,56 @@ public class GXElasticsearchRepository<T extends GXElasticsearchModel, D extends
         return baseDao.paginate(dbQueryParamInnerDto);
     }
 
+    /**
+     * 根据条件获取所有数据 并直接映射为目标类型
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param targetClass          目标类型
+     * @param copyOptions          实体复制为目标类型时的选项
+     * @param <E>                  目标类型
+     * @return 列表
+     */
+    public <E> List<E> findByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, Class<E> targetClass, CopyOptions copyOptions) {
+        return baseDao.findByCondition(dbQueryParamInnerDto, targetClass, copyOptions);
+    }
+
+    /**
+     * 根据条件获取一条数据 并直接映射为目标类型
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param targetClass          目标类型
+     * @param copyOptions          实体复制为目标类型时的选项
+     * @param <E>                  目标类型
+     * @return 一条数据
+     */
+    public <E> E findOneByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, Class<E> targetClass, CopyOptions copyOptions) {
+        return baseDao.findOneByCondition(dbQueryParamInnerDto, targetClass, copyOptions);
+    }
+
+    /**
+     * 根据条件获取分页数据 并直接映射为目标类型
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @param targetClass          目标类型
+     * @param copyOptions          实体复制为目标类型时的选项
+     * @param <E>                  目标类型
+     * @return 分页数据
+     */
+    public <E> GXPaginationResDto<E> paginate(GXBaseQueryParamInnerDto dbQueryParamInnerDto, Class<E> targetClass, CopyOptions copyOptions) {
+        return baseDao.paginate(dbQueryParamInnerDto, targetClass, copyOptions);
+    }
+
+    /**
+     * 以流的方式读取所有满足条件的数据
+     * 返回的Stream需要关闭
+     *
+     * @param dbQueryParamInnerDto 查询条件
+     * @return 数据流
+     */
+    public Stream<Dict> streamByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        return baseDao.streamByCondition(dbQueryParamInnerDto);
+    }
+
     /**
      * 根据条件获取分页数据
      *
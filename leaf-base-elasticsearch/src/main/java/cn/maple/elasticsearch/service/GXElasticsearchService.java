@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public interface GXElasticsearchService<P extends GXElasticsearchRepository<T, D, Q, B, ID>, T extends GXElasticsearchModel, D extends GXElasticsearchDao<T, Q, B, ID>, Q extends BaseQuery, B extends BaseQueryBuilder<Q, B>, R extends GXBaseDBResDto, ID extends Serializable> extends GXBusinessService {
     /**
@@ -323,6 +324,28 @@ public interface GXElasticsearchService<P extends GXElasticsearchRepository<T, D
      */
     <Q extends GXBaseReqDto> ID updateOrCreate(Q req);
 
+    /**
+     * 以流的方式读取所有满足条件的数据(用于导出等场景)
+     * 返回的Stream需要关闭
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return 数据流
+     */
+    Stream<R> streamByCondition(GXBaseQueryParamInnerDto queryParamInnerDto);
+
+    /**
+     * 批量新增或者覆盖数据
+     * 数据由批量写入器合并为bulk请求异步写入
+     *
+     * @param entities 需要写入的数据
+     */
+    void bulkUpdateOrCreate(Collection<T> entities);
+
+    /**
+     * 立即写入批量缓冲区中的数据 并等待写入完成
+     */
+    void flushBulk();
+
     /**
      * 复制一条数据
      *
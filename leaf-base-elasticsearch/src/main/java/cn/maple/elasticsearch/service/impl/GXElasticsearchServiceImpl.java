@@ -29,6 +29,7 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 public class GXElasticsearchServiceImpl<P extends GXElasticsearchRepository<T, D, Q, B, ID>, T extends GXElasticsearchModel, D extends GXElasticsearchDao<T, Q, B, ID>, Q extends BaseQuery, B extends BaseQueryBuilder<Q, B>, R extends GXBaseDBResDto, ID extends Serializable> extends GXBusinessServiceImpl implements GXElasticsearchService<P, T, D, Q, B, R, ID> {
@@ -101,14 +102,8 @@ public class GXElasticsearchServiceImpl<P extends GXElasticsearchRepository<T, D
      */
     @Override
     public GXPaginationResDto<R> paginate(GXBaseQueryParamInnerDto queryParamInnerDto) {
-        CopyOptions copyOptions = getCopyOptions(queryParamInnerDto);
         Class<R> genericClassType = GXCommonUtils.getGenericClassType(getClass(), 5);
-        GXPaginationResDto<Dict> paginate = repository.paginate(queryParamInnerDto);
-        List<R> lst = paginate.getRecords().stream().map(dict -> {
-            Object extraData = Optional.ofNullable(queryParamInnerDto.getExtraData()).orElse(Dict.create());
-            return GXCommonUtils.convertSourceToTarget(dict, genericClassType, queryParamInnerDto.getMethodName(), copyOptions, extraData);
-        }).collect(Collectors.toList());
-        return new GXPaginationResDto<>(lst, paginate.getTotal(), paginate.getPageSize(), paginate.getCurrentPage());
+        return repository.paginate(queryParamInnerDto, genericClassType, getCopyOptions(queryParamInnerDto));
     }
 
     /**
@@ -133,17 +128,8 @@ public class GXElasticsearchServiceImpl<P extends GXElasticsearchRepository<T, D
      */
     @Override
     public List<R> findByCondition(GXBaseQueryParamInnerDto queryParamInnerDto) {
-        CopyOptions copyOptions = getCopyOptions(queryParamInnerDto);
-        String[] methodName = new String[]{queryParamInnerDto.getMethodName()};
-        if (CharSequenceUtil.isEmpty(methodName[0])) {
-            methodName[0] = GXCommonConstant.DEFAULT_CUSTOMER_PROCESS_METHOD_NAME;
-        }
         Class<R> genericClassType = GXCommonUtils.getGenericClassType(getClass(), 5);
-        Function<Dict, R> rowMapper = dict -> {
-            Object extraData = Optional.ofNullable(queryParamInnerDto.getExtraData()).orElse(Dict.create());
-            return GXCommonUtils.convertSourceToTarget(dict, genericClassType, methodName[0], copyOptions, extraData);
-        };
-        return findByCondition(queryParamInnerDto, rowMapper);
+        return repository.findByCondition(queryParamInnerDto, genericClassType, getCopyOptions(queryParamInnerDto));
     }
 
     /**
@@ -334,17 +320,8 @@ public class GXElasticsearchServiceImpl<P extends GXElasticsearchRepository<T, D
      */
     @Override
     public R findOneByCondition(GXBaseQueryParamInnerDto queryParamInnerDto) {
-        String[] methodName = new String[]{queryParamInnerDto.getMethodName()};
-        if (CharSequenceUtil.isEmpty(methodName[0])) {
-            methodName[0] = GXCommonConstant.DEFAULT_CUSTOMER_PROCESS_METHOD_NAME;
-        }
-        Object extraData = Optional.ofNullable(queryParamInnerDto.getExtraData()).orElse(Dict.class);
-        CopyOptions copyOptions = getCopyOptions(queryParamInnerDto);
         Class<R> genericClassType = GXCommonUtils.getGenericClassType(getClass(), 5);
-        Function<Dict, R> rowMapper = dict -> {
-            return GXCommonUtils.convertSourceToTarget(dict, genericClassType, methodName[0], copyOptions, extraData);
-        };
-        return findOneByCondition(queryParamInnerDto, rowMapper);
+        return repository.findOneByCondition(queryParamInnerDto, genericClassType, getCopyOptions(queryParamInnerDto));
     }
 
     /**
@@ -486,6 +463,40 @@ public class GXElasticsearchServiceImpl<P extends GXElasticsearchRepository<T, D
         return updateOrCreate(req, CopyOptions.create());
     }
 
+    /**
+     * 以流的方式读取所有满足条件的数据(用于导出等场景)
+     * 返回的Stream需要关闭
+     *
+     * @param queryParamInnerDto 查询条件
+     * @return 数据流
+     */
+    @Override
+    public Stream<R> streamByCondition(GXBaseQueryParamInnerDto queryParamInnerDto) {
+        CopyOptions copyOptions = getCopyOptions(queryParamInnerDto);
+        Class<R> genericClassType = GXCommonUtils.getGenericClassType(getClass(), 5);
+        Object extraData = Optional.ofNullable(queryParamInnerDto.getExtraData()).orElse(Dict.create());
+        return repository.streamByCondition(queryParamInnerDto).map(dict -> GXCommonUtils.convertSourceToTarget(dict, genericClassType, queryParamInnerDto.getMethodName(), copyOptions, extraData));
+    }
+
+    /**
+     * 批量新增或者覆盖数据
+     * 数据由批量写入器合并为bulk请求异步写入
+     *
+     * @param entities 需要写入的数据
+     */
+    @Override
+    public void bulkUpdateOrCreate(Collection<T> entities) {
+        repository.bulkUpdateOrCreate(entities);
+    }
+
+    /**
+     * 立即写入批量缓冲区中的数据 并等待写入完成
+     */
+    @Override
+    public void flushBulk() {
+        repository.flushBulk();
+    }
+
     /**
      * 复制一条数据
      *
@@ -0,0 +1,66 @@
+package cn.maple.elasticsearch.util;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.util.GXCursorSignUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Elasticsearch游标分页(point in time + search_after)的游标工具
+ * <p>
+ * 游标中保存point in time的ID、上一页最后一条数据的排序值以及排序字段的签名,
+ * 游标通过GXCursorSignUtils签名, 客户端修改过的游标会被拒绝
+ */
+public class GXElasticsearchCursorUtils {
+    private GXElasticsearchCursorUtils() {
+    }
+
+    /**
+     * 生成游标
+     *
+     * @param orderByField  排序字段
+     * @param pointInTimeId point in time的ID
+     * @param sortValues    上一页最后一条数据的排序值
+     * @return 游标
+     */
+    public static String encodeCursor(Map<String, String> orderByField, String pointInTimeId, List<Object> sortValues) {
+        JSONObject cursor = JSONUtil.createObj().set("k", cursorSignature(orderByField)).set("p", pointInTimeId).set("v", sortValues);
+        return GXCursorSignUtils.encode(cursor);
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param orderByField 排序字段
+     * @param cursor       游标
+     * @return pointInTimeId : point in time的ID, searchAfter : 排序值
+     */
+    public static Dict decodeCursor(Map<String, String> orderByField, String cursor) {
+        JSONObject jsonObject = GXCursorSignUtils.decode(cursor);
+        JSONArray values = jsonObject.getJSONArray("v");
+        String pointInTimeId = jsonObject.getStr("p");
+        if (!CharSequenceUtil.equals(cursorSignature(orderByField), jsonObject.getStr("k")) || Objects.isNull(values) || CharSequenceUtil.isBlank(pointInTimeId)) {
+            throw new GXBusinessException("分页游标与当前的排序字段不匹配");
+        }
+        return Dict.create().set("pointInTimeId", pointInTimeId).set("searchAfter", new ArrayList<>(values));
+    }
+
+    /**
+     * 排序字段的签名
+     *
+     * @param orderByField 排序字段
+     * @return 签名
+     */
+    private static String cursorSignature(Map<String, String> orderByField) {
+        return orderByField.entrySet().stream().map(e -> e.getKey() + " " + CharSequenceUtil.trim(e.getValue()).toLowerCase()).collect(Collectors.joining(","));
+    }
+}
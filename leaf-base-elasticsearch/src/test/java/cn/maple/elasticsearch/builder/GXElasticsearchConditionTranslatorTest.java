@@ -0,0 +1,145 @@
+package cn.maple.elasticsearch.builder;
+
+import cn.hutool.core.lang.Assert;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.dto.inner.condition.*;
+import cn.maple.core.framework.dto.inner.condition.func.GXConditionFuncJsonOverlaps;
+import cn.maple.core.framework.exception.GXBusinessException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public class GXElasticsearchConditionTranslatorTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * 肯定条件放在filter中, 否定条件放在must_not中, 标记条件不参与查询
+     */
+    @Test
+    public void testClausePlacement() {
+        List<GXCondition<?>> conditions = List.of(
+                new GXConditionEQ("", "age", 18),
+                new GXConditionNE("", "status", 2),
+                new GXConditionIsNULL("", "deleted_at"),
+                new GXConditionExclusionDeletedField());
+        BoolQuery bool = GXElasticsearchConditionTranslator.translate(conditions, true).bool();
+        Assert.equals(1, bool.filter().size());
+        Assert.equals(2, bool.mustNot().size());
+        Assert.isTrue(bool.must().isEmpty());
+        Assert.isTrue(bool.mustNot().get(1).isExists());
+
+        BoolQuery scoring = GXElasticsearchConditionTranslator.translate(conditions, false).bool();
+        Assert.equals(1, scoring.must().size());
+        Assert.isTrue(scoring.filter().isEmpty());
+    }
+
+    /**
+     * 条件的值保留原始类型, 不转换为字符串
+     */
+    @Test
+    public void testTypedValues() {
+        TermQuery term = GXElasticsearchConditionTranslator.translate(List.of(new GXConditionEQ("", "age", 18)), true).bool().filter().get(0).term();
+        Assert.equals("age", term.field());
+        Assert.isTrue(term.value().isLong());
+        Assert.equals(18L, term.value().longValue());
+
+        LinkedHashSet<Number> ids = new LinkedHashSet<>(List.of(1, 2, 3));
+        Query terms = GXElasticsearchConditionTranslator.translate(List.of(new GXConditionIn("", "id", ids)), true).bool().filter().get(0);
+        List<FieldValue> values = terms.terms().terms().value();
+        Assert.equals(3, values.size());
+        Assert.isTrue(values.get(0).isLong());
+    }
+
+    /**
+     * LIKE条件转义通配符
+     */
+    @Test
+    public void testWildcardEscape() {
+        Query query = GXElasticsearchConditionTranslator.translate(List.of(new GXConditionLikeFull("", "name", "a*b?")), true).bool().filter().get(0);
+        Assert.equals("*a\\*b\\?*", query.wildcard().value());
+    }
+
+    /**
+     * 游标条件转换为按照字段顺序的范围析取
+     */
+    @Test
+    public void testKeyset() {
+        GXConditionKeyset keyset = new GXConditionKeyset(List.of("created_at", "id"), List.<Object>of(1000L, 5L), true);
+        BoolQuery bool = GXElasticsearchConditionTranslator.translate(List.of(keyset), true).bool().filter().get(0).bool();
+        Assert.equals("1", bool.minimumShouldMatch());
+        Assert.equals(2, bool.should().size());
+        List<Query> second = bool.should().get(1).bool().filter();
+        Assert.equals("created_at", second.get(0).term().field());
+        Assert.equals("id", second.get(1).range().field());
+    }
+
+    /**
+     * 同一个条件列表多次转换结果相同
+     */
+    @Test
+    public void testRepeatedTranslate() {
+        List<GXCondition<?>> conditions = List.of(new GXConditionEQ("", "age", 18), new GXConditionStrEQ("", "name", "a"));
+        Query first = GXElasticsearchConditionTranslator.translate(conditions, true);
+        Query second = GXElasticsearchConditionTranslator.translate(conditions, true);
+        Assert.equals(first.toString(), second.toString());
+        Assert.isTrue(GXElasticsearchConditionTranslator.translate(List.of(), true).isMatchAll());
+    }
+
+    /**
+     * 自定义条件类型注册之后生效, 子类型使用父类型的子句构造器
+     */
+    @Test
+    public void testRegisterClause() {
+        GXElasticsearchConditionTranslator.registerFieldClause(TenantCondition.class, false, (field, condition) -> Query.of(q -> q.exists(e -> e.field(field))));
+        Query query = GXElasticsearchConditionTranslator.translate(List.of(new SubTenantCondition()), true).bool().filter().get(0);
+        Assert.equals("tenant_id", query.exists().field());
+    }
+
+    /**
+     * CriteriaQuery默认忽略不支持的条件, 严格模式下抛出异常
+     */
+    @Test
+    public void testCriteriaUnsupportedCondition() {
+        List<GXCondition<?>> supported = List.of(new GXConditionEQ("", "age", 18));
+        List<GXCondition<?>> mixed = List.of(new GXConditionEQ("", "age", 18), new GXConditionRaw("age > 1"), new GXConditionFuncJsonOverlaps("", "tags", List.of("a")));
+        int expected = GXElasticsearchConditionTranslator.toCriteria(supported, false).getCriteriaChain().size();
+        Assert.equals(expected, GXElasticsearchConditionTranslator.toCriteria(mixed).getCriteriaChain().size());
+        try {
+            GXElasticsearchConditionTranslator.toCriteria(mixed, true);
+            Assert.isTrue(false, "严格模式下没有拒绝不支持的条件");
+        } catch (GXBusinessException e) {
+            Assert.notNull(e.getMessage());
+        }
+    }
+
+    public static class TenantCondition extends GXCondition<String> {
+        public TenantCondition() {
+            super("", "tenant_id", null);
+        }
+
+        @Override
+        public String getOp() {
+            return "tenant";
+        }
+
+        @Override
+        public String getFieldValue() {
+            return "";
+        }
+    }
+
+    public static class SubTenantCondition extends TenantCondition {
+    }
+}
@@ -0,0 +1,151 @@
+package cn.maple.elasticsearch.bulk;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.Dict;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.elasticsearch.model.GXElasticsearchModel;
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 使用模拟的ElasticsearchTemplate验证批量写入的结果统计
+ */
+public class GXElasticsearchBulkWriterTest {
+    private static final String INDEX = "user";
+
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        // 只在flush时写入, 避免定时写入影响统计
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("maple.elasticsearch.bulk.linger-ms", "600000")));
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    @BeforeEach
+    public void initTemplate() {
+        MappingElasticsearchConverter converter = new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext());
+        converter.afterPropertiesSet();
+        elasticsearchTemplate = Mockito.mock(ElasticsearchTemplate.class);
+        Mockito.when(elasticsearchTemplate.getElasticsearchConverter()).thenReturn(converter);
+        Mockito.when(elasticsearchTemplate.getIndexCoordinatesFor(UserModel.class)).thenReturn(IndexCoordinates.of(INDEX));
+    }
+
+    /**
+     * 新增以及局部更新在同一个bulk请求中, 失败按照响应位置对应(包括没有ID的文档)
+     */
+    @Test
+    public void testFailureMatchedByPosition() {
+        mockResponses(response(201, 200, 400));
+        GXElasticsearchBulkWriter writer = new GXElasticsearchBulkWriter("position", elasticsearchTemplate);
+        writer.add(new UserModel(null, "a"));
+        writer.addUpdate(INDEX, "2", Map.of("name", "b"));
+        writer.add(new UserModel(null, "c"));
+        writer.flush();
+
+        Dict stats = writer.getStats().get(INDEX);
+        Assert.equals(2L, stats.getLong("success"));
+        Assert.equals(1L, stats.getLong("failure"));
+        Mockito.verify(elasticsearchTemplate, Mockito.times(1)).execute(ArgumentMatchers.any());
+        writer.close();
+    }
+
+    /**
+     * 被拒绝(429)的文档重试, 重试成功之后计入成功数量
+     */
+    @Test
+    public void testRetryRejected() {
+        mockResponses(response(201, 429), response(201));
+        GXElasticsearchBulkWriter writer = new GXElasticsearchBulkWriter("retry", elasticsearchTemplate);
+        writer.add(new UserModel("1", "a"));
+        writer.add(new UserModel("2", "b"));
+        writer.flush();
+
+        Dict stats = writer.getStats().get(INDEX);
+        Assert.equals(2L, stats.getLong("success"));
+        Assert.equals(1L, stats.getLong("retried"));
+        Assert.equals(0L, stats.getLong("failure"));
+        Assert.equals(2L, stats.getLong("bulkRequests"));
+        writer.close();
+    }
+
+    /**
+     * 关闭时写入缓冲区中剩余的文档, 关闭之后不再接收文档
+     */
+    @Test
+    public void testCloseFlushesBuffer() {
+        mockResponses(response(201));
+        GXElasticsearchBulkWriter writer = new GXElasticsearchBulkWriter("close", elasticsearchTemplate);
+        writer.add(new UserModel("1", "a"));
+        writer.close();
+
+        Assert.equals(1L, writer.getStats().get(INDEX).getLong("success"));
+        try {
+            writer.add(new UserModel("2", "b"));
+            Assert.isTrue(false, "关闭之后仍然接收文档");
+        } catch (RejectedExecutionException e) {
+            Assert.notNull(e.getMessage());
+        }
+    }
+
+    private void mockResponses(BulkResponse first, BulkResponse... others) {
+        Mockito.when(elasticsearchTemplate.execute(ArgumentMatchers.<ElasticsearchTemplate.ClientCallback<BulkResponse>>any())).thenReturn(first, others);
+    }
+
+    private static BulkResponse response(int... statuses) {
+        List<BulkResponseItem> items = new ArrayList<>();
+        for (int status : statuses) {
+            items.add(BulkResponseItem.of(item -> {
+                item.operationType(OperationType.Index).index(INDEX).status(status);
+                if (status >= 300) {
+                    item.error(ErrorCause.of(error -> error.type("error").reason("status " + status)));
+                }
+                return item;
+            }));
+        }
+        return BulkResponse.of(response -> response.errors(true).took(1).items(items));
+    }
+
+    @Document(indexName = INDEX)
+    public static class UserModel extends GXElasticsearchModel {
+        @Id
+        private String id;
+
+        private String name;
+
+        public UserModel(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
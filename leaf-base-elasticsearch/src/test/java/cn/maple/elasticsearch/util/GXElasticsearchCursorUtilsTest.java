@@ -0,0 +1,79 @@
+package cn.maple.elasticsearch.util;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.exception.GXBusinessException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GXElasticsearchCursorUtilsTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("maple.framework.cursor.sign-key", "test-sign-key")));
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * 游标可以解析出point in time的ID以及排序值
+     */
+    @Test
+    public void testRoundTrip() {
+        String cursor = GXElasticsearchCursorUtils.encodeCursor(orderByField(), "pit-1", List.of(1700000000000L, "u-1"));
+        Dict decoded = GXElasticsearchCursorUtils.decodeCursor(orderByField(), cursor);
+        Assert.equals("pit-1", decoded.getStr("pointInTimeId"));
+        List<?> searchAfter = (List<?>) decoded.getObj("searchAfter");
+        Assert.equals(2, searchAfter.size());
+        Assert.equals("u-1", searchAfter.get(1));
+    }
+
+    /**
+     * 排序字段变化之后旧的游标失效
+     */
+    @Test
+    public void testOrderByMismatch() {
+        String cursor = GXElasticsearchCursorUtils.encodeCursor(orderByField(), "pit-1", List.of(1L, "u-1"));
+        Map<String, String> otherOrderByField = new LinkedHashMap<>();
+        otherOrderByField.put("createdAt", "asc");
+        assertRejected(() -> GXElasticsearchCursorUtils.decodeCursor(otherOrderByField, cursor));
+    }
+
+    /**
+     * 修改过内容或者签名的游标被拒绝
+     */
+    @Test
+    public void testTamperedCursor() {
+        String cursor = GXElasticsearchCursorUtils.encodeCursor(orderByField(), "pit-1", List.of(1L, "u-1"));
+        String payload = Base64.decodeStr(CharSequenceUtil.subBefore(cursor, ".", true));
+        String forged = Base64.encodeUrlSafe(payload.replace("pit-1", "pit-2")) + "." + CharSequenceUtil.subAfter(cursor, ".", true);
+        assertRejected(() -> GXElasticsearchCursorUtils.decodeCursor(orderByField(), forged));
+        assertRejected(() -> GXElasticsearchCursorUtils.decodeCursor(orderByField(), Base64.encodeUrlSafe(payload)));
+        assertRejected(() -> GXElasticsearchCursorUtils.decodeCursor(orderByField(), "not-a-cursor"));
+    }
+
+    private static Map<String, String> orderByField() {
+        Map<String, String> orderByField = new LinkedHashMap<>();
+        orderByField.put("createdAt", "desc");
+        orderByField.put("id", "desc");
+        return orderByField;
+    }
+
+    private static void assertRejected(Runnable decode) {
+        try {
+            decode.run();
+            Assert.isTrue(false, "游标应该被拒绝");
+        } catch (GXBusinessException e) {
+            Assert.notNull(e.getMessage());
+        }
+    }
+}
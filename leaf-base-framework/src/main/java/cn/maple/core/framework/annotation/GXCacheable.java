@@ -24,4 +24,22 @@ public @interface GXCacheable {
      * 缓存key
      */
     String cacheKey() default "";
+
+    /**
+     * 是否合并并发的回源请求
+     * 开启之后同一个缓存key同一时刻只有一个请求会执行被注解的方法 其他请求共享其结果
+     */
+    boolean singleFlight() default false;
+
+    /**
+     * 提前刷新的系数(XFetch) 小于等于0表示不提前刷新
+     * 需要开启singleFlight, 并且缓存数据设置了过期时间才会生效, 一般取值为1.0
+     */
+    double earlyRefreshBeta() default 0;
+
+    /**
+     * 需要提前刷新时是否先返回旧的缓存数据 然后在后台刷新
+     * 需要开启singleFlight才会生效
+     */
+    boolean staleWhileRevalidate() default false;
 }
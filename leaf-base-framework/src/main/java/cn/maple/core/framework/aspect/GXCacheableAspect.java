@@ -2,32 +2,34 @@ package cn.maple.core.framework.aspect;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Dict;
-import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.core.util.ReflectUtil;
 import cn.maple.core.framework.annotation.GXCacheable;
+import cn.maple.core.framework.cache.GXCacheKeyResolver;
+import cn.maple.core.framework.cache.GXCacheSingleFlight;
 import cn.maple.core.framework.dto.res.GXBaseResDto;
 import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.service.GXBaseCacheService;
+import cn.maple.core.framework.service.GXBusinessService;
 import cn.maple.core.framework.util.GXCommonUtils;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.core.StandardReflectionParameterNameDiscoverer;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 @Aspect
 @Component
 @Slf4j
 public class GXCacheableAspect {
-    private static final StandardReflectionParameterNameDiscoverer parameterNameDiscover = new StandardReflectionParameterNameDiscoverer();
+    @Resource
+    private GXCacheSingleFlight cacheSingleFlight;
 
     @Pointcut("@annotation(cn.maple.core.framework.annotation.GXCacheable)" + "|| @within(cn.maple.core.framework.annotation.GXCacheable)")
     public void cacheablePointCut() {
@@ -38,20 +40,57 @@ public class GXCacheableAspect {
     public Object around(ProceedingJoinPoint point) {
         MethodSignature signature = (MethodSignature) point.getSignature();
         Method method = signature.getMethod();
-        String[] parameterNames = parameterNameDiscover.getParameterNames(method);
         Class<?> targetClass = point.getTarget().getClass();
         Object[] args = point.getArgs();
         GXCacheable cacheable = method.getAnnotation(GXCacheable.class);
-        Class<? extends GXBaseResDto> tClass = cacheable.retType();
-        String methodName = cacheable.methodName();
-        String cacheKey = parseCacheKey(parameterNames, targetClass, method, cacheable, args);
-        Object obtainData = GXCommonUtils.reflectCallObjectMethod(point.getTarget(), "getDataFromCache", cacheKey, args);
+        GXCacheKeyResolver cacheKeyResolver = GXCacheKeyResolver.forMethod(method, cacheable.cacheKey());
+        String cacheKey = cacheKeyResolver.resolve(targetClass, args);
+        Object obtainData = GXCacheKeyResolver.getDataFromCache(point.getTarget(), cacheKey, args);
+        if (!cacheable.singleFlight()) {
+            if (Objects.nonNull(obtainData)) {
+                return convertCacheData(obtainData, cacheable);
+            }
+            return proceedAndCache(point, cacheKey, args, false);
+        }
+        String flightKey = cacheKeyResolver.flightKey(targetClass, cacheKey);
         if (Objects.nonNull(obtainData)) {
-            if (tClass.isAssignableFrom(GXBaseResDto.class)) {
-                return obtainData;
+            if (!shouldEarlyRefresh(point.getTarget(), cacheKey, flightKey, cacheable)) {
+                return convertCacheData(obtainData, cacheable);
+            }
+            // 直接覆盖旧数据(refreshCacheData), 刷新期间其他请求仍然读取旧数据而不是穿透到数据库
+            Supplier<Object> refresher = () -> {
+                Object data = proceedAndCache(point, cacheKey, args, true);
+                if (Objects.isNull(data)) {
+                    GXCacheKeyResolver.evictCacheData(point.getTarget(), cacheKey, args);
+                }
+                return data;
+            };
+            if (cacheable.staleWhileRevalidate()) {
+                cacheSingleFlight.refreshAsync(flightKey, refresher);
+                return convertCacheData(obtainData, cacheable);
             }
-            return GXCommonUtils.convertSourceToTarget(obtainData, tClass, methodName, null, Dict.create());
+            return cacheSingleFlight.load(flightKey, refresher);
         }
+        return cacheSingleFlight.load(flightKey, () -> {
+            // 排队的过程中其他请求可能已经填充了缓存
+            Object cacheData = GXCacheKeyResolver.getDataFromCache(point.getTarget(), cacheKey, args);
+            if (Objects.nonNull(cacheData)) {
+                return convertCacheData(cacheData, cacheable);
+            }
+            return proceedAndCache(point, cacheKey, args, false);
+        });
+    }
+
+    /**
+     * 执行目标方法 并将结果写入缓存
+     *
+     * @param point    切点
+     * @param cacheKey 缓存key
+     * @param args     方法参数
+     * @param refresh  是否为刷新 刷新时覆盖缓存中已经存在的数据
+     * @return 目标方法的返回值
+     */
+    private Object proceedAndCache(ProceedingJoinPoint point, String cacheKey, Object[] args, boolean refresh) {
         try {
             Object proceed;
             if (CollUtil.isNotEmpty(Arrays.asList(args))) {
@@ -59,8 +98,13 @@ public class GXCacheableAspect {
             } else {
                 proceed = point.proceed();
             }
-            if (Objects.nonNull(proceed)) {
-                GXCommonUtils.reflectCallObjectMethod(point.getTarget(), "setCacheData", cacheKey, proceed, args);
+            if (Objects.isNull(proceed)) {
+                return null;
+            }
+            if (refresh) {
+                GXCacheKeyResolver.refreshCacheData(point.getTarget(), cacheKey, proceed, args);
+            } else {
+                GXCacheKeyResolver.setCacheData(point.getTarget(), cacheKey, proceed, args);
             }
             return proceed;
         } catch (Throwable e) {
@@ -68,60 +112,40 @@ public class GXCacheableAspect {
         }
     }
 
-    @SuppressWarnings("all")
-    private String parseCacheKey(String[] parameterNames, Class<?> targetClass, Method method, GXCacheable cacheable, Object[] args) {
-        List<String> tmpLst = new ArrayList<>();
-        String cacheKey = cacheable.cacheKey();
-        List<String> expressions = CharSequenceUtil.split(cacheKey, '+');
-
-        for (String expr : expressions) {
-            expr = CharSequenceUtil.trim(expr);
-            if (CharSequenceUtil.isEmpty(expr)) {
-                continue;
-            }
-            if (CharSequenceUtil.startWith(expr, "#")) {
-                // 处理表达式 表达式跟参数有关
-                String s = dealParam(expr, parameterNames, args);
-                if (CharSequenceUtil.isNotEmpty(s)) {
-                    tmpLst.add(s);
-                }
-            } else {
-                tmpLst.add(CharSequenceUtil.replace(expr, "'", ""));
-            }
-        }
-
-        String retCacheKey = CharSequenceUtil.format("{}:{}", CharSequenceUtil.lowerFirst(targetClass.getSimpleName()), CharSequenceUtil.isEmpty(cacheKey) ? method.getName() : cacheKey);
-        if (CollUtil.isNotEmpty(tmpLst)) {
-            retCacheKey = CollUtil.join(tmpLst, ":");
+    /**
+     * 将缓存中的数据转换为注解指定的类型
+     *
+     * @param obtainData 缓存数据
+     * @param cacheable  缓存注解
+     * @return 转换之后的数据
+     */
+    private Object convertCacheData(Object obtainData, GXCacheable cacheable) {
+        Class<? extends GXBaseResDto> tClass = cacheable.retType();
+        if (tClass.isAssignableFrom(GXBaseResDto.class)) {
+            return obtainData;
         }
-        return retCacheKey;
+        return GXCommonUtils.convertSourceToTarget(obtainData, tClass, cacheable.methodName(), null, Dict.create());
     }
 
-    @SuppressWarnings("all")
-    private String dealParam(String expr, String[] parameterNames, Object[] args) {
-        String targetParamName = CharSequenceUtil.replace(expr, "#", "");
-        String getMethodName = "";
-        if (CharSequenceUtil.contains(targetParamName, '.')) {
-            List<String> split = CharSequenceUtil.split(targetParamName, '.', 2);
-            targetParamName = split.get(0);
-            getMethodName = CharSequenceUtil.format("get{}", CharSequenceUtil.upperFirst(split.get(1)));
+    /**
+     * 缓存命中时判断是否需要提前刷新
+     *
+     * @param target    目标对象
+     * @param cacheKey  缓存key
+     * @param flightKey 请求合并的key
+     * @param cacheable 缓存注解
+     * @return 是否需要刷新
+     */
+    private boolean shouldEarlyRefresh(Object target, String cacheKey, String flightKey, GXCacheable cacheable) {
+        if (cacheable.earlyRefreshBeta() <= 0 || !(target instanceof GXBusinessService)) {
+            return false;
         }
-        int length = parameterNames.length;
-        for (int index = 0; index < length; index++) {
-            if (CharSequenceUtil.equals(targetParamName, parameterNames[index])) {
-                Object arg = args[index];
-                if (CharSequenceUtil.isNotEmpty(getMethodName)) {
-                    Method method = ReflectUtil.getMethod(arg.getClass(), getMethodName);
-                    if (Objects.isNull(method)) {
-                        throw new GXBusinessException("Leaf框架需要的缓存方法不存在!");
-                    }
-                    Object o = GXCommonUtils.reflectCallObjectMethod(arg, getMethodName);
-                    return Objects.isNull(o) ? null : o.toString();
-                } else {
-                    return arg.toString();
-                }
-            }
+        GXBusinessService businessService = (GXBusinessService) target;
+        GXBaseCacheService cacheService = businessService.getCacheService();
+        if (Objects.isNull(cacheService)) {
+            return false;
         }
-        return null;
+        Long remainTtl = cacheService.getCacheRemainTimeToLive(businessService.getCacheBucketName(), cacheKey);
+        return cacheSingleFlight.shouldEarlyRefresh(flightKey, remainTtl, cacheable.earlyRefreshBeta());
     }
 }
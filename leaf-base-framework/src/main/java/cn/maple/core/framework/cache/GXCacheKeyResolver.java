@@ -0,0 +1,297 @@
+package cn.maple.core.framework.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.service.GXBusinessService;
+import cn.maple.core.framework.util.GXCommonUtils;
+import org.springframework.core.StandardReflectionParameterNameDiscoverer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 缓存key解析器
+ * <p>
+ * 将GXCacheable、GXCacheEvict注解中的cacheKey表达式按方法预先编译为片段列表并缓存,
+ * 每次调用只需要按片段拼接参数值, 不再重复的拆分表达式、查找参数下标以及反射查找get方法
+ * 同时提供缓存读写方法的直接调用入口, 供GXCacheableAspect和GXCacheEvictAspect共用
+ * <pre>
+ * {@code
+ * cacheKey = "'user' + #userId + #reqDto.phone"
+ * }
+ * </pre>
+ */
+public class GXCacheKeyResolver {
+    /**
+     * 参数名字解析器
+     */
+    private static final StandardReflectionParameterNameDiscoverer PARAMETER_NAME_DISCOVER = new StandardReflectionParameterNameDiscoverer();
+
+    /**
+     * 每个方法编译之后的解析器 方法 -> cacheKey表达式 -> 解析器
+     * 同一个方法上可能同时有GXCacheable和GXCacheEvict且表达式不同, 所以需要按表达式区分
+     */
+    private static final Map<Method, Map<String, GXCacheKeyResolver>> RESOLVERS = new ConcurrentHashMap<>();
+
+    /**
+     * 注解中的原始表达式
+     */
+    private final String cacheKey;
+
+    /**
+     * 方法名字
+     */
+    private final String methodName;
+
+    /**
+     * 方法签名 用于区分解析出相同缓存key的不同方法
+     */
+    private final String methodSignature;
+
+    /**
+     * 编译之后的片段
+     */
+    private final Segment[] segments;
+
+    private GXCacheKeyResolver(Method method, String cacheKey) {
+        this.cacheKey = cacheKey;
+        this.methodName = method.getName();
+        this.methodSignature = CharSequenceUtil.format("{}#{}({})", method.getDeclaringClass().getName(), method.getName(), Arrays.stream(method.getParameterTypes()).map(Class::getName).collect(Collectors.joining(",")));
+        this.segments = compile(method, cacheKey);
+    }
+
+    /**
+     * 获取指定方法的缓存key解析器
+     *
+     * @param method   被注解的方法
+     * @param cacheKey 注解中的cacheKey表达式
+     * @return 解析器
+     */
+    public static GXCacheKeyResolver forMethod(Method method, String cacheKey) {
+        return RESOLVERS.computeIfAbsent(method, m -> new ConcurrentHashMap<>(2)).computeIfAbsent(cacheKey, expr -> new GXCacheKeyResolver(method, expr));
+    }
+
+    /**
+     * 根据调用参数生成缓存key
+     *
+     * @param targetClass 目标对象的类型
+     * @param args        方法参数
+     * @return 缓存key
+     */
+    public String resolve(Class<?> targetClass, Object[] args) {
+        List<String> values = new ArrayList<>(segments.length);
+        for (Segment segment : segments) {
+            String value = segment.apply(args);
+            if (CharSequenceUtil.isNotEmpty(value)) {
+                values.add(value);
+            }
+        }
+        if (CollUtil.isNotEmpty(values)) {
+            return CollUtil.join(values, ":");
+        }
+        return CharSequenceUtil.format("{}:{}", CharSequenceUtil.lowerFirst(targetClass.getSimpleName()), CharSequenceUtil.isEmpty(cacheKey) ? methodName : cacheKey);
+    }
+
+    /**
+     * 生成请求合并(GXCacheSingleFlight)使用的key
+     * 缓存key只在同一个方法内唯一, 不同的类或者方法可能解析出相同的缓存key(例如都是用户ID), 需要加上目标类型以及方法签名
+     *
+     * @param targetClass 目标对象的类型
+     * @param cacheKey    缓存key
+     * @return 请求合并的key
+     */
+    public String flightKey(Class<?> targetClass, String cacheKey) {
+        return targetClass.getName() + "@" + methodSignature + ":" + cacheKey;
+    }
+
+    /**
+     * 从缓存中获取数据
+     * GXBusinessService的实现类直接调用 其他对象退化为反射调用
+     *
+     * @param target   目标对象
+     * @param cacheKey 缓存key
+     * @param args     方法参数
+     * @return 缓存数据
+     */
+    public static Object getDataFromCache(Object target, String cacheKey, Object[] args) {
+        if (target instanceof GXBusinessService) {
+            return ((GXBusinessService) target).getDataFromCache(cacheKey, args);
+        }
+        return GXCommonUtils.reflectCallObjectMethod(target, "getDataFromCache", cacheKey, args);
+    }
+
+    /**
+     * 设置缓存数据
+     *
+     * @param target   目标对象
+     * @param cacheKey 缓存key
+     * @param data     需要缓存的数据
+     * @param args     方法参数
+     */
+    public static void setCacheData(Object target, String cacheKey, Object data, Object[] args) {
+        if (target instanceof GXBusinessService) {
+            ((GXBusinessService) target).setCacheData(cacheKey, data, args);
+            return;
+        }
+        GXCommonUtils.reflectCallObjectMethod(target, "setCacheData", cacheKey, data, args);
+    }
+
+    /**
+     * 刷新缓存数据 直接覆盖缓存中已经存在的数据
+     *
+     * @param target   目标对象
+     * @param cacheKey 缓存key
+     * @param data     需要缓存的数据
+     * @param args     方法参数
+     */
+    public static void refreshCacheData(Object target, String cacheKey, Object data, Object[] args) {
+        if (target instanceof GXBusinessService) {
+            ((GXBusinessService) target).refreshCacheData(cacheKey, data, args);
+            return;
+        }
+        GXCommonUtils.reflectCallObjectMethod(target, "refreshCacheData", cacheKey, data, args);
+    }
+
+    /**
+     * 失效缓存数据
+     *
+     * @param target   目标对象
+     * @param cacheKey 缓存key
+     * @param args     方法参数
+     */
+    public static void evictCacheData(Object target, String cacheKey, Object[] args) {
+        if (target instanceof GXBusinessService) {
+            ((GXBusinessService) target).evictCacheData(cacheKey, args);
+            return;
+        }
+        GXCommonUtils.reflectCallObjectMethod(target, "evictCacheData", cacheKey, args);
+    }
+
+    /**
+     * 编译表达式
+     *
+     * @param method   被注解的方法
+     * @param cacheKey 注解中的cacheKey表达式
+     * @return 片段列表
+     */
+    private static Segment[] compile(Method method, String cacheKey) {
+        String[] parameterNames = PARAMETER_NAME_DISCOVER.getParameterNames(method);
+        List<Segment> segmentList = new ArrayList<>();
+        for (String expr : CharSequenceUtil.split(cacheKey, '+')) {
+            expr = CharSequenceUtil.trim(expr);
+            if (CharSequenceUtil.isEmpty(expr)) {
+                continue;
+            }
+            if (!CharSequenceUtil.startWith(expr, "#")) {
+                String literal = CharSequenceUtil.replace(expr, "'", "");
+                segmentList.add(args -> literal);
+                continue;
+            }
+            // 处理表达式 表达式跟参数有关
+            String targetParamName = CharSequenceUtil.replace(expr, "#", "");
+            String getMethodName = "";
+            if (CharSequenceUtil.contains(targetParamName, '.')) {
+                List<String> split = CharSequenceUtil.split(targetParamName, '.', 2);
+                targetParamName = split.get(0);
+                getMethodName = CharSequenceUtil.format("get{}", CharSequenceUtil.upperFirst(split.get(1)));
+            }
+            int index = indexOf(parameterNames, targetParamName);
+            if (index < 0) {
+                continue;
+            }
+            if (CharSequenceUtil.isEmpty(getMethodName)) {
+                segmentList.add(args -> Objects.isNull(args[index]) ? null : args[index].toString());
+            } else {
+                segmentList.add(new GetterSegment(index, getMethodName));
+            }
+        }
+        return segmentList.toArray(new Segment[0]);
+    }
+
+    /**
+     * 查找参数名字对应的下标
+     *
+     * @param parameterNames 参数名字列表
+     * @param name           参数名字
+     * @return 下标 不存在返回-1
+     */
+    private static int indexOf(String[] parameterNames, String name) {
+        if (Objects.isNull(parameterNames)) {
+            return -1;
+        }
+        for (int index = 0; index < parameterNames.length; index++) {
+            if (CharSequenceUtil.equals(name, parameterNames[index])) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 表达式片段
+     */
+    @FunctionalInterface
+    private interface Segment {
+        String apply(Object[] args);
+    }
+
+    /**
+     * 通过参数的get方法获取值的片段
+     * 参数的实际类型可能不同 所以按照实际类型缓存MethodHandle
+     */
+    private static class GetterSegment implements Segment {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+        private final int index;
+
+        private final String getMethodName;
+
+        private final Map<Class<?>, MethodHandle> handles = new ConcurrentHashMap<>(4);
+
+        GetterSegment(int index, String getMethodName) {
+            this.index = index;
+            this.getMethodName = getMethodName;
+        }
+
+        @Override
+        public String apply(Object[] args) {
+            Object arg = args[index];
+            if (Objects.isNull(arg)) {
+                return null;
+            }
+            MethodHandle handle = handles.computeIfAbsent(arg.getClass(), this::resolveHandle);
+            try {
+                Object o = handle.invokeExact(arg);
+                return Objects.isNull(o) ? null : o.toString();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new GXBusinessException(e.getMessage(), e);
+            }
+        }
+
+        private MethodHandle resolveHandle(Class<?> argClass) {
+            Method method = ReflectUtil.getMethod(argClass, getMethodName);
+            if (Objects.isNull(method)) {
+                throw new GXBusinessException("Leaf框架需要的缓存方法不存在!");
+            }
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new GXBusinessException(CharSequenceUtil.format("缓存key的方法{}.{}无法访问", argClass.getSimpleName(), getMethodName), e);
+            }
+        }
+    }
+}
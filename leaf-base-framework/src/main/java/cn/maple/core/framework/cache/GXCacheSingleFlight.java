@@ -0,0 +1,174 @@
+package cn.maple.core.framework.cache;
+
+import cn.hutool.core.lang.Dict;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.util.GXExecutorUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 缓存回源的请求合并
+ * <p>
+ * 同一个key在同一时刻只会有一个加载任务在执行, 其他并发请求共享该任务的CompletableFuture,
+ * 用于避免热点key过期时大量请求同时穿透到数据库(缓存击穿)
+ * key需要在所有方法之间唯一(参考GXCacheKeyResolver#flightKey), 否则不同方法会共享同一个加载结果
+ */
+@Slf4j
+@Component
+public class GXCacheSingleFlight {
+    /**
+     * 正在执行的加载任务
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 每个key最近一次加载的耗时 单位: 毫秒
+     * 用于计算提前刷新的概率
+     */
+    private final Cache<String, Long> loadCostMillis = Caffeine.newBuilder().maximumSize(10000).build();
+
+    /**
+     * 后台刷新使用的线程池名字
+     * 参数可以通过maple.framework.executor.cache-refresh.*配置
+     * 默认使用abort策略, 线程池已满时放弃本次刷新, 不能由读请求的线程执行刷新
+     */
+    private static final String REFRESH_EXECUTOR_NAME = "cache-refresh";
+
+    /**
+     * 合并到其他请求的次数
+     */
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 真正执行加载的次数
+     */
+    private final LongAdder loadedCount = new LongAdder();
+
+    /**
+     * 返回旧数据并成功提交后台刷新的次数
+     */
+    private final LongAdder staleServedCount = new LongAdder();
+
+    /**
+     * 同步加载数据
+     * 同一个key的并发调用只会执行一次loader
+     *
+     * @param flightKey 请求合并的key
+     * @param loader    数据加载器
+     * @return 加载的数据
+     */
+    public Object load(String flightKey, Supplier<Object> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, future);
+        if (Objects.nonNull(existing)) {
+            coalescedCount.increment();
+            return join(existing);
+        }
+        runLoader(flightKey, loader, future);
+        return join(future);
+    }
+
+    /**
+     * 异步刷新数据
+     * 如果该key已经有加载任务在执行 则直接忽略
+     *
+     * @param flightKey 请求合并的key
+     * @param loader    数据加载器
+     */
+    public void refreshAsync(String flightKey, Supplier<Object> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (Objects.nonNull(inFlight.putIfAbsent(flightKey, future))) {
+            return;
+        }
+        try {
+            int cpuCoreNumber = Runtime.getRuntime().availableProcessors();
+            GXExecutorUtils.getExecutor(REFRESH_EXECUTOR_NAME, cpuCoreNumber, cpuCoreNumber, 1024, "abort").execute(() -> runLoader(flightKey, loader, future));
+            staleServedCount.increment();
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(flightKey, future);
+            future.cancel(false);
+            log.debug("缓存{}的后台刷新被拒绝 : {}", flightKey, e.getMessage());
+        }
+    }
+
+    /**
+     * 是否需要提前刷新缓存 (XFetch算法)
+     * <p>
+     * 剩余有效时长越短、加载越耗时, 提前刷新的概率就越大
+     *
+     * @param flightKey      请求合并的key
+     * @param remainTtlMills 缓存剩余的有效时长 单位: 毫秒
+     * @param beta           提前刷新的系数 越大越激进 小于等于0则不刷新
+     * @return 是否需要刷新
+     */
+    public boolean shouldEarlyRefresh(String flightKey, Long remainTtlMills, double beta) {
+        if (beta <= 0 || Objects.isNull(remainTtlMills) || remainTtlMills < 0) {
+            return false;
+        }
+        Long cost = loadCostMillis.getIfPresent(flightKey);
+        if (Objects.isNull(cost)) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -cost * beta * Math.log(random) >= remainTtlMills;
+    }
+
+    /**
+     * 获取统计信息
+     *
+     * @return Dict
+     */
+    public Dict getStats() {
+        return Dict.create()
+                .set("coalesced", coalescedCount.sum())
+                .set("loaded", loadedCount.sum())
+                .set("staleServed", staleServedCount.sum())
+                .set("inFlight", inFlight.size());
+    }
+
+    /**
+     * 执行加载任务 并在结束之后移除正在执行的标识
+     *
+     * @param flightKey 请求合并的key
+     * @param loader    数据加载器
+     * @param future    承载结果的future
+     */
+    private void runLoader(String flightKey, Supplier<Object> loader, CompletableFuture<Object> future) {
+        loadedCount.increment();
+        long start = System.currentTimeMillis();
+        try {
+            Object data = loader.get();
+            loadCostMillis.put(flightKey, System.currentTimeMillis() - start);
+            future.complete(data);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(flightKey, future);
+        }
+    }
+
+    /**
+     * 等待加载结果 并将异常还原为原始异常
+     *
+     * @param future 加载任务
+     * @return 加载的数据
+     */
+    private Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = Objects.isNull(e.getCause()) ? e : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new GXBusinessException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cn.maple.core.framework.config;
+
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXEventPublisherUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 应用关闭时关闭异步事件分发器
+ * <p>
+ * 在事件的派发方(默认阶段)停止之后、GXExecutorUtils的线程池关闭之前执行, 保证订阅者处理剩余事件时仍然可以使用线程池,
+ * 与GXExecutorShutdownLifecycle一样只处理框架所在的上下文
+ * 等待时间通过maple.framework.event.shutdown-timeout-seconds配置, 默认30秒
+ */
+@Component
+public class GXEventDispatcherShutdownLifecycle implements SmartLifecycle, ApplicationContextAware {
+    private ApplicationContext applicationContext;
+
+    private volatile boolean running;
+
+    @Override
+    public void setApplicationContext(@NonNull ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        ApplicationContext rootContext = GXApplicationContextSingleton.INSTANCE.getApplicationContext();
+        if (Objects.nonNull(rootContext) && rootContext != applicationContext) {
+            return;
+        }
+        long timeout = GXCommonUtils.getEnvironmentValue("maple.framework.event.shutdown-timeout-seconds", Long.class, 30L);
+        GXEventPublisherUtils.shutdownAsyncEventDispatcher(timeout, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return GXExecutorShutdownLifecycle.PHASE + 1;
+    }
+}
@@ -0,0 +1,65 @@
+package cn.maple.core.framework.config;
+
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXExecutorUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 应用关闭时关闭GXExecutorUtils中注册的所有线程池
+ * <p>
+ * 使用最低的阶段(PHASE), 在其他SmartLifecycle(MQ监听容器、Debezium引擎、ES批量写入器等线程池的使用方)停止之后才关闭线程池,
+ * 并且只处理框架所在的上下文, 子上下文(例如Feign、测试上下文)关闭时不会关闭全局线程池
+ * 等待时间通过maple.framework.executor.shutdown-timeout-seconds配置, 默认30秒
+ */
+@Component
+public class GXExecutorShutdownLifecycle implements SmartLifecycle, ApplicationContextAware {
+    /**
+     * 线程池的关闭阶段
+     * 使用方需要在关闭线程池之前停止时, 阶段需要大于该值(默认的DEFAULT_PHASE即可)
+     */
+    public static final int PHASE = Integer.MIN_VALUE + 1024;
+
+    private ApplicationContext applicationContext;
+
+    private volatile boolean running;
+
+    @Override
+    public void setApplicationContext(@NonNull ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        ApplicationContext rootContext = GXApplicationContextSingleton.INSTANCE.getApplicationContext();
+        if (Objects.nonNull(rootContext) && rootContext != applicationContext) {
+            return;
+        }
+        long timeout = GXCommonUtils.getEnvironmentValue("maple.framework.executor.shutdown-timeout-seconds", Long.class, 30L);
+        GXExecutorUtils.shutdownAll(timeout, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -112,4 +112,35 @@ public class GXBaseQueryParamInnerDto extends GXBaseDto {
      * 设置为TRUE的话 就忽略掉数据权限处理
      */
     private boolean ignoreDataFilter = Boolean.FALSE;
+
+    /**
+     * 是否使用绑定参数模式生成SQL
+     * 为TRUE时查询条件的值以占位符的形式输出, 参数值按顺序收集到bindParams中
+     * 为null时使用全局配置maple.framework.sql.bind-parameter
+     */
+    private Boolean bindParameter;
+
+    /**
+     * 绑定参数模式下按占位符顺序收集的参数值
+     * 由SQL构造器在生成SQL时填充
+     */
+    private List<Object> bindParams;
+
+    /**
+     * 是否使用游标(keyset)分页
+     * 游标分页按照orderByField定位, 排序字段需要有索引并且组合唯一(一般以主键结尾)
+     */
+    private boolean cursorPagination = Boolean.FALSE;
+
+    /**
+     * 游标分页时上一页返回的nextCursor
+     * 不为空时自动使用游标分页
+     */
+    private String cursor;
+
+    /**
+     * 分页时总记录数的统计方式
+     * 为null时精确统计
+     */
+    private GXPaginationCountModeEnums countMode;
 }
@@ -0,0 +1,30 @@
+package cn.maple.core.framework.dto.inner;
+
+/**
+ * 分页时总记录数的统计方式
+ */
+public enum GXPaginationCountModeEnums {
+    /**
+     * 精确统计(SELECT COUNT(*))
+     */
+    EXACT("exact", "精确统计"),
+    /**
+     * 不统计总记录数, 返回的total与pages为-1
+     */
+    SKIP("skip", "不统计"),
+    /**
+     * 估算总记录数(无条件时读取information_schema, 否则使用EXPLAIN的rows)
+     */
+    ESTIMATED("estimated", "估算");
+    private final String countMode;
+    private final String desc;
+
+    GXPaginationCountModeEnums(String countMode, String desc) {
+        this.countMode = countMode;
+        this.desc = desc;
+    }
+
+    public String getCountMode() {
+        return countMode;
+    }
+}
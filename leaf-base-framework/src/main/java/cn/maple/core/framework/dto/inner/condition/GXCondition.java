@@ -1,11 +1,21 @@
 package cn.maple.core.framework.dto.inner.condition;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.constant.GXCommonConstant;
 import cn.maple.core.framework.constant.GXDataSourceConstant;
+import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
+import cn.maple.core.framework.sql.GXSqlTemplateCache;
+import cn.maple.core.framework.util.GXCommonUtils;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 public abstract class GXCondition<T> implements Serializable {
     /**
@@ -46,8 +56,63 @@ public abstract class GXCondition<T> implements Serializable {
         return CharSequenceUtil.format("{}.{} {} {}", tableNameAlias, getFieldExpression(), opStr, getFieldValue());
     }
 
+    /**
+     * 使用绑定参数生成where条件
+     * 不支持绑定参数的条件(原始SQL、函数条件等)会回退到{@link #whereString()}
+     *
+     * @param binder 参数绑定器
+     * @return where条件
+     */
+    public String whereString(GXSqlParamBinder binder) {
+        String placeholder = Objects.isNull(binder) ? null : getBindFieldValue(binder);
+        if (Objects.isNull(placeholder)) {
+            return whereString();
+        }
+        if (CharSequenceUtil.isEmpty(tableNameAlias)) {
+            return CharSequenceUtil.format("{} {} {}", getFieldExpression(), getOp(), placeholder);
+        }
+        return CharSequenceUtil.format("{}.{} {} {}", tableNameAlias, getFieldExpression(), getOp(), placeholder);
+    }
+
+    /**
+     * 绑定条件的值并返回占位符
+     * 返回null表示当前条件不支持绑定参数
+     *
+     * @param binder 参数绑定器
+     * @return 占位符
+     */
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        return null;
+    }
+
+    /**
+     * 将集合中的每个值绑定为参数, 返回 (?,?,?) 形式的占位符
+     *
+     * @param binder 参数绑定器
+     * @return 占位符
+     */
+    protected String bindCollectionValue(GXSqlParamBinder binder) {
+        String str = ((Collection<?>) value).stream().map(binder::bind).collect(Collectors.joining(","));
+        return CharSequenceUtil.format("({})", str);
+    }
+
+    /**
+     * 检测IN查询条件的数据条数
+     */
+    protected void checkInLimit() {
+        String activeProfile = GXCommonUtils.getActiveProfile();
+        int limitCnt = 100000;
+        List<String> envLst = CollUtil.newArrayList(GXCommonConstant.RUN_ENV_DEV, GXCommonConstant.RUN_ENV_LOCAL);
+        if (CollUtil.contains(envLst, activeProfile)/* && GXCurrentRequestContextUtils.isHTTP()*/) {
+            limitCnt = GXCommonUtils.getEnvironmentValue("db.in.limit.cnt", Integer.class, 50);
+        }
+        if (CollUtil.size(value) > limitCnt) {
+            throw new GXBusinessException(CharSequenceUtil.format("IN查询条件不能超过{}条数据!", limitCnt));
+        }
+    }
+
     public String getFieldExpression() {
-        return CharSequenceUtil.toUnderlineCase(fieldExpression);
+        return GXSqlTemplateCache.toUnderlineCase(fieldExpression);
     }
 
     public abstract T getFieldValue();
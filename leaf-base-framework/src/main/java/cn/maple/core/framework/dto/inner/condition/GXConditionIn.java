@@ -1,12 +1,8 @@
 package cn.maple.core.framework.dto.inner.condition;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.text.CharSequenceUtil;
-import cn.maple.core.framework.constant.GXCommonConstant;
-import cn.maple.core.framework.exception.GXBusinessException;
-import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
 
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -22,16 +18,14 @@ public class GXConditionIn extends GXCondition<String> {
 
     @Override
     public String getFieldValue() {
-        String activeProfile = GXCommonUtils.getActiveProfile();
-        int limitCnt = 100000;
-        List<String> envLst = CollUtil.newArrayList(GXCommonConstant.RUN_ENV_DEV, GXCommonConstant.RUN_ENV_LOCAL);
-        if (CollUtil.contains(envLst, activeProfile)/* && GXCurrentRequestContextUtils.isHTTP()*/) {
-            limitCnt = GXCommonUtils.getEnvironmentValue("db.in.limit.cnt", Integer.class, 50);
-        }
-        if (CollUtil.size(value) > limitCnt) {
-            throw new GXBusinessException(CharSequenceUtil.format("IN查询条件不能超过{}条数据!", limitCnt));
-        }
+        checkInLimit();
         String str = ((Set<Number>) value).stream().map(String::valueOf).collect(Collectors.joining(","));
         return CharSequenceUtil.format("({})", str);
     }
+
+    @Override
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        checkInLimit();
+        return bindCollectionValue(binder);
+    }
 }
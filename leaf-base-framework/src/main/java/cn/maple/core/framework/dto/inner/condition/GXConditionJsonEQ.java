@@ -2,6 +2,7 @@ package cn.maple.core.framework.dto.inner.condition;
 
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.util.NumberUtil;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
 
 public class GXConditionJsonEQ extends GXCondition<String> {
     private final String jsonPath;
@@ -24,6 +25,32 @@ public class GXConditionJsonEQ extends GXCondition<String> {
         return CharSequenceUtil.format("'{}'", value);
     }
 
+    @Override
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        if (NumberUtil.isNumber(value.toString())) {
+            return binder.bind(NumberUtil.parseNumber(value.toString()));
+        }
+        return binder.bind(value);
+    }
+
+    /**
+     * 获取JSON字段的名字
+     *
+     * @return JSON字段的名字
+     */
+    public String getJsonField() {
+        return fieldExpression;
+    }
+
+    /**
+     * 获取JSON字段中的属性名字
+     *
+     * @return 属性名字
+     */
+    public String getJsonFieldName() {
+        return CharSequenceUtil.removePrefix(jsonPath, "$.");
+    }
+
     @Override
     public String getFieldExpression() {
         String format = "`{}`->'" + jsonPath + "'";
@@ -0,0 +1,57 @@
+package cn.maple.core.framework.dto.inner.condition;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
+import cn.maple.core.framework.util.GXDBStringEscapeUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 游标(keyset)分页的定位条件
+ * <p>
+ * 生成行构造器比较: (created_at,id) &lt; ('2023-01-01 00:00:00',100)
+ * 所有排序字段需要使用相同的排序方向
+ */
+public class GXConditionKeyset extends GXCondition<String> {
+    private final List<String> fields;
+
+    private final boolean asc;
+
+    public GXConditionKeyset(List<String> fields, List<Object> values, boolean asc) {
+        super("", "", values);
+        this.fields = fields;
+        this.asc = asc;
+    }
+
+    @Override
+    public String getOp() {
+        return asc ? ">" : "<";
+    }
+
+    @Override
+    public String getFieldExpression() {
+        return CharSequenceUtil.format("({})", String.join(",", fields));
+    }
+
+    @Override
+    public String getFieldValue() {
+        String str = ((List<?>) value).stream().map(v -> {
+            if (v instanceof Number) {
+                return v.toString();
+            }
+            String val = GXDBStringEscapeUtils.escapeRawString(v.toString());
+            String format = "'{}'";
+            if (CharSequenceUtil.contains(val, "\\'")) {
+                format = "\"{}\"";
+            }
+            return CharSequenceUtil.format(format, val);
+        }).collect(Collectors.joining(","));
+        return CharSequenceUtil.format("({})", str);
+    }
+
+    @Override
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        return bindCollectionValue(binder);
+    }
+}
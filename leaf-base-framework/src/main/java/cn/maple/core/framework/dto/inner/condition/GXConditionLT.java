@@ -1,5 +1,7 @@
 package cn.maple.core.framework.dto.inner.condition;
 
+import cn.maple.core.framework.sql.GXSqlParamBinder;
+
 public class GXConditionLT extends GXCondition<Number> {
     public GXConditionLT(String tableNameAlias, String fieldName, Number value) {
         super(tableNameAlias, fieldName, value);
@@ -14,4 +16,9 @@ public class GXConditionLT extends GXCondition<Number> {
     public Number getFieldValue() {
         return (Number) value;
     }
+
+    @Override
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        return binder.bind(value);
+    }
 }
@@ -1,6 +1,7 @@
 package cn.maple.core.framework.dto.inner.condition;
 
 import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
 import cn.maple.core.framework.util.GXDBStringEscapeUtils;
 
 public class GXConditionLikeLeft extends GXCondition<String> {
@@ -22,4 +23,9 @@ public class GXConditionLikeLeft extends GXCondition<String> {
         }
         return CharSequenceUtil.format(format, str);
     }
+
+    @Override
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        return binder.bind("%" + value);
+    }
 }
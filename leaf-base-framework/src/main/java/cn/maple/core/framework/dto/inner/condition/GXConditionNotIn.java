@@ -1,6 +1,7 @@
 package cn.maple.core.framework.dto.inner.condition;
 
 import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
 
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -20,4 +21,9 @@ public class GXConditionNotIn extends GXCondition<String> {
         String str = ((Set<Number>) value).stream().map(String::valueOf).collect(Collectors.joining(","));
         return CharSequenceUtil.format("({})", str);
     }
+
+    @Override
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        return bindCollectionValue(binder);
+    }
 }
@@ -1,13 +1,9 @@
 package cn.maple.core.framework.dto.inner.condition;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.text.CharSequenceUtil;
-import cn.maple.core.framework.constant.GXCommonConstant;
-import cn.maple.core.framework.exception.GXBusinessException;
-import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.sql.GXSqlParamBinder;
 import cn.maple.core.framework.util.GXDBStringEscapeUtils;
 
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -23,15 +19,7 @@ public class GXConditionStrNotIn extends GXCondition<String> {
 
     @Override
     public String getFieldValue() {
-        String activeProfile = GXCommonUtils.getActiveProfile();
-        int limitCnt = 100000;
-        List<String> envLst = CollUtil.newArrayList(GXCommonConstant.RUN_ENV_DEV, GXCommonConstant.RUN_ENV_LOCAL);
-        if (CollUtil.contains(envLst, activeProfile)/* && GXCurrentRequestContextUtils.isHTTP()*/) {
-            limitCnt = GXCommonUtils.getEnvironmentValue("db.in.limit.cnt", Integer.class, 50);
-        }
-        if (CollUtil.size(value) > limitCnt) {
-            throw new GXBusinessException(CharSequenceUtil.format("IN查询条件不能超过{}条数据!", limitCnt));
-        }
+        checkInLimit();
         String str = ((Set<String>) value).stream().map(v -> {
             String val = GXDBStringEscapeUtils.escapeRawString(v);
             String format = "'{}'";
@@ -42,4 +30,10 @@ public class GXConditionStrNotIn extends GXCondition<String> {
         }).collect(Collectors.joining(","));
         return CharSequenceUtil.format("({})", str);
     }
+
+    @Override
+    protected String getBindFieldValue(GXSqlParamBinder binder) {
+        checkInLimit();
+        return bindCollectionValue(binder);
+    }
 }
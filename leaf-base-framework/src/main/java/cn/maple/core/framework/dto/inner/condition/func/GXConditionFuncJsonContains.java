@@ -1,14 +1,17 @@
 package cn.maple.core.framework.dto.inner.condition.func;
 
 import cn.hutool.core.text.CharSequenceUtil;
+import lombok.Getter;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class GXConditionFuncJsonContains extends GXConditionFunc<String> {
+    @Getter
     private final List<Object> values;
 
-    private String jsonPath;
+    @Getter
+    private final String jsonPath;
 
     public GXConditionFuncJsonContains(String tableNameAlias, String jsonField, List<Object> values) {
         this(tableNameAlias, jsonField, values, "");
@@ -27,13 +30,9 @@ public class GXConditionFuncJsonContains extends GXConditionFunc<String> {
 
     @Override
     public String getFieldExpression() {
-        if (CharSequenceUtil.isEmpty(jsonPath)) {
-            jsonPath = "$";
-        } else {
-            jsonPath = CharSequenceUtil.format("$.{}", jsonPath);
-        }
+        String path = CharSequenceUtil.isEmpty(jsonPath) ? "$" : CharSequenceUtil.format("$.{}", jsonPath);
         // TODO 需要兼容  JSON_CONTAINS(ext, JSON_OBJECT("name", "塵子曦", "father", "塵渊")) 表达式
-        String format = "`{}`.`{}`->'" + jsonPath + "', CAST('[{}]' AS JSON)";
+        String format = "`{}`.`{}`->'" + path + "', CAST('[{}]' AS JSON)";
         return CharSequenceUtil.format(format, tableNameAlias);
     }
 
@@ -48,6 +47,15 @@ public class GXConditionFuncJsonContains extends GXConditionFunc<String> {
         }).collect(Collectors.joining(","));
     }
 
+    /**
+     * 获取JSON字段的名字
+     *
+     * @return JSON字段的名字
+     */
+    public String getJsonField() {
+        return op;
+    }
+
     @Override
     protected String getFunctionName() {
         return "JSON_CONTAINS";
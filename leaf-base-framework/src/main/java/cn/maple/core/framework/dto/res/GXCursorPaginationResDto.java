@@ -0,0 +1,48 @@
+package cn.maple.core.framework.dto.res;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+/**
+ * 游标(keyset)分页的返回结果
+ * <p>
+ * 通过nextCursor获取下一页数据, 没有下一页时nextCursor为null
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@SuppressWarnings("all")
+public class GXCursorPaginationResDto<T> extends GXPaginationResDto<T> {
+    /**
+     * 下一页的游标
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * total是否为估算值
+     */
+    private boolean totalEstimated;
+
+    /**
+     * 游标分页
+     *
+     * @param list           列表数据
+     * @param totalCount     总记录数(不统计时为-1)
+     * @param pageSize       每页记录数
+     * @param nextCursor     下一页的游标
+     * @param hasMore        是否还有下一页
+     * @param totalEstimated total是否为估算值
+     */
+    public GXCursorPaginationResDto(List<T> list, long totalCount, long pageSize, String nextCursor, boolean hasMore, boolean totalEstimated) {
+        super(list, totalCount, totalCount < 0 ? -1 : (long) Math.ceil((double) totalCount / pageSize), pageSize, 0);
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.totalEstimated = totalEstimated;
+    }
+}
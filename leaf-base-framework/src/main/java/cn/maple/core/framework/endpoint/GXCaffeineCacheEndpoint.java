@@ -0,0 +1,41 @@
+package cn.maple.core.framework.endpoint;
+
+import cn.hutool.core.lang.Dict;
+import cn.maple.core.framework.util.GXCaffeineCacheUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 本地Caffeine缓存的统计信息端点
+ * <p>
+ * 访问 /actuator/caffeineCaches 查看, 需要在management.endpoints.web.exposure.include中开放
+ */
+@Component
+@Endpoint(id = "caffeineCaches")
+public class GXCaffeineCacheEndpoint {
+    @Resource
+    private CaffeineCacheManager caffeineCacheManager;
+
+    @ReadOperation
+    public Map<String, Dict> caffeineCaches() {
+        Map<String, Dict> stats = new LinkedHashMap<>();
+        caffeineCacheManager.getCacheNames().forEach(name -> {
+            org.springframework.cache.Cache cache = caffeineCacheManager.getCache(name);
+            if (Objects.nonNull(cache) && cache instanceof CaffeineCache) {
+                Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+                stats.put(name, GXCaffeineCacheUtils.convertCacheStats(nativeCache.stats()).set("estimatedSize", nativeCache.estimatedSize()));
+            }
+        });
+        stats.putAll(GXCaffeineCacheUtils.getCacheStatsDict());
+        return stats;
+    }
+}
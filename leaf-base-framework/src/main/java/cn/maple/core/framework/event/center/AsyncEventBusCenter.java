@@ -1,14 +1,10 @@
 package cn.maple.core.framework.event.center;
 
-import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.core.thread.ExecutorBuilder;
-import cn.hutool.core.thread.ThreadFactoryBuilder;
 import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXExecutorUtils;
 import com.google.common.eventbus.AsyncEventBus;
 
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Executor;
 
 @SuppressWarnings("unused")
 public class AsyncEventBusCenter {
@@ -16,16 +12,11 @@ public class AsyncEventBusCenter {
 
     private static final Integer CPU_CORE_NUMBER = Runtime.getRuntime().availableProcessors();
 
-    private static final ThreadFactory THREAD_FACTORY = ThreadFactoryBuilder.create()
-            .setNamePrefix(CharSequenceUtil.format("{}-{}-{}", "async", APPLICATION_NAME, "guava-event-pool"))
-            .build();
-
-    private static final ThreadPoolExecutor THREAD_POOL_EXECUTOR = ExecutorBuilder.create()
-            .setCorePoolSize(CPU_CORE_NUMBER)
-            .setMaxPoolSize(CPU_CORE_NUMBER * 2)
-            .setWorkQueue(new LinkedBlockingDeque<>(CPU_CORE_NUMBER * 2048))
-            .setThreadFactory(THREAD_FACTORY)
-            .build();
+    /**
+     * 参数可以通过maple.framework.executor.async-event-bus.*配置
+     * 每次执行时从注册表中获取线程池, 上下文刷新之后使用重新创建的线程池
+     */
+    private static final Executor THREAD_POOL_EXECUTOR = command -> GXExecutorUtils.getExecutor("async-event-bus", CPU_CORE_NUMBER, CPU_CORE_NUMBER * 2, CPU_CORE_NUMBER * 2048).execute(command);
 
     private static final AsyncEventBus ASYNC_EVENT_BUS = new AsyncEventBus("async-" + APPLICATION_NAME, THREAD_POOL_EXECUTOR);
 
@@ -2,9 +2,9 @@ package cn.maple.core.framework.event.config;
 
 import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
 import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXExecutorUtils;
 import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.EventBus;
-import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
@@ -39,7 +39,8 @@ public class GuavaEventBusConfig implements ApplicationContextAware {
     public AsyncEventBus asyncEventBus() {
         log.info("初始化Guava EventBus的异步事件对象");
         String identifier = GXCommonUtils.getEnvironmentValue("spring.application.name", String.class, "maple-async-event-bus");
-        Executor executor = MoreExecutors.directExecutor();
+        // 参数可以通过maple.framework.executor.guava-async-event-bus.*配置
+        Executor executor = GXExecutorUtils.getExecutor("guava-async-event-bus");
         return new AsyncEventBus(identifier, executor);
     }
 
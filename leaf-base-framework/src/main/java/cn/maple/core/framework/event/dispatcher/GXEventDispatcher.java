@@ -0,0 +1,40 @@
+package cn.maple.core.framework.event.dispatcher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内事件分发器
+ * 监听器通过Guava的@Subscribe注解标记事件处理方法
+ */
+public interface GXEventDispatcher {
+    /**
+     * 注册监听器
+     *
+     * @param listener 监听器对象
+     */
+    void register(Object listener);
+
+    /**
+     * 注销监听器
+     *
+     * @param listener 监听器对象
+     */
+    void unregister(Object listener);
+
+    /**
+     * 派发事件
+     *
+     * @param event 事件对象
+     */
+    void post(Object event);
+
+    /**
+     * 关闭分发器, 等待已经派发的事件处理完成
+     * 事件由外部线程池处理的分发器不需要关闭, 线程池由GXExecutorUtils统一关闭
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     */
+    default void shutdown(long timeout, TimeUnit unit) {
+    }
+}
@@ -0,0 +1,112 @@
+package cn.maple.core.framework.event.dispatcher;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁的有界环形缓冲区(多生产者、单消费者)
+ * <p>
+ * 每个槽位维护一个序号, 生产者通过CAS抢占写入位置, 写入完成后发布槽位的序号,
+ * 消费者按照序号顺序批量读取, 读取后将槽位的序号推进一圈留给下一轮写入。
+ */
+class GXEventRingBuffer {
+    /**
+     * 容量减一, 用于计算槽位下标
+     */
+    private final int mask;
+
+    /**
+     * 槽位中的元素
+     */
+    private final AtomicReferenceArray<Object> buffer;
+
+    /**
+     * 槽位的序号
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * 下一个写入位置
+     */
+    private final AtomicLong producerPosition = new AtomicLong();
+
+    /**
+     * 下一个读取位置(只有消费者线程访问)
+     */
+    private long consumerPosition;
+
+    /**
+     * @param capacity 容量 会向上取整为2的幂
+     */
+    GXEventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素
+     *
+     * @param element 元素
+     * @return 缓冲区已满时返回false
+     */
+    boolean offer(Object element) {
+        long position = producerPosition.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = producerPosition.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+        buffer.set(index, element);
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * 批量读取元素(只能由消费者线程调用)
+     *
+     * @param sink     接收元素的列表
+     * @param maxCount 最多读取的数量
+     * @return 实际读取的数量
+     */
+    int drainTo(List<Object> sink, int maxCount) {
+        int count = 0;
+        while (count < maxCount) {
+            int index = (int) (consumerPosition & mask);
+            if (sequences.get(index) != consumerPosition + 1) {
+                break;
+            }
+            sink.add(buffer.get(index));
+            buffer.set(index, null);
+            sequences.set(index, consumerPosition + mask + 1);
+            consumerPosition++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 获取缓冲区中大致的元素数量
+     *
+     * @return 元素数量
+     */
+    long size() {
+        return Math.max(0, producerPosition.get() - consumerPosition);
+    }
+}
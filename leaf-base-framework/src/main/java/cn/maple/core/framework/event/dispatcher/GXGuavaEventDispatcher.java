@@ -0,0 +1,29 @@
+package cn.maple.core.framework.event.dispatcher;
+
+import com.google.common.eventbus.EventBus;
+
+/**
+ * 基于Guava EventBus的事件分发器
+ */
+public class GXGuavaEventDispatcher implements GXEventDispatcher {
+    private final EventBus eventBus;
+
+    public GXGuavaEventDispatcher(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void register(Object listener) {
+        eventBus.register(listener);
+    }
+
+    @Override
+    public void unregister(Object listener) {
+        eventBus.unregister(listener);
+    }
+
+    @Override
+    public void post(Object event) {
+        eventBus.post(event);
+    }
+}
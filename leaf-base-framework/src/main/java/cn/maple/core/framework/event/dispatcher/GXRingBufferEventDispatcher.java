@@ -0,0 +1,478 @@
+package cn.maple.core.framework.event.dispatcher;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.maple.core.framework.util.reflect.GXMethodInvoker;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于环形缓冲区的异步事件分发器
+ * <p>
+ * 注册监听器时一次性解析@Subscribe方法并生成订阅表, 派发事件时不再做反射查找。
+ * 事件类型按照名字的哈希分配到固定数量(maxChannels)的事件通道, 每个通道拥有独立的环形缓冲区以及消费线程,
+ * 同一种事件类型始终由同一个通道按顺序处理, 消费线程的数量不会随着事件类型的增加而增长。
+ * 消费线程每次批量取出事件后依次交给订阅者处理, 参数类型为List&lt;事件类型&gt;的订阅方法会一次收到
+ * 同一批次中连续的、类型以及MDC都相同的事件。
+ * 派发事件时记录调用线程的MDC, 消费线程处理事件时还原该MDC。
+ * 消费线程空闲时一直休眠, 直到生产者写入事件之后唤醒。
+ * 缓冲区已满时的处理策略(backpressure):
+ * <pre>
+ * block       : 等待缓冲区出现空位
+ * drop        : 丢弃事件并计数
+ * caller-runs : 由派发事件的线程直接处理
+ * </pre>
+ * 订阅者在消费线程中再次派发事件并且缓冲区已满时, 即使是block策略也由当前线程直接处理, 避免消费线程等待自己。
+ * 关闭分发器时等待消费线程处理完缓冲区中的事件, 关闭之后派发的事件由调用线程直接处理。
+ */
+public class GXRingBufferEventDispatcher implements GXEventDispatcher {
+    /**
+     * 日志对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(GXRingBufferEventDispatcher.class);
+
+    /**
+     * 当前线程作为消费线程所属的分发器
+     */
+    private static final ThreadLocal<GXRingBufferEventDispatcher> CONSUMING_DISPATCHER = new ThreadLocal<>();
+
+    /**
+     * 声明的事件类型 -> 订阅者
+     */
+    private final Map<Class<?>, List<GXEventSubscriber>> subscribersByType = new ConcurrentHashMap<>();
+
+    /**
+     * 实际的事件类型 -> 订阅者(包括父类型以及接口的订阅者)
+     */
+    private final Map<Class<?>, GXEventSubscriber[]> resolvedSubscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 事件通道 按照需要创建
+     */
+    private final AtomicReferenceArray<GXEventChannel> channels;
+
+    /**
+     * 丢弃的事件数量
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * 分发器名字
+     */
+    private final String name;
+
+    /**
+     * 每个事件通道的缓冲区大小
+     */
+    private final int bufferSize;
+
+    /**
+     * 每次批量处理的最大事件数量
+     */
+    private final int batchSize;
+
+    /**
+     * 缓冲区已满时的处理策略
+     */
+    private final String backpressure;
+
+    /**
+     * 是否已经关闭
+     */
+    private volatile boolean closed;
+
+    public GXRingBufferEventDispatcher(String name, int bufferSize, int batchSize, String backpressure) {
+        this(name, bufferSize, batchSize, backpressure, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param name         分发器名字
+     * @param bufferSize   每个事件通道的缓冲区大小
+     * @param batchSize    每次批量处理的最大事件数量
+     * @param backpressure 缓冲区已满时的处理策略
+     * @param maxChannels  事件通道(消费线程)的最大数量
+     */
+    public GXRingBufferEventDispatcher(String name, int bufferSize, int batchSize, String backpressure, int maxChannels) {
+        this.name = name;
+        this.bufferSize = bufferSize;
+        this.batchSize = Math.max(batchSize, 1);
+        this.backpressure = backpressure.trim().toLowerCase().replace('_', '-');
+        this.channels = new AtomicReferenceArray<>(Math.max(maxChannels, 1));
+    }
+
+    @Override
+    public void register(Object listener) {
+        // CGLIB代理类中重写的方法没有@Subscribe注解, 需要从原始类中查找
+        for (Method method : ReflectUtil.getMethods(ClassUtils.getUserClass(listener))) {
+            if (!method.isAnnotationPresent(Subscribe.class) || method.getParameterCount() != 1) {
+                continue;
+            }
+            Class<?> eventType = method.getParameterTypes()[0];
+            boolean batch = false;
+            if (List.class.isAssignableFrom(eventType)) {
+                Type genericType = method.getGenericParameterTypes()[0];
+                if (genericType instanceof ParameterizedType) {
+                    eventType = TypeToken.of(((ParameterizedType) genericType).getActualTypeArguments()[0]).getRawType();
+                    batch = true;
+                }
+            }
+            List<GXEventSubscriber> subscribers = subscribersByType.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>());
+            // 同一个监听器重复注册时不重复订阅
+            if (subscribers.stream().noneMatch(subscriber -> subscriber.listener == listener && subscriber.invoker.getMethod().equals(method))) {
+                subscribers.add(new GXEventSubscriber(listener, GXMethodInvoker.of(method), batch));
+            }
+        }
+        resolvedSubscribers.clear();
+    }
+
+    @Override
+    public void unregister(Object listener) {
+        subscribersByType.values().forEach(subscribers -> subscribers.removeIf(subscriber -> subscriber.listener == listener));
+        resolvedSubscribers.clear();
+    }
+
+    @Override
+    public void post(Object event) {
+        if (closed) {
+            dispatch(event.getClass(), Collections.singletonList(event));
+            return;
+        }
+        GXEventChannel channel = getChannel(event.getClass());
+        GXEventEnvelope envelope = new GXEventEnvelope(event, MDC.getCopyOfContextMap());
+        if (channel.ring.offer(envelope)) {
+            channel.signal();
+            return;
+        }
+        switch (backpressure) {
+            case "drop":
+                long dropped = droppedCount.incrementAndGet();
+                LOG.warn("事件通道{}已满, 丢弃事件{} (累计丢弃{})", channel.thread.getName(), event.getClass().getSimpleName(), dropped);
+                break;
+            case "caller-runs":
+                dispatch(event.getClass(), Collections.singletonList(event));
+                break;
+            default:
+                // 消费线程等待缓冲区出现空位会等待自己(或者与其他通道的消费线程互相等待)
+                if (CONSUMING_DISPATCHER.get() == this) {
+                    dispatch(event.getClass(), Collections.singletonList(event));
+                    break;
+                }
+                while (!channel.ring.offer(envelope)) {
+                    if (closed) {
+                        dispatch(event.getClass(), Collections.singletonList(event));
+                        return;
+                    }
+                    channel.signal();
+                    LockSupport.parkNanos(1000L);
+                }
+                channel.signal();
+        }
+    }
+
+    /**
+     * 关闭分发器
+     * 等待消费线程处理完缓冲区中的事件, 超时之后中断消费线程
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     */
+    @Override
+    public void shutdown(long timeout, TimeUnit unit) {
+        closed = true;
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        List<GXEventChannel> createdChannels = getCreatedChannels();
+        for (GXEventChannel channel : createdChannels) {
+            LockSupport.unpark(channel.thread);
+            try {
+                channel.thread.join(Math.max(TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()), 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                createdChannels.forEach(c -> c.thread.interrupt());
+                return;
+            }
+            if (channel.thread.isAlive()) {
+                LOG.warn("事件通道{}在关闭超时之前没有处理完成, 剩余{}个事件", channel.thread.getName(), channel.ring.size());
+                channel.thread.interrupt();
+                continue;
+            }
+            // 消费线程已经结束, 由当前线程处理关闭期间写入的事件
+            drainRemaining(channel);
+        }
+    }
+
+    /**
+     * 获取丢弃的事件数量
+     *
+     * @return 丢弃的事件数量
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * 获取每个事件通道中等待处理的事件数量
+     *
+     * @return key为事件通道(消费线程)的名字 value为等待处理的事件数量
+     */
+    public Map<String, Long> getPendingCounts() {
+        Map<String, Long> pending = new LinkedHashMap<>();
+        getCreatedChannels().forEach(channel -> pending.put(channel.thread.getName(), channel.ring.size()));
+        return pending;
+    }
+
+    /**
+     * 将一批事件交给订阅者处理
+     *
+     * @param eventType 事件类型
+     * @param events    事件列表
+     */
+    private void dispatch(Class<?> eventType, List<Object> events) {
+        GXEventSubscriber[] subscribers = resolvedSubscribers.computeIfAbsent(eventType, this::resolveSubscribers);
+        List<Object> batchView = null;
+        for (GXEventSubscriber subscriber : subscribers) {
+            if (subscriber.batch) {
+                // 消费线程会复用批量列表, 交给订阅者的是一份不可变的副本
+                if (Objects.isNull(batchView)) {
+                    batchView = List.copyOf(events);
+                }
+                subscriber.invoke(batchView);
+                continue;
+            }
+            for (Object event : events) {
+                subscriber.invoke(event);
+            }
+        }
+    }
+
+    /**
+     * 解析事件类型以及其父类型、接口的所有订阅者
+     *
+     * @param eventType 事件类型
+     * @return 订阅者
+     */
+    private GXEventSubscriber[] resolveSubscribers(Class<?> eventType) {
+        List<GXEventSubscriber> subscribers = new ArrayList<>();
+        for (Class<?> type : TypeToken.of(eventType).getTypes().rawTypes()) {
+            subscribers.addAll(subscribersByType.getOrDefault(type, Collections.emptyList()));
+        }
+        return subscribers.toArray(new GXEventSubscriber[0]);
+    }
+
+    /**
+     * 获取事件类型对应的事件通道, 不存在时创建并启动消费线程
+     *
+     * @param eventType 事件类型
+     * @return 事件通道
+     */
+    private GXEventChannel getChannel(Class<?> eventType) {
+        int index = Math.floorMod(eventType.getName().hashCode(), channels.length());
+        GXEventChannel channel = channels.get(index);
+        if (Objects.nonNull(channel)) {
+            return channel;
+        }
+        synchronized (channels) {
+            channel = channels.get(index);
+            if (Objects.isNull(channel)) {
+                channel = createChannel(index);
+                channels.set(index, channel);
+            }
+            return channel;
+        }
+    }
+
+    /**
+     * 获取已经创建的事件通道
+     *
+     * @return 事件通道列表
+     */
+    private List<GXEventChannel> getCreatedChannels() {
+        List<GXEventChannel> createdChannels = new ArrayList<>(channels.length());
+        for (int i = 0; i < channels.length(); i++) {
+            GXEventChannel channel = channels.get(i);
+            if (Objects.nonNull(channel)) {
+                createdChannels.add(channel);
+            }
+        }
+        return createdChannels;
+    }
+
+    /**
+     * 创建事件通道并启动消费线程
+     *
+     * @param index 事件通道的下标
+     * @return 事件通道
+     */
+    private GXEventChannel createChannel(int index) {
+        GXEventChannel channel = new GXEventChannel(new GXEventRingBuffer(bufferSize));
+        Thread thread = new Thread(() -> consume(channel), "gx-" + name + "-" + index);
+        thread.setDaemon(true);
+        channel.thread = thread;
+        thread.start();
+        return channel;
+    }
+
+    /**
+     * 消费线程的主循环
+     * 缓冲区为空时休眠, 直到生产者写入事件或者关闭分发器时被唤醒, 关闭之后处理完缓冲区中的事件再退出
+     *
+     * @param channel 事件通道
+     */
+    private void consume(GXEventChannel channel) {
+        CONSUMING_DISPATCHER.set(this);
+        List<Object> batch = new ArrayList<>(batchSize);
+        List<Object> events = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            batch.clear();
+            if (channel.ring.drainTo(batch, batchSize) == 0) {
+                if (closed && channel.ring.size() == 0) {
+                    break;
+                }
+                // 先发布waiting再检查缓冲区, 生产者先写入缓冲区再检查waiting, 两者至少有一方能看到对方的写入
+                channel.waiting = true;
+                if (channel.ring.size() == 0 && !closed) {
+                    LockSupport.park(this);
+                }
+                channel.waiting = false;
+                continue;
+            }
+            dispatchEnvelopes(batch, events);
+        }
+    }
+
+    /**
+     * 处理缓冲区中剩余的事件(只能在消费线程结束之后调用)
+     *
+     * @param channel 事件通道
+     */
+    private void drainRemaining(GXEventChannel channel) {
+        List<Object> batch = new ArrayList<>(batchSize);
+        List<Object> events = new ArrayList<>(batchSize);
+        while (channel.ring.drainTo(batch, batchSize) > 0) {
+            dispatchEnvelopes(batch, events);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 将缓冲区中取出的一批事件交给订阅者处理
+     * 连续的、类型以及MDC都相同的事件作为一批处理, 处理时还原派发事件时的MDC
+     *
+     * @param envelopes 缓冲区中取出的事件
+     * @param events    复用的事件列表
+     */
+    private void dispatchEnvelopes(List<Object> envelopes, List<Object> events) {
+        int start = 0;
+        while (start < envelopes.size()) {
+            GXEventEnvelope first = (GXEventEnvelope) envelopes.get(start);
+            Class<?> eventType = first.event.getClass();
+            events.clear();
+            int end = start;
+            while (end < envelopes.size()) {
+                GXEventEnvelope envelope = (GXEventEnvelope) envelopes.get(end);
+                if (envelope.event.getClass() != eventType || !Objects.equals(envelope.context, first.context)) {
+                    break;
+                }
+                events.add(envelope.event);
+                end++;
+            }
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            if (Objects.isNull(first.context)) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(first.context);
+            }
+            try {
+                dispatch(eventType, events);
+            } catch (RuntimeException e) {
+                LOG.error("事件{}分发失败 : {}", eventType.getSimpleName(), e.getMessage(), e);
+            } finally {
+                if (Objects.isNull(previous)) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previous);
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * 事件通道
+     */
+    private static final class GXEventChannel {
+        private final GXEventRingBuffer ring;
+
+        private volatile Thread thread;
+
+        /**
+         * 消费线程是否处于空闲等待
+         */
+        private volatile boolean waiting;
+
+        GXEventChannel(GXEventRingBuffer ring) {
+            this.ring = ring;
+        }
+
+        void signal() {
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * 缓冲区中的事件以及派发事件时的MDC
+     */
+    private static final class GXEventEnvelope {
+        private final Object event;
+
+        private final Map<String, String> context;
+
+        GXEventEnvelope(Object event, Map<String, String> context) {
+            this.event = event;
+            this.context = context;
+        }
+    }
+
+    /**
+     * 订阅者
+     */
+    private static final class GXEventSubscriber {
+        private final Object listener;
+
+        private final GXMethodInvoker invoker;
+
+        /**
+         * 是否批量接收事件
+         */
+        private final boolean batch;
+
+        GXEventSubscriber(Object listener, GXMethodInvoker invoker, boolean batch) {
+            this.listener = listener;
+            this.invoker = invoker;
+            this.batch = batch;
+        }
+
+        void invoke(Object argument) {
+            try {
+                invoker.invoke(listener, argument);
+            } catch (RuntimeException e) {
+                LOG.error("事件监听器{}.{}处理失败 : {}", listener.getClass().getSimpleName(), invoker.getMethod().getName(), e.getMessage(), e);
+            }
+        }
+    }
+}
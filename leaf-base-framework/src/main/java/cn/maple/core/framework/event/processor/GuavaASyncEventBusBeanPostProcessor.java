@@ -1,6 +1,7 @@
 package cn.maple.core.framework.event.processor;
 
 import cn.hutool.core.util.ReflectUtil;
+import cn.maple.core.framework.util.GXEventPublisherUtils;
 import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.Subscribe;
 import lombok.extern.log4j.Log4j2;
@@ -8,6 +9,7 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 import jakarta.annotation.Resource;
 import java.lang.annotation.Annotation;
@@ -40,7 +42,8 @@ public class GuavaASyncEventBusBeanPostProcessor implements BeanPostProcessor {
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
         log.info("注册Guava EventBus的异步PostProcess");
         // for each method in the bean
-        Method[] methods = ReflectUtil.getMethods(bean.getClass());
+        // CGLIB代理类中重写的方法没有@Subscribe注解, 需要从原始类中查找
+        Method[] methods = ReflectUtil.getMethods(ClassUtils.getUserClass(bean));
         for (Method method : methods) {
             // check the annotations on that method
             Annotation[] annotations = method.getAnnotations();
@@ -50,6 +53,10 @@ public class GuavaASyncEventBusBeanPostProcessor implements BeanPostProcessor {
                     // 如果这是一个Guava @Subscribe注解的事件监听器方法，说明所在bean实例
                     // 对应一个Guava事件监听器类，将该bean实例注册到Guava事件总线
                     asyncEventBus.register(bean);
+                    // 使用环形缓冲区分发时在启动阶段预先生成订阅表
+                    if (GXEventPublisherUtils.isRingBufferDispatcher()) {
+                        GXEventPublisherUtils.registerGuavaAsyncEventObserver(bean);
+                    }
                     return bean;
                 }
             }
@@ -0,0 +1,157 @@
+package cn.maple.core.framework.lock;
+
+import cn.hutool.core.lang.Dict;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分段锁中的单个段
+ * <p>
+ * 包装ReentrantLock, 记录该段的加锁次数、竞争次数、等待时长以及持有时长
+ */
+public class GXStripedLock implements Lock {
+    /**
+     * 真实的锁对象
+     */
+    private final ReentrantLock delegate;
+
+    /**
+     * 段的索引
+     */
+    private final int stripeIndex;
+
+    /**
+     * 加锁成功的次数
+     */
+    private final LongAdder acquireCount = new LongAdder();
+
+    /**
+     * 发生竞争(需要等待)的次数
+     */
+    private final LongAdder contendedCount = new LongAdder();
+
+    /**
+     * 等待锁的总时长 单位: 纳秒
+     */
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * 持有锁的总时长 单位: 纳秒
+     */
+    private final LongAdder holdNanos = new LongAdder();
+
+    /**
+     * 最外层加锁成功的时间点 只会在持有锁的线程中读写
+     */
+    private long acquiredAt;
+
+    public GXStripedLock(int stripeIndex, boolean fair) {
+        this.stripeIndex = stripeIndex;
+        this.delegate = new ReentrantLock(fair);
+    }
+
+    @Override
+    public void lock() {
+        if (delegate.tryLock()) {
+            onAcquired(0L);
+            return;
+        }
+        long start = System.nanoTime();
+        delegate.lock();
+        onAcquired(System.nanoTime() - start);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (delegate.tryLock()) {
+            onAcquired(0L);
+            return;
+        }
+        long start = System.nanoTime();
+        delegate.lockInterruptibly();
+        onAcquired(System.nanoTime() - start);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (delegate.tryLock()) {
+            onAcquired(0L);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, @NonNull TimeUnit unit) throws InterruptedException {
+        if (delegate.tryLock()) {
+            onAcquired(0L);
+            return true;
+        }
+        long start = System.nanoTime();
+        boolean locked = delegate.tryLock(time, unit);
+        if (locked) {
+            onAcquired(System.nanoTime() - start);
+        }
+        return locked;
+    }
+
+    @Override
+    public void unlock() {
+        if (delegate.isHeldByCurrentThread() && delegate.getHoldCount() == 1) {
+            holdNanos.add(System.nanoTime() - acquiredAt);
+        }
+        delegate.unlock();
+    }
+
+    @NonNull
+    @Override
+    public Condition newCondition() {
+        return delegate.newCondition();
+    }
+
+    /**
+     * 获取当前段的统计信息
+     *
+     * @return Dict
+     */
+    public Dict getStats() {
+        return Dict.create()
+                .set("stripe", stripeIndex)
+                .set("acquireCount", acquireCount.sum())
+                .set("contendedCount", contendedCount.sum())
+                .set("waitNanos", waitNanos.sum())
+                .set("holdNanos", holdNanos.sum())
+                .set("queueLength", delegate.getQueueLength())
+                .set("locked", delegate.isLocked());
+    }
+
+    /**
+     * 当前段是否被使用过
+     *
+     * @return boolean
+     */
+    public boolean isTouched() {
+        return acquireCount.sum() > 0;
+    }
+
+    /**
+     * 加锁成功之后记录统计信息
+     *
+     * @param waited 等待的时长 单位: 纳秒
+     */
+    private void onAcquired(long waited) {
+        acquireCount.increment();
+        if (waited > 0) {
+            contendedCount.increment();
+            waitNanos.add(waited);
+        }
+        if (delegate.getHoldCount() == 1) {
+            acquiredAt = System.nanoTime();
+        }
+    }
+}
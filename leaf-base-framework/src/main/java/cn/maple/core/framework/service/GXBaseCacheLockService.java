@@ -1,6 +1,11 @@
 package cn.maple.core.framework.service;
 
+import cn.hutool.core.lang.Dict;
+
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
 public interface GXBaseCacheLockService {
     /**
@@ -12,4 +17,25 @@ public interface GXBaseCacheLockService {
     default Lock getLock(String lockName) {
         return null;
     }
+
+    /**
+     * 获取一个读写锁对象
+     * 读多写少的场景下使用 多个读线程可以同时持有读锁
+     *
+     * @param lockName 锁的名字
+     * @return ReadWriteLock对象
+     */
+    default ReadWriteLock getReadWriteLock(String lockName) {
+        return null;
+    }
+
+    /**
+     * 获取锁的统计信息
+     * 每个元素对应一个被使用过的锁段
+     *
+     * @return 统计信息列表
+     */
+    default List<Dict> getLockStats() {
+        return Collections.emptyList();
+    }
 }
@@ -343,6 +343,20 @@ public interface GXBusinessService {
         }
     }
 
+    /**
+     * 刷新缓存数据
+     * 与setCacheData不同, 无论缓存中是否已经存在数据都直接覆盖(同时重置过期时间)
+     *
+     * @param cacheKey 缓存key
+     * @param data     需要缓存的数据
+     */
+    default void refreshCacheData(String cacheKey, Object data, Object... params) {
+        GXBaseCacheService cacheService = getCacheService();
+        if (Objects.nonNull(cacheService)) {
+            cacheService.setCache(getCacheBucketName(), cacheKey, data);
+        }
+    }
+
     /**
      * 失效缓存数据
      *
@@ -1,22 +1,117 @@
 package cn.maple.core.framework.service.impl;
 
+import cn.hutool.core.lang.Dict;
+import cn.maple.core.framework.lock.GXStripedLock;
 import cn.maple.core.framework.service.GXBaseCacheLockService;
+import cn.maple.core.framework.util.GXCommonUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * 基于分段的本地缓存锁
+ * <p>
+ * 锁的名字经过哈希之后映射到固定数量的段上, 不同的名字大概率落在不同的段上, 从而互不阻塞
+ * 段的数量可以通过 maple.framework.cache.lock.stripes 配置(会向上取整为2的幂次方)
+ * 是否使用公平锁可以通过 maple.framework.cache.lock.fair 配置
+ */
 @Service
 @Slf4j
-public class GXBaseCacheLockServiceImpl implements GXBaseCacheLockService {
+public class GXBaseCacheLockServiceImpl implements GXBaseCacheLockService, InitializingBean {
     /**
-     * 可重入锁
+     * 默认的段数量
      */
-    private static final ReentrantLock REENTRANT_LOCK = new ReentrantLock();
+    private static final int DEFAULT_STRIPES = 256;
+
+    /**
+     * 最大的段数量
+     */
+    private static final int MAX_STRIPES = 1 << 16;
+
+    /**
+     * 互斥锁段
+     */
+    private GXStripedLock[] locks;
+
+    /**
+     * 读写锁段
+     */
+    private ReadWriteLock[] readWriteLocks;
+
+    /**
+     * 段索引的掩码
+     */
+    private int mask;
+
+    @Override
+    public void afterPropertiesSet() {
+        int stripes = GXCommonUtils.getEnvironmentValue("maple.framework.cache.lock.stripes", Integer.class, DEFAULT_STRIPES);
+        boolean fair = GXCommonUtils.getEnvironmentValue("maple.framework.cache.lock.fair", Boolean.class, Boolean.FALSE);
+        int size = ceilingPowerOfTwo(stripes);
+        locks = new GXStripedLock[size];
+        readWriteLocks = new ReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new GXStripedLock(i, fair);
+            readWriteLocks[i] = new ReentrantReadWriteLock(fair);
+        }
+        mask = size - 1;
+        log.info("缓存锁初始化完成, 段数量 : {} , 公平锁 : {}", size, fair);
+    }
 
     @Override
     public Lock getLock(String lockName) {
-        return REENTRANT_LOCK;
+        return locks[indexFor(lockName)];
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock(String lockName) {
+        return readWriteLocks[indexFor(lockName)];
+    }
+
+    @Override
+    public List<Dict> getLockStats() {
+        List<Dict> stats = new ArrayList<>();
+        for (GXStripedLock lock : locks) {
+            if (lock.isTouched()) {
+                stats.add(lock.getStats());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 计算锁名字对应的段索引
+     *
+     * @param lockName 锁的名字
+     * @return 段索引
+     */
+    private int indexFor(String lockName) {
+        int h = lockName == null ? 0 : lockName.hashCode();
+        // 扰动函数 让高位也参与运算 避免相似的key落到同一个段上
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return h & mask;
+    }
+
+    /**
+     * 向上取整为2的幂次方
+     *
+     * @param value 原始值
+     * @return 2的幂次方
+     */
+    private static int ceilingPowerOfTwo(int value) {
+        if (value <= 1) {
+            return 1;
+        }
+        if (value >= MAX_STRIPES) {
+            return MAX_STRIPES;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
     }
 }
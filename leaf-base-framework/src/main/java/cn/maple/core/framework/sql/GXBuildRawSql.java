@@ -4,7 +4,6 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.core.util.ArrayUtil;
 import cn.maple.core.framework.constant.GXBuilderConstant;
 import cn.maple.core.framework.dto.inner.GXBaseQueryParamInnerDto;
 import cn.maple.core.framework.dto.inner.GXJoinDto;
@@ -147,31 +146,38 @@ public interface GXBuildRawSql {
      * @return 拼接好的SQL语句
      */
     static StringBuilder findByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, boolean columnToUnderlineCase, boolean appendLimit) {
-        Set<String> columns = dbQueryParamInnerDto.getColumns();
-        String tableName = dbQueryParamInnerDto.getTableName();
-        String tableNameAlias = Optional.ofNullable(dbQueryParamInnerDto.getTableNameAlias()).orElse(tableName);
-        Set<String> groupByField = dbQueryParamInnerDto.getGroupByField();
-        Map<String, String> orderByField = dbQueryParamInnerDto.getOrderByField();
-        Set<String> having = dbQueryParamInnerDto.getHaving();
-        Integer limit = dbQueryParamInnerDto.getLimit();
-        List<GXCondition<?>> conditions = dbQueryParamInnerDto.getCondition();
-        String selectStr = CharSequenceUtil.format("{}.*", tableNameAlias);
-        if (CollUtil.isNotEmpty(columns)) {
-            List<String> columnsCollect = columns.stream().map(column -> {
-                return columnToUnderlineCase ? CharSequenceUtil.toUnderlineCase(column) : column;
-            }).collect(Collectors.toList());
-            selectStr = String.join(",", columnsCollect);
+        GXSqlParamBinder binder = null;
+        if (GXSqlParamBinder.isBindParameter(dbQueryParamInnerDto)) {
+            binder = GXSqlParamBinder.jdbc(dbQueryParamInnerDto);
         }
-        StringBuilder sql = new StringBuilder();
+        return findByCondition(dbQueryParamInnerDto, columnToUnderlineCase, appendLimit, binder);
+    }
+
+    /**
+     * 构造查询sql语句
+     * binder不为null时, 查询条件的值以?占位符输出, 参数值按顺序收集到binder中
+     *
+     * @param dbQueryParamInnerDto  查询条件
+     * @param columnToUnderlineCase 是否将查询字段转换成下划线
+     * @param appendLimit           生成的最终sql语句是否添加limit
+     * @param binder                参数绑定器
+     * @return 拼接好的SQL语句
+     */
+    static StringBuilder findByCondition(GXBaseQueryParamInnerDto dbQueryParamInnerDto, boolean columnToUnderlineCase, boolean appendLimit, GXSqlParamBinder binder) {
+        List<GXCondition<?>> conditions = dbQueryParamInnerDto.getCondition();
+        // SELECT/FROM以及GROUP BY/HAVING/ORDER BY按照查询形状缓存, 这里只需要拼接JOIN、WHERE与LIMIT
+        GXSqlTemplateCache.GXSqlTemplate template = GXSqlTemplateCache.getTemplate(dbQueryParamInnerDto, columnToUnderlineCase);
+        StringBuilder sql = new StringBuilder(template.getSelectFrom().length() + template.getTail().length() + 128);
+        sql.append(template.getSelectFrom());
         // 处理JOIN
         List<GXJoinDto> joins = dbQueryParamInnerDto.getJoins();
-        sql.append("SELECT ").append(selectStr).append(" FROM ").append(CharSequenceUtil.format("{} {}", tableName, tableNameAlias));
         if (CollUtil.isNotEmpty(joins)) {
             GXBuildRawSql.handleSQLJoin(sql, joins);
         }
         // 处理WHERE
+        List<String> lastWheres = new ArrayList<>();
         if (CollUtil.isNotEmpty(conditions)) {
-            handleSQLCondition(sql, conditions, columnToUnderlineCase);
+            collectSQLCondition(lastWheres, conditions, columnToUnderlineCase, binder);
         }
         // 处理JOIN表的Where条件
         if (Objects.nonNull(joins) && !joins.isEmpty()) {
@@ -187,24 +193,15 @@ public interface GXBuildRawSql {
                         joinConditions.add(isDeletedCondition);
                     }
                 }
-                handleSQLCondition(sql, joinConditions, columnToUnderlineCase);
+                collectSQLCondition(lastWheres, joinConditions, columnToUnderlineCase, binder);
             });
         }
-        // 处理分组
-        if (CollUtil.isNotEmpty(groupByField)) {
-            sql.append(" GROUP BY ").append(ArrayUtil.join(groupByField.toArray(new String[0]), ","));
-        }
-        // 处理HAVING
-        if (CollUtil.isNotEmpty(having)) {
-            sql.append(" HAVING ").append(ArrayUtil.join(having.toArray(new String[0]), ","));
-        }
-        // 处理排序
-        if (Objects.nonNull(orderByField) && !orderByField.isEmpty()) {
-            String[] orderColumns = new String[orderByField.size()];
-            Integer[] idx = new Integer[]{0};
-            orderByField.forEach((k, v) -> orderColumns[idx[0]++] = CharSequenceUtil.format("{} {}", k, v));
-            sql.append(" ORDER BY ").append(ArrayUtil.join(orderColumns, ","));
+        // 主表与JOIN表的条件合并到同一个WHERE中
+        if (!lastWheres.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", lastWheres));
         }
+        // 处理分组、HAVING以及排序
+        sql.append(template.getTail());
         // 处理Limit分页
         if (appendLimit) {
             handleLimit(sql, dbQueryParamInnerDto.getPage(), dbQueryParamInnerDto.getPageSize(), dbQueryParamInnerDto.getLimit());
@@ -273,13 +270,41 @@ public interface GXBuildRawSql {
      * @param columnToUnderlineCase 是否将查询字段转换成下划线
      */
     static void handleSQLCondition(StringBuilder sql, List<GXCondition<?>> condition, boolean columnToUnderlineCase) {
+        handleSQLCondition(sql, condition, columnToUnderlineCase, null);
+    }
+
+    /**
+     * 处理SQL语句的Where条件
+     *
+     * @param sql                   SQL对象
+     * @param condition             条件
+     * @param columnToUnderlineCase 是否将查询字段转换成下划线
+     * @param binder                参数绑定器(为null时直接拼接条件的值)
+     */
+    static void handleSQLCondition(StringBuilder sql, List<GXCondition<?>> condition, boolean columnToUnderlineCase, GXSqlParamBinder binder) {
+        List<String> lastWheres = new ArrayList<>();
+        collectSQLCondition(lastWheres, condition, columnToUnderlineCase, binder);
+        if (!lastWheres.isEmpty()) {
+            String whereStr = String.join(" AND ", lastWheres);
+            sql.append(" WHERE ").append(whereStr);
+        }
+    }
+
+    /**
+     * 收集SQL语句的Where条件
+     *
+     * @param lastWheres            收集结果
+     * @param condition             条件
+     * @param columnToUnderlineCase 是否将查询字段转换成下划线
+     * @param binder                参数绑定器(为null时直接拼接条件的值)
+     */
+    static void collectSQLCondition(List<String> lastWheres, List<GXCondition<?>> condition, boolean columnToUnderlineCase, GXSqlParamBinder binder) {
         if (Objects.isNull(condition) || condition.isEmpty()) {
             return;
         }
-        List<String> lastWheres = new ArrayList<>();
         condition.forEach(c -> {
             if (!GXConditionExclusionDeletedField.class.isAssignableFrom(c.getClass())) {
-                String str = c.whereString();
+                String str = c.whereString(binder);
                 if (!columnToUnderlineCase) {
                     str = CharSequenceUtil.replace(str, c.getFieldExpression(), CharSequenceUtil.toCamelCase(c.getFieldExpression()));
                 }
@@ -288,10 +313,6 @@ public interface GXBuildRawSql {
                 }
             }
         });
-        if (!lastWheres.isEmpty()) {
-            String whereStr = String.join(" AND ", lastWheres);
-            sql.append(" WHERE ").append(whereStr);
-        }
     }
 
 
@@ -395,6 +416,12 @@ public interface GXBuildRawSql {
      * @return SQL语句
      */
     static StringBuilder unionFindByCondition(GXBaseQueryParamInnerDto masterQueryParamInnerDto, List<GXBaseQueryParamInnerDto> unionQueryParamInnerDtoLst, GXUnionTypeEnums unionTypeEnums) {
+        // 绑定参数模式下所有子查询的参数值统一收集到主查询对象中
+        GXSqlParamBinder binder = null;
+        if (GXSqlParamBinder.isBindParameter(masterQueryParamInnerDto)) {
+            binder = GXSqlParamBinder.jdbc(masterQueryParamInnerDto);
+        }
+        GXSqlParamBinder finalBinder = binder;
         List<String> unionSqlLst = new ArrayList<>();
         unionQueryParamInnerDtoLst.forEach(queryParamInnerDto -> {
             String tableName = queryParamInnerDto.getTableName();
@@ -405,7 +432,7 @@ public interface GXBuildRawSql {
             if (CharSequenceUtil.isEmpty(tableNameAlias)) {
                 queryParamInnerDto.setTableNameAlias(queryParamInnerDto.getTableName());
             }
-            StringBuilder sql = findByCondition(queryParamInnerDto);
+            StringBuilder sql = findByCondition(queryParamInnerDto, true, true, finalBinder);
             unionSqlLst.add("(" + sql + ")");
         });
         String unionSql = String.join("\n " + unionTypeEnums.getUnionType() + " \n", unionSqlLst);
@@ -418,7 +445,7 @@ public interface GXBuildRawSql {
                 }
             });
         }
-        return GXBuildRawSql.findByCondition(masterQueryParamInnerDto);
+        return GXBuildRawSql.findByCondition(masterQueryParamInnerDto, true, true, binder);
     }
 
     /**
@@ -0,0 +1,122 @@
+package cn.maple.core.framework.sql;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.dto.inner.GXBaseQueryParamInnerDto;
+import cn.maple.core.framework.util.GXCommonUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * SQL绑定参数收集器
+ * <p>
+ * 开启绑定参数模式后, 查询条件的值不再直接拼接进SQL语句中, 而是输出占位符并按顺序收集参数值。
+ * 这样同一种形状的查询会得到完全相同的SQL文本, 数据库/驱动层可以复用执行计划与预编译语句。
+ * <pre>
+ * {@code
+ * // JDBC风格 : name = ?
+ * GXSqlParamBinder.jdbc(params);
+ * // MyBatis风格 : name = #{param2.bindParams[0]}
+ * GXSqlParamBinder.myBatis("param2", dbQueryParamInnerDto);
+ * }
+ * </pre>
+ */
+public class GXSqlParamBinder {
+    /**
+     * 全局开关配置项
+     */
+    public static final String BIND_PARAMETER_CONFIG_NAME = "maple.framework.sql.bind-parameter";
+
+    /**
+     * 按出现顺序收集的参数值
+     */
+    private final List<Object> params;
+
+    /**
+     * MyBatis参数对象中绑定参数列表的访问路径
+     * 为null时输出JDBC风格的?占位符
+     */
+    private final String paramPath;
+
+    private GXSqlParamBinder(List<Object> params, String paramPath) {
+        this.params = params;
+        this.paramPath = paramPath;
+    }
+
+    /**
+     * 创建JDBC风格(?)的绑定器
+     *
+     * @param params 参数值收集列表
+     * @return GXSqlParamBinder
+     */
+    public static GXSqlParamBinder jdbc(List<Object> params) {
+        return new GXSqlParamBinder(params, null);
+    }
+
+    /**
+     * 创建JDBC风格(?)的绑定器
+     * 参数值会收集到dbQueryParamInnerDto的bindParams中
+     *
+     * @param dbQueryParamInnerDto 查询对象
+     * @return GXSqlParamBinder
+     */
+    public static GXSqlParamBinder jdbc(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        List<Object> params = new ArrayList<>();
+        dbQueryParamInnerDto.setBindParams(params);
+        return jdbc(params);
+    }
+
+    /**
+     * 创建MyBatis风格(#{...})的绑定器
+     * 参数值会收集到dbQueryParamInnerDto的bindParams中, 由MyBatis按占位符绑定
+     *
+     * @param paramName            mapper方法中查询对象的参数名字(单参数方法传空字符串, 多参数方法传param1、param2...)
+     * @param dbQueryParamInnerDto 查询对象
+     * @return GXSqlParamBinder
+     */
+    public static GXSqlParamBinder myBatis(String paramName, GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        List<Object> params = new ArrayList<>();
+        dbQueryParamInnerDto.setBindParams(params);
+        String paramPath = CharSequenceUtil.isEmpty(paramName) ? "bindParams" : paramName + ".bindParams";
+        return new GXSqlParamBinder(params, paramPath);
+    }
+
+    /**
+     * 判断查询对象是否需要使用绑定参数模式
+     * 查询对象未指定时使用全局配置
+     *
+     * @param dbQueryParamInnerDto 查询对象
+     * @return boolean
+     */
+    public static boolean isBindParameter(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        Boolean bindParameter = dbQueryParamInnerDto.getBindParameter();
+        if (Objects.nonNull(bindParameter)) {
+            return bindParameter;
+        }
+        return GXCommonUtils.getEnvironmentValue(BIND_PARAMETER_CONFIG_NAME, Boolean.class, Boolean.FALSE);
+    }
+
+    /**
+     * 绑定一个参数值并返回对应的占位符
+     *
+     * @param value 参数值
+     * @return 占位符
+     */
+    public String bind(Object value) {
+        params.add(value);
+        if (Objects.isNull(paramPath)) {
+            return "?";
+        }
+        return "#{" + paramPath + "[" + (params.size() - 1) + "]}";
+    }
+
+    /**
+     * 获取已经绑定的参数值
+     *
+     * @return 参数值列表
+     */
+    public List<Object> getParams() {
+        return params;
+    }
+}
@@ -0,0 +1,310 @@
+package cn.maple.core.framework.sql;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.dto.inner.GXBaseQueryParamInnerDto;
+import cn.maple.core.framework.util.GXCaffeineCacheUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * SQL模板缓存
+ * <p>
+ * 同一种形状(表名、别名、查询字段、分组、HAVING、排序)的查询只构造一次SELECT/FROM以及
+ * GROUP BY/HAVING/ORDER BY片段, 之后每次查询只需要拼接JOIN、WHERE条件和LIMIT。
+ * 片段的格式由GXSqlTemplateBuilder决定, 不同格式的模板分别缓存。
+ * 表名是子查询(例如union语句)或者其他片段中含有字符串字面量时不使用缓存, 避免每个不同的值都占用一个缓存项。
+ * 缓存的规格通过以下配置项指定(Caffeine spec):
+ * <pre>
+ * maple.framework.sql.template.cache=maximumSize=2048
+ * maple.framework.sql.underline.cache=maximumSize=10000
+ * </pre>
+ */
+public class GXSqlTemplateCache {
+    /**
+     * SQL模板缓存的配置项
+     */
+    private static final String TEMPLATE_CACHE_CONFIG_NAME = "maple.framework.sql.template.cache";
+
+    /**
+     * 驼峰转下划线缓存的配置项
+     */
+    private static final String UNDERLINE_CACHE_CONFIG_NAME = "maple.framework.sql.underline.cache";
+
+    /**
+     * 原始SQL格式(GXBuildRawSql)的模板构造器
+     */
+    private static final GXSqlTemplateBuilder RAW_TEMPLATE_BUILDER = GXSqlTemplateCache::buildTemplate;
+
+    private GXSqlTemplateCache() {
+    }
+
+    /**
+     * 获取查询对象对应的SQL模板
+     *
+     * @param dbQueryParamInnerDto  查询对象
+     * @param columnToUnderlineCase 是否将查询字段转换成下划线
+     * @return SQL模板
+     */
+    public static GXSqlTemplate getTemplate(GXBaseQueryParamInnerDto dbQueryParamInnerDto, boolean columnToUnderlineCase) {
+        return getTemplate(dbQueryParamInnerDto, columnToUnderlineCase, RAW_TEMPLATE_BUILDER);
+    }
+
+    /**
+     * 获取查询对象对应的SQL模板
+     *
+     * @param dbQueryParamInnerDto  查询对象
+     * @param columnToUnderlineCase 是否将查询字段转换成下划线
+     * @param templateBuilder       模板构造器(同一种格式需要使用同一个实例)
+     * @return SQL模板
+     */
+    public static GXSqlTemplate getTemplate(GXBaseQueryParamInnerDto dbQueryParamInnerDto, boolean columnToUnderlineCase, GXSqlTemplateBuilder templateBuilder) {
+        String tableName = dbQueryParamInnerDto.getTableName();
+        String tableNameAlias = Optional.ofNullable(dbQueryParamInnerDto.getTableNameAlias()).orElse(tableName);
+        if (hasLiteral(dbQueryParamInnerDto)) {
+            return templateBuilder.build(dbQueryParamInnerDto, tableName, tableNameAlias, columnToUnderlineCase);
+        }
+        GXSqlShapeKey key = new GXSqlShapeKey(templateBuilder, tableName, tableNameAlias, columnToUnderlineCase,
+                dbQueryParamInnerDto.getColumns(), dbQueryParamInnerDto.getGroupByField(),
+                dbQueryParamInnerDto.getHaving(), dbQueryParamInnerDto.getOrderByField());
+        Cache<GXSqlShapeKey, GXSqlTemplate> cache = GXCaffeineCacheUtils.getCaffeineCache(TEMPLATE_CACHE_CONFIG_NAME);
+        GXSqlTemplate template = cache.getIfPresent(key);
+        if (Objects.isNull(template)) {
+            template = templateBuilder.build(dbQueryParamInnerDto, tableName, tableNameAlias, columnToUnderlineCase);
+            // 查询对象中的集合是调用方可变的, 缓存KEY需要使用副本
+            cache.put(key.copy(), template);
+        }
+        return template;
+    }
+
+    /**
+     * 驼峰转下划线(带缓存)
+     *
+     * @param str 字段名字
+     * @return 下划线格式的字段名字
+     */
+    public static String toUnderlineCase(String str) {
+        if (CharSequenceUtil.isEmpty(str)) {
+            return str;
+        }
+        Cache<String, String> cache = GXCaffeineCacheUtils.getCaffeineCache(UNDERLINE_CACHE_CONFIG_NAME);
+        return cache.get(str, CharSequenceUtil::toUnderlineCase);
+    }
+
+    /**
+     * 查询形状中是否包含字面量
+     * 表名不是普通的标识符(例如union子查询)或者其他片段中含有引号时返回true
+     *
+     * @param dbQueryParamInnerDto 查询对象
+     * @return boolean
+     */
+    static boolean hasLiteral(GXBaseQueryParamInnerDto dbQueryParamInnerDto) {
+        String tableName = dbQueryParamInnerDto.getTableName();
+        if (CharSequenceUtil.containsAny(tableName, '(', ' ', '\n', '\'', '"')) {
+            return true;
+        }
+        Map<String, String> orderByField = dbQueryParamInnerDto.getOrderByField();
+        return containsQuote(dbQueryParamInnerDto.getColumns())
+                || containsQuote(dbQueryParamInnerDto.getGroupByField())
+                || containsQuote(dbQueryParamInnerDto.getHaving())
+                || (Objects.nonNull(orderByField) && (containsQuote(orderByField.keySet()) || containsQuote(orderByField.values())));
+    }
+
+    private static boolean containsQuote(Collection<String> fragments) {
+        if (CollUtil.isEmpty(fragments)) {
+            return false;
+        }
+        for (String fragment : fragments) {
+            if (CharSequenceUtil.containsAny(fragment, '\'', '"')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 构造SQL模板
+     *
+     * @param dbQueryParamInnerDto  查询对象
+     * @param tableName             表名
+     * @param tableNameAlias        表别名
+     * @param columnToUnderlineCase 是否将查询字段转换成下划线
+     * @return SQL模板
+     */
+    private static GXSqlTemplate buildTemplate(GXBaseQueryParamInnerDto dbQueryParamInnerDto, String tableName, String tableNameAlias, boolean columnToUnderlineCase) {
+        Set<String> columns = dbQueryParamInnerDto.getColumns();
+        Set<String> groupByField = dbQueryParamInnerDto.getGroupByField();
+        Set<String> having = dbQueryParamInnerDto.getHaving();
+        Map<String, String> orderByField = dbQueryParamInnerDto.getOrderByField();
+        String selectStr = CharSequenceUtil.format("{}.*", tableNameAlias);
+        if (CollUtil.isNotEmpty(columns)) {
+            selectStr = columns.stream().map(column -> columnToUnderlineCase ? toUnderlineCase(column) : column).collect(Collectors.joining(","));
+        }
+        String selectFrom = CharSequenceUtil.format("SELECT {} FROM {} {}", selectStr, tableName, tableNameAlias);
+        StringBuilder tail = new StringBuilder();
+        // 处理分组
+        if (CollUtil.isNotEmpty(groupByField)) {
+            tail.append(" GROUP BY ").append(String.join(",", groupByField));
+        }
+        // 处理HAVING
+        if (CollUtil.isNotEmpty(having)) {
+            tail.append(" HAVING ").append(String.join(",", having));
+        }
+        // 处理排序
+        if (Objects.nonNull(orderByField) && !orderByField.isEmpty()) {
+            String orderStr = orderByField.entrySet().stream().map(e -> CharSequenceUtil.format("{} {}", e.getKey(), e.getValue())).collect(Collectors.joining(","));
+            tail.append(" ORDER BY ").append(orderStr);
+        }
+        return new GXSqlTemplate(selectFrom, tail.toString());
+    }
+
+    /**
+     * 预先构造好的SQL片段
+     */
+    public static final class GXSqlTemplate {
+        /**
+         * SELECT ... FROM table alias
+         */
+        private final String selectFrom;
+
+        /**
+         * GROUP BY ... HAVING ... ORDER BY ...
+         */
+        private final String tail;
+
+        public GXSqlTemplate(String selectFrom, String tail) {
+            this.selectFrom = selectFrom;
+            this.tail = tail;
+        }
+
+        public String getSelectFrom() {
+            return selectFrom;
+        }
+
+        public String getTail() {
+            return tail;
+        }
+    }
+
+    /**
+     * SQL模板构造器
+     */
+    @FunctionalInterface
+    public interface GXSqlTemplateBuilder {
+        /**
+         * 构造SQL模板
+         *
+         * @param dbQueryParamInnerDto  查询对象
+         * @param tableName             表名
+         * @param tableNameAlias        表别名
+         * @param columnToUnderlineCase 是否将查询字段转换成下划线
+         * @return SQL模板
+         */
+        GXSqlTemplate build(GXBaseQueryParamInnerDto dbQueryParamInnerDto, String tableName, String tableNameAlias, boolean columnToUnderlineCase);
+    }
+
+    /**
+     * 查询形状的KEY
+     * 集合按照迭代顺序比较, 保证字段与排序的顺序不同时不会共用模板
+     */
+    static final class GXSqlShapeKey {
+        private final Object[] parts;
+
+        private final int hash;
+
+        GXSqlShapeKey(Object... parts) {
+            this.parts = parts;
+            int h = 1;
+            for (Object part : parts) {
+                h = 31 * h + partHash(part);
+            }
+            this.hash = h;
+        }
+
+        /**
+         * 复制一份与调用方集合无关的KEY
+         *
+         * @return GXSqlShapeKey
+         */
+        GXSqlShapeKey copy() {
+            Object[] copied = new Object[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                Object part = parts[i];
+                if (part instanceof Collection) {
+                    copied[i] = new ArrayList<>((Collection<?>) part);
+                } else if (part instanceof Map) {
+                    List<Map.Entry<?, ?>> entries = new ArrayList<>();
+                    ((Map<?, ?>) part).forEach((k, v) -> entries.add(new AbstractMap.SimpleImmutableEntry<>(k, v)));
+                    copied[i] = entries;
+                } else {
+                    copied[i] = part;
+                }
+            }
+            return new GXSqlShapeKey(copied);
+        }
+
+        private static boolean isIterable(Object part) {
+            return part instanceof Collection || part instanceof Map;
+        }
+
+        private static Iterator<?> partIterator(Object part) {
+            if (part instanceof Map) {
+                return ((Map<?, ?>) part).entrySet().iterator();
+            }
+            return ((Collection<?>) part).iterator();
+        }
+
+        private static int partHash(Object part) {
+            if (!isIterable(part)) {
+                return Objects.hashCode(part);
+            }
+            int h = 1;
+            Iterator<?> iterator = partIterator(part);
+            while (iterator.hasNext()) {
+                h = 31 * h + Objects.hashCode(iterator.next());
+            }
+            return h;
+        }
+
+        private static boolean partEquals(Object a, Object b) {
+            if (!isIterable(a) || !isIterable(b)) {
+                return Objects.equals(a, b);
+            }
+            Iterator<?> ai = partIterator(a);
+            Iterator<?> bi = partIterator(b);
+            while (ai.hasNext() && bi.hasNext()) {
+                if (!Objects.equals(ai.next(), bi.next())) {
+                    return false;
+                }
+            }
+            return !ai.hasNext() && !bi.hasNext();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GXSqlShapeKey)) {
+                return false;
+            }
+            GXSqlShapeKey other = (GXSqlShapeKey) o;
+            if (hash != other.hash || parts.length != other.parts.length) {
+                return false;
+            }
+            for (int i = 0; i < parts.length; i++) {
+                if (!partEquals(parts[i], other.parts[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,24 +1,56 @@
 package cn.maple.core.framework.util;
 
-import cn.hutool.core.convert.Convert;
-import cn.hutool.core.lang.TypeReference;
+import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
 import com.github.benmanes.caffeine.cache.*;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Function;
 
+/**
+ * Caffeine缓存注册表
+ * <p>
+ * 按照配置文件中的spec(eg: maximumSize=1024,expireAfterWrite=10m,refreshAfterWrite=1m)创建缓存,
+ * 同名缓存只会被创建一次, 所有缓存都会开启统计并注册到Micrometer中
+ */
 public class GXCaffeineCacheUtils {
-    private static final Map<String, Cache<?, ?>> CACHE_MAP = new ConcurrentHashMap<>();
-
-    private static final Map<String, LoadingCache<?, ?>> LOADING_CACHE_MAP = new ConcurrentHashMap<>();
+    /**
+     * 日志对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(GXCaffeineCacheUtils.class);
 
-    private static final Map<String, AsyncCache<?, ?>> ASYNC_CACHE_MAP = new ConcurrentHashMap<>();
+    /**
+     * 默认的spec
+     */
+    private static final String DEFAULT_SPEC = "maximumSize=1024";
 
-    private static final Map<String, AsyncLoadingCache<?, ?>> ASYNC_LOADING_CACHE_MAP = new ConcurrentHashMap<>();
+    /**
+     * 所有已经创建的缓存 key为缓存名字 value为Cache、LoadingCache、AsyncCache或者AsyncLoadingCache
+     */
+    private static final ConcurrentMap<String, Object> CACHE_REGISTRY = new ConcurrentHashMap<>();
 
-    private static final Map<String, Caffeine<?, ?>> CAFFEINE_MAP = new ConcurrentHashMap<>();
+    /**
+     * 异步加载、刷新以及过期维护使用的有界线程池
+     * 队列满了之后由调用线程执行, 避免任务无限堆积
+     */
+    private static final ExecutorService CACHE_EXECUTOR = new ThreadPoolExecutor(
+            Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors() * 2,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(4096),
+            ThreadFactoryBuilder.create().setNamePrefix("gx-caffeine-cache-").setDaemon(true).build(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
 
     private GXCaffeineCacheUtils() {
     }
@@ -29,35 +61,48 @@ public class GXCaffeineCacheUtils {
      * @param configNameKey 缓存的KEY
      * @return Cache
      */
+    @SuppressWarnings("unchecked")
     public static <K, V> Cache<K, V> getCaffeineCache(String configNameKey) {
         final String cacheName = configNameKey + "caffeine-cache";
-        Cache<?, ?> cache = CACHE_MAP.get(cacheName);
-        if (Objects.isNull(cache)) {
-            Caffeine<K, V> caffeine = getCaffeine(configNameKey);
-            cache = caffeine.build();
-            CACHE_MAP.put(cacheName, cache);
-        }
-        return Convert.convert(new TypeReference<>() {
-        }, cache);
+        return (Cache<K, V>) CACHE_REGISTRY.computeIfAbsent(cacheName, name -> register(name, GXCaffeineCacheUtils.<K, V>getCaffeine(configNameKey).build()));
     }
 
     /**
      * 通过CacheLoader获取同步Cache对象
+     * spec中配置了refreshAfterWrite时 过期前会在后台异步刷新
      *
      * @param configNameKey 缓存名字的KEY
      * @param cacheLoader   CacheLoader
      * @return LoadingCache
      */
+    @SuppressWarnings("unchecked")
     public static <K, V> LoadingCache<K, V> getCaffeineCache(String configNameKey, CacheLoader<K, V> cacheLoader) {
         final String cacheName = configNameKey + "cache-loader-caffeine-cache";
-        LoadingCache<?, ?> cache = LOADING_CACHE_MAP.get(cacheName);
-        if (Objects.isNull(cache)) {
-            Caffeine<K, V> caffeine = getCaffeine(configNameKey);
-            cache = caffeine.build(cacheLoader);
-            LOADING_CACHE_MAP.put(cacheName, cache);
-        }
-        return Convert.convert(new TypeReference<>() {
-        }, cache);
+        return (LoadingCache<K, V>) CACHE_REGISTRY.computeIfAbsent(cacheName, name -> register(name, GXCaffeineCacheUtils.<K, V>getCaffeine(configNameKey).build(cacheLoader)));
+    }
+
+    /**
+     * 通过单个加载函数以及批量加载函数获取同步Cache对象
+     * 调用LoadingCache.getAll时会一次性加载所有缺失的key
+     *
+     * @param configNameKey 缓存名字的KEY
+     * @param loader        单个key的加载函数
+     * @param bulkLoader    批量key的加载函数
+     * @return LoadingCache
+     */
+    public static <K, V> LoadingCache<K, V> getCaffeineCache(String configNameKey, Function<K, V> loader, Function<Set<? extends K>, Map<K, V>> bulkLoader) {
+        return getCaffeineCache(configNameKey, new CacheLoader<K, V>() {
+            @Override
+            public V load(K key) {
+                return loader.apply(key);
+            }
+
+            @Override
+            public Map<? extends K, ? extends V> loadAll(Set<? extends K> keys) {
+                Map<K, V> data = bulkLoader.apply(keys);
+                return Objects.isNull(data) ? Collections.emptyMap() : data;
+            }
+        });
     }
 
     /**
@@ -66,16 +111,10 @@ public class GXCaffeineCacheUtils {
      * @param configNameKey 缓存名字的KEY
      * @return AsyncCache
      */
+    @SuppressWarnings("unchecked")
     public static <K, V> AsyncCache<K, V> getAsyncCaffeine(String configNameKey) {
         final String cacheName = configNameKey + "async-caffeine-cache";
-        AsyncCache<?, ?> cache = ASYNC_CACHE_MAP.get(cacheName);
-        if (Objects.isNull(cache)) {
-            Caffeine<K, V> caffeine = getCaffeine(configNameKey);
-            cache = caffeine.buildAsync();
-            ASYNC_CACHE_MAP.put(cacheName, cache);
-        }
-        return Convert.convert(new TypeReference<>() {
-        }, cache);
+        return (AsyncCache<K, V>) CACHE_REGISTRY.computeIfAbsent(cacheName, name -> register(name, GXCaffeineCacheUtils.<K, V>getCaffeine(configNameKey).buildAsync()));
     }
 
     /**
@@ -85,36 +124,113 @@ public class GXCaffeineCacheUtils {
      * @param asyncCacheLoader CacheLoader
      * @return AsyncLoadingCache
      */
+    @SuppressWarnings("unchecked")
     public static <K, V> AsyncLoadingCache<K, V> getAsyncCaffeine(String cacheNameKey, AsyncCacheLoader<K, V> asyncCacheLoader) {
         final String cacheName = cacheNameKey + "origin-async-cache-loader-caffeine-cache";
-        AsyncLoadingCache<?, ?> cache = ASYNC_LOADING_CACHE_MAP.get(cacheName);
-        if (Objects.nonNull(cache)) {
-            Caffeine<K, V> caffeine = getCaffeine(cacheNameKey);
-            cache = caffeine.buildAsync(asyncCacheLoader);
-            ASYNC_LOADING_CACHE_MAP.put(cacheName, cache);
-        }
-        return Convert.convert(new TypeReference<>() {
-        }, cache);
+        return (AsyncLoadingCache<K, V>) CACHE_REGISTRY.computeIfAbsent(cacheName, name -> register(name, GXCaffeineCacheUtils.<K, V>getCaffeine(cacheNameKey).buildAsync(asyncCacheLoader)));
+    }
+
+    /**
+     * 获取所有缓存的统计信息
+     *
+     * @return key为缓存名字 value为统计信息
+     */
+    public static Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        CACHE_REGISTRY.forEach((name, cache) -> stats.put(name, toSynchronous(cache).stats()));
+        return stats;
+    }
+
+    /**
+     * 获取所有缓存的统计信息
+     *
+     * @return key为缓存名字 value为统计信息以及缓存条数
+     */
+    public static Map<String, Dict> getCacheStatsDict() {
+        Map<String, Dict> stats = new LinkedHashMap<>();
+        CACHE_REGISTRY.forEach((name, cache) -> {
+            Cache<?, ?> synchronous = toSynchronous(cache);
+            stats.put(name, convertCacheStats(synchronous.stats()).set("estimatedSize", synchronous.estimatedSize()));
+        });
+        return stats;
+    }
+
+    /**
+     * 将CacheStats转换为Dict
+     *
+     * @param cacheStats 统计信息
+     * @return Dict
+     */
+    public static Dict convertCacheStats(CacheStats cacheStats) {
+        return Dict.create()
+                .set("hitCount", cacheStats.hitCount())
+                .set("missCount", cacheStats.missCount())
+                .set("hitRate", cacheStats.hitRate())
+                .set("loadSuccessCount", cacheStats.loadSuccessCount())
+                .set("loadFailureCount", cacheStats.loadFailureCount())
+                .set("averageLoadPenalty", cacheStats.averageLoadPenalty())
+                .set("evictionCount", cacheStats.evictionCount());
     }
 
     /**
      * 获取Caffeine对象
+     * Caffeine是可变的构建器, 每个缓存都需要使用独立的实例
      *
      * @param cacheNameKey 缓存名字的key
      * @return Caffeine
      */
+    @SuppressWarnings("unchecked")
     private static <K, V> Caffeine<K, V> getCaffeine(String cacheNameKey) {
         String spec = GXCommonUtils.getEnvironmentValue(cacheNameKey, String.class);
         if (CharSequenceUtil.isBlank(spec)) {
-            spec = "maximumSize=1024";
+            spec = DEFAULT_SPEC;
         }
-        final String cacheName = cacheNameKey + "caffeine-obj";
-        Caffeine<?, ?> caffeine = CAFFEINE_MAP.get(cacheName);
-        if (Objects.isNull(caffeine)) {
-            caffeine = Caffeine.from(spec);
-            CAFFEINE_MAP.put(cacheName, caffeine);
+        if (!CharSequenceUtil.contains(spec, "recordStats")) {
+            spec = spec + ",recordStats";
+        }
+        return (Caffeine<K, V>) Caffeine.from(spec).executor(CACHE_EXECUTOR);
+    }
+
+    /**
+     * 将外部创建的缓存注册到Micrometer
+     * 缓存需要开启recordStats
+     *
+     * @param cacheName 缓存名字
+     * @param cache     缓存对象
+     */
+    public static void registerMetrics(String cacheName, Cache<?, ?> cache) {
+        register(cacheName, cache);
+    }
+
+    /**
+     * 将缓存注册到Micrometer
+     *
+     * @param cacheName 缓存名字
+     * @param cache     缓存对象
+     * @return 缓存对象
+     */
+    private static <C> C register(String cacheName, C cache) {
+        try {
+            MeterRegistry meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+            if (Objects.nonNull(meterRegistry)) {
+                CaffeineCacheMetrics.monitor(meterRegistry, toSynchronous(cache), cacheName);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("缓存{}注册监控指标失败 : {}", cacheName, e.getMessage());
+        }
+        return cache;
+    }
+
+    /**
+     * 获取异步缓存对应的同步视图
+     *
+     * @param cache 缓存对象
+     * @return Cache
+     */
+    private static Cache<?, ?> toSynchronous(Object cache) {
+        if (cache instanceof AsyncCache) {
+            return ((AsyncCache<?, ?>) cache).synchronous();
         }
-        return Convert.convert(new TypeReference<>() {
-        }, caffeine);
+        return (Cache<?, ?>) cache;
     }
 }
@@ -1,14 +1,12 @@
 package cn.maple.core.framework.util;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.bean.copier.CopyOptions;
 import cn.hutool.core.bean.copier.IJSONTypeConverter;
 import cn.hutool.core.codec.Base64;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.convert.ConvertException;
-import cn.hutool.core.exceptions.InvocationTargetRuntimeException;
-import cn.hutool.core.exceptions.UtilException;
+import cn.hutool.core.convert.TypeConverter;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.lang.Validator;
 import cn.hutool.core.text.CharSequenceUtil;
@@ -19,14 +17,16 @@ import cn.hutool.json.JSONUtil;
 import cn.maple.core.framework.constant.GXCommonConstant;
 import cn.maple.core.framework.constant.GXDataSourceConstant;
 import cn.maple.core.framework.dto.inner.condition.GXCondition;
-import cn.maple.core.framework.exception.GXBeanValidateException;
 import cn.maple.core.framework.exception.GXBusinessException;
+import cn.maple.core.framework.util.reflect.GXBeanMapper;
+import cn.maple.core.framework.util.reflect.GXBeanMapperCache;
+import cn.maple.core.framework.util.reflect.GXMethodInvoker;
+import cn.maple.core.framework.util.reflect.GXMethodInvokerCache;
 import com.google.common.collect.Table;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.*;
@@ -45,17 +45,17 @@ public class GXCommonUtils {
     private static final String MAP_STR_FORMAT_REGULAR = "\\{(.+?)=(.+?)(, (.+?)=(.+?))*\\}";
 
     /**
-     * 数据转换器的拷贝选项
+     * 默认的字段类型转换器
      * -- GETTER --
-     * 获取默认的CopyOptions
+     * 获取默认的字段类型转换器
      * <p>
      * 复杂的JSON字符串请使用cn.hutool.json.JSONObject来作为type
      * eg: private JSONObject ext
      *
-     * @return CopyOptions
+     * @return TypeConverter
      */
     @Getter
-    private static final CopyOptions defaultCopyOptions = CopyOptions.create().setConverter((type, value) -> {
+    private static final TypeConverter defaultTypeConverter = (type, value) -> {
         if (null == value) {
             return null;
         }
@@ -93,7 +93,17 @@ public class GXCommonUtils {
         }
 
         return convertStrToTarget(value.toString(), targetClazz);
-    });
+    };
+
+    /**
+     * 数据转换器的拷贝选项
+     * -- GETTER --
+     * 获取默认的CopyOptions
+     *
+     * @return CopyOptions
+     */
+    @Getter
+    private static final CopyOptions defaultCopyOptions = CopyOptions.create().setConverter(defaultTypeConverter);
 
     private GXCommonUtils() {
     }
@@ -254,12 +264,13 @@ public class GXCommonUtils {
         }
         try {
             copyOptions = ObjectUtil.defaultIfNull(copyOptions, GXCommonUtils::getDefaultCopyOptions);
-            T target = ReflectUtil.newInstanceIfPossible(tClass);
-            BeanUtil.copyProperties(source, target, copyOptions);
+            GXBeanMapper<T> beanMapper = GXBeanMapperCache.INSTANCE.get(source.getClass(), tClass);
+            T target = beanMapper.newInstance();
+            beanMapper.copy(source, target, copyOptions);
             if (CharSequenceUtil.isNotEmpty(methodName)) {
-                reflectCallObjectMethod(target, methodName, extraData);
+                beanMapper.invokeHook(target, methodName, extraData);
             }
-            reflectCallObjectMethod(target, "verify");
+            beanMapper.invokeHook(target, "verify");
             return target;
         } catch (Exception e) {
             //Throwable throwable = Optional.ofNullable(Optional.ofNullable(e.getCause().getCause()).orElse(e.getCause())).orElse(e);
@@ -373,37 +384,12 @@ public class GXCommonUtils {
         if (Objects.isNull(params)) {
             params = new Object[0];
         }
-        Class<?>[] classes = new Class<?>[params.length];
-        for (int i = 0; i < params.length; i++) {
-            if (Objects.nonNull(params[i])) {
-                classes[i] = params[i].getClass();
-            }
-        }
-        Method method = ReflectUtil.getMethod(object.getClass(), methodName, classes);
-        if (Objects.isNull(method) && classes.length == 0) {
-            method = ReflectUtil.getMethodByName(object.getClass(), methodName);
-        }
-        if (Objects.isNull(method)) {
+        Optional<GXMethodInvoker> invoker = GXMethodInvokerCache.getInvoker(object.getClass(), methodName, params);
+        if (invoker.isEmpty()) {
             LOG.warn("方法{}.{}({})不存在,反射调用失败!", object.getClass().getSimpleName(), methodName, params);
             return null;
         }
-        Object retVal;
-        try {
-            retVal = ReflectUtil.invoke(object, method, params);
-        } catch (UtilException e) {
-            Throwable cause = e.getCause();
-            Throwable targetException = ((InvocationTargetException) cause).getTargetException();
-            if (targetException instanceof GXBeanValidateException) {
-                throw (GXBeanValidateException) targetException;
-            }
-            if (InvocationTargetRuntimeException.class.isAssignableFrom(e.getClass())) {
-                throw new GXBusinessException(targetException.getMessage(), Optional.ofNullable(targetException.getCause()).orElse(targetException));
-            }
-            String exceptionMessage = CharSequenceUtil.isEmpty(targetException.getMessage()) ? "系统反射调用失败" : targetException.getMessage();
-            LOG.error("系统反射调用{}.{}({})失败 , [错误消息 : {}] [错误原因 : {}]", object.getClass().getSimpleName(), methodName, params, e.getMessage(), cause);
-            throw new GXBusinessException(exceptionMessage, targetException);
-        }
-        return retVal;
+        return invoker.get().invoke(object, params);
     }
 
     /**
@@ -450,45 +436,7 @@ public class GXCommonUtils {
      * @return 列表
      */
     public static <R> List<R> buildTree(List<R> sourceList, Object rootParentValue, String getParentMethodName) {
-        String[] methodNames = new String[]{"getParentId"};
-        if (CharSequenceUtil.isNotBlank(getParentMethodName)) {
-            methodNames[0] = getParentMethodName;
-        }
-        // JDK8的stream处理, 把根分类区分出来
-        List<R> roots = sourceList.stream().filter(obj -> {
-            Object parentId = GXCommonUtils.reflectCallObjectMethod(obj, methodNames[0]);
-            return Objects.equals(parentId, rootParentValue);
-        }).collect(Collectors.toList());
-        // 把非根分类区分出来
-        List<R> subs = sourceList.stream().filter(obj -> {
-            Object parentId = GXCommonUtils.reflectCallObjectMethod(obj, methodNames[0]);
-            return !Objects.equals(parentId, rootParentValue);
-        }).collect(Collectors.toList());
-        // 递归构建结构化的分类信息
-        roots.forEach(root -> buildSubs(root, subs, methodNames[0]));
-        return roots;
-    }
-
-    /**
-     * 构建菜单树的子级
-     *
-     * @param parent              父结点
-     * @param subs                子结点
-     * @param getParentMethodName 父级字段的get方法名字
-     * @param <R>                 元素类型
-     */
-    private static <R> void buildSubs(R parent, List<R> subs, String getParentMethodName) {
-        List<R> children = subs.stream().filter(sub -> {
-            Object parentId = GXCommonUtils.reflectCallObjectMethod(sub, getParentMethodName);
-            Object id = GXCommonUtils.reflectCallObjectMethod(parent, "getId");
-            return Objects.equals(parentId, id);
-        }).collect(Collectors.toList());
-        if (!CollUtil.isEmpty(children)) {
-            // 有子分类的情况
-            GXCommonUtils.reflectCallObjectMethod(parent, "setChildren", children);
-            // 再次递归构建
-            children.forEach(child -> buildSubs(child, subs, getParentMethodName));
-        }
+        return GXTreeUtils.buildTree(sourceList, rootParentValue, getParentMethodName, false);
     }
 
     /**
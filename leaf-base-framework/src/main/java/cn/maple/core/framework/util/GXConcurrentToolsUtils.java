@@ -1,7 +1,5 @@
 package cn.maple.core.framework.util;
 
-import cn.hutool.core.thread.ExecutorBuilder;
-import cn.hutool.core.thread.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,14 +28,11 @@ public class GXConcurrentToolsUtils {
     private static final Logger LOG = LoggerFactory.getLogger(GXConcurrentToolsUtils.class);
 
     /**
-     * 线程池对象
+     * 线程池名字
+     * 参数可以通过maple.framework.executor.concurrent-tools.*配置
+     * 每次从注册表中获取, 上下文刷新之后使用重新创建的线程池
      */
-    private static final ExecutorService EXECUTOR_SERVICE = ExecutorBuilder.create()
-            .setCorePoolSize(Runtime.getRuntime().availableProcessors())
-            .setMaxPoolSize(Runtime.getRuntime().availableProcessors() * 2)
-            .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("gx-concurrent-thread-pool").build())
-            .setWorkQueue(new LinkedBlockingQueue<>(10000))
-            .build();
+    private static final String EXECUTOR_NAME = "concurrent-tools";
 
     /**
      * 私有构造函数
@@ -54,17 +49,16 @@ public class GXConcurrentToolsUtils {
      * @param resultKey 结果关联的KEY
      * @param <T>       泛型类名
      * @return T
+     * @deprecated 结果容器没有类型信息且失败时只能通过特殊值判断, 请使用GXFanOutScope
      */
+    @Deprecated
     public static <T> CompletableFuture<T> composerFuture(Supplier<T> callable, ConcurrentMap<String, Object> results, String resultKey) {
-        final CompletableFuture<T> future = CompletableFuture.supplyAsync(callable, EXECUTOR_SERVICE);
+        final CompletableFuture<T> future = CompletableFuture.supplyAsync(callable, GXExecutorUtils.getExecutor(EXECUTOR_NAME));
         future.whenComplete((t, ex) -> results.putIfAbsent(resultKey, null));
-        future.handleAsync((t, ex) -> {
+        future.whenComplete((t, ex) -> {
             if (Objects.nonNull(ex)) {
                 LOG.error("异常发生了 {} ", ex.getMessage());
-            } else {
-                LOG.error("异常信息为null");
             }
-            return t;
         });
         future.exceptionally(ex -> {
             results.putIfAbsent(resultKey, FLAG_SPECIAL_VALUE);
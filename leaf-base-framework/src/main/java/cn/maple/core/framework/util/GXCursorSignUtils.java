@@ -0,0 +1,113 @@
+package cn.maple.core.framework.util;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.digest.HMac;
+import cn.hutool.crypto.digest.HmacAlgorithm;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import cn.maple.core.framework.exception.GXBusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+/**
+ * 分页游标的签名工具
+ * <p>
+ * 游标返回给客户端之后会原样传回, 游标中的内容(排序值、point in time的ID等)需要防止被篡改。
+ * 游标的格式为: Base64(JSON).Base64(HMAC-SHA256(JSON))
+ * 签名密钥通过maple.framework.cursor.sign-key配置, 集群部署时所有节点需要使用相同的密钥,
+ * 没有配置时生成或者解析游标会抛出异常, 只有显式开启maple.framework.cursor.random-sign-key-enabled时
+ * 才使用进程内随机生成的密钥(游标只在生成它的节点上有效, 重启之后失效)。
+ */
+public class GXCursorSignUtils {
+    /**
+     * 日志对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(GXCursorSignUtils.class);
+
+    /**
+     * 签名密钥的配置项
+     */
+    private static final String SIGN_KEY_CONFIG_NAME = "maple.framework.cursor.sign-key";
+
+    /**
+     * 没有配置签名密钥时是否允许使用随机密钥的配置项
+     */
+    private static final String RANDOM_SIGN_KEY_CONFIG_NAME = "maple.framework.cursor.random-sign-key-enabled";
+
+    /**
+     * 没有配置签名密钥时使用的随机密钥
+     */
+    private static volatile byte[] fallbackSignKey;
+
+    private GXCursorSignUtils() {
+    }
+
+    /**
+     * 生成带签名的游标
+     *
+     * @param payload 游标的内容
+     * @return 游标
+     */
+    public static String encode(JSONObject payload) {
+        byte[] data = payload.toString().getBytes(StandardCharsets.UTF_8);
+        return Base64.encodeUrlSafe(data) + "." + Base64.encodeUrlSafe(hmac().digest(data));
+    }
+
+    /**
+     * 校验签名并解析游标
+     *
+     * @param cursor 游标
+     * @return 游标的内容
+     */
+    public static JSONObject decode(String cursor) {
+        String encodedData = CharSequenceUtil.subBefore(cursor, ".", true);
+        String encodedSign = CharSequenceUtil.subAfter(cursor, ".", true);
+        if (CharSequenceUtil.isEmpty(encodedData) || CharSequenceUtil.isEmpty(encodedSign)) {
+            throw new GXBusinessException("分页游标无效");
+        }
+        try {
+            byte[] data = Base64.decode(encodedData);
+            if (!MessageDigest.isEqual(hmac().digest(data), Base64.decode(encodedSign))) {
+                throw new GXBusinessException("分页游标签名错误");
+            }
+            return JSONUtil.parseObj(new String(data, StandardCharsets.UTF_8));
+        } catch (GXBusinessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new GXBusinessException("分页游标无效", e);
+        }
+    }
+
+    private static HMac hmac() {
+        String signKey = GXCommonUtils.getEnvironmentValue(SIGN_KEY_CONFIG_NAME, String.class, "");
+        if (CharSequenceUtil.isEmpty(signKey)) {
+            if (!Boolean.TRUE.equals(GXCommonUtils.getEnvironmentValue(RANDOM_SIGN_KEY_CONFIG_NAME, Boolean.class, false))) {
+                throw new GXBusinessException(CharSequenceUtil.format("请配置游标的签名密钥{}", SIGN_KEY_CONFIG_NAME));
+            }
+            return new HMac(HmacAlgorithm.HmacSHA256, getFallbackSignKey());
+        }
+        return new HMac(HmacAlgorithm.HmacSHA256, signKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] getFallbackSignKey() {
+        byte[] signKey = fallbackSignKey;
+        if (Objects.nonNull(signKey)) {
+            return signKey;
+        }
+        synchronized (GXCursorSignUtils.class) {
+            if (Objects.isNull(fallbackSignKey)) {
+                LOG.warn("没有配置{}, 按照{}使用随机生成的游标签名密钥, 集群部署时游标只在生成它的节点上有效", SIGN_KEY_CONFIG_NAME, RANDOM_SIGN_KEY_CONFIG_NAME);
+                byte[] randomKey = new byte[32];
+                RandomUtil.getSecureRandom().nextBytes(randomKey);
+                fallbackSignKey = randomKey;
+            }
+            return fallbackSignKey;
+        }
+    }
+}
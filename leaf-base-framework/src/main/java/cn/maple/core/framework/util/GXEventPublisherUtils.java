@@ -4,12 +4,16 @@ import cn.hutool.core.text.CharSequenceUtil;
 import cn.maple.core.framework.event.GXBaseEvent;
 import cn.maple.core.framework.event.center.AsyncEventBusCenter;
 import cn.maple.core.framework.event.center.SyncEventBusCenter;
+import cn.maple.core.framework.event.dispatcher.GXEventDispatcher;
+import cn.maple.core.framework.event.dispatcher.GXGuavaEventDispatcher;
+import cn.maple.core.framework.event.dispatcher.GXRingBufferEventDispatcher;
 import cn.maple.core.framework.exception.GXBusinessException;
-import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.EventBus;
+import org.springframework.util.ClassUtils;
 
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("all")
 public class GXEventPublisherUtils {
@@ -18,9 +22,97 @@ public class GXEventPublisherUtils {
      */
     private static final ConcurrentHashMap<String, String> EVENT_BUS_REGISTER_CACHE = new ConcurrentHashMap<>(1024);
 
+    /**
+     * 缓存已经注册的异步事件监听器
+     * key为监听器的原始类名(不是代理类名), 与按照类型派发事件时使用的key一致
+     */
+    private static final ConcurrentHashMap<String, String> ASYNC_EVENT_BUS_REGISTER_CACHE = new ConcurrentHashMap<>(1024);
+
+    /**
+     * 异步事件分发器的配置项 guava(默认) 或者 ring-buffer
+     */
+    private static final String ASYNC_DISPATCHER_CONFIG_NAME = "maple.framework.event.dispatcher";
+
+    /**
+     * 异步事件分发器
+     */
+    private static volatile GXEventDispatcher asyncEventDispatcher;
+
     private GXEventPublisherUtils() {
     }
 
+    /**
+     * 获取异步事件分发器
+     * <pre>
+     * maple.framework.event.dispatcher=ring-buffer
+     * maple.framework.event.ring.buffer-size=8192
+     * maple.framework.event.ring.batch-size=256
+     * maple.framework.event.ring.backpressure=block|drop|caller-runs
+     * </pre>
+     *
+     * @return GXEventDispatcher
+     */
+    public static GXEventDispatcher getAsyncEventDispatcher() {
+        GXEventDispatcher dispatcher = asyncEventDispatcher;
+        if (Objects.nonNull(dispatcher)) {
+            return dispatcher;
+        }
+        synchronized (GXEventPublisherUtils.class) {
+            if (Objects.isNull(asyncEventDispatcher)) {
+                asyncEventDispatcher = createAsyncEventDispatcher();
+            }
+            return asyncEventDispatcher;
+        }
+    }
+
+    /**
+     * 判断是否使用环形缓冲区分发异步事件
+     *
+     * @return boolean
+     */
+    public static boolean isRingBufferDispatcher() {
+        return getAsyncEventDispatcher() instanceof GXRingBufferEventDispatcher;
+    }
+
+    /**
+     * 预先注册异步事件监听器
+     * 应用启动时由GuavaASyncEventBusBeanPostProcessor调用, 之后派发事件时不再需要查找监听器
+     *
+     * @param listener 监听器的对象
+     */
+    public static void registerGuavaAsyncEventObserver(Object listener) {
+        Class<?> userClass = ClassUtils.getUserClass(listener);
+        if (Objects.isNull(ASYNC_EVENT_BUS_REGISTER_CACHE.putIfAbsent(userClass.getName(), userClass.getSimpleName()))) {
+            getAsyncEventDispatcher().register(listener);
+        }
+    }
+
+    /**
+     * 关闭异步事件分发器, 等待已经派发的事件处理完成
+     * 分发器还没有创建时不做任何处理
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     */
+    public static void shutdownAsyncEventDispatcher(long timeout, TimeUnit unit) {
+        GXEventDispatcher dispatcher = asyncEventDispatcher;
+        if (Objects.nonNull(dispatcher)) {
+            dispatcher.shutdown(timeout, unit);
+        }
+    }
+
+    private static GXEventDispatcher createAsyncEventDispatcher() {
+        String dispatcher = GXCommonUtils.getEnvironmentValue(ASYNC_DISPATCHER_CONFIG_NAME, String.class, "guava");
+        if (!CharSequenceUtil.equalsIgnoreCase(dispatcher, "ring-buffer")) {
+            return new GXGuavaEventDispatcher(AsyncEventBusCenter.getInstance());
+        }
+        int bufferSize = GXCommonUtils.getEnvironmentValue("maple.framework.event.ring.buffer-size", Integer.class, 8192);
+        int batchSize = GXCommonUtils.getEnvironmentValue("maple.framework.event.ring.batch-size", Integer.class, 256);
+        String backpressure = GXCommonUtils.getEnvironmentValue("maple.framework.event.ring.backpressure", String.class, "block");
+        int maxChannels = GXCommonUtils.getEnvironmentValue("maple.framework.event.ring.max-channels", Integer.class, Runtime.getRuntime().availableProcessors());
+        return new GXRingBufferEventDispatcher("async-event", bufferSize, batchSize, backpressure, maxChannels);
+    }
+
     /**
      * 派发SpringBoot事件
      * 异步事件可以通过在监听器上面添加@Async注解实现, 但需要开启SpringBoot的异步功能
@@ -39,18 +131,15 @@ public class GXEventPublisherUtils {
      * @param listenerClazz 监听器的类型
      */
     public static <T> void publishGuavaAsyncEvent(GXBaseEvent<T> event, Class<?> listenerClazz) {
-        AsyncEventBus asyncEventBus = AsyncEventBusCenter.getInstance();
-        Object listener = GXSpringContextUtils.getBean(listenerClazz);
-        if (Objects.isNull(listener)) {
-            throw new GXBusinessException("指定的监听类型不存在");
-        }
-        String key = listenerClazz.getName();
-        String s = EVENT_BUS_REGISTER_CACHE.get(key);
-        if (CharSequenceUtil.isEmpty(s)) {
-            asyncEventBus.register(listener);
-            EVENT_BUS_REGISTER_CACHE.put(key, listenerClazz.getSimpleName());
+        // 已经注册过的监听器不再从Spring容器中查找
+        if (!ASYNC_EVENT_BUS_REGISTER_CACHE.containsKey(ClassUtils.getUserClass(listenerClazz).getName())) {
+            Object listener = GXSpringContextUtils.getBean(listenerClazz);
+            if (Objects.isNull(listener)) {
+                throw new GXBusinessException("指定的监听类型不存在");
+            }
+            registerGuavaAsyncEventObserver(listener);
         }
-        asyncEventBus.post(event);
+        getAsyncEventDispatcher().post(event);
     }
 
     /**
@@ -81,14 +170,8 @@ public class GXEventPublisherUtils {
      * @param listener 监听器的对象
      */
     public static <T> void publishGuavaAsyncEvent(GXBaseEvent<T> event, Object listener) {
-        AsyncEventBus asyncEventBus = AsyncEventBusCenter.getInstance();
-        String key = listener.getClass().getName();
-        String s = EVENT_BUS_REGISTER_CACHE.get(key);
-        if (CharSequenceUtil.isEmpty(s)) {
-            asyncEventBus.register(listener);
-            EVENT_BUS_REGISTER_CACHE.put(key, listener.getClass().getSimpleName());
-        }
-        asyncEventBus.post(event);
+        registerGuavaAsyncEventObserver(listener);
+        getAsyncEventDispatcher().post(event);
     }
 
     /**
@@ -114,12 +197,11 @@ public class GXEventPublisherUtils {
      * @param listener 监听器的对象
      */
     public static void unregisterGuavaAsyncEventObserver(Object listener) {
-        String key = listener.getClass().getName();
-        String s = EVENT_BUS_REGISTER_CACHE.get(key);
+        String key = ClassUtils.getUserClass(listener).getName();
+        String s = ASYNC_EVENT_BUS_REGISTER_CACHE.get(key);
         if (CharSequenceUtil.isNotEmpty(s)) {
-            AsyncEventBus asyncEventBus = AsyncEventBusCenter.getInstance();
-            asyncEventBus.unregister(listener);
-            EVENT_BUS_REGISTER_CACHE.remove(key);
+            getAsyncEventDispatcher().unregister(listener);
+            ASYNC_EVENT_BUS_REGISTER_CACHE.remove(key);
         }
     }
 
@@ -148,12 +230,11 @@ public class GXEventPublisherUtils {
         if (Objects.isNull(listener)) {
             return;
         }
-        String key = listenerClazz.getName();
-        String s = EVENT_BUS_REGISTER_CACHE.get(key);
+        String key = ClassUtils.getUserClass(listenerClazz).getName();
+        String s = ASYNC_EVENT_BUS_REGISTER_CACHE.get(key);
         if (CharSequenceUtil.isNotEmpty(s)) {
-            AsyncEventBus asyncEventBus = AsyncEventBusCenter.getInstance();
-            asyncEventBus.unregister(listener);
-            EVENT_BUS_REGISTER_CACHE.remove(key);
+            getAsyncEventDispatcher().unregister(listener);
+            ASYNC_EVENT_BUS_REGISTER_CACHE.remove(key);
         }
     }
 
@@ -0,0 +1,305 @@
+package cn.maple.core.framework.util;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.maple.core.framework.wrapper.mdc.GXMdcWrapperThreadPoolExecutor;
+import cn.maple.core.framework.wrapper.mdc.GXMdcWrapperVirtualThreadExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 线程池注册表
+ * <p>
+ * 框架内所有的线程池都通过名字从这里获取, 同名线程池只会被创建一次。
+ * 每个线程池的参数都可以通过配置文件覆盖, 未配置时使用调用方给出的默认值:
+ * <pre>
+ * maple.framework.executor.{name}.core-size=8
+ * maple.framework.executor.{name}.max-size=16
+ * maple.framework.executor.{name}.queue-capacity=10000
+ * maple.framework.executor.{name}.keep-alive-seconds=60
+ * maple.framework.executor.{name}.rejection-policy=caller-runs|abort|discard|discard-oldest
+ * maple.framework.executor.{name}.virtual=true
+ * </pre>
+ * 开启virtual后使用虚拟线程执行任务, max-size作为同时执行任务数量的上限(舱壁隔离)。
+ * 所有线程池都会传递MDC上下文, 并向Micrometer注册队列长度、活跃线程数以及拒绝次数指标。
+ * 线程池关闭之后会从注册表中移除, 再向已关闭的线程池提交任务时抛出RejectedExecutionException(不受拒绝策略影响)。
+ */
+public class GXExecutorUtils {
+    /**
+     * 日志对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(GXExecutorUtils.class);
+
+    /**
+     * 配置项的前缀
+     */
+    private static final String CONFIG_PREFIX = "maple.framework.executor.";
+
+    /**
+     * CPU核数
+     */
+    private static final int CPU_CORE_NUMBER = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 所有已经创建的线程池
+     */
+    private static final ConcurrentMap<String, GXExecutorHolder> EXECUTOR_REGISTRY = new ConcurrentHashMap<>();
+
+    private GXExecutorUtils() {
+    }
+
+    /**
+     * 获取线程池
+     * 默认参数: 核心线程数为CPU核数, 最大线程数为CPU核数的2倍, 队列容量为10000
+     *
+     * @param name 线程池名字
+     * @return ExecutorService
+     */
+    public static ExecutorService getExecutor(String name) {
+        return getExecutor(name, CPU_CORE_NUMBER, CPU_CORE_NUMBER * 2, 10000);
+    }
+
+    /**
+     * 获取线程池
+     *
+     * @param name                 线程池名字
+     * @param defaultCoreSize      默认的核心线程数
+     * @param defaultMaxSize       默认的最大线程数
+     * @param defaultQueueCapacity 默认的队列容量 0表示不排队
+     * @return ExecutorService
+     */
+    public static ExecutorService getExecutor(String name, int defaultCoreSize, int defaultMaxSize, int defaultQueueCapacity) {
+        return getExecutor(name, defaultCoreSize, defaultMaxSize, defaultQueueCapacity, "caller-runs");
+    }
+
+    /**
+     * 获取线程池
+     * 不能由调用线程执行任务的场景(例如需要超时控制或者不能阻塞调用方)需要指定abort或者discard策略
+     *
+     * @param name                   线程池名字
+     * @param defaultCoreSize        默认的核心线程数
+     * @param defaultMaxSize         默认的最大线程数
+     * @param defaultQueueCapacity   默认的队列容量 0表示不排队
+     * @param defaultRejectionPolicy 默认的拒绝策略 caller-runs|abort|discard|discard-oldest
+     * @return ExecutorService
+     */
+    public static ExecutorService getExecutor(String name, int defaultCoreSize, int defaultMaxSize, int defaultQueueCapacity, String defaultRejectionPolicy) {
+        return EXECUTOR_REGISTRY.computeIfAbsent(name, n -> createExecutor(n, defaultCoreSize, defaultMaxSize, defaultQueueCapacity, defaultRejectionPolicy)).executor;
+    }
+
+    /**
+     * 获取所有线程池的运行状态
+     *
+     * @return key为线程池名字 value为运行状态
+     */
+    public static Map<String, Dict> getExecutorStats() {
+        Map<String, Dict> stats = new LinkedHashMap<>();
+        EXECUTOR_REGISTRY.forEach((name, holder) -> stats.put(name, Dict.create()
+                .set("virtual", holder.executor instanceof GXMdcWrapperVirtualThreadExecutor)
+                .set("queueSize", queueSize(holder.executor))
+                .set("activeCount", activeCount(holder.executor))
+                .set("rejectedCount", holder.rejectedCount.get())));
+        return stats;
+    }
+
+    /**
+     * 关闭所有线程池
+     * 线程池先从注册表中移除, 之后再获取同名线程池时会重新创建(例如上下文刷新之后)
+     * 已经提交的任务会继续执行, 超时之后强制关闭
+     *
+     * @param timeout 等待时间
+     * @param unit    时间单位
+     */
+    public static void shutdownAll(long timeout, TimeUnit unit) {
+        Map<String, GXExecutorHolder> holders = new LinkedHashMap<>();
+        EXECUTOR_REGISTRY.forEach((name, holder) -> {
+            if (EXECUTOR_REGISTRY.remove(name, holder)) {
+                holders.put(name, holder);
+            }
+        });
+        holders.values().forEach(holder -> holder.executor.shutdown());
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        holders.forEach((name, holder) -> {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !holder.executor.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                    LOG.warn("线程池{}未能在规定时间内关闭, 强制关闭", name);
+                    holder.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                holder.executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            } finally {
+                removeMetrics(name, holder);
+            }
+        });
+    }
+
+    /**
+     * 创建线程池
+     *
+     * @param name                   线程池名字
+     * @param defaultCoreSize        默认的核心线程数
+     * @param defaultMaxSize         默认的最大线程数
+     * @param defaultQueueCapacity   默认的队列容量
+     * @param defaultRejectionPolicy 默认的拒绝策略
+     * @return GXExecutorHolder
+     */
+    private static GXExecutorHolder createExecutor(String name, int defaultCoreSize, int defaultMaxSize, int defaultQueueCapacity, String defaultRejectionPolicy) {
+        int coreSize = getConfig(name, "core-size", Integer.class, defaultCoreSize);
+        int maxSize = Math.max(coreSize, getConfig(name, "max-size", Integer.class, defaultMaxSize));
+        int queueCapacity = getConfig(name, "queue-capacity", Integer.class, defaultQueueCapacity);
+        long keepAliveSeconds = getConfig(name, "keep-alive-seconds", Long.class, 60L);
+        String rejectionPolicy = getConfig(name, "rejection-policy", String.class, defaultRejectionPolicy);
+        boolean virtual = getConfig(name, "virtual", Boolean.class, Boolean.FALSE);
+        String threadNamePrefix = CharSequenceUtil.format("gx-{}-", name);
+
+        AtomicLong rejectedCount = new AtomicLong();
+        RejectedExecutionHandler handler = countingHandler(name, rejectionPolicy, rejectedCount);
+        ExecutorService executor;
+        if (virtual) {
+            executor = new GXMdcWrapperVirtualThreadExecutor(threadNamePrefix, maxSize, handler);
+        } else {
+            BlockingQueue<Runnable> workQueue = queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+            ThreadFactory threadFactory = ThreadFactoryBuilder.create().setNamePrefix(threadNamePrefix).build();
+            executor = new GXMdcWrapperThreadPoolExecutor(coreSize, maxSize, keepAliveSeconds, TimeUnit.SECONDS, workQueue, threadFactory, handler);
+        }
+        LOG.info("创建线程池{} : virtual={} coreSize={} maxSize={} queueCapacity={} rejectionPolicy={}", name, virtual, coreSize, maxSize, queueCapacity, rejectionPolicy);
+        List<Meter> meters = registerMetrics(name, executor, rejectedCount);
+        return new GXExecutorHolder(executor, rejectedCount, meters);
+    }
+
+    /**
+     * 创建会统计拒绝次数的拒绝策略
+     * 虚拟线程执行器调用时传入的Executor为null
+     * 线程池已经关闭时无论哪种策略都抛出RejectedExecutionException, 避免任务被静默丢弃
+     *
+     * @param name            线程池名字
+     * @param rejectionPolicy 拒绝策略名字
+     * @param rejectedCount   拒绝次数
+     * @return RejectedExecutionHandler
+     */
+    private static RejectedExecutionHandler countingHandler(String name, String rejectionPolicy, AtomicLong rejectedCount) {
+        String policy = CharSequenceUtil.trim(rejectionPolicy).toLowerCase().replace('_', '-');
+        return (task, executor) -> {
+            rejectedCount.incrementAndGet();
+            if (Objects.nonNull(executor) && executor.isShutdown()) {
+                throw new RejectedExecutionException(CharSequenceUtil.format("线程池{}已经关闭, 任务被拒绝", name));
+            }
+            switch (policy) {
+                case "abort":
+                    throw new RejectedExecutionException(CharSequenceUtil.format("线程池{}已满, 任务被拒绝", name));
+                case "discard":
+                    LOG.warn("线程池{}已满, 丢弃任务", name);
+                    break;
+                case "discard-oldest":
+                    if (Objects.nonNull(executor)) {
+                        executor.getQueue().poll();
+                        executor.execute(task);
+                    } else {
+                        LOG.warn("线程池{}已满, 丢弃任务", name);
+                    }
+                    break;
+                default:
+                    task.run();
+            }
+        };
+    }
+
+    /**
+     * 将线程池的运行指标注册到Micrometer
+     *
+     * @param name          线程池名字
+     * @param executor      线程池
+     * @param rejectedCount 拒绝次数
+     * @return 注册的指标 关闭线程池时移除
+     */
+    private static List<Meter> registerMetrics(String name, ExecutorService executor, AtomicLong rejectedCount) {
+        try {
+            MeterRegistry meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+            if (Objects.isNull(meterRegistry)) {
+                return Collections.emptyList();
+            }
+            Tags tags = Tags.of("name", name);
+            return List.of(Gauge.builder("maple.executor.queue.size", executor, GXExecutorUtils::queueSize).tags(tags).register(meterRegistry),
+                    Gauge.builder("maple.executor.active", executor, GXExecutorUtils::activeCount).tags(tags).register(meterRegistry),
+                    FunctionCounter.builder("maple.executor.rejected", rejectedCount, AtomicLong::doubleValue).tags(tags).register(meterRegistry));
+        } catch (RuntimeException e) {
+            LOG.warn("线程池{}注册监控指标失败 : {}", name, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 移除已经关闭的线程池的监控指标
+     * 同名线程池重新创建时需要重新注册 否则指标会一直指向已关闭的线程池
+     *
+     * @param name   线程池名字
+     * @param holder 线程池
+     */
+    private static void removeMetrics(String name, GXExecutorHolder holder) {
+        if (holder.meters.isEmpty()) {
+            return;
+        }
+        try {
+            MeterRegistry meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+            if (Objects.nonNull(meterRegistry)) {
+                holder.meters.forEach(meterRegistry::remove);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("线程池{}移除监控指标失败 : {}", name, e.getMessage());
+        }
+    }
+
+    private static double queueSize(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+        return 0;
+    }
+
+    private static double activeCount(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getActiveCount();
+        }
+        if (executor instanceof GXMdcWrapperVirtualThreadExecutor) {
+            return ((GXMdcWrapperVirtualThreadExecutor) executor).getActiveCount();
+        }
+        return 0;
+    }
+
+    private static <T> T getConfig(String name, String key, Class<T> clazz, T defaultValue) {
+        return GXCommonUtils.getEnvironmentValue(CONFIG_PREFIX + name + "." + key, clazz, defaultValue);
+    }
+
+    /**
+     * 线程池、拒绝次数以及注册的监控指标
+     */
+    private static final class GXExecutorHolder {
+        private final ExecutorService executor;
+
+        private final AtomicLong rejectedCount;
+
+        private final List<Meter> meters;
+
+        GXExecutorHolder(ExecutorService executor, AtomicLong rejectedCount, List<Meter> meters) {
+            this.executor = executor;
+            this.rejectedCount = rejectedCount;
+            this.meters = meters;
+        }
+    }
+}
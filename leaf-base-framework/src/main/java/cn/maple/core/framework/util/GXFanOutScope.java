@@ -0,0 +1,469 @@
+package cn.maple.core.framework.util;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.exception.GXBusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 并行任务的扇出/汇聚作用域
+ * <p>
+ * 适用于同时调用多个服务再聚合结果的场景, 每个任务都有自己的超时时间, 整个作用域有总的截止时间。
+ * FAIL_FAST策略下任意任务失败或者超时都会取消其他任务并抛出异常, ALLOW_PARTIAL策略下失败的任务只记录日志,
+ * 调用方可以通过任务句柄判断任务是否成功并使用默认值。
+ * 任务可以开启对冲请求: 超过指定的时间还没有返回时再发起一次相同的请求, 使用先返回的结果。
+ * 任务运行在GXExecutorUtils的fan-out线程池中(可以通过maple.framework.executor.fan-out.virtual=true使用虚拟线程),
+ * 线程池默认使用abort拒绝策略, 线程池已满时任务直接失败而不是在调用线程中执行(否则超时以及对冲都会失效),
+ * 每个任务的耗时会记录到Micrometer的maple.fan-out.task指标中。
+ * <pre>
+ * {@code
+ * try (GXFanOutScope scope = GXFanOutScope.open(Duration.ofSeconds(2), GXFanOutScope.GXFanOutPolicy.ALLOW_PARTIAL)) {
+ *     GXFanOutScope.GXTaskHandle<UserResDto> user = scope.fork("user", () -> userService.find(userId), Duration.ofMillis(500));
+ *     GXFanOutScope.GXTaskHandle<List<OrderResDto>> orders = scope.fork("orders", () -> orderService.list(userId), Duration.ofMillis(800), Duration.ofMillis(200));
+ *     scope.join();
+ *     return Dict.create().set("user", user.get()).set("orders", orders.getOrDefault(Collections.emptyList()));
+ * }
+ * }
+ * </pre>
+ */
+public class GXFanOutScope implements AutoCloseable {
+    /**
+     * 日志对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(GXFanOutScope.class);
+
+    /**
+     * 线程池名字
+     */
+    private static final String EXECUTOR_NAME = "fan-out";
+
+    /**
+     * CPU核数
+     */
+    private static final int CPU_CORE_NUMBER = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 任务耗时指标的缓存
+     * key为任务名字以及结果 同一个任务名字只注册一次Timer
+     */
+    private static final Map<String, Timer> TASK_TIMERS = new ConcurrentHashMap<>();
+
+    /**
+     * TASK_TIMERS所属的MeterRegistry
+     * 上下文刷新之后MeterRegistry发生变化时清空缓存重新注册
+     */
+    private static volatile MeterRegistry timerRegistry;
+
+    /**
+     * 作用域的截止时间(纳秒)
+     */
+    private final long deadlineNanos;
+
+    /**
+     * 部分结果的处理策略
+     */
+    private final GXFanOutPolicy policy;
+
+    /**
+     * 执行任务的线程池
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 已经提交的任务
+     */
+    private final List<GXTaskHandle<?>> handles = new ArrayList<>();
+
+    /**
+     * FAIL_FAST策略下第一个失败的任务完成时结束等待
+     */
+    private final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+
+    /**
+     * 记录任务耗时的MeterRegistry 每个作用域只获取一次
+     */
+    private final MeterRegistry meterRegistry;
+
+    private GXFanOutScope(Duration timeout, GXFanOutPolicy policy, ExecutorService executor) {
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+        this.policy = policy;
+        this.executor = executor;
+        this.meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+    }
+
+    /**
+     * 打开一个作用域
+     *
+     * @param timeout 所有任务总的超时时间
+     * @param policy  部分结果的处理策略
+     * @return GXFanOutScope
+     */
+    public static GXFanOutScope open(Duration timeout, GXFanOutPolicy policy) {
+        return new GXFanOutScope(timeout, policy, GXExecutorUtils.getExecutor(EXECUTOR_NAME, CPU_CORE_NUMBER, CPU_CORE_NUMBER * 2, 10000, "abort"));
+    }
+
+    /**
+     * 打开一个作用域(FAIL_FAST策略)
+     *
+     * @param timeout 所有任务总的超时时间
+     * @return GXFanOutScope
+     */
+    public static GXFanOutScope open(Duration timeout) {
+        return open(timeout, GXFanOutPolicy.FAIL_FAST);
+    }
+
+    /**
+     * 提交任务, 任务的超时时间与作用域相同
+     *
+     * @param name     任务名字
+     * @param supplier 任务
+     * @param <T>      结果类型
+     * @return 任务句柄
+     */
+    public <T> GXTaskHandle<T> fork(String name, Supplier<T> supplier) {
+        return fork(name, supplier, null, null);
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param name        任务名字
+     * @param supplier    任务
+     * @param taskTimeout 任务的超时时间
+     * @param <T>         结果类型
+     * @return 任务句柄
+     */
+    public <T> GXTaskHandle<T> fork(String name, Supplier<T> supplier, Duration taskTimeout) {
+        return fork(name, supplier, taskTimeout, null);
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param name        任务名字
+     * @param supplier    任务(开启对冲请求时可能会被执行两次, 必须是幂等的)
+     * @param taskTimeout 任务的超时时间 为null时使用作用域的超时时间
+     * @param hedgeDelay  对冲请求的延迟时间 为null时不开启对冲请求
+     * @param <T>         结果类型
+     * @return 任务句柄
+     */
+    public <T> GXTaskHandle<T> fork(String name, Supplier<T> supplier, Duration taskTimeout, Duration hedgeDelay) {
+        GXTaskHandle<T> handle = new GXTaskHandle<>(name);
+        handles.add(handle);
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        submitAttempt(handle, supplier, context, false);
+        if (Objects.nonNull(hedgeDelay) && !handle.future.isDone()) {
+            CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (!handle.future.isDone()) {
+                    LOG.debug("任务{}超过{}ms未返回, 发起对冲请求", name, hedgeDelay.toMillis());
+                    submitAttempt(handle, supplier, context, true);
+                }
+            });
+        }
+        long timeoutNanos = Objects.isNull(taskTimeout) ? deadlineNanos - System.nanoTime() : taskTimeout.toNanos();
+        handle.future.orTimeout(Math.max(timeoutNanos, 0), TimeUnit.NANOSECONDS);
+        handle.future.whenComplete((value, throwable) -> {
+            handle.cancelAttempts();
+            recordLatency(handle, Objects.isNull(throwable));
+            if (Objects.nonNull(throwable) && policy == GXFanOutPolicy.FAIL_FAST) {
+                firstFailure.complete(null);
+            }
+        });
+        return handle;
+    }
+
+    /**
+     * 等待所有任务完成
+     * FAIL_FAST策略下任意任务失败或者超时会取消其他任务并抛出GXBusinessException,
+     * ALLOW_PARTIAL策略下会取消未完成的任务并返回已经成功的结果
+     *
+     * @return key为任务名字 value为任务结果(只包含成功的任务)
+     */
+    public Dict join() {
+        CompletableFuture<?>[] futures = handles.stream().map(h -> h.future).toArray(CompletableFuture[]::new);
+        // 单个任务的失败由任务句柄自己处理, 这里只等待完成
+        CompletableFuture<Void> allDone = CompletableFuture.allOf(futures).exceptionally(t -> null);
+        try {
+            CompletableFuture.anyOf(allDone, firstFailure).get(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new GXBusinessException("并行任务等待被中断", e);
+        } catch (ExecutionException e) {
+            LOG.debug("并行任务等待出错 : {}", e.getMessage());
+        } catch (TimeoutException e) {
+            LOG.warn("并行任务超过截止时间仍未全部完成");
+        }
+        cancelAll();
+        if (policy == GXFanOutPolicy.FAIL_FAST) {
+            failFast();
+        }
+        Dict results = Dict.create();
+        for (GXTaskHandle<?> handle : handles) {
+            if (handle.isSuccess()) {
+                results.set(handle.name, handle.future.join());
+                continue;
+            }
+            Throwable error = handle.getError();
+            LOG.warn("并行任务{}执行失败, 将忽略该任务的结果 : {}", handle.name, Objects.isNull(error) ? "" : error.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * 取消所有未完成的任务
+     */
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private void cancelAll() {
+        handles.forEach(handle -> handle.future.cancel(false));
+    }
+
+    /**
+     * 存在失败的任务时抛出异常
+     * 优先使用真正失败的任务作为原因, 而不是被连带取消的任务
+     */
+    private void failFast() {
+        GXTaskHandle<?> failed = null;
+        for (GXTaskHandle<?> handle : handles) {
+            if (handle.isSuccess()) {
+                continue;
+            }
+            if (Objects.isNull(failed) || !(handle.getError() instanceof CancellationException)) {
+                failed = handle;
+            }
+            if (!(handle.getError() instanceof CancellationException)) {
+                break;
+            }
+        }
+        if (Objects.nonNull(failed)) {
+            throw new GXBusinessException(CharSequenceUtil.format("并行任务{}执行失败", failed.name), failed.getError());
+        }
+    }
+
+    /**
+     * 提交一次任务
+     * 多次执行(对冲请求)时只有第一个完成的结果生效
+     * 任务在提交之前就登记到句柄中, 保证句柄完成时一定可以取消仍在执行的对冲请求
+     * 线程池拒绝时首次请求直接使句柄失败, 对冲请求被拒绝时继续等待首次请求的结果
+     */
+    private <T> void submitAttempt(GXTaskHandle<T> handle, Supplier<T> supplier, Map<String, String> context, boolean hedge) {
+        GXAttempt attempt = new GXAttempt();
+        attempt.future = new FutureTask<Void>(GXMdcThreadUtils.wrap(() -> {
+            if (handle.future.isDone()) {
+                return;
+            }
+            attempt.runner = Thread.currentThread();
+            try {
+                handle.future.complete(supplier.get());
+            } catch (Throwable t) {
+                handle.future.completeExceptionally(t);
+            } finally {
+                attempt.runner = null;
+            }
+        }, context), null);
+        handle.attempts.add(attempt);
+        try {
+            executor.execute(attempt.future);
+        } catch (RejectedExecutionException e) {
+            handle.attempts.remove(attempt);
+            if (hedge) {
+                LOG.debug("任务{}的对冲请求被线程池拒绝, 继续等待首次请求的结果", handle.name);
+                return;
+            }
+            LOG.warn("任务{}被线程池拒绝 : {}", handle.name, e.getMessage());
+            handle.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 记录任务的耗时
+     */
+    private void recordLatency(GXTaskHandle<?> handle, boolean success) {
+        handle.elapsedNanos = System.nanoTime() - handle.startNanos;
+        if (Objects.isNull(meterRegistry)) {
+            return;
+        }
+        try {
+            taskTimer(meterRegistry, handle.name, success ? "success" : "failure").record(handle.elapsedNanos, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            LOG.debug("并行任务{}记录耗时失败 : {}", handle.name, e.getMessage());
+        }
+    }
+
+    /**
+     * 获取任务耗时的Timer
+     * 同一个任务名字以及结果只注册一次, 不在每个任务完成时重复构建
+     */
+    private static Timer taskTimer(MeterRegistry registry, String name, String outcome) {
+        if (timerRegistry != registry) {
+            synchronized (TASK_TIMERS) {
+                if (timerRegistry != registry) {
+                    TASK_TIMERS.clear();
+                    timerRegistry = registry;
+                }
+            }
+        }
+        return TASK_TIMERS.computeIfAbsent(name + ":" + outcome, key -> Timer.builder("maple.fan-out.task")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    /**
+     * 部分结果的处理策略
+     */
+    public enum GXFanOutPolicy {
+        /**
+         * 任意任务失败或者超时都取消其他任务并抛出异常
+         */
+        FAIL_FAST,
+        /**
+         * 忽略失败的任务, 返回已经成功的结果
+         */
+        ALLOW_PARTIAL
+    }
+
+    /**
+     * 任务句柄
+     *
+     * @param <T> 结果类型
+     */
+    public static final class GXTaskHandle<T> {
+        /**
+         * 任务名字
+         */
+        private final String name;
+
+        /**
+         * 任务的结果
+         */
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /**
+         * 正在执行的任务(包括对冲请求)
+         */
+        private final List<GXAttempt> attempts = new CopyOnWriteArrayList<>();
+
+        /**
+         * 任务的开始时间
+         */
+        private final long startNanos = System.nanoTime();
+
+        /**
+         * 任务的耗时
+         */
+        private volatile long elapsedNanos = -1;
+
+        private GXTaskHandle(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 获取任务名字
+         *
+         * @return 任务名字
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 任务是否成功完成
+         *
+         * @return boolean
+         */
+        public boolean isSuccess() {
+            return future.isDone() && !future.isCompletedExceptionally();
+        }
+
+        /**
+         * 获取任务的结果
+         * 任务未成功时抛出GXBusinessException
+         *
+         * @return 任务的结果
+         */
+        public T get() {
+            if (!isSuccess()) {
+                throw new GXBusinessException(CharSequenceUtil.format("并行任务{}没有可用的结果", name), getError());
+            }
+            return future.join();
+        }
+
+        /**
+         * 获取任务的结果, 任务未成功时返回默认值
+         *
+         * @param defaultValue 默认值
+         * @return 任务的结果
+         */
+        public T getOrDefault(T defaultValue) {
+            return isSuccess() ? future.join() : defaultValue;
+        }
+
+        /**
+         * 获取任务失败的原因
+         *
+         * @return 失败的原因 任务成功或者未完成时返回null
+         */
+        public Throwable getError() {
+            if (!future.isCompletedExceptionally()) {
+                return null;
+            }
+            try {
+                future.join();
+                return null;
+            } catch (CancellationException e) {
+                return e;
+            } catch (CompletionException e) {
+                return Objects.isNull(e.getCause()) ? e : e.getCause();
+            }
+        }
+
+        /**
+         * 获取任务的耗时
+         *
+         * @return 耗时(毫秒) 任务未完成时返回-1
+         */
+        public long getElapsedMillis() {
+            return elapsedNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        /**
+         * 中断所有仍在执行的任务
+         * 完成结果的任务自己不会被中断
+         */
+        private void cancelAttempts() {
+            Thread current = Thread.currentThread();
+            attempts.forEach(attempt -> {
+                Future<?> future = attempt.future;
+                if (Objects.nonNull(future) && attempt.runner != current) {
+                    future.cancel(true);
+                }
+            });
+        }
+    }
+
+    /**
+     * 任务的一次执行
+     */
+    private static final class GXAttempt {
+        private volatile FutureTask<Void> future;
+
+        private volatile Thread runner;
+    }
+}
@@ -25,6 +25,8 @@ public class GXMdcThreadUtils {
 
     public static <T> Callable<T> wrap(final Callable<T> callable, final Map<String, String> context) {
         return () -> {
+            // 任务可能由调用线程直接执行(例如CallerRunsPolicy), 执行完成之后需要还原调用线程原有的MDC
+            Map<String, String> previous = MDC.getCopyOfContextMap();
             if (context == null) {
                 MDC.clear();
             } else {
@@ -34,13 +36,19 @@ public class GXMdcThreadUtils {
             try {
                 return callable.call();
             } finally {
-                MDC.clear();
+                if (previous == null) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previous);
+                }
             }
         };
     }
 
     public static Runnable wrap(final Runnable runnable, final Map<String, String> context) {
         return () -> {
+            // 任务可能由调用线程直接执行(例如CallerRunsPolicy), 执行完成之后需要还原调用线程原有的MDC
+            Map<String, String> previous = MDC.getCopyOfContextMap();
             if (context == null) {
                 MDC.clear();
             } else {
@@ -50,7 +58,11 @@ public class GXMdcThreadUtils {
             try {
                 runnable.run();
             } finally {
-                MDC.clear();
+                if (previous == null) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previous);
+                }
             }
         };
     }
@@ -0,0 +1,237 @@
+package cn.maple.core.framework.util;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.maple.core.framework.util.reflect.GXMethodInvoker;
+import cn.maple.core.framework.util.reflect.GXMethodInvokerCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 树形结构构建工具
+ * <p>
+ * 先一次遍历源列表按照父级ID建立索引, 再从根结点开始逐层挂载子结点, 整体复杂度为O(n)。
+ * 可以直接传入访问器(方法引用), 也可以传入方法名字, 方法名字会解析为缓存的MethodHandle调用器。
+ * 构建好的树可以按照源数据的版本号缓存, 缓存的规格通过以下配置项指定(Caffeine spec):
+ * <pre>
+ * maple.framework.tree.cache=maximumSize=256
+ * </pre>
+ */
+public class GXTreeUtils {
+    /**
+     * 日志对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(GXTreeUtils.class);
+
+    /**
+     * 树缓存的配置项
+     */
+    private static final String TREE_CACHE_CONFIG_NAME = "maple.framework.tree.cache";
+
+    /**
+     * 默认的父级字段的get方法名字
+     */
+    private static final String DEFAULT_GET_PARENT_METHOD_NAME = "getParentId";
+
+    /**
+     * 默认的ID字段的get方法名字
+     */
+    private static final String DEFAULT_GET_ID_METHOD_NAME = "getId";
+
+    /**
+     * 默认的设置子级的方法名字
+     */
+    private static final String DEFAULT_SET_CHILDREN_METHOD_NAME = "setChildren";
+
+    private GXTreeUtils() {
+    }
+
+    /**
+     * 构建树
+     *
+     * @param sourceList          源列表
+     * @param rootParentValue     根父级的值, 一般是 0
+     * @param getParentMethodName 父级字段的get方法名字 为空时使用getParentId
+     * @param parallel            是否并行构建各个根结点的子树
+     * @param <R>                 元素类型
+     * @return 根结点列表
+     */
+    public static <R> List<R> buildTree(List<R> sourceList, Object rootParentValue, String getParentMethodName, boolean parallel) {
+        String parentMethodName = CharSequenceUtil.isNotBlank(getParentMethodName) ? getParentMethodName : DEFAULT_GET_PARENT_METHOD_NAME;
+        Function<R, Object> idGetter = methodGetter(DEFAULT_GET_ID_METHOD_NAME);
+        Function<R, Object> parentIdGetter = methodGetter(parentMethodName);
+        BiConsumer<R, List<R>> childrenSetter = methodSetter(DEFAULT_SET_CHILDREN_METHOD_NAME);
+        return buildTree(sourceList, rootParentValue, idGetter, parentIdGetter, childrenSetter, parallel);
+    }
+
+    /**
+     * 构建树
+     * <p>
+     * {@code}
+     * eg:
+     * GXTreeUtils.buildTree(menus, 0, MenuResDto::getId, MenuResDto::getParentId, MenuResDto::setChildren, false);
+     * {code}
+     *
+     * @param sourceList      源列表
+     * @param rootParentValue 根父级的值, 一般是 0
+     * @param idGetter        ID的访问器
+     * @param parentIdGetter  父级ID的访问器
+     * @param childrenSetter  设置子级的访问器(只会在存在子级时调用)
+     * @param parallel        是否并行构建各个根结点的子树
+     * @param <R>             元素类型
+     * @return 根结点列表
+     */
+    public static <R> List<R> buildTree(List<R> sourceList, Object rootParentValue, Function<R, ?> idGetter, Function<R, ?> parentIdGetter, BiConsumer<R, List<R>> childrenSetter, boolean parallel) {
+        if (CollUtil.isEmpty(sourceList)) {
+            return new ArrayList<>();
+        }
+        List<R> roots = new ArrayList<>();
+        Map<Object, List<R>> childrenIndex = new HashMap<>();
+        for (R node : sourceList) {
+            Object parentId = parentIdGetter.apply(node);
+            if (Objects.equals(parentId, rootParentValue)) {
+                roots.add(node);
+            } else {
+                childrenIndex.computeIfAbsent(parentId, k -> new ArrayList<>()).add(node);
+            }
+        }
+        if (parallel && roots.size() > 1) {
+            roots.parallelStream().forEach(root -> attachChildren(root, childrenIndex, idGetter, childrenSetter));
+        } else {
+            roots.forEach(root -> attachChildren(root, childrenIndex, idGetter, childrenSetter));
+        }
+        return roots;
+    }
+
+    /**
+     * 构建树并按照源数据的版本号缓存
+     * 版本号与缓存中的版本号一致时直接返回缓存的树, 否则重新获取源数据并构建
+     * 返回的树会被多个调用方共享, 调用方不能修改
+     *
+     * @param cacheKey            缓存的KEY
+     * @param version             源数据的版本号(eg: 最大的更新时间、数据条数与更新时间的组合)
+     * @param sourceSupplier      源数据的提供者
+     * @param rootParentValue     根父级的值, 一般是 0
+     * @param getParentMethodName 父级字段的get方法名字 为空时使用getParentId
+     * @param <R>                 元素类型
+     * @return 根结点列表
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> List<R> buildCachedTree(String cacheKey, Object version, Supplier<List<R>> sourceSupplier, Object rootParentValue, String getParentMethodName) {
+        Cache<String, GXVersionedTree> cache = GXCaffeineCacheUtils.getCaffeineCache(TREE_CACHE_CONFIG_NAME);
+        GXVersionedTree cached = cache.getIfPresent(cacheKey);
+        if (Objects.nonNull(cached) && Objects.equals(cached.version, version)) {
+            return (List<R>) cached.tree;
+        }
+        List<R> tree = Collections.unmodifiableList(buildTree(sourceSupplier.get(), rootParentValue, getParentMethodName, false));
+        cache.put(cacheKey, new GXVersionedTree(version, tree));
+        return tree;
+    }
+
+    /**
+     * 使指定KEY的缓存树失效
+     *
+     * @param cacheKey 缓存的KEY
+     */
+    public static void invalidateCachedTree(String cacheKey) {
+        Cache<String, GXVersionedTree> cache = GXCaffeineCacheUtils.getCaffeineCache(TREE_CACHE_CONFIG_NAME);
+        cache.invalidate(cacheKey);
+    }
+
+    /**
+     * 从根结点开始逐层挂载子结点
+     * 已经挂载过的结点不会再次处理, 父子关系存在环时不会死循环
+     *
+     * @param root           根结点
+     * @param childrenIndex  父级ID -> 子结点列表
+     * @param idGetter       ID的访问器
+     * @param childrenSetter 设置子级的访问器
+     * @param <R>            元素类型
+     */
+    private static <R> void attachChildren(R root, Map<Object, List<R>> childrenIndex, Function<R, ?> idGetter, BiConsumer<R, List<R>> childrenSetter) {
+        Set<R> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<R> queue = new ArrayDeque<>();
+        queue.add(root);
+        visited.add(root);
+        while (!queue.isEmpty()) {
+            R parent = queue.poll();
+            List<R> children = childrenIndex.get(idGetter.apply(parent));
+            if (CollUtil.isEmpty(children)) {
+                continue;
+            }
+            childrenSetter.accept(parent, new ArrayList<>(children));
+            for (R child : children) {
+                if (visited.add(child)) {
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * 将无参的get方法转换为访问器
+     * 方法不存在时访问器返回null
+     *
+     * @param methodName 方法名字
+     * @param <R>        元素类型
+     * @return 访问器
+     */
+    private static <R> Function<R, Object> methodGetter(String methodName) {
+        Map<Class<?>, Optional<GXMethodInvoker>> invokers = new ConcurrentHashMap<>();
+        return node -> resolveInvoker(invokers, node, methodName).map(invoker -> invoker.invoke(node)).orElse(null);
+    }
+
+    /**
+     * 将设置子级的方法转换为访问器
+     * 方法不存在时访问器不做任何处理
+     *
+     * @param methodName 方法名字
+     * @param <R>        元素类型
+     * @return 访问器
+     */
+    private static <R> BiConsumer<R, List<R>> methodSetter(String methodName) {
+        Map<Class<?>, Optional<GXMethodInvoker>> invokers = new ConcurrentHashMap<>();
+        return (node, children) -> resolveInvoker(invokers, node, methodName, children).ifPresent(invoker -> invoker.invoke(node, children));
+    }
+
+    /**
+     * 按照元素的实际类型解析方法调用器
+     * 同一次构建中的元素一般是同一种类型, 每种类型只解析一次
+     *
+     * @param invokers   已经解析的调用器
+     * @param node       元素
+     * @param methodName 方法名字
+     * @param params     参数
+     * @return 方法调用器
+     */
+    private static Optional<GXMethodInvoker> resolveInvoker(Map<Class<?>, Optional<GXMethodInvoker>> invokers, Object node, String methodName, Object... params) {
+        return invokers.computeIfAbsent(node.getClass(), clazz -> {
+            Optional<GXMethodInvoker> invoker = GXMethodInvokerCache.getInvoker(clazz, methodName, params);
+            if (invoker.isEmpty()) {
+                LOG.warn("方法{}.{}不存在,构建树时将忽略该方法!", clazz.getSimpleName(), methodName);
+            }
+            return invoker;
+        });
+    }
+
+    /**
+     * 带版本号的树
+     */
+    private static final class GXVersionedTree {
+        private final Object version;
+
+        private final List<?> tree;
+
+        GXVersionedTree(Object version, List<?> tree) {
+            this.version = version;
+            this.tree = tree;
+        }
+    }
+}
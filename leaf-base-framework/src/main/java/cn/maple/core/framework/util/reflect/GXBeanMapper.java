@@ -0,0 +1,340 @@
+package cn.maple.core.framework.util.reflect;
+
+import cn.hutool.core.bean.BeanDesc;
+import cn.hutool.core.bean.BeanException;
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.PropDesc;
+import cn.hutool.core.bean.copier.CopyOptions;
+import cn.hutool.core.bean.copier.ValueProvider;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.convert.TypeConverter;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.TypeUtil;
+import cn.maple.core.framework.util.GXCommonUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * 预先解析好的对象映射器
+ * <p>
+ * 每一种(源类型, 目标类型)只解析一次目标对象的构造器以及属性的读写方法, 需要回调的方法由GXMethodInvokerCache缓存,
+ * 之后每次转换都直接使用缓存的MethodHandle完成, 不再重复查找属性描述与方法。
+ * 只有使用默认的CopyOptions时才走预解析的路径, 自定义CopyOptions或者目标类型是Map时仍然交给Hutool的BeanUtil处理,
+ * 以保证字段过滤、字段映射等选项的语义不变。
+ * 属性的匹配规则与Hutool保持一致:
+ * Map源对象依次按照 原始KEY、驼峰形式的KEY、去掉is前缀的KEY 查找目标属性, Bean源对象按照属性名字精确匹配。
+ *
+ * @param <T> 目标对象类型
+ */
+public class GXBeanMapper<T> {
+    /**
+     * 日志对象
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(GXBeanMapper.class);
+
+    /**
+     * 每个映射器最多缓存的Map源对象KEY的数量
+     * Map的KEY由调用方决定(例如直接转换请求参数), 不限制数量时会无限增长
+     */
+    private static final int MAX_KEY_WRITERS = 512;
+
+    /**
+     * 目标对象类型
+     */
+    private final Class<T> targetClass;
+
+    /**
+     * 目标对象的无参构造器
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * 目标对象的属性描述
+     */
+    private final Map<String, PropDesc> targetPropDescMap;
+
+    /**
+     * Bean源对象预先匹配好的属性
+     */
+    private final List<GXPropertyPair> propertyPairs;
+
+    /**
+     * Map源对象的KEY对应的属性写入器(找不到属性时缓存为空)
+     * 超过MAX_KEY_WRITERS之后淘汰不常用的KEY, 被淘汰的KEY再次出现时重新解析
+     */
+    private final Cache<String, Optional<GXPropertyWriter>> keyWriters = Caffeine.newBuilder().maximumSize(MAX_KEY_WRITERS).build();
+
+    GXBeanMapper(Class<?> sourceClass, Class<T> targetClass) {
+        this.targetClass = targetClass;
+        this.constructor = resolveConstructor(targetClass);
+        this.targetPropDescMap = Map.class.isAssignableFrom(targetClass) ? Collections.emptyMap() : BeanUtil.getBeanDesc(targetClass).getPropMap(false);
+        this.propertyPairs = Map.class.isAssignableFrom(sourceClass) ? Collections.emptyList() : resolvePropertyPairs(sourceClass);
+    }
+
+    /**
+     * 创建目标对象
+     *
+     * @return 目标对象
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        if (Objects.isNull(constructor)) {
+            return ReflectUtil.newInstanceIfPossible(targetClass);
+        }
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new BeanException(t, "Instance class [{}] error!", targetClass.getName());
+        }
+    }
+
+    /**
+     * 将源对象的属性拷贝到目标对象
+     *
+     * @param source      源对象
+     * @param target      目标对象
+     * @param copyOptions 拷贝选项
+     */
+    public void copy(Object source, T target, CopyOptions copyOptions) {
+        if (copyOptions != GXCommonUtils.getDefaultCopyOptions() || target instanceof Map || source instanceof ValueProvider) {
+            BeanUtil.copyProperties(source, target, copyOptions);
+            return;
+        }
+        TypeConverter converter = GXCommonUtils.getDefaultTypeConverter();
+        if (source instanceof Map) {
+            ((Map<?, ?>) source).forEach((key, value) -> {
+                if (Objects.isNull(key)) {
+                    return;
+                }
+                keyWriters.get(key.toString(), this::resolveKeyWriter).ifPresent(writer -> writer.write(target, value, converter));
+            });
+            return;
+        }
+        for (GXPropertyPair pair : propertyPairs) {
+            pair.writer.write(target, pair.reader.read(source), converter);
+        }
+    }
+
+    /**
+     * 调用目标对象中的方法
+     * 方法通过GXMethodInvokerCache解析, 查找规则与GXCommonUtils.reflectCallObjectMethod一致
+     *
+     * @param target     目标对象
+     * @param methodName 方法名字
+     * @param params     参数
+     * @return 方法的返回值
+     */
+    public Object invokeHook(T target, String methodName, Object... params) {
+        Optional<GXMethodInvoker> invoker = GXMethodInvokerCache.getInvoker(targetClass, methodName, params);
+        if (invoker.isEmpty()) {
+            LOG.warn("方法{}.{}({})不存在,反射调用失败!", targetClass.getSimpleName(), methodName, params);
+            return null;
+        }
+        return invoker.get().invoke(target, params);
+    }
+
+    /**
+     * 解析Map源对象的KEY对应的属性写入器
+     *
+     * @param key Map的KEY
+     * @return 属性写入器
+     */
+    private Optional<GXPropertyWriter> resolveKeyWriter(String key) {
+        PropDesc propDesc = targetPropDescMap.get(key);
+        if (Objects.isNull(propDesc)) {
+            String camelKey = CharSequenceUtil.toCamelCase(key);
+            propDesc = targetPropDescMap.get(camelKey);
+            if (Objects.isNull(propDesc) && camelKey.startsWith("is")) {
+                propDesc = targetPropDescMap.get(CharSequenceUtil.removePreAndLowerFirst(camelKey, 2));
+            }
+        }
+        if (Objects.isNull(propDesc) || !propDesc.isWritable(true)) {
+            return Optional.empty();
+        }
+        return Optional.of(new GXPropertyWriter(targetClass, propDesc));
+    }
+
+    /**
+     * 预先匹配Bean源对象与目标对象中同名的属性
+     *
+     * @param sourceClass 源对象类型
+     * @return 匹配好的属性
+     */
+    private List<GXPropertyPair> resolvePropertyPairs(Class<?> sourceClass) {
+        BeanDesc sourceBeanDesc = BeanUtil.getBeanDesc(sourceClass);
+        List<GXPropertyPair> pairs = new ArrayList<>();
+        sourceBeanDesc.getPropMap(false).forEach((name, sourcePropDesc) -> {
+            if (Objects.isNull(name) || !sourcePropDesc.isReadable(true)) {
+                return;
+            }
+            PropDesc targetPropDesc = targetPropDescMap.get(name);
+            if (Objects.isNull(targetPropDesc) || !targetPropDesc.isWritable(true)) {
+                return;
+            }
+            pairs.add(new GXPropertyPair(new GXPropertyReader(sourcePropDesc), new GXPropertyWriter(targetClass, targetPropDesc)));
+        });
+        return pairs;
+    }
+
+    /**
+     * 解析目标对象的无参构造器
+     *
+     * @param targetClass 目标对象类型
+     * @return 签名为()Object的构造器句柄, 无法使用时返回null
+     */
+    private static MethodHandle resolveConstructor(Class<?> targetClass) {
+        if (targetClass.isInterface() || Modifier.isAbstract(targetClass.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> ctor = targetClass.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 属性读取器
+     */
+    private static final class GXPropertyReader {
+        private final PropDesc propDesc;
+
+        /**
+         * 签名为(Object)Object的读取句柄, 无法使用时为null
+         */
+        private final MethodHandle getter;
+
+        GXPropertyReader(PropDesc propDesc) {
+            this.propDesc = propDesc;
+            this.getter = resolveGetter(propDesc);
+        }
+
+        Object read(Object source) {
+            if (Objects.isNull(getter)) {
+                return propDesc.getValue(source);
+            }
+            try {
+                return (Object) getter.invokeExact(source);
+            } catch (Throwable t) {
+                throw new BeanException(t, "Get value of [{}] error!", propDesc.getFieldName());
+            }
+        }
+
+        private static MethodHandle resolveGetter(PropDesc propDesc) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle mh;
+                if (Objects.nonNull(propDesc.getGetter())) {
+                    Method getter = propDesc.getGetter();
+                    getter.setAccessible(true);
+                    mh = lookup.unreflect(getter);
+                } else if (Objects.nonNull(propDesc.getField()) && Modifier.isPublic(propDesc.getField().getModifiers())) {
+                    mh = lookup.unreflectGetter(propDesc.getField());
+                } else {
+                    return null;
+                }
+                return mh.asType(MethodType.methodType(Object.class, Object.class));
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 属性写入器
+     * 写入前的类型转换与Hutool的PropDesc.setValue保持一致
+     */
+    private static final class GXPropertyWriter {
+        private final PropDesc propDesc;
+
+        /**
+         * 属性的实际类型(已解析泛型)
+         */
+        private final Type fieldType;
+
+        /**
+         * 属性的Class
+         */
+        private final Class<?> fieldClass;
+
+        /**
+         * 签名为(Object, Object)void的写入句柄, 无法使用时为null
+         */
+        private final MethodHandle setter;
+
+        GXPropertyWriter(Class<?> targetClass, PropDesc propDesc) {
+            this.propDesc = propDesc;
+            this.fieldType = TypeUtil.getActualType(targetClass, propDesc.getFieldType());
+            this.fieldClass = propDesc.getFieldClass();
+            this.setter = resolveSetter(propDesc);
+        }
+
+        void write(Object target, Object value, TypeConverter converter) {
+            Object newValue = converter.convert(fieldType, value);
+            if (Objects.isNull(setter)) {
+                propDesc.setValue(target, newValue, false, false, true);
+                return;
+            }
+            if (Objects.nonNull(newValue) && !fieldClass.isInstance(newValue)) {
+                newValue = Convert.convertWithCheck(fieldClass, newValue, null, false);
+            }
+            if (Objects.isNull(newValue) && fieldClass.isPrimitive()) {
+                newValue = ClassUtil.getPrimitiveDefaultValue(fieldClass);
+            }
+            try {
+                setter.invokeExact(target, newValue);
+            } catch (Throwable t) {
+                throw new BeanException(t, "Set value of [{}] error!", propDesc.getFieldName());
+            }
+        }
+
+        private static MethodHandle resolveSetter(PropDesc propDesc) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle mh;
+                if (Objects.nonNull(propDesc.getSetter())) {
+                    Method setter = propDesc.getSetter();
+                    setter.setAccessible(true);
+                    mh = lookup.unreflect(setter);
+                } else if (Objects.nonNull(propDesc.getField()) && Modifier.isPublic(propDesc.getField().getModifiers())) {
+                    mh = lookup.unreflectSetter(propDesc.getField());
+                } else {
+                    return null;
+                }
+                // setter可能有返回值(链式调用), 统一丢弃
+                return mh.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Bean源对象与目标对象同名属性的读写组合
+     */
+    private static final class GXPropertyPair {
+        private final GXPropertyReader reader;
+
+        private final GXPropertyWriter writer;
+
+        GXPropertyPair(GXPropertyReader reader, GXPropertyWriter writer) {
+            this.reader = reader;
+            this.writer = writer;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package cn.maple.core.framework.util.reflect;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GXBeanMapper缓存<br>
+ * 每一种(源类型, 目标类型)只创建一次映射器, 所有Map类型的源对象共用同一个映射器
+ */
+public enum GXBeanMapperCache {
+    /**
+     * GXBeanMapper缓存单例
+     */
+    INSTANCE;
+
+    /**
+     * 目标类型 -> (源类型 -> 映射器)
+     */
+    private final Map<Class<?>, Map<Class<?>, GXBeanMapper<?>>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取源类型与目标类型对应的映射器
+     *
+     * @param srcClass    源对象的类
+     * @param targetClass 目标对象的类
+     * @param <T>         目标对象类型
+     * @return GXBeanMapper
+     */
+    @SuppressWarnings("unchecked")
+    public <T> GXBeanMapper<T> get(final Class<?> srcClass, final Class<T> targetClass) {
+        final Class<?> sourceKey = Map.class.isAssignableFrom(srcClass) ? Map.class : srcClass;
+        return (GXBeanMapper<T>) cache.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>()).computeIfAbsent(sourceKey, k -> new GXBeanMapper<>(sourceKey, targetClass));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.clear();
+    }
+}
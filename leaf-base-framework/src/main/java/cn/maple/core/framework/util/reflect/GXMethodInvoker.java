@@ -0,0 +1,146 @@
+package cn.maple.core.framework.util.reflect;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.ModifierUtil;
+import cn.maple.core.framework.exception.GXBeanValidateException;
+import cn.maple.core.framework.exception.GXBusinessException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * 基于MethodHandle的方法调用器
+ * <p>
+ * 方法在创建调用器时只解析一次, 之后每次调用都通过固定签名(Object, Object[])Object的MethodHandle
+ * 使用invokeExact完成, 不再经过Method.invoke的访问检查与参数包装。
+ * 参数的适配规则与Hutool的ReflectUtil.invoke保持一致:
+ * 缺失或者为null的参数使用参数类型的默认值, 类型不匹配的参数尝试使用Convert转换。
+ * 参数个数与类型完全匹配时直接使用调用方传入的参数数组, 不再复制。
+ */
+public final class GXMethodInvoker {
+    /**
+     * 被调用的方法
+     */
+    private final Method method;
+
+    /**
+     * 方法的参数类型
+     */
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * 签名为(Object, Object[])Object的方法句柄
+     */
+    private final MethodHandle handle;
+
+    private GXMethodInvoker(Method method, MethodHandle handle) {
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.handle = handle;
+    }
+
+    /**
+     * 为指定的方法创建调用器
+     *
+     * @param method 方法
+     * @return GXMethodInvoker
+     */
+    public static GXMethodInvoker of(Method method) {
+        try {
+            method.setAccessible(true);
+            int parameterCount = method.getParameterCount();
+            MethodHandle mh = MethodHandles.lookup().unreflect(method).asFixedArity();
+            if (ModifierUtil.isStatic(method)) {
+                mh = mh.asType(MethodType.genericMethodType(parameterCount));
+                mh = MethodHandles.dropArguments(mh, 0, Object.class);
+            } else {
+                mh = mh.asType(MethodType.genericMethodType(parameterCount + 1));
+            }
+            mh = mh.asSpreader(Object[].class, parameterCount);
+            return new GXMethodInvoker(method, mh);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new GXBusinessException(ClassUtil.getClassName(method.getDeclaringClass(), true) + "." + method.getName() + "无法创建方法调用器", e);
+        }
+    }
+
+    /**
+     * 调用方法
+     * <p>
+     * 被调用方法抛出的GXBeanValidateException原样抛出, 其他异常统一包装为GXBusinessException
+     *
+     * @param target 目标对象(静态方法可以传null)
+     * @param args   参数
+     * @return 方法的返回值(void方法返回null)
+     */
+    public Object invoke(Object target, Object... args) {
+        Object[] actualArgs = adaptArgs(args);
+        try {
+            return (Object) handle.invokeExact(target, actualArgs);
+        } catch (GXBeanValidateException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new GXBusinessException(t.getMessage(), Optional.ofNullable(t.getCause()).orElse(t));
+        }
+    }
+
+    /**
+     * 获取被调用的方法
+     *
+     * @return Method
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 按照方法的参数类型适配实际参数
+     *
+     * @param args 实际参数
+     * @return 适配之后的参数
+     */
+    private Object[] adaptArgs(Object[] args) {
+        if (isExactArgs(args)) {
+            return args;
+        }
+        Object[] actualArgs = new Object[parameterTypes.length];
+        for (int i = 0; i < actualArgs.length; i++) {
+            Class<?> type = parameterTypes[i];
+            Object arg = (null == args || i >= args.length) ? null : args[i];
+            if (null == arg) {
+                actualArgs[i] = ClassUtil.getDefaultValue(type);
+            } else if (!type.isAssignableFrom(arg.getClass())) {
+                actualArgs[i] = Convert.convertQuietly(type, arg, arg);
+            } else {
+                actualArgs[i] = arg;
+            }
+        }
+        return actualArgs;
+    }
+
+    /**
+     * 判断实际参数是否可以不经过适配直接调用
+     *
+     * @param args 实际参数
+     * @return boolean
+     */
+    private boolean isExactArgs(Object[] args) {
+        if (null == args || args.length != parameterTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (null == arg) {
+                if (parameterTypes[i].isPrimitive()) {
+                    return false;
+                }
+            } else if (!parameterTypes[i].isAssignableFrom(arg.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package cn.maple.core.framework.util.reflect;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.ReflectUtil;
+import cn.maple.core.framework.util.GXCaffeineCacheUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 方法调用器缓存
+ * <p>
+ * 按照(类型, 方法名字, 参数类型)缓存解析好的GXMethodInvoker, 找不到的方法同样会被缓存,
+ * 避免每次反射调用都重新经过Hutool查找方法。
+ * 缓存的规格通过以下配置项指定(Caffeine spec), 命中率等统计信息会注册到Micrometer中:
+ * <pre>
+ * maple.framework.reflect.method.cache=maximumSize=4096
+ * </pre>
+ */
+public class GXMethodInvokerCache {
+    /**
+     * 缓存的配置项
+     */
+    private static final String METHOD_CACHE_CONFIG_NAME = "maple.framework.reflect.method.cache";
+
+    /**
+     * 无参数时共用的参数类型
+     */
+    private static final Class<?>[] EMPTY_CLASSES = new Class<?>[0];
+
+    private GXMethodInvokerCache() {
+    }
+
+    /**
+     * 获取方法调用器
+     * 查找规则与之前的反射调用保持一致: 先按照参数类型查找, 无参数时再按照方法名字查找
+     *
+     * @param clazz      目标类型
+     * @param methodName 方法名字
+     * @param params     实际参数(用于推断参数类型, null参数的类型按照null处理)
+     * @return 方法调用器, 方法不存在时返回空
+     */
+    public static Optional<GXMethodInvoker> getInvoker(Class<?> clazz, String methodName, Object... params) {
+        Class<?>[] classes = EMPTY_CLASSES;
+        if (Objects.nonNull(params) && params.length > 0) {
+            classes = new Class<?>[params.length];
+            for (int i = 0; i < params.length; i++) {
+                if (Objects.nonNull(params[i])) {
+                    classes[i] = params[i].getClass();
+                }
+            }
+        }
+        Cache<GXMethodKey, Optional<GXMethodInvoker>> cache = GXCaffeineCacheUtils.getCaffeineCache(METHOD_CACHE_CONFIG_NAME);
+        return cache.get(new GXMethodKey(clazz, methodName, classes), GXMethodInvokerCache::resolve);
+    }
+
+    /**
+     * 获取缓存的统计信息
+     *
+     * @return 命中次数、未命中次数等统计信息
+     */
+    public static Dict getStats() {
+        Cache<GXMethodKey, Optional<GXMethodInvoker>> cache = GXCaffeineCacheUtils.getCaffeineCache(METHOD_CACHE_CONFIG_NAME);
+        return GXCaffeineCacheUtils.convertCacheStats(cache.stats()).set("estimatedSize", cache.estimatedSize());
+    }
+
+    /**
+     * 解析方法
+     *
+     * @param key 缓存的KEY
+     * @return 方法调用器
+     */
+    private static Optional<GXMethodInvoker> resolve(GXMethodKey key) {
+        Method method = ReflectUtil.getMethod(key.clazz, key.methodName, key.classes);
+        if (Objects.isNull(method) && key.classes.length == 0) {
+            method = ReflectUtil.getMethodByName(key.clazz, key.methodName);
+        }
+        if (Objects.isNull(method)) {
+            return Optional.empty();
+        }
+        return Optional.of(GXMethodInvoker.of(method));
+    }
+
+    /**
+     * 缓存的KEY
+     */
+    private static final class GXMethodKey {
+        private final Class<?> clazz;
+
+        private final String methodName;
+
+        private final Class<?>[] classes;
+
+        private final int hash;
+
+        GXMethodKey(Class<?> clazz, String methodName, Class<?>[] classes) {
+            this.clazz = clazz;
+            this.methodName = methodName;
+            this.classes = classes;
+            this.hash = 31 * (31 * clazz.hashCode() + methodName.hashCode()) + Arrays.hashCode(classes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GXMethodKey)) {
+                return false;
+            }
+            GXMethodKey other = (GXMethodKey) o;
+            return hash == other.hash && clazz == other.clazz && methodName.equals(other.methodName) && Arrays.equals(classes, other.classes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package cn.maple.core.framework.wrapper.mdc;
+
+import cn.maple.core.framework.util.GXMdcThreadUtils;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * GXMdcWrapperVirtualThreadExecutor
+ * 基于虚拟线程的线程池包装类
+ *
+ * <p>
+ * 每个任务使用一个新的虚拟线程执行, 通过信号量限制同时执行的任务数量(舱壁隔离),
+ * 超过限制的任务交给RejectedExecutionHandler处理, 同时与GXMdcWrapperThreadPoolExecutor一样传递MDC上下文。
+ */
+public class GXMdcWrapperVirtualThreadExecutor extends AbstractExecutorService {
+    /**
+     * 真正执行任务的虚拟线程执行器
+     */
+    private final ExecutorService delegate;
+
+    /**
+     * 限制同时执行的任务数量
+     */
+    private final Semaphore permits;
+
+    /**
+     * 最大并发数
+     */
+    private final int maxConcurrency;
+
+    /**
+     * 超过并发限制时的处理策略
+     * 接收到的Executor参数为null
+     */
+    private final RejectedExecutionHandler handler;
+
+    public GXMdcWrapperVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency, RejectedExecutionHandler handler) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.handler = handler;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (isShutdown()) {
+            throw new RejectedExecutionException("线程池已经关闭");
+        }
+        if (!permits.tryAcquire()) {
+            handler.rejectedExecution(task, null);
+            return;
+        }
+        Runnable wrapped = GXMdcThreadUtils.wrap(task, MDC.getCopyOfContextMap());
+        try {
+            delegate.execute(() -> {
+                try {
+                    wrapped.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            handler.rejectedExecution(task, null);
+        }
+    }
+
+    /**
+     * 获取正在执行的任务数量
+     *
+     * @return 正在执行的任务数量
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 获取最大并发数
+     *
+     * @return 最大并发数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,113 @@
+package cn.maple.core.framework.aspect;
+
+import cn.hutool.core.lang.Assert;
+import cn.maple.core.framework.annotation.GXCacheable;
+import cn.maple.core.framework.cache.GXCacheSingleFlight;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.service.GXBaseCacheService;
+import cn.maple.core.framework.service.GXBusinessService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 使用内存中的缓存服务验证提前刷新会覆盖已经存在的缓存数据
+ */
+public class GXCacheableAspectTest {
+    private final Map<String, Object> store = new ConcurrentHashMap<>();
+
+    private final AtomicInteger version = new AtomicInteger();
+
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * 缓存即将过期时提前刷新, 刷新的结果覆盖旧数据
+     */
+    @Test
+    public void testEarlyRefreshOverwritesEntry() throws Throwable {
+        GXCacheableAspect aspect = new GXCacheableAspect();
+        ReflectionTestUtils.setField(aspect, "cacheSingleFlight", new GXCacheSingleFlight());
+        GXBusinessService target = businessService();
+        ProceedingJoinPoint point = joinPoint(target, UserQuery.class.getMethod("findUser"));
+
+        Assert.equals("v1", aspect.around(point));
+        Assert.equals(1, store.size());
+        String cacheKey = store.keySet().iterator().next();
+        Assert.equals("v1", store.get(cacheKey));
+
+        // 剩余有效时长为0, 一定会提前刷新
+        Assert.equals("v2", aspect.around(point));
+        Assert.equals("v2", store.get(cacheKey));
+        Assert.equals(2, version.get());
+    }
+
+    /**
+     * 没有开启提前刷新时命中缓存不执行目标方法
+     */
+    @Test
+    public void testCacheHitWithoutRefresh() throws Throwable {
+        GXCacheableAspect aspect = new GXCacheableAspect();
+        ReflectionTestUtils.setField(aspect, "cacheSingleFlight", new GXCacheSingleFlight());
+        ProceedingJoinPoint point = joinPoint(businessService(), UserQuery.class.getMethod("findCachedUser"));
+
+        Assert.equals("v1", aspect.around(point));
+        Assert.equals("v1", aspect.around(point));
+        Assert.equals(1, version.get());
+    }
+
+    private GXBusinessService businessService() {
+        GXBaseCacheService cacheService = Mockito.mock(GXBaseCacheService.class);
+        Mockito.when(cacheService.getCache(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenAnswer(invocation -> store.get(invocation.<String>getArgument(1)));
+        Mockito.when(cacheService.setCache(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(Object.class))).thenAnswer(invocation -> store.put(invocation.getArgument(1), invocation.getArgument(2)));
+        Mockito.when(cacheService.getCacheRemainTimeToLive(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenReturn(0L);
+
+        GXBusinessService target = Mockito.mock(GXBusinessService.class, Mockito.CALLS_REAL_METHODS);
+        Mockito.doReturn(cacheService).when(target).getCacheService();
+        Mockito.doReturn(new ReentrantLock()).when(target).getCacheLock(ArgumentMatchers.anyString());
+        return target;
+    }
+
+    private ProceedingJoinPoint joinPoint(Object target, Method method) throws Throwable {
+        MethodSignature signature = Mockito.mock(MethodSignature.class);
+        Mockito.when(signature.getMethod()).thenReturn(method);
+        ProceedingJoinPoint point = Mockito.mock(ProceedingJoinPoint.class);
+        Mockito.when(point.getSignature()).thenReturn(signature);
+        Mockito.when(point.getTarget()).thenReturn(target);
+        Mockito.when(point.getArgs()).thenReturn(new Object[0]);
+        Mockito.when(point.proceed()).thenAnswer(invocation -> {
+            // 保证加载耗时大于0, 提前刷新的概率才会大于0
+            TimeUnit.MILLISECONDS.sleep(5);
+            return "v" + version.incrementAndGet();
+        });
+        return point;
+    }
+
+    public static class UserQuery {
+        @GXCacheable(cacheKey = "'user'", singleFlight = true, earlyRefreshBeta = 1.0)
+        public Object findUser() {
+            return null;
+        }
+
+        @GXCacheable(cacheKey = "'cachedUser'", singleFlight = true)
+        public Object findCachedUser() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package cn.maple.core.framework.cache;
+
+import cn.hutool.core.lang.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+public class GXCacheKeyResolverTest {
+    /**
+     * 字面量、参数以及参数的get方法按顺序使用:拼接
+     */
+    @Test
+    public void testResolve() throws NoSuchMethodException {
+        Method method = UserService.class.getDeclaredMethod("findUser", Long.class, UserReqDto.class);
+        GXCacheKeyResolver resolver = GXCacheKeyResolver.forMethod(method, "'user' + #userId + #reqDto.phone");
+        Assert.equals("user:1:13800000000", resolver.resolve(UserService.class, new Object[]{1L, new UserReqDto("13800000000")}));
+        Assert.equals("user:2:13900000000", resolver.resolve(UserService.class, new Object[]{2L, new UserReqDto("13900000000")}));
+    }
+
+    /**
+     * 参数为null时跳过该片段
+     */
+    @Test
+    public void testResolveNullArgument() throws NoSuchMethodException {
+        Method method = UserService.class.getDeclaredMethod("findUser", Long.class, UserReqDto.class);
+        GXCacheKeyResolver resolver = GXCacheKeyResolver.forMethod(method, "'user' + #userId + #reqDto.phone");
+        Assert.equals("user:1", resolver.resolve(UserService.class, new Object[]{1L, null}));
+        Assert.equals("user:1", resolver.resolve(UserService.class, new Object[]{1L, new UserReqDto(null)}));
+    }
+
+    /**
+     * 表达式为空或者没有可用的片段时使用类名以及方法名(表达式)
+     */
+    @Test
+    public void testResolveFallback() throws NoSuchMethodException {
+        Method method = UserService.class.getDeclaredMethod("findUser", Long.class, UserReqDto.class);
+        Assert.equals("userService:findUser", GXCacheKeyResolver.forMethod(method, "").resolve(UserService.class, new Object[]{null, null}));
+        Assert.equals("userService:#unknown", GXCacheKeyResolver.forMethod(method, "#unknown").resolve(UserService.class, new Object[]{1L, null}));
+    }
+
+    /**
+     * 同一个方法上不同的表达式(例如GXCacheable与GXCacheEvict)使用各自的解析器
+     */
+    @Test
+    public void testSameMethodDifferentExpression() throws NoSuchMethodException {
+        Method method = UserService.class.getDeclaredMethod("findUser", Long.class, UserReqDto.class);
+        Object[] args = {1L, new UserReqDto("13800000000")};
+        GXCacheKeyResolver cacheableResolver = GXCacheKeyResolver.forMethod(method, "'user' + #userId");
+        GXCacheKeyResolver evictResolver = GXCacheKeyResolver.forMethod(method, "'phone' + #reqDto.phone");
+        Assert.equals("user:1", cacheableResolver.resolve(UserService.class, args));
+        Assert.equals("phone:13800000000", evictResolver.resolve(UserService.class, args));
+        Assert.isTrue(cacheableResolver == GXCacheKeyResolver.forMethod(method, "'user' + #userId"));
+    }
+
+    /**
+     * 请求合并的key需要区分不同的类以及方法
+     */
+    @Test
+    public void testFlightKey() throws NoSuchMethodException {
+        Method findUser = UserService.class.getDeclaredMethod("findUser", Long.class, UserReqDto.class);
+        Method findOrder = UserService.class.getDeclaredMethod("findOrder", Long.class);
+        String userKey = GXCacheKeyResolver.forMethod(findUser, "#userId").flightKey(UserService.class, "1");
+        String orderKey = GXCacheKeyResolver.forMethod(findOrder, "#orderId").flightKey(UserService.class, "1");
+        String otherServiceKey = GXCacheKeyResolver.forMethod(findUser, "#userId").flightKey(Object.class, "1");
+        Assert.notEquals(userKey, orderKey);
+        Assert.notEquals(userKey, otherServiceKey);
+    }
+
+    @SuppressWarnings("unused")
+    static class UserService {
+        public Object findUser(Long userId, UserReqDto reqDto) {
+            return null;
+        }
+
+        public Object findOrder(Long orderId) {
+            return null;
+        }
+    }
+
+    public static class UserReqDto {
+        private final String phone;
+
+        public UserReqDto(String phone) {
+            this.phone = phone;
+        }
+
+        public String getPhone() {
+            return phone;
+        }
+    }
+}
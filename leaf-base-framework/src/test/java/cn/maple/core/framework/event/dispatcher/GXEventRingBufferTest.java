@@ -0,0 +1,90 @@
+package cn.maple.core.framework.event.dispatcher;
+
+import cn.hutool.core.lang.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class GXEventRingBufferTest {
+    /**
+     * 容量向上取整为2的幂, 写满之后拒绝写入
+     */
+    @Test
+    public void testCapacity() {
+        GXEventRingBuffer ring = new GXEventRingBuffer(5);
+        for (int i = 0; i < 8; i++) {
+            Assert.isTrue(ring.offer(i));
+        }
+        Assert.isFalse(ring.offer(8));
+        Assert.equals(8L, ring.size());
+    }
+
+    /**
+     * 多轮写入与读取时保持先进先出的顺序
+     */
+    @Test
+    public void testWrapAround() {
+        GXEventRingBuffer ring = new GXEventRingBuffer(4);
+        List<Object> sink = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                Assert.isTrue(ring.offer(next++));
+            }
+            Assert.equals(2, ring.drainTo(sink, 2));
+            Assert.equals(1, ring.drainTo(sink, 4));
+        }
+        Assert.equals(next, sink.size());
+        for (int i = 0; i < sink.size(); i++) {
+            Assert.equals(i, sink.get(i));
+        }
+        Assert.equals(0L, ring.size());
+    }
+
+    /**
+     * 多个生产者并发写入时不丢失元素, 每个生产者的元素保持写入顺序
+     */
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        int producerCount = 4;
+        int perProducer = 20000;
+        GXEventRingBuffer ring = new GXEventRingBuffer(64);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long element = (long) producer * perProducer + i;
+                    while (!ring.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        long[] lastSeen = new long[producerCount];
+        Arrays.fill(lastSeen, -1);
+        List<Object> sink = new ArrayList<>();
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producerCount * perProducer && System.nanoTime() < deadline) {
+            sink.clear();
+            received += ring.drainTo(sink, 32);
+            for (Object element : sink) {
+                long value = (Long) element;
+                int producer = (int) (value / perProducer);
+                Assert.isTrue(value > lastSeen[producer]);
+                lastSeen[producer] = value;
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        Assert.equals(producerCount * perProducer, received);
+        Assert.equals(0L, ring.size());
+    }
+}
@@ -0,0 +1,214 @@
+package cn.maple.core.framework.event.dispatcher;
+
+import cn.hutool.core.lang.Assert;
+import com.google.common.eventbus.Subscribe;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+
+public class GXRingBufferEventDispatcherTest {
+    /**
+     * 单个事件以及批量事件的订阅者都收到全部事件, 关闭时处理完缓冲区中的事件
+     */
+    @Test
+    public void testSingleAndBatchSubscribers() {
+        GXRingBufferEventDispatcher dispatcher = new GXRingBufferEventDispatcher("test", 64, 16, "block");
+        CountingListener listener = new CountingListener();
+        dispatcher.register(listener);
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.post(new PingEvent(0));
+        }
+        dispatcher.shutdown(10, TimeUnit.SECONDS);
+        Assert.equals(1000, listener.single.get());
+        Assert.equals(1000, listener.batched.get());
+    }
+
+    /**
+     * 关闭之后派发的事件由调用线程直接处理
+     */
+    @Test
+    public void testPostAfterShutdown() {
+        GXRingBufferEventDispatcher dispatcher = new GXRingBufferEventDispatcher("closed", 64, 16, "block");
+        CountingListener listener = new CountingListener();
+        dispatcher.register(listener);
+        dispatcher.shutdown(1, TimeUnit.SECONDS);
+        dispatcher.post(new PingEvent(0));
+        Assert.equals(1, listener.single.get());
+        Assert.equals(Thread.currentThread(), listener.lastThread.get());
+    }
+
+    /**
+     * block策略下订阅者向已满的缓冲区派发事件时不会等待自己
+     */
+    @Test
+    public void testSelfPublishWithFullBuffer() {
+        GXRingBufferEventDispatcher dispatcher = new GXRingBufferEventDispatcher("self", 2, 1, "block");
+        AtomicInteger handled = new AtomicInteger();
+        dispatcher.register(new RepublishListener(dispatcher, handled));
+        dispatcher.post(new PingEvent(3));
+        // 1 + 3 + 9 + 27
+        awaitCount(handled::get, 40);
+        dispatcher.shutdown(1, TimeUnit.SECONDS);
+        Assert.equals(40, handled.get());
+    }
+
+    /**
+     * CGLIB代理的监听器使用原始类中的@Subscribe方法, 调用经过代理
+     */
+    @Test
+    public void testCglibProxyListener() {
+        CountingListener target = new CountingListener();
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        Object proxy = proxyFactory.getProxy();
+        Assert.notEquals(CountingListener.class, proxy.getClass());
+
+        GXRingBufferEventDispatcher dispatcher = new GXRingBufferEventDispatcher("proxy", 64, 16, "block");
+        dispatcher.register(proxy);
+        dispatcher.post(new PingEvent(0));
+        dispatcher.shutdown(10, TimeUnit.SECONDS);
+        Assert.equals(1, target.single.get());
+        Assert.equals(1, target.batched.get());
+    }
+
+    /**
+     * 消费线程处理事件时使用派发事件时的MDC
+     */
+    @Test
+    public void testMdcPropagation() {
+        GXRingBufferEventDispatcher dispatcher = new GXRingBufferEventDispatcher("mdc", 64, 16, "block");
+        MdcListener listener = new MdcListener();
+        dispatcher.register(listener);
+        MDC.put("traceId", "trace-1");
+        try {
+            dispatcher.post(new PingEvent(1));
+        } finally {
+            MDC.remove("traceId");
+        }
+        dispatcher.post(new PingEvent(2));
+        dispatcher.shutdown(10, TimeUnit.SECONDS);
+        Assert.equals("trace-1", listener.traceIds.get(1));
+        Assert.equals("", listener.traceIds.get(2));
+    }
+
+    /**
+     * 事件类型多于事件通道时共享消费线程, 所有事件都被处理
+     */
+    @Test
+    public void testBoundedChannels() {
+        GXRingBufferEventDispatcher dispatcher = new GXRingBufferEventDispatcher("bounded", 64, 16, "block", 2);
+        CountingListener listener = new CountingListener();
+        dispatcher.register(listener);
+        dispatcher.register(new OtherListener(listener.single));
+        for (int i = 0; i < 100; i++) {
+            dispatcher.post(new PingEvent(0));
+            dispatcher.post(new PongEvent());
+            dispatcher.post(new OtherEvent());
+        }
+        Assert.isTrue(dispatcher.getPendingCounts().size() <= 2);
+        dispatcher.shutdown(10, TimeUnit.SECONDS);
+        Assert.equals(300, listener.single.get());
+        Assert.equals(100, listener.batched.get());
+    }
+
+    private static void awaitCount(IntSupplier count, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (count.getAsInt() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public static class PingEvent {
+        private final int depth;
+
+        public PingEvent(int depth) {
+            this.depth = depth;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    public static class PongEvent {
+    }
+
+    public static class OtherEvent {
+    }
+
+    public static class OtherListener {
+        private final AtomicInteger count;
+
+        public OtherListener(AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Subscribe
+        public void onPong(PongEvent event) {
+            count.incrementAndGet();
+        }
+
+        @Subscribe
+        public void onOther(OtherEvent event) {
+            count.incrementAndGet();
+        }
+    }
+
+    public static class MdcListener {
+        private final Map<Integer, String> traceIds = new ConcurrentHashMap<>();
+
+        @Subscribe
+        public void onPing(PingEvent event) {
+            String traceId = MDC.get("traceId");
+            traceIds.put(event.getDepth(), traceId == null ? "" : traceId);
+        }
+    }
+
+    public static class CountingListener {
+        private final AtomicInteger single = new AtomicInteger();
+
+        private final AtomicInteger batched = new AtomicInteger();
+
+        private final AtomicReference<Thread> lastThread = new AtomicReference<>();
+
+        @Subscribe
+        public void onPing(PingEvent event) {
+            single.incrementAndGet();
+            lastThread.set(Thread.currentThread());
+        }
+
+        @Subscribe
+        public void onPings(List<PingEvent> events) {
+            batched.addAndGet(events.size());
+        }
+    }
+
+    public static class RepublishListener {
+        private final GXEventDispatcher dispatcher;
+
+        private final AtomicInteger handled;
+
+        public RepublishListener(GXEventDispatcher dispatcher, AtomicInteger handled) {
+            this.dispatcher = dispatcher;
+            this.handled = handled;
+        }
+
+        @Subscribe
+        public void onPing(PingEvent event) {
+            handled.incrementAndGet();
+            if (event.getDepth() > 0) {
+                for (int i = 0; i < 3; i++) {
+                    dispatcher.post(new PingEvent(event.getDepth() - 1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package cn.maple.core.framework.sql;
+
+import cn.hutool.core.lang.Assert;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.dto.inner.GXBaseQueryParamInnerDto;
+import cn.maple.core.framework.dto.inner.condition.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class GXSqlParamBinderTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(GXSqlParamBinder.BIND_PARAMETER_CONFIG_NAME, "true")));
+        context.getEnvironment().setActiveProfiles("test");
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * JDBC风格输出?占位符, 参数按出现顺序收集
+     */
+    @Test
+    public void testJdbcPlaceholder() {
+        List<Object> params = new ArrayList<>();
+        GXSqlParamBinder binder = GXSqlParamBinder.jdbc(params);
+        Assert.equals("?", binder.bind(1));
+        Assert.equals("?", binder.bind("a"));
+        Assert.equals(List.of(1, "a"), params);
+        Assert.isTrue(params == binder.getParams());
+    }
+
+    /**
+     * MyBatis风格的占位符指向查询对象中bindParams的下标
+     */
+    @Test
+    public void testMyBatisPlaceholder() {
+        GXBaseQueryParamInnerDto dbQueryParamInnerDto = GXBaseQueryParamInnerDto.builder().build();
+        GXSqlParamBinder binder = GXSqlParamBinder.myBatis("param2", dbQueryParamInnerDto);
+        Assert.equals("#{param2.bindParams[0]}", binder.bind(1));
+        Assert.equals("#{param2.bindParams[1]}", binder.bind(2));
+        Assert.equals(List.of(1, 2), dbQueryParamInnerDto.getBindParams());
+
+        GXSqlParamBinder singleParamBinder = GXSqlParamBinder.myBatis("", GXBaseQueryParamInnerDto.builder().build());
+        Assert.equals("#{bindParams[0]}", singleParamBinder.bind(1));
+    }
+
+    /**
+     * 查询对象的设置优先于全局配置
+     */
+    @Test
+    public void testIsBindParameter() {
+        Assert.isTrue(GXSqlParamBinder.isBindParameter(GXBaseQueryParamInnerDto.builder().build()));
+        Assert.isFalse(GXSqlParamBinder.isBindParameter(GXBaseQueryParamInnerDto.builder().bindParameter(false).build()));
+    }
+
+    /**
+     * 条件的值绑定为参数, 同一种形状的条件生成相同的SQL
+     */
+    @Test
+    public void testConditionWhereString() {
+        List<Object> params = new ArrayList<>();
+        GXSqlParamBinder binder = GXSqlParamBinder.jdbc(params);
+        Assert.equals("u.age = ?", new GXConditionEQ("u", "age", 18).whereString(binder));
+        Assert.equals("u.age = ?", new GXConditionEQ("u", "age", 20).whereString(binder));
+        Assert.equals("user_name = ?", new GXConditionStrEQ("", "userName", "it's").whereString(binder));
+        Assert.equals("name like ?", new GXConditionLikeFull("", "name", "a").whereString(binder));
+        Assert.equals("id in (?,?,?)", new GXConditionIn("", "id", new LinkedHashSet<>(List.of(1, 2, 3))).whereString(binder));
+        Assert.equals(List.of(18, 20, "it's", "%a%", 1, 2, 3), params);
+    }
+
+    /**
+     * 不支持绑定参数的条件输出原始的SQL片段, 不收集参数
+     */
+    @Test
+    public void testUnsupportedConditionFallback() {
+        List<Object> params = new ArrayList<>();
+        GXConditionRaw raw = new GXConditionRaw("age > 1");
+        Assert.equals(raw.whereString(), raw.whereString(GXSqlParamBinder.jdbc(params)));
+        Assert.isTrue(params.isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+package cn.maple.core.framework.util;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.Dict;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.exception.GXBusinessException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class GXFanOutScopeTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * 超过作用域的截止时间之后取消未完成的任务, 并且中断正在执行任务的线程
+     */
+    @Test
+    public void testDeadlineCancellation() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try (GXFanOutScope scope = GXFanOutScope.open(Duration.ofMillis(200), GXFanOutScope.GXFanOutPolicy.ALLOW_PARTIAL)) {
+            GXFanOutScope.GXTaskHandle<String> fast = scope.fork("fast", () -> "ok");
+            GXFanOutScope.GXTaskHandle<String> slow = scope.fork("slow", () -> sleep(5000, interrupted));
+            Dict results = scope.join();
+
+            Assert.isTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000, "超过截止时间之后没有结束等待");
+            Assert.equals("ok", results.getStr("fast"));
+            Assert.isFalse(results.containsKey("slow"));
+            Assert.isTrue(fast.isSuccess());
+            Assert.isFalse(slow.isSuccess());
+            Assert.isTrue(slow.getError() instanceof TimeoutException);
+            Assert.equals("default", slow.getOrDefault("default"));
+        }
+        Assert.isTrue(interrupted.await(2, TimeUnit.SECONDS), "超时的任务没有被中断");
+    }
+
+    /**
+     * FAIL_FAST策略下第一个失败的任务立即结束等待, 抛出的异常以真正失败的任务为原因
+     */
+    @Test
+    public void testFirstFailurePropagation() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("boom");
+        long start = System.nanoTime();
+        try (GXFanOutScope scope = GXFanOutScope.open(Duration.ofSeconds(10), GXFanOutScope.GXFanOutPolicy.FAIL_FAST)) {
+            GXFanOutScope.GXTaskHandle<String> slow = scope.fork("slow", () -> sleep(5000, interrupted));
+            scope.fork("broken", () -> {
+                throw failure;
+            });
+            try {
+                scope.join();
+                Assert.isTrue(false, "任务失败时没有抛出异常");
+            } catch (GXBusinessException e) {
+                Assert.isTrue(e.getCause() == failure, "异常的原因不是失败的任务");
+                Assert.isTrue(e.getMessage().contains("broken"));
+            }
+            Assert.isTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000, "任务失败之后没有立即结束等待");
+            Assert.isFalse(slow.isSuccess());
+        }
+        Assert.isTrue(interrupted.await(2, TimeUnit.SECONDS), "被连带取消的任务没有被中断");
+    }
+
+    /**
+     * 任务在提交任务的线程的MDC中执行, 执行之后不污染线程池的线程
+     */
+    @Test
+    public void testMdcPropagation() {
+        MDC.put("userId", "user-1");
+        try (GXFanOutScope scope = GXFanOutScope.open(Duration.ofSeconds(5))) {
+            GXFanOutScope.GXTaskHandle<String> user = scope.fork("user", () -> MDC.get("userId"));
+            scope.join();
+            Assert.equals("user-1", user.get());
+        } finally {
+            MDC.remove("userId");
+        }
+
+        try (GXFanOutScope scope = GXFanOutScope.open(Duration.ofSeconds(5))) {
+            GXFanOutScope.GXTaskHandle<String> anonymous = scope.fork("anonymous", () -> MDC.get("userId"));
+            scope.join();
+            Assert.isNull(anonymous.get());
+        }
+    }
+
+    private static String sleep(long millis, CountDownLatch interrupted) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+            return "slow";
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cn.maple.core.framework.util;
+
+import cn.hutool.core.lang.Assert;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GXTreeUtilsTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * 使用访问器构建多层的树, 子结点保持源列表中的顺序
+     */
+    @Test
+    public void testBuildTreeWithAccessors() {
+        List<Node> roots = GXTreeUtils.buildTree(nodes(), 0L, Node::getId, Node::getParentId, Node::setChildren, false);
+        assertTree(roots);
+    }
+
+    /**
+     * 使用方法名字构建的树与使用访问器构建的结果相同
+     */
+    @Test
+    public void testBuildTreeWithMethodNames() {
+        assertTree(GXTreeUtils.buildTree(nodes(), 0L, "", false));
+        assertTree(GXTreeUtils.buildTree(nodes(), 0L, "getParentId", true));
+    }
+
+    /**
+     * 父子关系存在环时不会死循环, 不在根结点下的环不出现在结果中
+     */
+    @Test
+    public void testCycle() {
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node(1L, 0L));
+        nodes.add(new Node(2L, 1L));
+        nodes.add(new Node(1L, 2L));
+        nodes.add(new Node(5L, 6L));
+        nodes.add(new Node(6L, 5L));
+        List<Node> roots = GXTreeUtils.buildTree(nodes, 0L, Node::getId, Node::getParentId, Node::setChildren, false);
+        Assert.equals(1, roots.size());
+        Assert.equals(2L, roots.get(0).getChildren().get(0).getId());
+    }
+
+    /**
+     * 版本号不变时直接返回缓存的树, 版本号变化或者失效之后重新构建
+     */
+    @Test
+    public void testCachedTree() {
+        AtomicInteger loads = new AtomicInteger();
+        List<Node> first = GXTreeUtils.buildCachedTree("menu", 1, () -> {
+            loads.incrementAndGet();
+            return nodes();
+        }, 0L, "");
+        List<Node> second = GXTreeUtils.buildCachedTree("menu", 1, GXTreeUtilsTest::nodes, 0L, "");
+        Assert.isTrue(first == second);
+        Assert.equals(1, loads.get());
+
+        List<Node> changed = GXTreeUtils.buildCachedTree("menu", 2, GXTreeUtilsTest::nodes, 0L, "");
+        Assert.isFalse(first == changed);
+        assertTree(changed);
+
+        GXTreeUtils.invalidateCachedTree("menu");
+        Assert.isFalse(changed == GXTreeUtils.buildCachedTree("menu", 2, GXTreeUtilsTest::nodes, 0L, ""));
+    }
+
+    private static void assertTree(List<Node> roots) {
+        Assert.equals(2, roots.size());
+        Node first = roots.get(0);
+        Assert.equals(1L, first.getId());
+        Assert.equals(2, first.getChildren().size());
+        Assert.equals(3L, first.getChildren().get(0).getId());
+        Assert.equals(4L, first.getChildren().get(1).getId());
+        Assert.equals(5L, first.getChildren().get(0).getChildren().get(0).getId());
+        Assert.isNull(first.getChildren().get(1).getChildren());
+        Assert.isNull(roots.get(1).getChildren());
+    }
+
+    private static List<Node> nodes() {
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node(5L, 3L));
+        nodes.add(new Node(1L, 0L));
+        nodes.add(new Node(3L, 1L));
+        nodes.add(new Node(2L, 0L));
+        nodes.add(new Node(4L, 1L));
+        // 父结点不存在的结点不出现在结果中
+        nodes.add(new Node(9L, 8L));
+        return nodes;
+    }
+
+    public static class Node {
+        private final Long id;
+
+        private final Long parentId;
+
+        private List<Node> children;
+
+        public Node(Long id, Long parentId) {
+            this.id = id;
+            this.parentId = parentId;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        public void setChildren(List<Node> children) {
+            this.children = children;
+        }
+    }
+}
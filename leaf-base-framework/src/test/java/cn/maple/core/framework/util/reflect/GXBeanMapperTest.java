@@ -0,0 +1,228 @@
+package cn.maple.core.framework.util.reflect;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.copier.CopyOptions;
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.ReflectUtil;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.core.framework.util.GXCommonUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.Data;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预解析的转换路径与Hutool BeanUtil以及ReflectUtil的结果保持一致
+ */
+public class GXBeanMapperTest {
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    /**
+     * Bean源对象: 类型转换、泛型集合以及null值覆盖与Hutool一致
+     */
+    @Test
+    public void testBeanSource() {
+        UserSource source = userSource();
+        UserTarget actual = GXCommonUtils.convertSourceToTarget(source, UserTarget.class, null, null);
+        UserTarget expected = hutoolConvert(source, UserTarget.class, GXCommonUtils.getDefaultCopyOptions(), "customizeProcess", Dict.create());
+        assertSame(expected, actual);
+        Assert.equals(18, actual.getAge());
+        Assert.equals("5", actual.getId());
+        Assert.equals(List.of("a", "b"), actual.getTags());
+        Assert.isNull(actual.getNickName());
+        Assert.equals("customized", actual.getRemark());
+        Assert.isTrue(actual.isVerified());
+    }
+
+    /**
+     * Map源对象: 原始KEY、驼峰KEY、去掉is前缀的KEY的匹配规则与Hutool一致
+     */
+    @Test
+    public void testMapSource() {
+        Map<String, Object> source = mapSource();
+        UserTarget actual = GXCommonUtils.convertSourceToTarget(source, UserTarget.class, null, null);
+        UserTarget expected = hutoolConvert(source, UserTarget.class, GXCommonUtils.getDefaultCopyOptions(), "customizeProcess", Dict.create());
+        assertSame(expected, actual);
+        Assert.equals("maple", actual.getUserName());
+        Assert.equals(20, actual.getAge());
+        Assert.isTrue(actual.getActive());
+        Assert.isNull(actual.getNickName());
+    }
+
+    /**
+     * 自定义CopyOptions的忽略字段、字段映射以及忽略null值与Hutool一致
+     */
+    @Test
+    public void testCustomCopyOptions() {
+        CopyOptions copyOptions = CopyOptions.create()
+                .setConverter(GXCommonUtils.getDefaultTypeConverter())
+                .setIgnoreProperties("age")
+                .setFieldMapping(Map.of("name", "userName"))
+                .setIgnoreNullValue(true);
+
+        UserSource source = userSource();
+        UserTarget actual = GXCommonUtils.convertSourceToTarget(source, UserTarget.class, null, copyOptions);
+        assertSame(hutoolConvert(source, UserTarget.class, copyOptions, "customizeProcess", Dict.create()), actual);
+        Assert.equals("britton", actual.getUserName());
+        Assert.isNull(actual.getName());
+        Assert.isNull(actual.getAge());
+        Assert.equals("guest", actual.getNickName());
+
+        Map<String, Object> mapSource = mapSource();
+        UserTarget mapActual = GXCommonUtils.convertSourceToTarget(mapSource, UserTarget.class, null, copyOptions);
+        assertSame(hutoolConvert(mapSource, UserTarget.class, copyOptions, "customizeProcess", Dict.create()), mapActual);
+        Assert.equals("guest", mapActual.getNickName());
+    }
+
+    /**
+     * 指定的回调方法以及verify方法的调用与Hutool的ReflectUtil一致
+     */
+    @Test
+    public void testMethodNameCallback() {
+        Dict extraData = Dict.create().set("remark", "from-hook");
+        UserTarget actual = GXCommonUtils.convertSourceToTarget(userSource(), UserTarget.class, "fillRemark", null, extraData);
+        assertSame(hutoolConvert(userSource(), UserTarget.class, GXCommonUtils.getDefaultCopyOptions(), "fillRemark", extraData), actual);
+        Assert.equals("from-hook", actual.getRemark());
+        Assert.isTrue(actual.isVerified());
+    }
+
+    /**
+     * GXMethodInvoker选择的重载方法以及返回值与Hutool的ReflectUtil一致
+     */
+    @Test
+    public void testMethodInvoker() {
+        UserTarget target = new UserTarget();
+        for (Object arg : List.of(1, "a")) {
+            Object expected = ReflectUtil.invoke(target, "describe", arg);
+            Object actual = GXMethodInvokerCache.getInvoker(UserTarget.class, "describe", arg).orElseThrow().invoke(target, arg);
+            Assert.equals(expected, actual);
+        }
+
+        UserTarget hutoolTarget = new UserTarget();
+        ReflectUtil.invoke(hutoolTarget, "verify");
+        GXMethodInvokerCache.getInvoker(UserTarget.class, "verify").orElseThrow().invoke(target);
+        Assert.equals(hutoolTarget.isVerified(), target.isVerified());
+
+        Assert.isNull(ReflectUtil.getMethodOfObj(target, "missing"));
+        Assert.isTrue(GXMethodInvokerCache.getInvoker(UserTarget.class, "missing").isEmpty());
+    }
+
+    /**
+     * Map源对象的KEY数量有上限, 超过上限之后仍然可以正确转换
+     */
+    @Test
+    public void testKeyWritersBounded() {
+        GXBeanMapper<UserTarget> beanMapper = GXBeanMapperCache.INSTANCE.get(HashMap.class, UserTarget.class);
+        UserTarget target = beanMapper.newInstance();
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Object> source = new HashMap<>();
+            source.put("key" + i, i);
+            beanMapper.copy(source, target, GXCommonUtils.getDefaultCopyOptions());
+        }
+        Cache<?, ?> keyWriters = (Cache<?, ?>) ReflectionTestUtils.getField(beanMapper, "keyWriters");
+        Assert.notNull(keyWriters);
+        keyWriters.cleanUp();
+        Assert.isTrue(keyWriters.estimatedSize() <= 512, "KEY的缓存超过了上限");
+
+        beanMapper.copy(mapSource(), target, GXCommonUtils.getDefaultCopyOptions());
+        Assert.equals("maple", target.getUserName());
+    }
+
+    private static <T> T hutoolConvert(Object source, Class<T> tClass, CopyOptions copyOptions, String methodName, Dict extraData) {
+        T target = ReflectUtil.newInstanceIfPossible(tClass);
+        BeanUtil.copyProperties(source, target, copyOptions);
+        ReflectUtil.invoke(target, methodName, extraData);
+        ReflectUtil.invoke(target, "verify");
+        return target;
+    }
+
+    private static void assertSame(Object expected, Object actual) {
+        Assert.equals(BeanUtil.beanToMap(expected), BeanUtil.beanToMap(actual));
+    }
+
+    private static UserSource userSource() {
+        UserSource source = new UserSource();
+        source.setName("britton");
+        source.setAge("18");
+        source.setId(5L);
+        source.setTags("[\"a\",\"b\"]");
+        return source;
+    }
+
+    private static Map<String, Object> mapSource() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("name", "britton");
+        source.put("user_name", "maple");
+        source.put("age", "20");
+        source.put("is_active", "true");
+        source.put("nickName", null);
+        source.put("unknown", 1);
+        return source;
+    }
+
+    @Data
+    public static class UserSource {
+        private String name;
+
+        private String age;
+
+        private Long id;
+
+        private String tags;
+
+        private String nickName;
+    }
+
+    @Data
+    public static class UserTarget {
+        private String name;
+
+        private String userName;
+
+        private Integer age;
+
+        private String id;
+
+        private List<String> tags;
+
+        private String nickName = "guest";
+
+        private Boolean active;
+
+        private String remark;
+
+        private boolean verified;
+
+        public void customizeProcess(Dict extraData) {
+            remark = "customized";
+        }
+
+        public void fillRemark(Dict extraData) {
+            remark = extraData.getStr("remark");
+        }
+
+        public void verify() {
+            verified = true;
+        }
+
+        public String describe(Integer value) {
+            return "integer:" + value;
+        }
+
+        public String describe(String value) {
+            return "string:" + value;
+        }
+    }
+}
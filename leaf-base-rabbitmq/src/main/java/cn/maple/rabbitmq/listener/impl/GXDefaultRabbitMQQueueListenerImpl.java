@@ -4,6 +4,7 @@ import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.json.JSONUtil;
 import cn.maple.rabbitmq.listener.GXRabbitMQQueueListener;
+import cn.maple.rabbitmq.util.GXRabbitMQMessageUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitHandler;
@@ -25,7 +26,7 @@ public class GXDefaultRabbitMQQueueListenerImpl implements GXRabbitMQQueueListen
     @RabbitHandler
     @RabbitListener(queues = "#{T(cn.maple.core.framework.util.GXSpELToolUtils).callBeanMethodSpELExpression(Class.forName('cn.maple.rabbitmq.properties.GXRabbitMQProperties'), 'getDefaultQueueName', Class.forName('java.lang.String'), new Class[0])}")
     public void process(Message data) {
-        final String s = new String(data.getBody(), StandardCharsets.UTF_8);
+        final String s = new String(GXRabbitMQMessageUtils.getBody(data), StandardCharsets.UTF_8);
         if (CharSequenceUtil.isNotBlank(s)) {
             if (JSONUtil.isTypeJSON(s)) {
                 final Dict param = JSONUtil.toBean(s, Dict.class);
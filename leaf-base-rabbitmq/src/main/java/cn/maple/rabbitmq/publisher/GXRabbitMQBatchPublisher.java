@@ -0,0 +1,250 @@
+package cn.maple.rabbitmq.publisher;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.ObjectUtil;
+import cn.maple.rabbitmq.dto.inner.GXRabbitMQMessageReqDto;
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * RabbitMQ批量发送器
+ * <p>
+ * 消息先进入缓冲区, 缓冲的消息数量达到batchSize或者距离上次发送超过lingerMillis时统一发送,
+ * 同一批消息在同一个Channel上连续发送, 不再逐条等待确认。
+ * 开启了publisher confirms时, 每条消息按Channel的发布序号(Channel#getNextPublishSeqNo(), 与broker确认中的deliveryTag一致)
+ * 登记在待确认表中, 收到broker的确认(ack/nack)后异步移除,
+ * 业务方仍然可以通过GXRabbitMQMessageReqDto#getCorrelationData()获取单条消息的确认结果。
+ * 一批消息发送到一半出错时, 已经发送的消息等待broker的确认, 只有未发送的消息计入失败数量。
+ */
+@Slf4j
+public class GXRabbitMQBatchPublisher implements AutoCloseable {
+    private final RabbitTemplate rabbitTemplate;
+
+    /**
+     * 将请求转换为待发送的消息
+     */
+    private final Function<GXRabbitMQMessageReqDto, Message> messageBuilder;
+
+    /**
+     * 每批发送的最大消息数量
+     */
+    private final int batchSize;
+
+    /**
+     * 待发送的消息
+     */
+    private final ConcurrentLinkedQueue<GXRabbitMQMessageReqDto> buffer = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 缓冲区中的消息数量
+     */
+    private final AtomicInteger bufferedCount = new AtomicInteger();
+
+    /**
+     * 是否已经提交了按数量触发的发送任务
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * 执行发送的单线程调度器 保证同一时间只有一个批次在发送
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Channel编号:发布序号 -> 等待broker确认的消息
+     * 发布序号只在同一个Channel内唯一, 所以同时使用Channel编号
+     */
+    private final ConcurrentMap<String, CorrelationData> pendingConfirms = new ConcurrentHashMap<>();
+
+    private final AtomicLong publishedCount = new AtomicLong();
+
+    private final AtomicLong ackCount = new AtomicLong();
+
+    private final AtomicLong nackCount = new AtomicLong();
+
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public GXRabbitMQBatchPublisher(RabbitTemplate rabbitTemplate, Function<GXRabbitMQMessageReqDto, Message> messageBuilder, int batchSize, long lingerMillis) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.messageBuilder = messageBuilder;
+        this.batchSize = Math.max(batchSize, 1);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(ThreadFactoryBuilder.create().setNamePrefix("gx-rabbitmq-batch-").setDaemon(true).build());
+        long linger = Math.max(lingerMillis, 1);
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, linger, linger, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 将消息放入缓冲区
+     *
+     * @param messageReqDtoList 待发送的消息
+     */
+    public void add(Collection<GXRabbitMQMessageReqDto> messageReqDtoList) {
+        if (scheduler.isShutdown()) {
+            throw new RejectedExecutionException("RabbitMQ批量发送器已经关闭");
+        }
+        buffer.addAll(messageReqDtoList);
+        if (bufferedCount.addAndGet(messageReqDtoList.size()) >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * 立即发送缓冲区中的所有消息
+     */
+    public synchronized void flush() {
+        List<GXRabbitMQMessageReqDto> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            GXRabbitMQMessageReqDto messageReqDto;
+            while (batch.size() < batchSize && (messageReqDto = buffer.poll()) != null) {
+                batch.add(messageReqDto);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            bufferedCount.addAndGet(-batch.size());
+            publish(batch);
+        }
+    }
+
+    /**
+     * 获取发送统计信息
+     *
+     * @return Dict
+     */
+    public Dict getStats() {
+        return Dict.create()
+                .set("buffered", bufferedCount.get())
+                .set("published", publishedCount.get())
+                .set("pendingConfirms", pendingConfirms.size())
+                .set("ack", ackCount.get())
+                .set("nack", nackCount.get())
+                .set("failed", failedCount.get());
+    }
+
+    /**
+     * 获取等待broker确认的消息数量
+     *
+     * @return 消息数量
+     */
+    public int getPendingConfirmCount() {
+        return pendingConfirms.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * 在同一个Channel上发送一批消息
+     *
+     * @param batch 待发送的消息
+     */
+    private void publish(List<GXRabbitMQMessageReqDto> batch) {
+        List<GXRabbitMQMessageReqDto> sendList = new ArrayList<>(batch.size());
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (GXRabbitMQMessageReqDto messageReqDto : batch) {
+            try {
+                messages.add(messageBuilder.apply(messageReqDto));
+                sendList.add(messageReqDto);
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.error("RabbitMQ消息构建失败, 已跳过 : {}", e.getMessage(), e);
+            }
+        }
+        if (sendList.isEmpty()) {
+            return;
+        }
+        boolean publisherConfirms = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        // 已经交给Channel的消息数量
+        AtomicInteger sentCount = new AtomicInteger();
+        // 正在发送的消息在待确认表中的key
+        AtomicReference<String> sendingKey = new AtomicReference<>();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (int i = 0; i < sendList.size(); i++) {
+                    GXRabbitMQMessageReqDto messageReqDto = sendList.get(i);
+                    CorrelationData correlationData = ObjectUtil.defaultIfNull(messageReqDto.getCorrelationData(), CorrelationData::new);
+                    if (publisherConfirms) {
+                        // invoke中的execute使用同一个Channel, 取到的是本条消息的发布序号
+                        sendingKey.set(operations.execute(GXRabbitMQBatchPublisher::pendingKey));
+                        track(sendingKey.get(), correlationData);
+                    }
+                    operations.send(messageReqDto.getExchange(), messageReqDto.getRoutingKey(), messages.get(i), correlationData);
+                    sentCount.incrementAndGet();
+                    sendingKey.set(null);
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            // 发送失败的那条消息不会再收到确认
+            if (ObjectUtil.isNotNull(sendingKey.get())) {
+                pendingConfirms.remove(sendingKey.get());
+            }
+            failedCount.addAndGet(sendList.size() - sentCount.get());
+            log.error("RabbitMQ批量发送失败, 本批{}条消息中{}条未发送 : {}", sendList.size(), sendList.size() - sentCount.get(), e.getMessage(), e);
+        } finally {
+            publishedCount.addAndGet(sentCount.get());
+        }
+    }
+
+    /**
+     * 待确认表的key
+     *
+     * @param channel 发送消息的Channel
+     * @return Channel编号:发布序号
+     */
+    private static String pendingKey(Channel channel) {
+        return channel.getChannelNumber() + ":" + channel.getNextPublishSeqNo();
+    }
+
+    /**
+     * 登记等待确认的消息 收到确认后自动移除
+     *
+     * @param key             Channel编号:发布序号
+     * @param correlationData 消息的CorrelationData
+     */
+    private void track(String key, CorrelationData correlationData) {
+        pendingConfirms.put(key, correlationData);
+        correlationData.getFuture().whenComplete((confirm, throwable) -> {
+            // 发送失败时已经移除, 不计入确认结果
+            if (ObjectUtil.isNull(pendingConfirms.remove(key))) {
+                return;
+            }
+            if (ObjectUtil.isNull(throwable) && confirm.isAck()) {
+                ackCount.incrementAndGet();
+            } else {
+                nackCount.incrementAndGet();
+                log.warn("RabbitMQ消息未被确认 : {} / {} / {}", key, correlationData.getId(), ObjectUtil.isNull(confirm) ? throwable : confirm.getReason());
+            }
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("RabbitMQ批量发送出错 : {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package cn.maple.rabbitmq.serializer;
+
+import cn.hutool.core.lang.Dict;
+
+public interface GXRabbitMQMessageSerializer {
+    /**
+     * 将消息数据序列化为字节数组
+     *
+     * @param data 消息数据
+     * @return 字节数组
+     */
+    byte[] serialize(Dict data);
+
+    /**
+     * 序列化结果的ContentType
+     *
+     * @return ContentType
+     */
+    String getContentType();
+}
@@ -0,0 +1,23 @@
+package cn.maple.rabbitmq.serializer.impl;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.json.JSONUtil;
+import cn.maple.rabbitmq.serializer.GXRabbitMQMessageSerializer;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 使用Hutool JSONUtil序列化消息(默认)
+ */
+public class GXHutoolMessageSerializer implements GXRabbitMQMessageSerializer {
+    @Override
+    public byte[] serialize(Dict data) {
+        return JSONUtil.toJsonStr(data).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getContentType() {
+        return MessageProperties.CONTENT_TYPE_JSON;
+    }
+}
@@ -3,6 +3,8 @@ package cn.maple.rabbitmq.service;
 import cn.maple.core.framework.service.GXBusinessService;
 import cn.maple.rabbitmq.dto.inner.GXRabbitMQMessageReqDto;
 
+import java.util.List;
+
 public interface GXSendRabbitMQService extends GXBusinessService {
     /**
      * 发送常规消息的ACT消息
@@ -10,4 +12,18 @@ public interface GXSendRabbitMQService extends GXBusinessService {
      * @param messageReqDto 待发送的消息
      */
     void sendNormalMessage(GXRabbitMQMessageReqDto messageReqDto);
-}
\ No newline at end of file
+
+    /**
+     * 批量发送消息
+     * 消息先进入缓冲区, 达到批量大小或者等待时间后统一发送
+     * 发送结果通过每条消息的CorrelationData异步获取
+     *
+     * @param messageReqDtoList 待发送的消息
+     */
+    void sendBatch(List<GXRabbitMQMessageReqDto> messageReqDtoList);
+
+    /**
+     * 立即发送缓冲区中的所有消息
+     */
+    void flushBatch();
+}
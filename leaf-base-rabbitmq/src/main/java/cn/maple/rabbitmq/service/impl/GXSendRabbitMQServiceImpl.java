@@ -1,11 +1,20 @@
 package cn.maple.rabbitmq.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.text.CharSequenceUtil;
-import cn.hutool.json.JSONUtil;
+import cn.hutool.core.util.ObjectUtil;
 import cn.maple.core.framework.service.impl.GXBusinessServiceImpl;
+import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXSpringContextUtils;
 import cn.maple.rabbitmq.dto.inner.GXRabbitMQMessageReqDto;
+import cn.maple.rabbitmq.publisher.GXRabbitMQBatchPublisher;
+import cn.maple.rabbitmq.serializer.GXRabbitMQMessageSerializer;
+import cn.maple.rabbitmq.serializer.impl.GXHutoolMessageSerializer;
+import cn.maple.rabbitmq.serializer.impl.GXJacksonMessageSerializer;
 import cn.maple.rabbitmq.service.GXSendRabbitMQService;
+import cn.maple.rabbitmq.util.GXRabbitMQMessageUtils;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
@@ -15,30 +24,150 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
 public class GXSendRabbitMQServiceImpl extends GXBusinessServiceImpl implements GXSendRabbitMQService {
+    /**
+     * 发送相关配置的前缀
+     * <pre>
+     * batch-size         : 每批发送的最大消息数量, 默认100
+     * linger-ms          : 消息在缓冲区中的最长等待时间, 默认10毫秒
+     * compress-threshold : 消息体超过该字节数时使用gzip压缩, 默认0(不压缩)
+     * serializer         : hutool(默认) / jackson, 容器中存在GXRabbitMQMessageSerializer的Bean时优先使用该Bean
+     * </pre>
+     */
+    private static final String PUBLISHER_CONFIG_PREFIX = "maple.rabbitmq.publisher.";
+
     @Resource
     private RabbitTemplate rabbitTemplate;
 
+    /**
+     * 消息序列化器
+     */
+    private volatile GXRabbitMQMessageSerializer messageSerializer;
+
+    /**
+     * 消息压缩阈值
+     */
+    private volatile Integer compressThreshold;
+
+    /**
+     * 批量发送器
+     */
+    private volatile GXRabbitMQBatchPublisher batchPublisher;
+
     /**
      * 发送常规消息的ACT消息
      *
      * @param messageReqDto 待发送的消息
      */
     public void sendNormalMessage(GXRabbitMQMessageReqDto messageReqDto) {
-        Dict data = messageReqDto.getData();
         String exchange = messageReqDto.getExchange();
         String routingKey = messageReqDto.getRoutingKey();
         CorrelationData correlationData = messageReqDto.getCorrelationData();
+        rabbitTemplate.convertAndSend(exchange, routingKey, buildMessage(messageReqDto), correlationData);
+    }
+
+    /**
+     * 批量发送消息
+     * 消息先进入缓冲区, 达到批量大小或者等待时间后统一发送
+     * 发送结果通过每条消息的CorrelationData异步获取
+     *
+     * @param messageReqDtoList 待发送的消息
+     */
+    @Override
+    public void sendBatch(List<GXRabbitMQMessageReqDto> messageReqDtoList) {
+        if (CollUtil.isEmpty(messageReqDtoList)) {
+            return;
+        }
+        getBatchPublisher().add(messageReqDtoList);
+    }
+
+    /**
+     * 立即发送缓冲区中的所有消息
+     */
+    @Override
+    public void flushBatch() {
+        if (ObjectUtil.isNotNull(batchPublisher)) {
+            batchPublisher.flush();
+        }
+    }
+
+    /**
+     * 获取批量发送的统计信息
+     *
+     * @return Dict
+     */
+    public Dict getBatchStats() {
+        if (ObjectUtil.isNull(batchPublisher)) {
+            return Dict.create();
+        }
+        return batchPublisher.getStats();
+    }
+
+    /**
+     * 应用关闭前发送缓冲区中剩余的消息
+     */
+    @PreDestroy
+    public void destroy() {
+        if (ObjectUtil.isNotNull(batchPublisher)) {
+            batchPublisher.close();
+        }
+    }
+
+    /**
+     * 构建待发送的消息
+     *
+     * @param messageReqDto 待发送的消息
+     * @return Message
+     */
+    private Message buildMessage(GXRabbitMQMessageReqDto messageReqDto) {
+        Dict data = messageReqDto.getData();
+        GXRabbitMQMessageSerializer serializer = getMessageSerializer();
         MessageProperties messageProperties = messageReqDto.getMessageProperties();
-        messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        messageProperties.setContentType(serializer.getContentType());
         messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
         if (CharSequenceUtil.isNotBlank(messageReqDto.getTag())) {
             messageProperties.setConsumerTag(messageReqDto.getTag());
         }
-        Message message = new Message(JSONUtil.toJsonStr(data).getBytes(StandardCharsets.UTF_8), messageProperties);
-        rabbitTemplate.convertAndSend(exchange, routingKey, message, correlationData);
+        byte[] body = GXRabbitMQMessageUtils.compressIfNecessary(serializer.serialize(data), messageProperties, getCompressThreshold());
+        return new Message(body, messageProperties);
+    }
+
+    private GXRabbitMQMessageSerializer getMessageSerializer() {
+        if (ObjectUtil.isNull(messageSerializer)) {
+            Map<String, GXRabbitMQMessageSerializer> serializerBeans = GXSpringContextUtils.getBeans(GXRabbitMQMessageSerializer.class);
+            if (CollUtil.isNotEmpty(serializerBeans)) {
+                messageSerializer = serializerBeans.values().iterator().next();
+            } else if (CharSequenceUtil.equalsIgnoreCase("jackson", GXCommonUtils.getEnvironmentValue(PUBLISHER_CONFIG_PREFIX + "serializer", String.class, "hutool"))) {
+                messageSerializer = new GXJacksonMessageSerializer();
+            } else {
+                messageSerializer = new GXHutoolMessageSerializer();
+            }
+        }
+        return messageSerializer;
+    }
+
+    private int getCompressThreshold() {
+        if (ObjectUtil.isNull(compressThreshold)) {
+            compressThreshold = GXCommonUtils.getEnvironmentValue(PUBLISHER_CONFIG_PREFIX + "compress-threshold", Integer.class, 0);
+        }
+        return compressThreshold;
+    }
+
+    private GXRabbitMQBatchPublisher getBatchPublisher() {
+        if (ObjectUtil.isNull(batchPublisher)) {
+            synchronized (this) {
+                if (ObjectUtil.isNull(batchPublisher)) {
+                    int batchSize = GXCommonUtils.getEnvironmentValue(PUBLISHER_CONFIG_PREFIX + "batch-size", Integer.class, 100);
+                    long lingerMillis = GXCommonUtils.getEnvironmentValue(PUBLISHER_CONFIG_PREFIX + "linger-ms", Long.class, 10L);
+                    batchPublisher = new GXRabbitMQBatchPublisher(rabbitTemplate, this::buildMessage, batchSize, lingerMillis);
+                }
+            }
+        }
+        return batchPublisher;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package cn.maple.rabbitmq.util;
+
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.ZipUtil;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+public class GXRabbitMQMessageUtils {
+    /**
+     * 压缩消息时ContentEncoding的前缀
+     * 与Spring AMQP的GZipPostProcessor保持一致, 可以直接使用DelegatingDecompressingPostProcessor解压
+     */
+    public static final String GZIP_ENCODING_PREFIX = "gzip:";
+
+    private GXRabbitMQMessageUtils() {
+    }
+
+    /**
+     * 消息体超过阈值时使用gzip压缩
+     *
+     * @param body              消息体
+     * @param messageProperties 消息属性
+     * @param threshold         压缩阈值(字节) 小于等于0表示不压缩
+     * @return 消息体
+     */
+    public static byte[] compressIfNecessary(byte[] body, MessageProperties messageProperties, int threshold) {
+        if (threshold <= 0 || body.length < threshold) {
+            return body;
+        }
+        String contentEncoding = messageProperties.getContentEncoding();
+        messageProperties.setContentEncoding(GZIP_ENCODING_PREFIX + CharSequenceUtil.nullToEmpty(contentEncoding));
+        return ZipUtil.gzip(body);
+    }
+
+    /**
+     * 获取消息体 经过压缩的消息会自动解压
+     *
+     * @param message 消息
+     * @return 消息体
+     */
+    public static byte[] getBody(Message message) {
+        String contentEncoding = message.getMessageProperties().getContentEncoding();
+        if (CharSequenceUtil.startWith(contentEncoding, GZIP_ENCODING_PREFIX)) {
+            return ZipUtil.unGzip(message.getBody());
+        }
+        return message.getBody();
+    }
+}
@@ -0,0 +1,162 @@
+package cn.maple.rabbitmq.publisher;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.lang.Dict;
+import cn.maple.rabbitmq.dto.inner.GXRabbitMQMessageReqDto;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 使用模拟的RabbitTemplate以及Channel验证批量发送的确认登记以及统计
+ * Channel的发布序号在每次发送成功之后加1, 与开启了confirm模式的Channel一致
+ */
+public class GXRabbitMQBatchPublisherTest {
+    private final AtomicLong nextPublishSeqNo = new AtomicLong(1);
+
+    private final AtomicInteger sendCalls = new AtomicInteger();
+
+    private final List<CorrelationData> sentCorrelations = new CopyOnWriteArrayList<>();
+
+    private final List<String> publishKeys = new CopyOnWriteArrayList<>();
+
+    private RabbitTemplate rabbitTemplate;
+
+    private ConnectionFactory connectionFactory;
+
+    private RabbitOperations operations;
+
+    @BeforeEach
+    public void initTemplate() throws Exception {
+        Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.getChannelNumber()).thenReturn(7);
+        Mockito.when(channel.getNextPublishSeqNo()).thenAnswer(invocation -> nextPublishSeqNo.get());
+
+        operations = Mockito.mock(RabbitOperations.class);
+        Mockito.when(operations.execute(ArgumentMatchers.<ChannelCallback<Object>>any())).thenAnswer(invocation -> {
+            Object key = invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel);
+            publishKeys.add(key.toString());
+            return key;
+        });
+
+        connectionFactory = Mockito.mock(ConnectionFactory.class);
+        rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+        Mockito.when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        Mockito.when(rabbitTemplate.invoke(ArgumentMatchers.<RabbitOperations.OperationsCallback<Object>>any())).thenAnswer(invocation -> invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+    }
+
+    /**
+     * 按照Channel编号以及发布序号登记待确认的消息, 确认之后移除
+     */
+    @Test
+    public void testTrackByChannelPublishSeqNo() {
+        Mockito.when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        mockSend(0);
+        GXRabbitMQBatchPublisher publisher = publisher();
+        publisher.add(messages(3));
+        publisher.flush();
+
+        Assert.equals(List.of("7:1", "7:2", "7:3"), publishKeys);
+        Assert.equals(3, publisher.getPendingConfirmCount());
+        sentCorrelations.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        sentCorrelations.get(1).getFuture().complete(new CorrelationData.Confirm(true, null));
+        sentCorrelations.get(2).getFuture().complete(new CorrelationData.Confirm(false, "rejected"));
+
+        Dict stats = publisher.getStats();
+        Assert.equals(3L, stats.getLong("published"));
+        Assert.equals(2L, stats.getLong("ack"));
+        Assert.equals(1L, stats.getLong("nack"));
+        Assert.equals(0, publisher.getPendingConfirmCount());
+        publisher.close();
+    }
+
+    /**
+     * 发送到一半出错时只有未发送的消息计入失败, 已发送的消息仍然等待确认
+     */
+    @Test
+    public void testFailureMidBatch() {
+        Mockito.when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        mockSend(3);
+        GXRabbitMQBatchPublisher publisher = publisher();
+        List<GXRabbitMQMessageReqDto> messages = messages(5);
+        publisher.add(messages);
+        publisher.flush();
+
+        Dict stats = publisher.getStats();
+        Assert.equals(2L, stats.getLong("published"));
+        Assert.equals(3L, stats.getLong("failed"));
+        Assert.equals(2, publisher.getPendingConfirmCount());
+
+        sentCorrelations.forEach(correlationData -> correlationData.getFuture().complete(new CorrelationData.Confirm(true, null)));
+        // 发送失败的消息即使之后被确认也不计入统计
+        messages.get(2).getCorrelationData().getFuture().complete(new CorrelationData.Confirm(true, null));
+        stats = publisher.getStats();
+        Assert.equals(2L, stats.getLong("ack"));
+        Assert.equals(0L, stats.getLong("nack"));
+        Assert.equals(0, publisher.getPendingConfirmCount());
+        publisher.close();
+    }
+
+    /**
+     * 没有开启publisher confirms时不登记待确认的消息
+     */
+    @Test
+    public void testWithoutPublisherConfirms() {
+        Mockito.when(connectionFactory.isPublisherConfirms()).thenReturn(false);
+        mockSend(0);
+        GXRabbitMQBatchPublisher publisher = publisher();
+        publisher.add(messages(4));
+        publisher.close();
+
+        Assert.equals(4L, publisher.getStats().getLong("published"));
+        Assert.equals(0, publisher.getPendingConfirmCount());
+        Assert.isTrue(publishKeys.isEmpty());
+    }
+
+    /**
+     * 模拟发送消息
+     *
+     * @param failAt 第几次发送时抛出异常 0表示不出错
+     */
+    private void mockSend(int failAt) {
+        Mockito.doAnswer(invocation -> {
+            if (sendCalls.incrementAndGet() == failAt) {
+                throw new AmqpException("channel closed");
+            }
+            sentCorrelations.add(invocation.getArgument(3));
+            nextPublishSeqNo.incrementAndGet();
+            return null;
+        }).when(operations).send(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(Message.class), ArgumentMatchers.any(CorrelationData.class));
+    }
+
+    private GXRabbitMQBatchPublisher publisher() {
+        return new GXRabbitMQBatchPublisher(rabbitTemplate, messageReqDto -> new Message(new byte[0], new MessageProperties()), 100, 600000);
+    }
+
+    private static List<GXRabbitMQMessageReqDto> messages(int count) {
+        List<GXRabbitMQMessageReqDto> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GXRabbitMQMessageReqDto messageReqDto = new GXRabbitMQMessageReqDto();
+            messageReqDto.setExchange("exchange");
+            messageReqDto.setRoutingKey("key");
+            messages.add(messageReqDto);
+        }
+        return messages;
+    }
+}
@@ -3,7 +3,9 @@ package cn.maple.redisson.services;
 import cn.maple.core.framework.service.GXBaseCacheService;
 import org.redisson.api.RedissonClient;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public interface GXRedissonCacheService extends GXBaseCacheService {
     /**
@@ -63,4 +65,32 @@ public interface GXRedissonCacheService extends GXBaseCacheService {
      * @param bucketName 存储桶的名字
      */
     boolean deleteBucketAllData(String bucketName);
+
+    /**
+     * 批量获取缓存数据 一次网络往返
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     * @return 存在的缓存数据 不存在的key不会出现在结果中
+     */
+    Map<String, Object> getCaches(String bucketName, Collection<String> keys);
+
+    /**
+     * 批量设置缓存数据 一次网络往返
+     *
+     * @param bucketName 桶名字
+     * @param data       需要缓存的数据
+     * @param expired    过期时间 小于等于0表示永不过期
+     * @param timeUnit   时间单位
+     */
+    void setCaches(String bucketName, Map<String, Object> data, int expired, TimeUnit timeUnit);
+
+    /**
+     * 批量删除缓存数据 一次网络往返
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     * @return 实际删除的数量
+     */
+    long deleteCaches(String bucketName, Collection<String> keys);
 }
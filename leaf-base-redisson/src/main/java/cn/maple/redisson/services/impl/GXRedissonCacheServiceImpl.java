@@ -7,7 +7,10 @@ import cn.hutool.core.util.NumberUtil;
 import cn.maple.redisson.services.GXRedissonCacheService;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
 import org.redisson.api.RMapCache;
+import org.redisson.api.RMapCacheAsync;
 import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Service;
 
@@ -103,12 +106,11 @@ public class GXRedissonCacheServiceImpl implements GXRedissonCacheService {
      */
     @Override
     public Object deleteCache(String bucketName, String key) {
-        RMapCache<Object, Object> mapCache = redissonClient.getMapCache(bucketName);
-        if (Objects.nonNull(mapCache.get(key))) {
-            return mapCache.remove(key);
+        Object removed = redissonClient.getMapCache(bucketName).remove(key);
+        if (Objects.isNull(removed)) {
+            log.info("缓存key【{}】不存在", key);
         }
-        log.info("缓存key【{}】不存在", key);
-        return null;
+        return removed;
     }
 
     /**
@@ -277,4 +279,87 @@ public class GXRedissonCacheServiceImpl implements GXRedissonCacheService {
     public Map<Object, Object> getBucketAllData(String bucketName, int count) {
         return getBucketAllData(bucketName, count, null);
     }
+
+    /**
+     * 批量获取缓存数据 一次网络往返
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     * @return 存在的缓存数据 不存在的key不会出现在结果中
+     */
+    @Override
+    public Map<String, Object> getCaches(String bucketName, Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return Collections.emptyMap();
+        }
+        RMapCache<String, Object> mapCache = redissonClient.getMapCache(bucketName);
+        return mapCache.getAll(new HashSet<>(keys));
+    }
+
+    /**
+     * 批量获取缓存数据以及剩余的有效时长 所有的读取放在同一个批次中, 一次网络往返
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     * @return key -> (缓存值, 剩余的有效时长(毫秒) 没有过期时间时为-1) 不存在的key不会出现在结果中
+     */
+    public Map<String, Map.Entry<Object, Long>> getCachesWithTtl(String bucketName, Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return Collections.emptyMap();
+        }
+        RBatch batch = redissonClient.createBatch();
+        RMapCacheAsync<String, Object> mapCache = batch.getMapCache(bucketName);
+        Map<String, RFuture<Object>> valueFutures = new LinkedHashMap<>(keys.size());
+        Map<String, RFuture<Long>> ttlFutures = new HashMap<>(keys.size());
+        for (String key : new LinkedHashSet<>(keys)) {
+            valueFutures.put(key, mapCache.getAsync(key));
+            ttlFutures.put(key, mapCache.remainTimeToLiveAsync(key));
+        }
+        batch.execute();
+        Map<String, Map.Entry<Object, Long>> result = new HashMap<>(valueFutures.size());
+        valueFutures.forEach((key, valueFuture) -> {
+            Object value = valueFuture.toCompletableFuture().join();
+            if (Objects.nonNull(value)) {
+                result.put(key, new AbstractMap.SimpleImmutableEntry<>(value, ttlFutures.get(key).toCompletableFuture().join()));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 批量设置缓存数据 一次网络往返
+     *
+     * @param bucketName 桶名字
+     * @param data       需要缓存的数据
+     * @param expired    过期时间 小于等于0表示永不过期
+     * @param timeUnit   时间单位
+     */
+    @Override
+    public void setCaches(String bucketName, Map<String, Object> data, int expired, TimeUnit timeUnit) {
+        if (CollUtil.isEmpty(data)) {
+            return;
+        }
+        RMapCache<String, Object> mapCache = redissonClient.getMapCache(bucketName);
+        if (expired > 0) {
+            mapCache.putAll(data, expired, timeUnit);
+        } else {
+            mapCache.putAll(data);
+        }
+    }
+
+    /**
+     * 批量删除缓存数据 一次网络往返
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     * @return 实际删除的数量
+     */
+    @Override
+    public long deleteCaches(String bucketName, Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return 0L;
+        }
+        RMapCache<String, Object> mapCache = redissonClient.getMapCache(bucketName);
+        return mapCache.fastRemove(keys.toArray(new String[0]));
+    }
 }
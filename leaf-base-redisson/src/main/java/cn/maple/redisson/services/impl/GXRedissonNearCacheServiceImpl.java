@@ -0,0 +1,556 @@
+package cn.maple.redisson.services.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONUtil;
+import cn.maple.core.framework.util.GXCaffeineCacheUtils;
+import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.redisson.services.GXRedissonCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存服务
+ * <p>
+ * L1 为本地Caffeine缓存, L2 为Redisson的RMapCache.
+ * 读操作优先读取L1, 未命中再通过一次网络往返读取L2的数据以及剩余有效时长, 按照L2的剩余有效时长回填L1;
+ * 写操作先写L2, 然后通过Redisson主题广播失效消息, 其他节点收到之后删除自己的L1数据, 保证各节点的L1与L2一致.
+ * 回填L1与失效消息之间存在竞争(读取L2之后、回填L1之前收到失效消息), 所以每个key都有一个失效代数:
+ * 读取L2之前记录代数, 回填之后再次检查, 代数变化说明期间有失效或者更新的写入, 撤销本次回填.
+ * <p>
+ * 需要配置 maple.framework.cache.near.enabled=true 开启, 开启之后作为默认的GXBaseCacheService以及GXRedissonCacheService,
+ * 直接注入GXRedissonCacheService的写入方同样会广播失效消息.
+ * L1的spec可以通过 maple.framework.cache.near.spec 配置, 默认 maximumSize=10000,expireAfterWrite=60s
+ * <p>
+ * 注意: L1中保存的是对象引用, 调用方不要修改从缓存中获取的对象
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "maple.framework.cache.near.enabled", havingValue = "true")
+public class GXRedissonNearCacheServiceImpl implements GXRedissonCacheService, InitializingBean, DisposableBean {
+    /**
+     * 失效消息的主题名字
+     */
+    private static final String INVALIDATE_TOPIC_NAME = "mapleaf:near-cache:invalidate";
+
+    /**
+     * 默认的L1 spec
+     */
+    private static final String DEFAULT_SPEC = "maximumSize=10000,expireAfterWrite=60s";
+
+    /**
+     * key失效代数的分段数量 必须是2的幂
+     */
+    private static final int GENERATION_STRIPES = 4096;
+
+    /**
+     * 当前节点的标识 用于忽略自己发出的失效消息
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /**
+     * 每个桶对应的L1缓存
+     */
+    private final Map<String, Cache<String, NearValue>> localCaches = new ConcurrentHashMap<>();
+
+    /**
+     * 每个key的失效代数 按照桶名字以及key的哈希分段, 不同key落在同一分段时只会多撤销一次回填
+     */
+    private final AtomicLongArray keyGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * 每个桶的失效代数 整个桶失效时递增
+     */
+    private final Map<String, AtomicLong> bucketGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * L2 命中次数
+     */
+    private final LongAdder remoteHitCount = new LongAdder();
+
+    /**
+     * L2 未命中次数
+     */
+    private final LongAdder remoteMissCount = new LongAdder();
+
+    /**
+     * 收到的失效消息数量
+     */
+    private final LongAdder invalidateReceivedCount = new LongAdder();
+
+    /**
+     * L2 需要注入具体的实现类, GXRedissonCacheService类型的默认实现是当前类
+     */
+    @Resource
+    private GXRedissonCacheServiceImpl redissonCacheService;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 失效消息主题
+     */
+    private RTopic invalidateTopic;
+
+    /**
+     * 主题监听器的ID
+     */
+    private int listenerId;
+
+    /**
+     * L1 spec
+     */
+    private String spec;
+
+    @Override
+    public void afterPropertiesSet() {
+        spec = GXCommonUtils.getEnvironmentValue("maple.framework.cache.near.spec", String.class, DEFAULT_SPEC);
+        invalidateTopic = redissonClient.getTopic(INVALIDATE_TOPIC_NAME, StringCodec.INSTANCE);
+        listenerId = invalidateTopic.addListener(String.class, (channel, msg) -> onInvalidate(msg));
+        log.info("二级缓存初始化完成, 节点 : {} , L1 spec : {}", nodeId, spec);
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(invalidateTopic)) {
+            invalidateTopic.removeListener(listenerId);
+        }
+    }
+
+    @Override
+    public Object setCache(String bucketName, String key, Object value, int expired, TimeUnit timeUnit) {
+        long generation = bumpGeneration(bucketName, key);
+        Object retVal = redissonCacheService.setCache(bucketName, key, value, expired, timeUnit);
+        putLocal(bucketName, key, value, expired, timeUnit, generation);
+        publishInvalidate(bucketName, key);
+        return retVal;
+    }
+
+    @Override
+    public Object setCache(String bucketName, String key, Object value) {
+        return setCache(bucketName, key, value, 0, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public Object setCache(String bucketName, String key, String value, int expired, TimeUnit timeUnit) {
+        return setCache(bucketName, key, (Object) value, expired, timeUnit);
+    }
+
+    @Override
+    public Object setCache(String bucketName, String key, String value) {
+        return setCache(bucketName, key, (Object) value, 0, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public Object getCache(String bucketName, String key) {
+        Cache<String, NearValue> localCache = getLocalCache(bucketName);
+        NearValue nearValue = localCache.getIfPresent(key);
+        if (Objects.nonNull(nearValue)) {
+            if (!nearValue.isExpired()) {
+                return nearValue.value;
+            }
+            localCache.invalidate(key);
+        }
+        long generation = generation(bucketName, key);
+        Map.Entry<Object, Long> remoteEntry = redissonCacheService.getCachesWithTtl(bucketName, Collections.singletonList(key)).get(key);
+        if (Objects.isNull(remoteEntry)) {
+            remoteMissCount.increment();
+            return null;
+        }
+        remoteHitCount.increment();
+        putRemoteEntry(bucketName, key, remoteEntry, generation);
+        return remoteEntry.getKey();
+    }
+
+    @Override
+    public Object deleteCache(String bucketName, String key) {
+        bumpGeneration(bucketName, key);
+        getLocalCache(bucketName).invalidate(key);
+        Object retVal = redissonCacheService.deleteCache(bucketName, key);
+        publishInvalidate(bucketName, key);
+        return retVal;
+    }
+
+    /**
+     * 批量获取缓存数据
+     * 先读取L1, 未命中的key通过一次网络往返从L2读取数据以及剩余有效时长, 并按照剩余有效时长回填L1
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     * @return 存在的缓存数据 不存在的key不会出现在结果中
+     */
+    @Override
+    public Map<String, Object> getCaches(String bucketName, Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return Collections.emptyMap();
+        }
+        Cache<String, NearValue> localCache = getLocalCache(bucketName);
+        Map<String, Object> result = new HashMap<>(keys.size());
+        Map<String, Long> missKeyGenerations = new HashMap<>();
+        for (String key : keys) {
+            NearValue nearValue = localCache.getIfPresent(key);
+            if (Objects.nonNull(nearValue) && !nearValue.isExpired()) {
+                result.put(key, nearValue.value);
+            } else {
+                missKeyGenerations.put(key, generation(bucketName, key));
+            }
+        }
+        if (missKeyGenerations.isEmpty()) {
+            return result;
+        }
+        Map<String, Map.Entry<Object, Long>> remoteData = redissonCacheService.getCachesWithTtl(bucketName, missKeyGenerations.keySet());
+        remoteHitCount.add(remoteData.size());
+        remoteMissCount.add(missKeyGenerations.size() - (long) remoteData.size());
+        remoteData.forEach((key, remoteEntry) -> {
+            putRemoteEntry(bucketName, key, remoteEntry, missKeyGenerations.get(key));
+            result.put(key, remoteEntry.getKey());
+        });
+        return result;
+    }
+
+    /**
+     * 批量设置缓存数据
+     * 写入L2之后写入本地L1, 并通过一条失效消息通知其他节点删除这些key
+     *
+     * @param bucketName 桶名字
+     * @param data       需要缓存的数据
+     * @param expired    过期时间 小于等于0表示永不过期
+     * @param timeUnit   时间单位
+     */
+    @Override
+    public void setCaches(String bucketName, Map<String, Object> data, int expired, TimeUnit timeUnit) {
+        if (CollUtil.isEmpty(data)) {
+            return;
+        }
+        Map<String, Long> generations = new HashMap<>(data.size());
+        data.keySet().forEach(key -> generations.put(key, bumpGeneration(bucketName, key)));
+        redissonCacheService.setCaches(bucketName, data, expired, timeUnit);
+        data.forEach((key, value) -> putLocal(bucketName, key, value, expired, timeUnit, generations.get(key)));
+        publishInvalidate(bucketName, data.keySet());
+    }
+
+    /**
+     * 批量删除缓存数据
+     * 删除L1以及L2中的数据, 并通过一条失效消息通知其他节点删除这些key
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     * @return L2中实际删除的数量
+     */
+    @Override
+    public long deleteCaches(String bucketName, Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return 0L;
+        }
+        keys.forEach(key -> bumpGeneration(bucketName, key));
+        getLocalCache(bucketName).invalidateAll(keys);
+        long deleted = redissonCacheService.deleteCaches(bucketName, keys);
+        publishInvalidate(bucketName, keys);
+        return deleted;
+    }
+
+    @Override
+    public Long getCacheRemainTimeToLive(String bucketName, String keyName) {
+        return redissonCacheService.getCacheRemainTimeToLive(bucketName, keyName);
+    }
+
+    @Override
+    public boolean updateCacheExpiredTime(String bucketName, String keyName, Integer expired, Integer refreshThreshold) {
+        // 过期时间变化之后L1中记录的过期时间已经不准确 直接删除
+        bumpGeneration(bucketName, keyName);
+        getLocalCache(bucketName).invalidate(keyName);
+        boolean retVal = redissonCacheService.updateCacheExpiredTime(bucketName, keyName, expired, refreshThreshold);
+        publishInvalidate(bucketName, keyName);
+        return retVal;
+    }
+
+    @Override
+    public void clear(String bucketName) {
+        bumpBucketGeneration(bucketName);
+        getLocalCache(bucketName).invalidateAll();
+        redissonCacheService.clear(bucketName);
+        publishInvalidate(bucketName, (String) null);
+    }
+
+    @Override
+    public RedissonClient getRedissonClient() {
+        return redissonCacheService.getRedissonClient();
+    }
+
+    @Override
+    public Map<Object, Object> getBucketAllData(String bucketName) {
+        return redissonCacheService.getBucketAllData(bucketName);
+    }
+
+    @Override
+    public Map<Object, Object> getBucketAllData(String bucketName, int count) {
+        return redissonCacheService.getBucketAllData(bucketName, count);
+    }
+
+    @Override
+    public Map<Object, Object> getBucketAllData(String bucketName, int count, String pattern) {
+        return redissonCacheService.getBucketAllData(bucketName, count, pattern);
+    }
+
+    @Override
+    public void setBucketAllData(String bucketName, Map<Object, Object> data) {
+        bumpBucketGeneration(bucketName);
+        getLocalCache(bucketName).invalidateAll();
+        redissonCacheService.setBucketAllData(bucketName, data);
+        publishInvalidate(bucketName, (String) null);
+    }
+
+    @Override
+    public void setBucketAllData(String bucketName, Map<Object, Object> data, int batchSize) {
+        bumpBucketGeneration(bucketName);
+        getLocalCache(bucketName).invalidateAll();
+        redissonCacheService.setBucketAllData(bucketName, data, batchSize);
+        publishInvalidate(bucketName, (String) null);
+    }
+
+    @Override
+    public boolean deleteBucketAllData(String bucketName) {
+        bumpBucketGeneration(bucketName);
+        getLocalCache(bucketName).invalidateAll();
+        boolean retVal = redissonCacheService.deleteBucketAllData(bucketName);
+        publishInvalidate(bucketName, (String) null);
+        return retVal;
+    }
+
+    @Override
+    public Integer size(String bucketName) {
+        return redissonCacheService.size(bucketName);
+    }
+
+    @Override
+    public boolean exists(String bucketName, String key) {
+        return Objects.nonNull(getCache(bucketName, key));
+    }
+
+    /**
+     * 获取各层缓存的统计信息
+     *
+     * @return Dict
+     */
+    public Dict getTierStats() {
+        long l1Hit = 0;
+        long l1Miss = 0;
+        for (Cache<String, NearValue> cache : localCaches.values()) {
+            l1Hit += cache.stats().hitCount();
+            l1Miss += cache.stats().missCount();
+        }
+        long l2Hit = remoteHitCount.sum();
+        long l2Miss = remoteMissCount.sum();
+        return Dict.create()
+                .set("l1HitCount", l1Hit)
+                .set("l1MissCount", l1Miss)
+                .set("l1HitRate", ratio(l1Hit, l1Miss))
+                .set("l2HitCount", l2Hit)
+                .set("l2MissCount", l2Miss)
+                .set("l2HitRate", ratio(l2Hit, l2Miss))
+                .set("invalidateReceived", invalidateReceivedCount.sum())
+                .set("buckets", localCaches.keySet());
+    }
+
+    /**
+     * 获取指定桶的本地缓存
+     *
+     * @param bucketName 桶名字
+     * @return Cache
+     */
+    private Cache<String, NearValue> getLocalCache(String bucketName) {
+        return localCaches.computeIfAbsent(bucketName, name -> {
+            Caffeine<Object, Object> caffeine = Caffeine.from(spec);
+            if (!CharSequenceUtil.contains(spec, "recordStats")) {
+                caffeine.recordStats();
+            }
+            Cache<String, NearValue> cache = caffeine.build();
+            GXCaffeineCacheUtils.registerMetrics("near-cache:" + name, cache);
+            return cache;
+        });
+    }
+
+    /**
+     * 写入本地缓存
+     * 写入之后再次检查失效代数, 代数变化说明期间收到了失效消息或者有更新的写入, 撤销本次写入
+     *
+     * @param bucketName 桶名字
+     * @param key        缓存key
+     * @param value      缓存值
+     * @param expired    过期时间 小于等于0表示跟随L1的默认配置
+     * @param timeUnit   时间单位
+     * @param generation 读取或者写入L2之前的失效代数
+     */
+    private void putLocal(String bucketName, String key, Object value, long expired, TimeUnit timeUnit, long generation) {
+        if (Objects.isNull(value)) {
+            return;
+        }
+        long expireAt = expired > 0 ? System.nanoTime() + timeUnit.toNanos(expired) : 0L;
+        NearValue nearValue = new NearValue(value, expireAt);
+        Cache<String, NearValue> localCache = getLocalCache(bucketName);
+        localCache.put(key, nearValue);
+        if (generation(bucketName, key) != generation) {
+            localCache.asMap().remove(key, nearValue);
+        }
+    }
+
+    /**
+     * 使用从L2读取的数据回填L1, L1的过期时间与L2的剩余有效时长一致
+     * L2中没有过期时间(-1)时跟随L1的默认配置, 已经过期或者即将过期时不回填
+     *
+     * @param bucketName  桶名字
+     * @param key         缓存key
+     * @param remoteEntry L2中的数据以及剩余有效时长(毫秒)
+     * @param generation  读取L2之前的失效代数
+     */
+    private void putRemoteEntry(String bucketName, String key, Map.Entry<Object, Long> remoteEntry, long generation) {
+        long remainTtl = Objects.isNull(remoteEntry.getValue()) ? -1L : remoteEntry.getValue();
+        if (remainTtl == -1L) {
+            putLocal(bucketName, key, remoteEntry.getKey(), 0L, TimeUnit.MILLISECONDS, generation);
+        } else if (remainTtl > 0) {
+            putLocal(bucketName, key, remoteEntry.getKey(), remainTtl, TimeUnit.MILLISECONDS, generation);
+        }
+    }
+
+    /**
+     * 获取key当前的失效代数
+     *
+     * @param bucketName 桶名字
+     * @param key        缓存key
+     * @return 失效代数
+     */
+    private long generation(String bucketName, String key) {
+        return keyGenerations.get(stripe(bucketName, key)) + bucketGeneration(bucketName).get();
+    }
+
+    /**
+     * 递增key的失效代数 需要在修改L2或者删除L1之前调用
+     *
+     * @param bucketName 桶名字
+     * @param key        缓存key
+     * @return 递增之后的失效代数
+     */
+    private long bumpGeneration(String bucketName, String key) {
+        keyGenerations.incrementAndGet(stripe(bucketName, key));
+        return generation(bucketName, key);
+    }
+
+    private void bumpBucketGeneration(String bucketName) {
+        bucketGeneration(bucketName).incrementAndGet();
+    }
+
+    private AtomicLong bucketGeneration(String bucketName) {
+        return bucketGenerations.computeIfAbsent(bucketName, name -> new AtomicLong());
+    }
+
+    private static int stripe(String bucketName, String key) {
+        int hash = 31 * Objects.hashCode(bucketName) + Objects.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * 广播失效消息
+     *
+     * @param bucketName 桶名字
+     * @param key        缓存key 为null表示整个桶
+     */
+    private void publishInvalidate(String bucketName, String key) {
+        publishInvalidate(Dict.create().set("node", nodeId).set("bucket", bucketName).set("key", key));
+    }
+
+    /**
+     * 广播批量失效消息
+     *
+     * @param bucketName 桶名字
+     * @param keys       缓存key列表
+     */
+    private void publishInvalidate(String bucketName, Collection<String> keys) {
+        publishInvalidate(Dict.create().set("node", nodeId).set("bucket", bucketName).set("keys", keys));
+    }
+
+    private void publishInvalidate(Dict message) {
+        try {
+            invalidateTopic.publish(JSONUtil.toJsonStr(message));
+        } catch (RuntimeException e) {
+            log.error("二级缓存失效消息发送失败 bucket : {} , 错误信息 : {}", message.getStr("bucket"), e.getMessage());
+        }
+    }
+
+    /**
+     * 处理其他节点发送的失效消息
+     *
+     * @param msg 消息内容
+     */
+    private void onInvalidate(String msg) {
+        Dict data = JSONUtil.toBean(msg, Dict.class);
+        if (Objects.equals(nodeId, data.getStr("node"))) {
+            return;
+        }
+        invalidateReceivedCount.increment();
+        String bucketName = data.getStr("bucket");
+        List<String> keys = data.getBean("keys");
+        String key = data.getStr("key");
+        // 先递增代数再删除L1, 正在回填的请求会撤销回填
+        if (Objects.nonNull(keys)) {
+            keys.forEach(k -> bumpGeneration(bucketName, k));
+        } else if (Objects.isNull(key)) {
+            bumpBucketGeneration(bucketName);
+        } else {
+            bumpGeneration(bucketName, key);
+        }
+        Cache<String, NearValue> cache = localCaches.get(bucketName);
+        if (Objects.isNull(cache)) {
+            return;
+        }
+        if (Objects.nonNull(keys)) {
+            cache.invalidateAll(keys);
+        } else if (Objects.isNull(key)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    private static double ratio(long hit, long miss) {
+        long total = hit + miss;
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    /**
+     * L1中保存的数据 同时记录L2的过期时间点
+     */
+    private static class NearValue {
+        private final Object value;
+
+        private final long expireAtNanos;
+
+        NearValue(Object value, long expireAtNanos) {
+            this.value = value;
+            this.expireAtNanos = expireAtNanos;
+        }
+
+        boolean isExpired() {
+            return expireAtNanos > 0 && System.nanoTime() - expireAtNanos >= 0;
+        }
+    }
+}
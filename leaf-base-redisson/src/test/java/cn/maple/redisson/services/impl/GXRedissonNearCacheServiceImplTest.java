@@ -0,0 +1,216 @@
+package cn.maple.redisson.services.impl;
+
+import cn.hutool.core.lang.Assert;
+import cn.maple.core.framework.config.aware.GXApplicationContextSingleton;
+import cn.maple.redisson.services.GXRedissonCacheService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 两个节点共享同一个L2以及失效主题时的一致性
+ * L2以及主题使用内存实现, 主题同步分发消息
+ */
+public class GXRedissonNearCacheServiceImplTest {
+    private static final String BUCKET = "user";
+
+    private final Map<String, Map<Object, Object>> store = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> remoteTtls = new ConcurrentHashMap<>();
+
+    private final AtomicReference<Runnable> afterRemoteRead = new AtomicReference<>();
+
+    private GXRedissonCacheServiceImpl remote;
+
+    private GXRedissonNearCacheServiceImpl nodeA;
+
+    private GXRedissonNearCacheServiceImpl nodeB;
+
+    @BeforeAll
+    public static void initContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        GXApplicationContextSingleton.INSTANCE.setApplicationContext(context);
+    }
+
+    @BeforeEach
+    public void initNodes() {
+        remote = remoteCache();
+        RedissonClient redissonClient = redissonClient();
+        nodeA = node(remote, redissonClient);
+        nodeB = node(remote, redissonClient);
+    }
+
+    /**
+     * 一个节点写入之后另一个节点不再读取旧的L1数据
+     */
+    @Test
+    public void testWriteInvalidatesOtherNode() {
+        nodeA.setCache(BUCKET, "1", "v1");
+        Assert.equals("v1", nodeB.getCache(BUCKET, "1"));
+        nodeA.setCache(BUCKET, "1", "v2");
+        Assert.equals("v2", nodeB.getCache(BUCKET, "1"));
+        nodeA.deleteCache(BUCKET, "1");
+        Assert.isNull(nodeB.getCache(BUCKET, "1"));
+    }
+
+    /**
+     * 读取L2之后、回填L1之前收到失效消息时撤销回填
+     */
+    @Test
+    public void testInvalidateDuringBackfill() {
+        nodeA.setCache(BUCKET, "1", "v1");
+        afterRemoteRead.set(() -> nodeA.setCache(BUCKET, "1", "v2"));
+        Assert.equals("v1", nodeB.getCache(BUCKET, "1"));
+        Assert.equals("v2", nodeB.getCache(BUCKET, "1"));
+    }
+
+    /**
+     * 批量读取时同样撤销被失效的回填
+     */
+    @Test
+    public void testBatchInvalidateDuringBackfill() {
+        nodeA.setCaches(BUCKET, Map.<String, Object>of("1", "v1", "2", "v1"), 0, TimeUnit.SECONDS);
+        afterRemoteRead.set(() -> nodeA.setCaches(BUCKET, Map.<String, Object>of("1", "v2"), 0, TimeUnit.SECONDS));
+        Assert.equals(2, nodeB.getCaches(BUCKET, List.of("1", "2")).size());
+        Map<String, Object> caches = nodeB.getCaches(BUCKET, List.of("1", "2"));
+        Assert.equals("v2", caches.get("1"));
+        Assert.equals("v1", caches.get("2"));
+        nodeA.deleteCaches(BUCKET, List.of("1", "2"));
+        Assert.isTrue(nodeB.getCaches(BUCKET, List.of("1", "2")).isEmpty());
+    }
+
+    /**
+     * 直接注入GXRedissonCacheService的写入方也会使其他节点的L1失效
+     */
+    @Test
+    public void testBucketWriteThroughServiceInterface() {
+        GXRedissonCacheService cacheService = nodeA;
+        cacheService.setCache(BUCKET, "1", "v1");
+        Assert.equals("v1", nodeB.getCache(BUCKET, "1"));
+        cacheService.setBucketAllData(BUCKET, Map.<Object, Object>of("1", "v2"));
+        Assert.equals("v2", nodeB.getCache(BUCKET, "1"));
+        cacheService.deleteBucketAllData(BUCKET);
+        Assert.isNull(nodeB.getCache(BUCKET, "1"));
+    }
+
+    /**
+     * 回填L1时使用L2的剩余有效时长, 单个以及批量读取都只访问一次L2
+     */
+    @Test
+    public void testBackfillUsesRemoteTtl() throws InterruptedException {
+        bucket(BUCKET).put("1", "v1");
+        bucket(BUCKET).put("2", "v1");
+        remoteTtls.put("1", 50L);
+        remoteTtls.put("2", 50L);
+        Assert.equals("v1", nodeB.getCache(BUCKET, "1"));
+        Assert.equals(2, nodeB.getCaches(BUCKET, List.of("1", "2")).size());
+        // 不经过缓存服务直接修改L2, L1过期之前仍然返回旧数据
+        bucket(BUCKET).put("1", "v2");
+        bucket(BUCKET).put("2", "v2");
+        Assert.equals("v1", nodeB.getCache(BUCKET, "1"));
+        Assert.equals("v1", nodeB.getCaches(BUCKET, List.of("2")).get("2"));
+        TimeUnit.MILLISECONDS.sleep(80);
+        Assert.equals("v2", nodeB.getCache(BUCKET, "1"));
+        Assert.equals("v2", nodeB.getCaches(BUCKET, List.of("2")).get("2"));
+        Mockito.verify(remote, Mockito.never()).getCacheRemainTimeToLive(ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+        Mockito.verify(remote, Mockito.times(4)).getCachesWithTtl(ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection());
+    }
+
+    private static GXRedissonNearCacheServiceImpl node(GXRedissonCacheServiceImpl remote, RedissonClient redissonClient) {
+        GXRedissonNearCacheServiceImpl node = new GXRedissonNearCacheServiceImpl();
+        ReflectionTestUtils.setField(node, "redissonCacheService", remote);
+        ReflectionTestUtils.setField(node, "redissonClient", redissonClient);
+        node.afterPropertiesSet();
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedissonClient redissonClient() {
+        List<MessageListener<String>> listeners = new CopyOnWriteArrayList<>();
+        RTopic topic = Mockito.mock(RTopic.class);
+        Mockito.when(topic.addListener(ArgumentMatchers.eq(String.class), ArgumentMatchers.any())).thenAnswer(invocation -> {
+            listeners.add(invocation.getArgument(1));
+            return listeners.size();
+        });
+        Mockito.when(topic.publish(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            listeners.forEach(listener -> listener.onMessage("topic", invocation.getArgument(0)));
+            return (long) listeners.size();
+        });
+        RedissonClient redissonClient = Mockito.mock(RedissonClient.class);
+        Mockito.when(redissonClient.getTopic(ArgumentMatchers.anyString(), ArgumentMatchers.any(Codec.class))).thenReturn(topic);
+        return redissonClient;
+    }
+
+    private GXRedissonCacheServiceImpl remoteCache() {
+        GXRedissonCacheServiceImpl remote = Mockito.mock(GXRedissonCacheServiceImpl.class);
+        Mockito.when(remote.setCache(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(Object.class), ArgumentMatchers.anyInt(), ArgumentMatchers.any(TimeUnit.class))).thenAnswer(invocation -> {
+            bucket(invocation.getArgument(0)).put(invocation.getArgument(1), invocation.getArgument(2));
+            return true;
+        });
+        Mockito.when(remote.getCache(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenAnswer(invocation -> {
+            Object value = bucket(invocation.getArgument(0)).get(invocation.getArgument(1));
+            runAfterRemoteRead();
+            return value;
+        });
+        Mockito.when(remote.getCacheRemainTimeToLive(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenReturn(-1L);
+        Mockito.when(remote.deleteCache(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenAnswer(invocation -> bucket(invocation.getArgument(0)).remove(invocation.getArgument(1)));
+        Mockito.when(remote.getCachesWithTtl(ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection())).thenAnswer(invocation -> {
+            Map<Object, Object> bucket = bucket(invocation.getArgument(0));
+            Map<String, Map.Entry<Object, Long>> result = new HashMap<>();
+            for (String key : invocation.<Collection<String>>getArgument(1)) {
+                Optional.ofNullable(bucket.get(key)).ifPresent(value -> result.put(key, new AbstractMap.SimpleImmutableEntry<>(value, remoteTtls.getOrDefault(key, -1L))));
+            }
+            runAfterRemoteRead();
+            return result;
+        });
+        Mockito.when(remote.getCaches(ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection())).thenAnswer(invocation -> {
+            Map<Object, Object> bucket = bucket(invocation.getArgument(0));
+            Map<String, Object> result = new HashMap<>();
+            for (String key : invocation.<Collection<String>>getArgument(1)) {
+                Optional.ofNullable(bucket.get(key)).ifPresent(value -> result.put(key, value));
+            }
+            runAfterRemoteRead();
+            return result;
+        });
+        Mockito.doAnswer(invocation -> {
+            bucket(invocation.getArgument(0)).putAll(invocation.<Map<String, Object>>getArgument(1));
+            return null;
+        }).when(remote).setCaches(ArgumentMatchers.anyString(), ArgumentMatchers.anyMap(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(TimeUnit.class));
+        Mockito.when(remote.deleteCaches(ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection())).thenAnswer(invocation -> {
+            Map<Object, Object> bucket = bucket(invocation.getArgument(0));
+            return invocation.<Collection<String>>getArgument(1).stream().filter(key -> Objects.nonNull(bucket.remove(key))).count();
+        });
+        Mockito.doAnswer(invocation -> {
+            bucket(invocation.getArgument(0)).putAll(invocation.<Map<Object, Object>>getArgument(1));
+            return null;
+        }).when(remote).setBucketAllData(ArgumentMatchers.anyString(), ArgumentMatchers.anyMap());
+        Mockito.when(remote.deleteBucketAllData(ArgumentMatchers.anyString())).thenAnswer(invocation -> Objects.nonNull(store.remove(invocation.<String>getArgument(0))));
+        return remote;
+    }
+
+    private Map<Object, Object> bucket(String bucketName) {
+        return store.computeIfAbsent(bucketName, name -> new ConcurrentHashMap<>());
+    }
+
+    private void runAfterRemoteRead() {
+        Runnable runnable = afterRemoteRead.getAndSet(null);
+        if (Objects.nonNull(runnable)) {
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package cn.maple.sse.broadcast;
+
+import cn.hutool.core.lang.Dict;
+import cn.hutool.core.util.ObjectUtil;
+import cn.maple.core.framework.util.GXSpringContextUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSE消息广播器
+ * <p>
+ * 每个客户端拥有一个有界的发送队列, 广播时事件只构建(序列化)一次, 然后放入每个客户端的队列中立即返回,
+ * 由线程池异步把队列中的事件写给客户端, 同一个客户端同一时间只有一个线程在写, 保证事件的顺序。
+ * 客户端处理过慢导致队列已满时, 按照GXSlowConsumerPolicy处理。
+ * 线程池拒绝发送任务时不在调用线程中发送(避免慢客户端阻塞广播线程), 只记录拒绝次数,
+ * 事件留在客户端队列中, 下一次向该客户端发送事件时重新调度。
+ */
+@Slf4j
+public class GXSseBroadcaster {
+    /**
+     * 客户端ID -> 客户端
+     */
+    private final Map<String, GXSseClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * 主题 -> 订阅的客户端ID
+     */
+    private final Map<String, Set<String>> topicSubscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 向客户端写消息的线程池
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 每个客户端的队列容量
+     */
+    private final int queueCapacity;
+
+    /**
+     * 客户端队列已满时的处理策略
+     */
+    private final GXSlowConsumerPolicy slowConsumerPolicy;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final AtomicLong disconnectedCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private Timer sendTimer;
+
+    private Counter droppedCounter;
+
+    private Counter rejectedCounter;
+
+    public GXSseBroadcaster(ExecutorService executor, int queueCapacity, GXSlowConsumerPolicy slowConsumerPolicy) {
+        this.executor = executor;
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        registerMetrics();
+    }
+
+    /**
+     * 将事件构建为可以直接写出的数据
+     * 数据只序列化一次, 发送给多个客户端时共用
+     *
+     * @param data          数据
+     * @param id            事件ID
+     * @param eventName     事件名字
+     * @param comment       事件注释
+     * @param reconnectTime 重新连接时间
+     * @return 可以直接写出的数据
+     */
+    public static Set<ResponseBodyEmitter.DataWithMediaType> buildEvent(String data, String id, String eventName, String comment, long reconnectTime) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().data(data, MediaType.APPLICATION_JSON);
+        if (ObjectUtil.isNotNull(id)) {
+            builder.id(id);
+        }
+        if (ObjectUtil.isNotNull(eventName)) {
+            builder.name(eventName);
+        }
+        if (ObjectUtil.isNotNull(comment)) {
+            builder.comment(comment);
+        }
+        if (reconnectTime > 0) {
+            builder.reconnectTime(reconnectTime);
+        }
+        return Collections.unmodifiableSet(builder.build());
+    }
+
+    /**
+     * 注册客户端
+     * 同一个客户端ID已经存在连接时, 关闭之前的连接
+     *
+     * @param clientId   客户端ID
+     * @param sseEmitter 客户端的SseEmitter
+     */
+    public void register(String clientId, SseEmitter sseEmitter) {
+        GXSseClient client = new GXSseClient(clientId, sseEmitter);
+        GXSseClient previous = clients.put(clientId, client);
+        if (ObjectUtil.isNotNull(previous) && previous.emitter != sseEmitter) {
+            // 同一个客户端重新连接时保留之前的订阅
+            client.topics.addAll(previous.topics);
+            previous.close();
+        }
+    }
+
+    /**
+     * 移除客户端以及客户端的订阅
+     *
+     * @param clientId 客户端ID
+     */
+    public void unregister(String clientId) {
+        GXSseClient client = clients.get(clientId);
+        if (ObjectUtil.isNotNull(client)) {
+            remove(client);
+        }
+    }
+
+    /**
+     * 移除客户端以及客户端的订阅
+     * 只有当前注册的SseEmitter与参数相同时才移除, 避免旧连接的回调把同一个客户端ID的新连接移除
+     *
+     * @param clientId   客户端ID
+     * @param sseEmitter 客户端的SseEmitter
+     */
+    public void unregister(String clientId, SseEmitter sseEmitter) {
+        GXSseClient client = clients.get(clientId);
+        if (ObjectUtil.isNotNull(client) && client.emitter == sseEmitter) {
+            remove(client);
+        }
+    }
+
+    /**
+     * 获取客户端的SseEmitter
+     *
+     * @param clientId 客户端ID
+     * @return 客户端不存在时返回null
+     */
+    public SseEmitter getEmitter(String clientId) {
+        GXSseClient client = clients.get(clientId);
+        return ObjectUtil.isNull(client) ? null : client.emitter;
+    }
+
+    /**
+     * 订阅主题
+     *
+     * @param clientId 客户端ID
+     * @param topic    主题
+     */
+    public void subscribe(String clientId, String topic) {
+        GXSseClient client = clients.get(clientId);
+        if (ObjectUtil.isNull(client)) {
+            return;
+        }
+        client.topics.add(topic);
+        topicSubscribers.computeIfAbsent(topic, k -> ConcurrentHashMap.newKeySet()).add(clientId);
+    }
+
+    /**
+     * 取消订阅主题
+     *
+     * @param clientId 客户端ID
+     * @param topic    主题
+     */
+    public void unsubscribe(String clientId, String topic) {
+        GXSseClient client = clients.get(clientId);
+        if (ObjectUtil.isNotNull(client)) {
+            client.topics.remove(topic);
+        }
+        topicSubscribers.computeIfPresent(topic, (k, subscribers) -> {
+            subscribers.remove(clientId);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * 发送给所有客户端
+     *
+     * @param event 通过buildEvent构建的事件
+     */
+    public void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        long enqueuedNanos = System.nanoTime();
+        for (GXSseClient client : clients.values()) {
+            client.enqueue(event, enqueuedNanos);
+        }
+    }
+
+    /**
+     * 发送给订阅了主题的客户端
+     *
+     * @param topic 主题
+     * @param event 通过buildEvent构建的事件
+     */
+    public void publish(String topic, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        Set<String> subscribers = topicSubscribers.get(topic);
+        if (ObjectUtil.isNull(subscribers)) {
+            return;
+        }
+        long enqueuedNanos = System.nanoTime();
+        for (String clientId : subscribers) {
+            send(clientId, event, enqueuedNanos);
+        }
+    }
+
+    /**
+     * 发送给指定的客户端
+     *
+     * @param clientId 客户端ID
+     * @param event    通过buildEvent构建的事件
+     * @return 客户端不存在时返回false
+     */
+    public boolean send(String clientId, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        return send(clientId, event, System.nanoTime());
+    }
+
+    /**
+     * 获取统计信息
+     *
+     * @return Dict
+     */
+    public Dict getStats() {
+        return Dict.create()
+                .set("connections", clients.size())
+                .set("topics", topicSubscribers.size())
+                .set("dropped", droppedCount.get())
+                .set("disconnected", disconnectedCount.get())
+                .set("rejected", rejectedCount.get());
+    }
+
+    private void remove(GXSseClient client) {
+        if (!clients.remove(client.clientId, client)) {
+            return;
+        }
+        client.queue.clear();
+        for (String topic : client.topics) {
+            topicSubscribers.computeIfPresent(topic, (k, subscribers) -> {
+                subscribers.remove(client.clientId);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    private boolean send(String clientId, Set<ResponseBodyEmitter.DataWithMediaType> event, long enqueuedNanos) {
+        GXSseClient client = clients.get(clientId);
+        if (ObjectUtil.isNull(client)) {
+            return false;
+        }
+        client.enqueue(event, enqueuedNanos);
+        return true;
+    }
+
+    private void registerMetrics() {
+        try {
+            MeterRegistry meterRegistry = GXSpringContextUtils.getBean(MeterRegistry.class);
+            if (ObjectUtil.isNull(meterRegistry)) {
+                return;
+            }
+            Gauge.builder("maple.sse.connections", clients, Map::size).register(meterRegistry);
+            sendTimer = Timer.builder("maple.sse.send").register(meterRegistry);
+            droppedCounter = Counter.builder("maple.sse.dropped").register(meterRegistry);
+            rejectedCounter = Counter.builder("maple.sse.rejected").register(meterRegistry);
+        } catch (RuntimeException e) {
+            log.warn("SSE广播器注册监控指标失败 : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 客户端队列已满时的处理策略
+     */
+    public enum GXSlowConsumerPolicy {
+        /**
+         * 丢弃队列中最早的事件
+         */
+        DROP_OLDEST,
+
+        /**
+         * 丢弃新的事件
+         */
+        DROP_NEWEST,
+
+        /**
+         * 断开客户端连接
+         */
+        DISCONNECT
+    }
+
+    /**
+     * 队列中等待发送的事件
+     */
+    private static final class GXSseFrame {
+        private final Set<ResponseBodyEmitter.DataWithMediaType> event;
+
+        private final long enqueuedNanos;
+
+        GXSseFrame(Set<ResponseBodyEmitter.DataWithMediaType> event, long enqueuedNanos) {
+            this.event = event;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * 客户端
+     */
+    private final class GXSseClient {
+        private final String clientId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<GXSseFrame> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+        /**
+         * 是否已经有线程在写该客户端
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        GXSseClient(String clientId, SseEmitter emitter) {
+            this.clientId = clientId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> event, long enqueuedNanos) {
+            GXSseFrame frame = new GXSseFrame(event, enqueuedNanos);
+            if (!queue.offer(frame)) {
+                switch (slowConsumerPolicy) {
+                    case DISCONNECT:
+                        log.warn("SSE客户端{}处理过慢, 断开连接", clientId);
+                        disconnectedCount.incrementAndGet();
+                        close();
+                        return;
+                    case DROP_NEWEST:
+                        dropped();
+                        return;
+                    default:
+                        while (!queue.offer(frame)) {
+                            if (ObjectUtil.isNotNull(queue.poll())) {
+                                dropped();
+                            }
+                        }
+                }
+            }
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                    rejectedCount.incrementAndGet();
+                    if (ObjectUtil.isNotNull(rejectedCounter)) {
+                        rejectedCounter.increment();
+                    }
+                    log.debug("SSE客户端{}的发送任务被拒绝 : {}", clientId, e.getMessage());
+                }
+            }
+        }
+
+        void drain() {
+            try {
+                GXSseFrame frame;
+                while ((frame = queue.poll()) != null) {
+                    emitter.send(frame.event);
+                    if (ObjectUtil.isNotNull(sendTimer)) {
+                        sendTimer.record(System.nanoTime() - frame.enqueuedNanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.error("链接异常,向SSE客户端发送消息失败，客户端ID:{},异常信息:{}", clientId, e.getMessage());
+                remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty() && clients.get(clientId) == this) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            remove(this);
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("关闭SSE客户端{}失败 : {}", clientId, e.getMessage());
+            }
+        }
+
+        private void dropped() {
+            droppedCount.incrementAndGet();
+            if (ObjectUtil.isNotNull(droppedCounter)) {
+                droppedCounter.increment();
+            }
+        }
+    }
+}
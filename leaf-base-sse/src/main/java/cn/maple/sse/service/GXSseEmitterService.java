@@ -1,5 +1,6 @@
 package cn.maple.sse.service;
 
+import cn.hutool.core.lang.Dict;
 import cn.maple.core.framework.service.GXBusinessService;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -38,6 +39,37 @@ public interface GXSseEmitterService extends GXBusinessService {
      */
     void sendMessageToOneClient(String clientId, String msg);
 
+    /**
+     * 发送消息给订阅了主题的客户端
+     *
+     * @param topic 主题
+     * @param msg   消息内容
+     */
+    void sendMessageToTopic(String topic, String msg);
+
+    /**
+     * 客户端订阅主题
+     *
+     * @param clientId 客户端ID
+     * @param topic    主题
+     */
+    void subscribe(String clientId, String topic);
+
+    /**
+     * 客户端取消订阅主题
+     *
+     * @param clientId 客户端ID
+     * @param topic    主题
+     */
+    void unsubscribe(String clientId, String topic);
+
+    /**
+     * 获取连接数以及发送情况的统计信息
+     *
+     * @return Dict
+     */
+    Dict getStats();
+
     /**
      * 关闭连接
      *
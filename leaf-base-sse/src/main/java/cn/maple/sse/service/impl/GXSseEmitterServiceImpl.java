@@ -2,35 +2,50 @@ package cn.maple.sse.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.lang.Dict;
-import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.http.HttpStatus;
+import cn.hutool.json.JSONUtil;
 import cn.maple.core.framework.exception.GXBusinessException;
 import cn.maple.core.framework.service.impl.GXBusinessServiceImpl;
+import cn.maple.core.framework.util.GXCommonUtils;
+import cn.maple.core.framework.util.GXExecutorUtils;
+import cn.maple.sse.broadcast.GXSseBroadcaster;
 import cn.maple.sse.dto.GXSseMessageInnerReqDto;
 import cn.maple.sse.service.GXSseEmitterService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GXSseEmitterService {
     /**
-     * 容器，保存连接，用于输出返回 ;可使用其他方法实现
+     * 广播相关配置的前缀
+     * <pre>
+     * client-queue-capacity : 每个客户端等待发送的最大事件数量, 默认256
+     * slow-consumer-policy  : 客户端队列已满时的处理策略 drop-oldest(默认) / drop-newest / disconnect
+     * </pre>
+     * 发送线程池可以通过maple.framework.executor.sse-broadcast.*配置, 连接数较多时建议开启virtual
+     * 发送线程池默认使用abort策略, 线程池已满时不会占用广播线程, 事件留在客户端队列中等待下一次调度
      */
-    private static final Map<String, SseEmitter> SSE_CLIENT_CACHE = new ConcurrentHashMap<>();
+    private static final String SSE_CONFIG_PREFIX = "maple.sse.";
+
+    /**
+     * 保存连接以及每个连接的发送队列
+     */
+    private volatile GXSseBroadcaster sseBroadcaster;
 
     /**
      * SSE连接超时时间 单位: 秒
@@ -44,7 +59,7 @@ public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GX
      */
     @Override
     public SseEmitter getSseEmitterByClientId(String clientId) {
-        return SSE_CLIENT_CACHE.get(clientId);
+        return getSseBroadcaster().getEmitter(clientId);
     }
 
     /**
@@ -61,13 +76,11 @@ public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GX
             clientId = IdUtil.fastSimpleUUID();
         }
         // 1. 注册回调->长链接完成断开后回调接口(即关闭连接时调用)
-        sseEmitter.onCompletion(onCompletionCallBack(clientId));
+        sseEmitter.onCompletion(onCompletionCallBack(clientId, sseEmitter));
         // 2. 注册回调->连接超时回调
-        sseEmitter.onTimeout(onTimeoutCallBack(clientId));
+        sseEmitter.onTimeout(onTimeoutCallBack(clientId, sseEmitter));
         // 3. 注册回调->推送消息异常时回调
         sseEmitter.onError(onErrorCallBack(clientId));
-        SSE_CLIENT_CACHE.put(clientId, sseEmitter);
-        log.info("创建新的sse连接，当前用户：{}    累计用户:{}", clientId, SSE_CLIENT_CACHE.size());
         // 注册成功返回用户信息
         SseEmitter.SseEventBuilder sseEventBuilder = SseEmitter.event().id(String.valueOf(HttpStatus.HTTP_CREATED)).data(clientId, MediaType.APPLICATION_JSON);
         try {
@@ -75,25 +88,66 @@ public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GX
         } catch (IOException ex) {
             throw new GXBusinessException("创建SSE连接失败", ex);
         }
+        GXSseBroadcaster broadcaster = getSseBroadcaster();
+        broadcaster.register(clientId, sseEmitter);
+        log.info("创建新的sse连接，当前用户：{}    累计用户:{}", clientId, broadcaster.getStats().getInt("connections"));
         return sseEmitter;
     }
 
     /**
      * 发送消息给所有客户端
+     * 消息只序列化一次, 放入每个客户端的发送队列后立即返回
      *
      * @param msg 消息内容
      */
     @Override
     public void sendMessageToAllClient(String msg) {
-        if (MapUtil.isEmpty(SSE_CLIENT_CACHE)) {
-            return;
-        }
-        // 判断发送的消息是否为空
-        for (Map.Entry<String, SseEmitter> entry : SSE_CLIENT_CACHE.entrySet()) {
-            // TODO 如果消息过长 可以将消息拆分成小段分别发送给前端
-            GXSseMessageInnerReqDto messageDto = GXSseMessageInnerReqDto.builder().clientId(entry.getKey()).data(Dict.create().set("message", msg)).build();
-            sendMsgToClientByClientId(entry.getKey(), messageDto, entry.getValue());
-        }
+        GXSseMessageInnerReqDto messageDto = GXSseMessageInnerReqDto.builder().data(Dict.create().set("message", msg)).build();
+        getSseBroadcaster().broadcast(buildEvent(messageDto));
+    }
+
+    /**
+     * 发送消息给订阅了主题的客户端
+     *
+     * @param topic 主题
+     * @param msg   消息内容
+     */
+    @Override
+    public void sendMessageToTopic(String topic, String msg) {
+        GXSseMessageInnerReqDto messageDto = GXSseMessageInnerReqDto.builder().data(Dict.create().set("message", msg)).build();
+        getSseBroadcaster().publish(topic, buildEvent(messageDto));
+    }
+
+    /**
+     * 客户端订阅主题
+     *
+     * @param clientId 客户端ID
+     * @param topic    主题
+     */
+    @Override
+    public void subscribe(String clientId, String topic) {
+        getSseBroadcaster().subscribe(clientId, topic);
+    }
+
+    /**
+     * 客户端取消订阅主题
+     *
+     * @param clientId 客户端ID
+     * @param topic    主题
+     */
+    @Override
+    public void unsubscribe(String clientId, String topic) {
+        getSseBroadcaster().unsubscribe(clientId, topic);
+    }
+
+    /**
+     * 获取连接数以及发送情况的统计信息
+     *
+     * @return Dict
+     */
+    @Override
+    public Dict getStats() {
+        return getSseBroadcaster().getStats();
     }
 
     /**
@@ -108,7 +162,7 @@ public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GX
         List<String> msgLst = splitMessage(msg, RandomUtil.randomInt(1, 8));
         for (String message : msgLst) {
             GXSseMessageInnerReqDto messageVo = GXSseMessageInnerReqDto.builder().clientId(clientId).data(Dict.create().set("message", message)).build();
-            sendMsgToClientByClientId(clientId, messageVo, SSE_CLIENT_CACHE.get(clientId));
+            sendMsgToClientByClientId(clientId, messageVo);
         }
     }
 
@@ -119,10 +173,10 @@ public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GX
      */
     @Override
     public void closeConnect(String clientId) {
-        SseEmitter sseEmitter = SSE_CLIENT_CACHE.get(clientId);
+        SseEmitter sseEmitter = getSseBroadcaster().getEmitter(clientId);
         if (ObjectUtil.isNotNull(sseEmitter)) {
             sseEmitter.complete();
-            removeUser(clientId);
+            removeUser(clientId, sseEmitter);
         }
     }
 
@@ -133,36 +187,46 @@ public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GX
      * @param clientId   客户端ID
      * @param messageDto 推送信息，此处结合具体业务，定义自己的返回值即可
      **/
-    private void sendMsgToClientByClientId(String clientId, GXSseMessageInnerReqDto messageDto, SseEmitter sseEmitter) {
-        if (ObjectUtil.isNull(sseEmitter)) {
+    private void sendMsgToClientByClientId(String clientId, GXSseMessageInnerReqDto messageDto) {
+        messageDto.setComment(CharSequenceUtil.nullToEmpty(messageDto.getComment()) + ":" + clientId);
+        if (!getSseBroadcaster().send(clientId, buildEvent(messageDto))) {
             log.error("推送消息失败：客户端{}未创建长链接,失败消息:{}", clientId, messageDto.toString());
-            return;
         }
-        SseEmitter.SseEventBuilder sendData = SseEmitter.event().data(messageDto.getData(), MediaType.APPLICATION_JSON).id(messageDto.getMsgId()).comment(messageDto.getComment() + ":" + clientId).reconnectTime(messageDto.getReconnectTimeMillis()).name(messageDto.getEventName());
-        send(clientId, sseEmitter, sendData);
+    }
+
+    /**
+     * 将消息构建为可以直接写出的SSE事件
+     *
+     * @param messageDto 推送信息
+     * @return SSE事件
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> buildEvent(GXSseMessageInnerReqDto messageDto) {
+        return GXSseBroadcaster.buildEvent(JSONUtil.toJsonStr(messageDto.getData()), messageDto.getMsgId(), messageDto.getEventName(), messageDto.getComment(), messageDto.getReconnectTimeMillis());
     }
 
     /**
      * 长链接断开完成后回调接口(即关闭连接时调用)
      *
-     * @param clientId 客户端ID
+     * @param clientId   客户端ID
+     * @param sseEmitter sseEmitter对象
      **/
-    private Runnable onCompletionCallBack(String clientId) {
+    private Runnable onCompletionCallBack(String clientId, SseEmitter sseEmitter) {
         return () -> {
             log.info("结束连接：{}", clientId);
-            removeUser(clientId);
+            removeUser(clientId, sseEmitter);
         };
     }
 
     /**
      * 连接超时时调用
      *
-     * @param clientId 客户端ID
+     * @param clientId   客户端ID
+     * @param sseEmitter sseEmitter对象
      **/
-    private Runnable onTimeoutCallBack(String clientId) {
+    private Runnable onTimeoutCallBack(String clientId, SseEmitter sseEmitter) {
         return () -> {
             log.info("连接超时：{}", clientId);
-            removeUser(clientId);
+            removeUser(clientId, sseEmitter);
         };
     }
 
@@ -174,42 +238,44 @@ public class GXSseEmitterServiceImpl extends GXBusinessServiceImpl implements GX
     private Consumer<Throwable> onErrorCallBack(String clientId) {
         return throwable -> {
             log.error("GXSseEmitterServiceImpl[errorCallBack]：连接异常,客户端ID:{}", clientId);
-            SseEmitter sseEmitter = SSE_CLIENT_CACHE.get(clientId);
-            if (ObjectUtil.isNull(sseEmitter)) {
+            GXSseMessageInnerReqDto messageDto = GXSseMessageInnerReqDto.builder().clientId(clientId).data(Dict.create().set("message", "失败后重新推送")).build();
+            SseEmitter.SseEventBuilder sendData = SseEmitter.event().id(String.valueOf(HttpStatus.HTTP_OK)).data(JSONUtil.toJsonStr(messageDto), MediaType.APPLICATION_JSON);
+            if (!getSseBroadcaster().send(clientId, sendData.build())) {
                 log.error("客户端{}不存在长连接。", clientId);
-                return;
             }
-            GXSseMessageInnerReqDto messageDto = GXSseMessageInnerReqDto.builder().clientId(clientId).data(Dict.create().set("message", "失败后重新推送")).build();
-            SseEmitter.SseEventBuilder sendData = SseEmitter.event().id(String.valueOf(HttpStatus.HTTP_OK)).data(messageDto, MediaType.APPLICATION_JSON);
-            send(clientId, sseEmitter, sendData);
         };
     }
 
     /**
      * 移除用户连接
      *
-     * @param clientId 客户端ID
+     * @param clientId   客户端ID
+     * @param sseEmitter sseEmitter对象
      **/
-    private void removeUser(String clientId) {
-        SSE_CLIENT_CACHE.remove(clientId);
+    private void removeUser(String clientId, SseEmitter sseEmitter) {
+        getSseBroadcaster().unregister(clientId, sseEmitter);
         log.info("SseEmitterServiceImpl[removeUser]:移除用户：{}", clientId);
     }
 
     /**
-     * 统一发送消息
+     * 获取广播器
      *
-     * @param clientId        客户端ID
-     * @param sseEmitter      sseEmitter对象
-     * @param sseEventBuilder 事件参数构造构造器
+     * @return GXSseBroadcaster
      */
-    private void send(String clientId, SseEmitter sseEmitter, SseEmitter.SseEventBuilder sseEventBuilder) {
-        try {
-            sseEmitter.send(sseEventBuilder);
-            //closeConnect(clientId);
-        } catch (IOException e) {
-            // TODO 可以将发送失败的客户端放入MQ中  等待下一次发送 也可以直接将其移除
-            log.error("链接异常,向SSE客户端发送消息失败，客户端ID:{},异常信息:{}", clientId, e.getMessage());
+    private GXSseBroadcaster getSseBroadcaster() {
+        if (ObjectUtil.isNull(sseBroadcaster)) {
+            synchronized (this) {
+                if (ObjectUtil.isNull(sseBroadcaster)) {
+                    int cpuCoreNumber = Runtime.getRuntime().availableProcessors();
+                    ExecutorService executor = GXExecutorUtils.getExecutor("sse-broadcast", cpuCoreNumber, cpuCoreNumber * 4, 100000, "abort");
+                    int queueCapacity = GXCommonUtils.getEnvironmentValue(SSE_CONFIG_PREFIX + "client-queue-capacity", Integer.class, 256);
+                    String policy = GXCommonUtils.getEnvironmentValue(SSE_CONFIG_PREFIX + "slow-consumer-policy", String.class, "drop-oldest");
+                    GXSseBroadcaster.GXSlowConsumerPolicy slowConsumerPolicy = GXSseBroadcaster.GXSlowConsumerPolicy.valueOf(policy.trim().toUpperCase().replace('-', '_'));
+                    sseBroadcaster = new GXSseBroadcaster(executor, queueCapacity, slowConsumerPolicy);
+                }
+            }
         }
+        return sseBroadcaster;
     }
 
     /**